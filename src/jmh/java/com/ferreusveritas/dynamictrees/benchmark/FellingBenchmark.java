@@ -0,0 +1,102 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
+import com.ferreusveritas.dynamictrees.harness.FakeWorld;
+import com.ferreusveritas.dynamictrees.harness.TreeHarness;
+import com.ferreusveritas.dynamictrees.util.BranchDestructionData;
+
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Felling a whole generated tree at the base of the trunk with the leaves found from the endpoints
+ * of the felled branches and with the leaves found by scanning the whole volume of the tree.  The
+ * branches are taken down the same way by both so the difference is all in the leaves.  The tree
+ * is put back from a snapshot before every call.
+ *
+ * @author ferreusveritas
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FellingBenchmark {
+
+	@Param({"jungle", "darkoak"})
+	public String family;
+
+	@Param({"true", "false"})
+	public boolean fastLeavesDestruction;
+
+	private FakeWorld world;
+	private BlockBranch branch;
+	private BlockPos treePos;
+	private FakeWorld.Snapshot snapshot;
+
+	@Setup(Level.Trial)
+	public void plant() {
+		TreeHarness.bootstrap();
+		world = new FakeWorld();
+		branch = TreeHarness.family(family).getDynamicBranch();
+		BlockPos rootPos = new BlockPos(8, 64, 8);
+		treePos = rootPos.up();
+		if(!TreeHarness.plantTree(world, TreeHarness.family(family).getCommonSpecies(), rootPos, 42)) {
+			throw new IllegalStateException("No " + family + " tree was generated");
+		}
+		snapshot = TreeHarness.snapshotTree(world, rootPos);
+
+		//Both have to take down the same leaves for the times to be comparable
+		int[] fast = fellWith(true).destroyedLeaves;
+		int[] scan = fellWith(false).destroyedLeaves;
+		Arrays.sort(fast);
+		Arrays.sort(scan);
+		if(fast.length == 0 || !Arrays.equals(fast, scan)) {
+			throw new IllegalStateException("The " + family + " tree lost " + fast.length + " leaves felled fast and " + scan.length + " scanned");
+		}
+	}
+
+	private BranchDestructionData fellWith(boolean fast) {
+		replant();
+		ModConfigs.fastLeavesDestruction = fast;
+		return fell();
+	}
+
+	@Setup(Level.Invocation)
+	public void replant() {
+		snapshot.restore();
+		world.unload();
+		ModConfigs.fastLeavesDestruction = fastLeavesDestruction;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		world.unload();
+		ModConfigs.fastLeavesDestruction = true;
+	}
+
+	@Benchmark
+	public BranchDestructionData fell() {
+		return branch.destroyBranchFromNode(world, treePos, EnumFacing.NORTH, true);
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ferreusveritas.dynamictrees.api.network.MapSignal;
+import com.ferreusveritas.dynamictrees.api.network.NetworkWalker;
+import com.ferreusveritas.dynamictrees.harness.FakeWorld;
+import com.ferreusveritas.dynamictrees.harness.RecursiveReference;
+import com.ferreusveritas.dynamictrees.harness.TreeHarness;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeNetVolume;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Mapping a whole tree from the base of the trunk with the explicit stack walker and with the
+ * old recursive analysis.  The trees are synthetic branch networks of the given number of blocks.
+ * The old depth limit is lifted for the recursive analysis since it couldn't map trees of this
+ * size at all, and the stack is made big enough for it to get to the end.
+ *
+ * @author ferreusveritas
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss64m")
+public class NetworkWalkerBenchmark {
+
+	@Param({"500", "5000", "50000"})
+	public int nodes;
+
+	private FakeWorld world;
+	private BlockPos treePos;
+	private IBlockState treeState;
+
+	@Setup
+	public void setup() {
+		TreeHarness.bootstrap();
+		world = new FakeWorld();
+		BlockPos rootPos = new BlockPos(0, 64, 0);
+		int placed = TreeHarness.plantNetwork(world, TreeHarness.oak.getDynamicBranch(), rootPos, nodes, 42);
+		treePos = rootPos.up();
+		treeState = world.getBlockState(treePos);
+
+		//Both have to map the same whole tree for the times to be comparable
+		MapSignal walked = walker();
+		MapSignal recursed = recursive();
+		float walkedVolume = ((NodeNetVolume) walked.getInspectors().get(0)).getVolume();
+		float recursedVolume = ((NodeNetVolume) recursed.getInspectors().get(0)).getVolume();
+		if(placed != nodes || walked.overflow || recursed.overflow || !walked.found || walkedVolume != recursedVolume) {
+			throw new IllegalStateException("Network of " + placed + "/" + nodes + " blocks not mapped alike. Volumes: " + walkedVolume + " " + recursedVolume);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		world.unload();
+	}
+
+	@Benchmark
+	public MapSignal walker() {
+		return NetworkWalker.walk(treeState, world, treePos, null, new MapSignal(new NodeNetVolume()));
+	}
+
+	@Benchmark
+	public MapSignal recursive() {
+		return RecursiveReference.analyse(treeState, world, treePos, null, new MapSignal(new NodeNetVolume()), nodes + 1);
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.worldgen.IRadiusCoordinator;
+import com.ferreusveritas.dynamictrees.systems.poissondisc.PoissonDiscProvider;
+
+/**
+ * Solves the Poisson discs of a square of chunks in generation order, starting from nothing.
+ * 
+ * @author ferreusveritas
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PoissonDiscBenchmark {
+	
+	/** Stands in for the biome radius coordinator.  Gives a mix of every radius without needing a world */
+	private static class HashRadiusCoordinator implements IRadiusCoordinator {
+		
+		@Override
+		public int getRadiusAtCoords(int x, int z) {
+			int kindaRandom = ((x * 674365771) ^ (z * 254326997)) >> 4;
+			return 2 + (kindaRandom & 0x7FFFFFFF) % 7;
+		}
+		
+		@Override
+		public boolean runPass(int chunkX, int chunkZ, int pass) {
+			return pass == 0;
+		}
+		
+	}
+	
+	@Param({"4", "8"})
+	public int chunks;
+	
+	@Setup
+	public void setup() {
+		ModConfigs.poissonDiscCacheMaxEntries = 16384;
+		ModConfigs.poissonDiscCacheMaxKiB = 2048;
+	}
+	
+	@Benchmark
+	public int generatePoissonDiscs() {
+		PoissonDiscProvider provider = new PoissonDiscProvider(new HashRadiusCoordinator());
+		provider.setSeed(42L);
+		int discs = 0;
+		for(int z = 0; z < chunks; z++) {
+			for(int x = 0; x < chunks; x++) {
+				discs += provider.getPoissonDiscs(x, 0, z).size();
+			}
+		}
+		return discs;
+	}
+	
+}
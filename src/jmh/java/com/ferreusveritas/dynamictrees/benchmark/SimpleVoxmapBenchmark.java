@@ -0,0 +1,83 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ferreusveritas.dynamictrees.cells.LeafClusters;
+import com.ferreusveritas.dynamictrees.util.SimpleVoxmap;
+import com.ferreusveritas.dynamictrees.util.SimpleVoxmap.Cell;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+
+/**
+ * The leaf map work done for every worldgen tree: stamping leaf clusters on the twigs and
+ * walking the finished map.  Sized like the leaf map of a radius 8 tree.
+ * 
+ * @author ferreusveritas
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleVoxmapBenchmark {
+	
+	private static final int RADIUS = 8;
+	private static final int HEIGHT = 32;
+	private static final int TWIGS = 48;
+	
+	private BlockPos[] twigs;
+	private SimpleVoxmap leafMap;
+	
+	@Setup
+	public void setup() {
+		Random rand = new Random(42);
+		twigs = new BlockPos[TWIGS];
+		for(int i = 0; i < TWIGS; i++) {
+			twigs[i] = new BlockPos(rand.nextInt(RADIUS * 2 + 1) - RADIUS, 4 + rand.nextInt(HEIGHT - 8), rand.nextInt(RADIUS * 2 + 1) - RADIUS);
+		}
+		leafMap = blitMax();
+	}
+	
+	private SimpleVoxmap newLeafMap() {
+		return new SimpleVoxmap(RADIUS * 2 + 1, HEIGHT, RADIUS * 2 + 1).setMapAndCenter(BlockPos.ORIGIN, new BlockPos(RADIUS, 0, RADIUS));
+	}
+	
+	@Benchmark
+	public SimpleVoxmap blitMax() {
+		SimpleVoxmap map = newLeafMap();
+		for(BlockPos twig : twigs) {
+			map.blitMax(twig, LeafClusters.deciduous);
+		}
+		return map;
+	}
+	
+	@Benchmark
+	public void getAllNonZeroCells(Blackhole blackhole) {
+		for(Cell cell : leafMap.getAllNonZeroCells((byte) 0x0F)) {
+			blackhole.consume(cell.getValue());
+		}
+	}
+	
+	@Benchmark
+	public void getAllNonZero(Blackhole blackhole) {
+		for(MutableBlockPos pos : leafMap.getAllNonZero()) {
+			blackhole.consume(pos.getY());
+		}
+	}
+	
+}
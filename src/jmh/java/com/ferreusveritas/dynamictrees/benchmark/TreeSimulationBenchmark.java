@@ -0,0 +1,207 @@
+package com.ferreusveritas.dynamictrees.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.network.MapSignal;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
+import com.ferreusveritas.dynamictrees.blocks.BlockDynamicLeaves;
+import com.ferreusveritas.dynamictrees.harness.FakeWorld;
+import com.ferreusveritas.dynamictrees.harness.TreeHarness;
+import com.ferreusveritas.dynamictrees.systems.GrowSignal;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeNetVolume;
+import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
+import com.ferreusveritas.dynamictrees.worldgen.JoCode;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+/**
+ * The simulation of whole trees in a {@link FakeWorld}.  Every tree is generated from the same
+ * JoCode for each species so the runs are comparable.  The benchmarks that change the tree get it
+ * put back from a snapshot before every call, the others only before every iteration.
+ *
+ * @author ferreusveritas
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeSimulationBenchmark {
+
+	private static final long SEED = 42;
+
+	/** A generated tree and everything needed to work on it */
+	public static abstract class Planted {
+
+		@Param({"oak", "jungle", "darkoak"})
+		public String family;
+
+		protected FakeWorld world;
+		protected Species species;
+		protected BlockBranch branch;
+		protected BlockPos rootPos;
+		protected BlockPos treePos;
+		protected FakeWorld.Snapshot snapshot;
+
+		@Setup(Level.Trial)
+		public void plant() {
+			TreeHarness.bootstrap();
+			world = new FakeWorld();
+			species = TreeHarness.family(family).getCommonSpecies();
+			branch = TreeHarness.family(family).getDynamicBranch();
+			rootPos = new BlockPos(8, 64, 8);
+			treePos = rootPos.up();
+			if(!TreeHarness.plantTree(world, species, rootPos, SEED)) {
+				throw new IllegalStateException("No " + family + " tree was generated");
+			}
+			snapshot = TreeHarness.snapshotTree(world, rootPos);
+		}
+
+		/** Put the tree back the way it was generated and forget whatever the mod kept about it */
+		protected void replant() {
+			snapshot.restore();
+			world.unload();
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			world.unload();
+		}
+	}
+
+	/** A tree that's only read or changed a little by each call */
+	@State(Scope.Thread)
+	public static class Standing extends Planted {
+		private List<BlockPos> leaves;
+		private final Random rand = new Random(SEED);
+
+		@Setup(Level.Iteration)
+		public void replantAndFindLeaves() {
+			replant();
+			leaves = new ArrayList<>();
+			for(MutableBlockPos pos : BlockPos.getAllInBoxMutable(rootPos.add(-TreeHarness.TREE_REACH, 0, -TreeHarness.TREE_REACH), rootPos.add(TreeHarness.TREE_REACH, TreeHarness.TREE_HEIGHT, TreeHarness.TREE_REACH))) {
+				if(world.getBlockState(pos).getBlock() instanceof BlockDynamicLeaves) {
+					leaves.add(pos.toImmutable());
+				}
+			}
+		}
+	}
+
+	/** A tree that's put back before every call */
+	@State(Scope.Thread)
+	public static class Fresh extends Planted {
+		@Setup(Level.Invocation)
+		public void replantEach() {
+			replant();
+		}
+	}
+
+	/** Bare ground that's cleared before every call */
+	@State(Scope.Thread)
+	public static class Ground {
+
+		@Param({"oak", "jungle", "darkoak"})
+		public String family;
+
+		private FakeWorld world;
+		private Species species;
+		private BlockPos rootPos;
+		private JoCode code;
+		private SafeChunkBounds safeBounds;
+		private FakeWorld.Snapshot snapshot;
+
+		@Setup(Level.Trial)
+		public void prepare() {
+			TreeHarness.bootstrap();
+			world = new FakeWorld();
+			species = TreeHarness.family(family).getCommonSpecies();
+			rootPos = new BlockPos(8, 64, 8);
+			TreeHarness.ground(world, rootPos, TreeHarness.TREE_REACH);
+			code = species.getJoCodeStore().getRandomCode(8, new Random(SEED));
+			safeBounds = new SafeChunkBounds(world, new ChunkPos(rootPos));
+			snapshot = TreeHarness.snapshotTree(world, rootPos);
+		}
+
+		@Setup(Level.Invocation)
+		public void clear() {
+			snapshot.restore();
+			world.unload();
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			world.unload();
+		}
+	}
+
+	/** Map the whole tree from the root like the species and rot code does */
+	@Benchmark
+	public MapSignal analyse(Standing tree) {
+		MapSignal signal = new MapSignal(new NodeNetVolume());
+		TreeHelper.startAnalysisFromRoot(tree.world, tree.rootPos, signal);
+		return signal;
+	}
+
+	/** Pick a direction for a grow signal that has made it past the lowest branch height */
+	@Benchmark
+	public EnumFacing selectNewDirection(Standing tree) {
+		GrowSignal signal = new GrowSignal(tree.species, tree.rootPos, tree.species.getEnergy(tree.world, tree.rootPos));
+		signal.numSteps = tree.species.getLowestBranchHeight(tree.world, tree.rootPos);
+		return tree.species.selectNewDirection(tree.world, tree.treePos.up(signal.numSteps), tree.branch, signal);
+	}
+
+	/** One random tick of aging for every leaves block of the tree */
+	@Benchmark
+	public int ageLeaves(Standing tree) {
+		int total = 0;
+		for(BlockPos pos : tree.leaves) {
+			IBlockState state = tree.world.getBlockState(pos);
+			if(state.getBlock() instanceof BlockDynamicLeaves) {
+				total += ((BlockDynamicLeaves) state.getBlock()).age(tree.world, pos, state, tree.rand, SafeChunkBounds.ANY);
+			}
+		}
+		return total;
+	}
+
+	/** Map and age the leaf volume of the tree like a growth pulse does */
+	@Benchmark
+	public void ageVolume(Standing tree) {
+		TreeHelper.ageVolume(tree.world, TreeHelper.mapLeafVolume(tree.world, tree.rootPos), 1, SafeChunkBounds.ANY);
+	}
+
+	/** Send a single grow signal up the tree */
+	@Benchmark
+	public GrowSignal growSignal(Fresh tree) {
+		return tree.branch.growSignal(tree.world, tree.treePos, new GrowSignal(tree.species, tree.rootPos, tree.species.getEnergy(tree.world, tree.rootPos)));
+	}
+
+	/** Generate the tree from it's JoCode during world generation */
+	@Benchmark
+	public void generate(Ground ground) {
+		ground.code.generate(ground.world, ground.species, ground.rootPos, ground.world.getBiome(ground.rootPos), EnumFacing.NORTH, 8, ground.safeBounds);
+	}
+
+}
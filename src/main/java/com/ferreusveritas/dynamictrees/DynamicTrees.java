@@ -4,6 +4,7 @@ import com.ferreusveritas.dynamictrees.command.DTCommand;
 import com.ferreusveritas.dynamictrees.compat.CompatHandler;
 import com.ferreusveritas.dynamictrees.proxy.CommonProxy;
 import com.ferreusveritas.dynamictrees.seasons.SeasonHelper;
+import com.ferreusveritas.dynamictrees.trees.BiomeSuitabilityTable;
 import com.ferreusveritas.dynamictrees.worldgen.WorldGeneratorTrees;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.SidedProxy;
@@ -46,6 +47,7 @@ public class DynamicTrees {
 	public static void serverStarting(FMLServerStartingEvent event) {
 		event.registerServerCommand(new DTCommand());
 		SeasonHelper.getSeasonManager().flushMappings();
+		BiomeSuitabilityTable.invalidate();//Everything is registered and subscribed by now
 	}
 	
 	@Mod.EventHandler
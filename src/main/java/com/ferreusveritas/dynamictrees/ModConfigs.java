@@ -5,6 +5,7 @@ import java.io.File;
 import java.util.HashSet;
 
 import com.ferreusveritas.dynamictrees.blocks.BlockBranch.EnumAxeDamage;
+import com.ferreusveritas.dynamictrees.trees.BiomeSuitabilityTable;
 
 import net.minecraftforge.common.config.Configuration;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
@@ -51,11 +52,40 @@ public class ModConfigs {
 	public static boolean fancyThickRings;
 	
 	public static boolean worldGenDebug;
+	public static boolean enableGenBenchRun;
 	
 	public static boolean enableSeasonalSeedDropFactor;
 	public static boolean enableSeasonalGrowthFactor;
 	public static boolean enableSeasonalFruitProductionFactor;
 	
+	public static boolean enableTreeTopologyCache;
+	public static int treeTopologyCacheMaxTrees;
+	public static boolean enableLeavesTickScheduler;
+	public static boolean enableEndpointTracker;
+	public static int leavesTickClusterBudget;
+	public static boolean worldGenPlanner;
+	public static int worldGenPlannerThreads;
+	public static boolean precompileJoCodes;
+	public static int poissonDiscCacheMaxEntries;
+	public static int poissonDiscCacheMaxKiB;
+	public static int chunkScanMillisPerTick;
+	public static boolean fastLeavesDestruction;
+	public static int neighborUpdatesPerTick;
+	public static boolean enableTreeDormancy;
+	public static int dormancyFailedSignals;
+	public static int dormancyMaxInterval;
+	public static int treeUpdateMillisPerTick;
+	public static boolean enableGrowthCatchUp;
+	public static int catchUpMaxUpdates;
+	public static int catchUpMillisPerTick;
+	public static boolean mergeVoluntaryDrops;
+	public static int voluntaryDropWindow;
+	public static int voluntaryDropPlayerRange;
+	public static boolean compileFallingTreeModels;
+	public static boolean asyncFallingTreeModels;
+	public static int fallingTreeModelThreads;
+	public static int branchQuadCacheSize;
+	
 	public static void preInit(FMLPreInitializationEvent event) {
 		
 		configDirectory = event.getModConfigurationDirectory();
@@ -113,15 +143,46 @@ public class ModConfigs {
 		
 		//Client
 		fancyThickRings = config.getBoolean("fancyThickRings", "client", true, "Rings of thick trees are rendered using a texture created with an expanded tangram construction technique. Otherwise the ring texture is simply stretched");
+		compileFallingTreeModels = config.getBoolean("compileFallingTreeModels", "client", true, "If enabled the models of falling trees are uploaded to the graphics card once instead of being sent again every frame");
+		asyncFallingTreeModels = config.getBoolean("asyncFallingTreeModels", "client", true, "If enabled the models of falling trees are built on a background thread. The tree isn't drawn for the few frames that takes");
+		fallingTreeModelThreads = config.getInt("fallingTreeModelThreads", "client", 1, 1, 8, "The number of background threads that build falling tree models");
+		branchQuadCacheSize = config.getInt("branchQuadCacheSize", "client", 1024, 0, 65536, "The number of branch shapes each branch model remembers the quads of. Speeds up chunk rebuilds in dense forests. 0 to disable");
 		
 		//Debug
 		worldGenDebug = config.getBoolean("worldGenDebug", "debug", false, "Enable to mark tree spawn locations with wool circles.");
+		enableGenBenchRun = config.getBoolean("enableGenBenchRun", "debug", false, "Enable to allow \"/dt genbench run\" which generates and saves new chunks far away from the player in the world it's run in. Only use this on a copy of a world");
 
 		// Serene seasons integration options. At some point this may be made fully configurable via json files. 
 		enableSeasonalSeedDropFactor = config.getBoolean("enableSeasonalSeedDropFactor", "integration", true, "If enabled, seed drop rates will be multiplied based on the current season (requires serene seasons).");
 		enableSeasonalGrowthFactor = config.getBoolean("enableSeasonalGrowthFactor", "integration", true, "If enabled, growth rates will be multiplied based on the current season (requires serene seasons).");
 		enableSeasonalFruitProductionFactor = config.getBoolean("enableSeasonalFruitProductionFactor", "integration", true, "If enabled, fruit production rates will be multiplied based on the current season (requires serene seasons).");
 		
+		//Performance
+		enableTreeTopologyCache = config.getBoolean("enableTreeTopologyCache", "performance", true, "If enabled the branch network of each tree is cached on the server so that unchanged trees don't have to be mapped again on every update");
+		treeTopologyCacheMaxTrees = config.getInt("treeTopologyCacheMaxTrees", "performance", 8192, 16, 1048576, "The maximum number of trees held in the tree topology cache for each dimension");
+		enableLeavesTickScheduler = config.getBoolean("enableLeavesTickScheduler", "performance", false, "If enabled leaves random ticks are collected and aged in batches each world tick instead of being aged on the spot");
+		enableEndpointTracker = config.getBoolean("enableEndpointTracker", "performance", true, "If enabled the branch endpoints of trees are indexed and saved with the chunks so trees don't need to be mapped to find them");
+		leavesTickClusterBudget = config.getInt("leavesTickClusterBudget", "performance", 32, 1, 4096, "The number of leaves clusters(chunk sections) the leaves tick scheduler may age each world tick");
+		worldGenPlanner = config.getBoolean("worldGenPlanner", "performance", false, "If enabled the shape, thickness and leaves of worldgen trees are worked out on worker threads and only the blocks are placed on the server thread");
+		worldGenPlannerThreads = config.getInt("worldGenPlannerThreads", "performance", 0, 0, 64, "The number of worker threads used by the worldgen planner. 0 uses one less than the number of processors");
+		precompileJoCodes = config.getBoolean("precompileJoCodes", "performance", true, "If enabled the worldgen tree codes are drawn once for each facing and cached so trees that have nothing in their way can be placed without drawing them again");
+		poissonDiscCacheMaxEntries = config.getInt("poissonDiscCacheMaxEntries", "performance", 16384, 256, 1048576, "The maximum number of chunks of worldgen Poisson disc data kept in memory for each dimension.  Data of loaded chunks is always kept");
+		poissonDiscCacheMaxKiB = config.getInt("poissonDiscCacheMaxKiB", "performance", 2048, 32, 262144, "The maximum estimated memory in KiB used by the worldgen Poisson disc data of each dimension.  Data of loaded chunks is always kept");
+		chunkScanMillisPerTick = config.getInt("chunkScanMillisPerTick", "performance", 10, 1, 1000, "The milliseconds each world tick may spend on the chunk scans of the clearOrphaned and purgeTrees commands");
+		fastLeavesDestruction = config.getBoolean("fastLeavesDestruction", "performance", true, "If enabled the leaves of felled trees are found from the endpoints of the felled branches and only their surroundings are searched for other trees. Disable to search the whole volume of the tree like before");
+		neighborUpdatesPerTick = config.getInt("neighborUpdatesPerTick", "performance", 0, 0, 1048576, "The number of blocks around felled trees that are notified of the change each world tick. Blocks touched by several fellings are only notified once. 0 notifies them all on the spot");
+		enableTreeDormancy = config.getBoolean("enableTreeDormancy", "performance", false, "If enabled trees that stop changing are put to sleep.  Sleeping trees only drop seeds and grow fruit on their random ticks and are fully updated at doubling intervals until something changes around them");
+		dormancyFailedSignals = config.getInt("dormancyFailedSignals", "performance", 16, 1, 1024, "The number of grow signals in a row that must neither place a block nor thicken a branch before a tree is put to sleep.  A choked tree is put to sleep right away");
+		dormancyMaxInterval = config.getInt("dormancyMaxInterval", "performance", 24000, 2400, 1000000, "The maximum number of ticks between the full updates of a sleeping tree");
+		treeUpdateMillisPerTick = config.getInt("treeUpdateMillisPerTick", "performance", 0, 0, 1000, "The milliseconds each world tick may spend on tree growth updates. Above 0 randomly ticked trees are queued and the rest carry over to the next tick. 0 updates trees on the spot like before");
+		enableGrowthCatchUp = config.getBoolean("enableGrowthCatchUp", "performance", false, "If enabled the trees in a chunk that is loaded again are grown as much as they would have from random ticks while the chunk was unloaded. This allows a lower growth multiplier while keeping rarely visited areas developing");
+		catchUpMaxUpdates = config.getInt("catchUpMaxUpdates", "performance", 64, 1, 4096, "The maximum number of tree updates each tree is caught up on when it's chunk is loaded");
+		catchUpMillisPerTick = config.getInt("catchUpMillisPerTick", "performance", 5, 1, 1000, "The milliseconds each world tick may spend on catching up on the growth of trees in loaded chunks");
+		mergeVoluntaryDrops = config.getBoolean("mergeVoluntaryDrops", "performance", false, "If enabled the seeds and fruit trees drop on their own are pooled per chunk and spawned as merged stacks. Seeds that no player is near enough to see decide whether to plant themselves without spawning an item at all");
+		voluntaryDropWindow = config.getInt("voluntaryDropWindow", "performance", 200, 1, 24000, "The number of ticks voluntary drops are pooled for before they are spawned");
+		voluntaryDropPlayerRange = config.getInt("voluntaryDropPlayerRange", "performance", 32, 0, 256, "Pooled seeds with no player within this many blocks are planted or discarded without spawning an item");
+		
 		config.save();
+		BiomeSuitabilityTable.invalidate();
 	}
 }
@@ -5,21 +5,27 @@ import com.ferreusveritas.dynamictrees.api.network.MapSignal;
 import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
 import com.ferreusveritas.dynamictrees.blocks.*;
 import com.ferreusveritas.dynamictrees.blocks.BlockTrunkShell.ShellMuse;
+import com.ferreusveritas.dynamictrees.cells.LeafClusters;
+import com.ferreusveritas.dynamictrees.systems.HydrationSolver;
+import com.ferreusveritas.dynamictrees.systems.TreeTopologyCache;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeTopology;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeTwinkle;
 import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.BlockBounds;
 import com.ferreusveritas.dynamictrees.util.Deprecatron;
 import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
 import com.ferreusveritas.dynamictrees.util.SimpleVoxmap;
+import com.ferreusveritas.dynamictrees.util.TreeWorldView;
 import com.ferreusveritas.dynamictrees.worldgen.JoCode;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.EnumParticleTypes;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.BlockPos.MutableBlockPos;
 import net.minecraft.world.IBlockAccess;
 import net.minecraft.world.World;
 
+import java.util.List;
 import java.util.Optional;
 
 public class TreeHelper {
@@ -31,7 +37,7 @@ public class TreeHelper {
 	///////////////////////////////////////////
 	
 	/**
-	 * Convenience method to pulse a single growth cycle and age the cuboid volume.
+	 * Convenience method to pulse a single growth cycle and age the leaves of the tree.
 	 * Used by growth potions, fertilizers and the dendrocoil.
 	 * 
 	 * @param world
@@ -41,86 +47,79 @@ public class TreeHelper {
 		IBlockState rootyState = world.getBlockState(rootPos);
 		BlockRooty dirt = TreeHelper.getRooty(rootyState);
 		if(dirt != null) {
-			dirt.updateTree(rootyState, world, rootPos, world.rand, false);
-			ageVolume(world, rootPos, 8, 32, 1, SafeChunkBounds.ANY);//blindly age a cuboid volume
+			TreeWorldView view = TreeWorldView.open(world);//Shared by the growing, mapping and aging below
+			try {
+				dirt.updateTree(rootyState, world, rootPos, world.rand, false);
+				SimpleVoxmap leafMap = mapLeafVolume(world, rootPos);
+				if(leafMap != null) {
+					ageVolume(world, leafMap, 1, SafeChunkBounds.ANY);//One growth of the leaves per pulse like a random tick
+				}
+			} finally {
+				view.close();
+			}
 		}
 	}
 	
 	/**
-	 * Pulses an entire leafMap volume of blocks each with an age signal.
-	 * Warning: CPU intensive and should be used sparingly
+	 * Create a voxel map of everywhere the leaves of a tree could possibly be by
+	 * stamping the leaf cluster of the species on every branch end.
 	 * 
 	 * @param world The world
-	 * @param leafMap The voxel map of hydrovalues to use as a iterator
-	 * @param iterations The number of times to age the map
+	 * @param rootPos The position of the rooty block
+	 * @return The voxel map or null if there's no tree
 	 */
-	public static void ageVolume(World world, SimpleVoxmap leafMap, int iterations, SafeChunkBounds safeBounds){
+	public static SimpleVoxmap mapLeafVolume(World world, BlockPos rootPos) {
+		BlockPos treePos = rootPos.up();
+		IBlockState treeState = world.getBlockState(treePos);
+		BlockBranch branch = getBranch(treeState);
 		
-		//The iterMap is the voxmap we will use as a discardable.  The leafMap must survive for snow
-		SimpleVoxmap iterMap = leafMap != null ? new SimpleVoxmap(leafMap) : null;
-		Iterable<MutableBlockPos> iterable = iterMap.getAllNonZero();
+		if(branch == null || !isRooty(world.getBlockState(rootPos))) {
+			return null;//The tree may have died during the pulse
+		}
 		
-		for(int i = 0; i < iterations; i++) {
-			for(MutableBlockPos iPos: iterable) {
-				IBlockState blockState = world.getBlockState(iPos);
-				Block block = blockState.getBlock();
-				if(block instanceof BlockDynamicLeaves) {//Special case for leaves
-					int prevHydro = leafMap.getVoxel(iPos);//The leafMap should contain accurate hydro data
-					int newHydro = ((IAgeable)block).age(world, iPos, blockState, world.rand, safeBounds);//Get new values from neighbors
-					if(newHydro == -1) {
-						//Leaf block died.  Take it out of the leafMap and iterMap
-						leafMap.setVoxel(iPos, (byte) 0);
-						iterMap.setVoxel(iPos, (byte) 0);
-					} else {
-						//Leaf did not die so the block is still leaves
-						if(prevHydro == newHydro) { //But it didn't change
-							iterMap.setVoxel(iPos, (byte) 0); //Stop iterating over it if it's not changing
-						} else {//Oh wait.. it did change
-							//Update both maps with this new hydro value
-							leafMap.setVoxel(iPos, (byte) newHydro);
-							iterMap.setVoxel(iPos, (byte) newHydro);
-							//Copy all the surrounding values from the leafMap to the iterMap since they now also have potential to change
-							for(EnumFacing dir: EnumFacing.values()) {
-								BlockPos dPos = iPos.offset(dir);
-								iterMap.setVoxel(dPos, leafMap.getVoxel(dPos));
-							}
-						}
-					}
-				}
-				else if(block instanceof IAgeable) {//Treat as just a regular ageable block
-					((IAgeable)block).age(world, iPos, blockState, world.rand, safeBounds);
-				} else {//You're not supposed to be here
-					leafMap.setVoxel(iPos, (byte) 0);
-					iterMap.setVoxel(iPos, (byte) 0);
-				}
-			}
+		SimpleVoxmap leafCluster = TreeTopologyCache.getSpecies(world, rootPos).getLeavesProperties().getCellKit().getLeafCluster();
+		List<BlockPos> ends = TreeTopologyCache.getEnds(world, rootPos, treePos, branch);
+		
+		if(ends.isEmpty() || leafCluster == LeafClusters.NULLMAP) {
+			return null;
 		}
 		
+		BlockBounds bounds = new BlockBounds(ends).expand(Math.max(leafCluster.getLenX(), Math.max(leafCluster.getLenY(), leafCluster.getLenZ())));
+		SimpleVoxmap leafMap = new SimpleVoxmap(bounds);
+		for(BlockPos end: ends) {
+			leafMap.blitMax(end, leafCluster);
+		}
+		
+		return leafMap;
 	}
 	
 	/**
-	 * Pulses an entire cuboid volume of blocks each with an age signal.
-	 * Warning: CPU intensive and should be used sparingly
+	 * Ages an entire leafMap volume of blocks.  The hydration of the leaves is solved
+	 * in memory by a {@link HydrationSolver} and only the changed blocks are written back.
+	 * 
+	 * Each iteration still gives every leaves block one chance to grow new leaves around it
+	 * like it always did but the hydration is no longer limited to one step per iteration.
+	 * It's always solved until it settles, before the first growth and after every one.
 	 * 
 	 * @param world The world
-	 * @param treePos The position of the bottom most block of a trees trunk
-	 * @param halfWidth The "radius" of the cuboid volume
-	 * @param height The height of the cuboid volume
-	 * @param iterations The number of times to age the volume
+	 * @param leafMap The voxel map of hydrovalues to use as a iterator.  Updated with the final hydro values
+	 * @param iterations The number of times new leaves may grow around the volume
 	 */
-	public static void ageVolume(World world, BlockPos treePos, int halfWidth, int height, int iterations, SafeChunkBounds safeBounds){
-		//Slow and dirty iteration over a cuboid volume.  Try to avoid this by using a voxmap if you can
-		Iterable<MutableBlockPos> iterable = BlockPos.getAllInBoxMutable(treePos.add(new BlockPos(-halfWidth, 0, -halfWidth)), treePos.add(new BlockPos(halfWidth, height, halfWidth)));
-		for(int i = 0; i < iterations; i++) {
-			for(MutableBlockPos iPos: iterable) {
-				IBlockState blockState = world.getBlockState(iPos);
-				Block block = blockState.getBlock();
-				if(block instanceof IAgeable) {
-					((IAgeable)block).age(world, iPos, blockState, world.rand, safeBounds);//Treat as just a regular ageable block
-				}
-			}
+	public static void ageVolume(World world, SimpleVoxmap leafMap, int iterations, SafeChunkBounds safeBounds){
+		if(leafMap != null) {
+			new HydrationSolver(world, safeBounds).solve(leafMap, iterations);
 		}
-		
+	}
+	
+	/**
+	 * Ages a cuboid volume of blocks.  See {@link #ageVolume(World, SimpleVoxmap, int, SafeChunkBounds)}
+	 * for what the iterations mean.
+	 */
+	public static void ageVolume(World world, BlockPos treePos, int halfWidth, int height, int iterations, SafeChunkBounds safeBounds){
+		//Every block in the cuboid gets read once.  Try to avoid this by using a voxmap if you can
+		BlockPos min = treePos.add(-halfWidth, 0, -halfWidth);
+		BlockPos max = treePos.add(halfWidth, height, halfWidth);
+		ageVolume(world, new SimpleVoxmap(new BlockBounds(min, max)).fill(min, max, (byte) 1), iterations, safeBounds);
 	}
 	
 	public static Optional<JoCode> getJoCode(World world, BlockPos pos) {
@@ -177,8 +176,7 @@ public class TreeHelper {
 	public static Species getExactSpecies(World world, BlockPos pos) {
 		BlockPos rootPos = findRootNode(world, pos);
 		if(rootPos != BlockPos.ORIGIN) {
-			IBlockState rootyState = world.getBlockState(rootPos);
-			return TreeHelper.getRooty(rootyState).getSpecies(rootyState, world, rootPos);
+			return TreeTopologyCache.getSpecies(world, rootPos);
 		}
 		return Species.NULLSPECIES;
 	}
@@ -246,8 +244,15 @@ public class TreeHelper {
 		
 		switch(treePart.getTreePartType()) {
 			case BRANCH:
-				MapSignal signal = treePart.analyse(state, world, pos, null, new MapSignal());// Analyze entire tree network to find root node
+				BlockPos cachedRoot = TreeTopologyCache.getRootPos(world, pos);
+				if(cachedRoot != null) {
+					return cachedRoot;
+				}
+				int stamp = TreeTopologyCache.getModStamp(world);
+				NodeTopology topology = new NodeTopology();
+				MapSignal signal = treePart.analyse(state, world, pos, null, new MapSignal(topology));// Analyze entire tree network to find root node
 				if(signal.found) {
+					TreeTopologyCache.storeNetwork(world, stamp, signal, topology);
 					return signal.root;
 				}
 				break;
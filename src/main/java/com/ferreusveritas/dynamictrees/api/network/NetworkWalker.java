@@ -0,0 +1,214 @@
+package com.ferreusveritas.dynamictrees.api.network;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch.EnumDestroyMode;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranchBasic;
+import com.ferreusveritas.dynamictrees.util.TreeWorldView;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.world.World;
+
+/**
+ * An explicit stack walker for branch networks.  This is the engine behind
+ * {@link BlockBranchBasic#analyse} and therefore behind every {@link MapSignal}
+ * analysis.  It visits nodes in exactly the same order as the old recursive
+ * algorithm, calling run() on the way out and returnRun() on the way back, but
+ * it keeps the path in reusable arrays instead of on the java stack.
+ *
+ * Neighbors are probed through a {@link TreeWorldView} with a single {@link MutableBlockPos} so only nodes that
+ * are actually entered get an immutable {@link BlockPos}(inspectors are allowed
+ * to hold on to the positions they are handed).  Network loops are detected
+ * with a packed position set rather than a depth limit so arbitrarily large
+ * trees can be mapped.
+ *
+ * Tree parts that provide their own analyse() implementation(rooty blocks,
+ * cactus branches or addon branches that override it) are delegated to as usual.
+ * The signal's depth is kept as the length of the walked path so the ones that
+ * limit their own recursion with it see the same depth they always did.
+ *
+ * @author ferreusveritas
+ */
+public class NetworkWalker {
+
+	private static final ThreadLocal<NetworkWalker> walkers = ThreadLocal.withInitial(NetworkWalker::new);
+
+	/** Caches whether a tree part class uses the stock branch analysis and can be walked inline */
+	private static final ClassValue<Boolean> walkable = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			if(!BlockBranchBasic.class.isAssignableFrom(type)) {
+				return false;
+			}
+			try {
+				return type.getMethod("analyse", IBlockState.class, World.class, BlockPos.class, EnumFacing.class, MapSignal.class).getDeclaringClass() == BlockBranchBasic.class;
+			} catch (NoSuchMethodException e) {
+				return false;
+			}
+		}
+	};
+
+	private BlockPos[] nodePos = new BlockPos[64];
+	private IBlockState[] nodeState = new IBlockState[64];
+	private EnumFacing[] nodeFrom = new EnumFacing[64];
+	private byte[] nodeNext = new byte[64];//The index of the next direction to explore for each node on the stack
+	private int top = -1;
+
+	private final LongOpenHashSet visited = new LongOpenHashSet(256);
+	private final MutableBlockPos probe = new MutableBlockPos();
+	private boolean busy = false;
+
+	/**
+	 * Walk the network starting at pos.  Behaves exactly like {@link ITreePart#analyse} for a basic branch.
+	 *
+	 * @param blockState The blockstate of the starting node
+	 * @param world The world
+	 * @param pos The position of the starting node
+	 * @param fromDir The direction that should not be analyzed.  Pass null to analyse in all directions
+	 * @param signal The Mapping Signal object to gather data and/or perform operations
+	 * @return the signal for chaining
+	 */
+	public static MapSignal walk(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir, MapSignal signal) {
+		NetworkWalker walker = walkers.get();
+		if(walker.busy) {//An inspector started another analysis in the middle of a walk(sloppy breaks can do this)
+			walker = new NetworkWalker();
+		}
+		return walker.process(blockState, world, pos, fromDir, signal);
+	}
+
+	/**
+	 * @param treePart The tree part to test
+	 * @return true if the tree part uses the stock branch analysis and is handled inline by the walker
+	 */
+	public static boolean isWalkable(ITreePart treePart) {
+		return walkable.get(treePart.getClass());
+	}
+
+	private MapSignal process(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir, MapSignal signal) {
+		// Note: fromDir will be null in the origin node
+
+		if(signal.overflow || (signal.trackVisited && signal.doTrackingVisited(pos))) {
+			return signal;
+		}
+
+		busy = true;
+		TreeWorldView view = TreeWorldView.open(world);
+		try {
+			visited.clear();
+			enter(blockState, world, pos.toImmutable(), fromDir, signal);
+
+			while(top >= 0) {
+				int node = top;
+
+				if(nodeNext[node] < EnumFacing.VALUES.length) {
+					EnumFacing dir = EnumFacing.VALUES[nodeNext[node]++];
+					if(dir == nodeFrom[node]) {// don't count where the signal originated from
+						continue;
+					}
+
+					BlockPos thisPos = nodePos[node];
+					probe.setPos(thisPos.getX() + dir.getFrontOffsetX(), thisPos.getY() + dir.getFrontOffsetY(), thisPos.getZ() + dir.getFrontOffsetZ());
+					IBlockState deltaState = view.getBlockState(probe);
+					ITreePart treePart = TreeHelper.getTreePart(deltaState);
+
+					if(!treePart.shouldAnalyse()) {
+						continue;
+					}
+
+					if(isWalkable(treePart)) {
+						if(!signal.overflow) {
+							if(visited.contains(probe.toLong())) {
+								if(!signal.trackVisited) {//Without visit tracking a second visit can only mean that the network contains a loop
+									loopDetected(deltaState, world, signal);
+								}
+							} else {
+								BlockPos deltaPos = probe.toImmutable();
+								if(!signal.trackVisited || !signal.doTrackingVisited(deltaPos)) {
+									enter(deltaState, world, deltaPos, dir.getOpposite(), signal);
+									continue;//The local root direction is checked when this new node is exited
+								}
+							}
+						}
+					} else {
+						signal = treePart.analyse(deltaState, world, probe.toImmutable(), dir.getOpposite(), signal);
+					}
+
+					checkLocalRoot(node, dir, signal);
+				} else {
+					exit(world, signal);
+					if(top >= 0) {
+						checkLocalRoot(top, EnumFacing.VALUES[nodeNext[top] - 1], signal);
+					}
+				}
+			}
+		} finally {
+			for(; top >= 0; top--) {//Only needed if an inspector threw
+				nodePos[top] = null;
+				nodeState[top] = null;
+				signal.depth--;
+			}
+			busy = false;
+			view.close();
+		}
+
+		return signal;
+	}
+
+	private void enter(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir, MapSignal signal) {
+		if(++top == nodePos.length) {
+			grow();
+		}
+		nodePos[top] = pos;
+		nodeState[top] = blockState;
+		nodeFrom[top] = fromDir;
+		nodeNext[top] = 0;
+		visited.add(pos.toLong());
+		signal.depth++;
+		signal.run(blockState, world, pos, fromDir);// Run the inspectors of choice
+	}
+
+	private void exit(World world, MapSignal signal) {
+		signal.returnRun(nodeState[top], world, nodePos[top], nodeFrom[top]);
+		nodePos[top] = null;
+		nodeState[top] = null;
+		top--;
+		signal.depth--;
+	}
+
+	/** This should only be true for the originating block when the root node is found */
+	private void checkLocalRoot(int node, EnumFacing dir, MapSignal signal) {
+		if(node == 0 && nodeFrom[0] == null && signal.found && signal.localRootDir == null) {
+			signal.localRootDir = dir;
+		}
+	}
+
+	private void loopDetected(IBlockState deltaState, World world, MapSignal signal) {
+		if(signal.destroyLoopedNodes && deltaState.getBlock() instanceof BlockBranch) {
+			BlockBranch branch = (BlockBranch) deltaState.getBlock();
+			branch.breakDeliberate(world, probe.toImmutable(), EnumDestroyMode.OVERFLOW);// Destroy one of the offending nodes
+		}
+		signal.overflow = true;
+	}
+
+	private void grow() {
+		int size = nodePos.length * 2;
+		BlockPos[] newPos = new BlockPos[size];
+		IBlockState[] newState = new IBlockState[size];
+		EnumFacing[] newFrom = new EnumFacing[size];
+		byte[] newNext = new byte[size];
+		System.arraycopy(nodePos, 0, newPos, 0, nodePos.length);
+		System.arraycopy(nodeState, 0, newState, 0, nodeState.length);
+		System.arraycopy(nodeFrom, 0, newFrom, 0, nodeFrom.length);
+		System.arraycopy(nodeNext, 0, newNext, 0, nodeNext.length);
+		nodePos = newPos;
+		nodeState = newState;
+		nodeFrom = newFrom;
+		nodeNext = newNext;
+	}
+
+}
@@ -14,6 +14,11 @@ import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree.DestroyType;
 import com.ferreusveritas.dynamictrees.event.FutureBreak;
+import com.ferreusveritas.dynamictrees.systems.EndpointTracker;
+import com.ferreusveritas.dynamictrees.systems.LeavesTickScheduler;
+import com.ferreusveritas.dynamictrees.systems.TreeDormancy;
+import com.ferreusveritas.dynamictrees.systems.TreeProfiler;
+import com.ferreusveritas.dynamictrees.systems.TreeTopologyCache;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeDestroyer;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeExtState;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeNetVolume;
@@ -24,6 +29,11 @@ import com.ferreusveritas.dynamictrees.util.BlockBounds;
 import com.ferreusveritas.dynamictrees.util.BranchDestructionData;
 import com.ferreusveritas.dynamictrees.util.SimpleVoxmap;
 import com.ferreusveritas.dynamictrees.util.SimpleVoxmap.Cell;
+import com.ferreusveritas.dynamictrees.util.TreeWorldView;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 
 import net.minecraft.block.Block;
 import net.minecraft.block.material.EnumPushReaction;
@@ -56,6 +66,10 @@ import net.minecraftforge.common.property.Properties;
 
 public abstract class BlockBranch extends Block implements ITreePart, IFutureBreakable {
 	
+	/** Leaves destruction searches for endpoints in buckets of 8x8x8 blocks */
+	private static final int LEAVES_BUCKET_SHIFT = 3;
+	private static final Comparator<BlockPos> SECTION_ORDER = Comparator.<BlockPos>comparingInt(p -> p.getX() >> 4).thenComparingInt(p -> p.getZ() >> 4).thenComparingInt(p -> p.getY() >> 4);
+	
 	public static final int RADMAX_NORMAL = 8;
 	
 	public static final IUnlistedProperty CONNECTIONS[] = { 
@@ -255,6 +269,9 @@ public abstract class BlockBranch extends Block implements ITreePart, IFutureBre
 		analyse(blockState, world, cutPos, wholeTree ? null : signal.localRootDir, new MapSignal(volumeSum, destroyer));
 		destroyMode = EnumDestroyMode.SLOPPY;
 		
+		//The branch below the cut may now be an endpoint
+		EndpointTracker.update(world, cutPos, signal.found ? signal.root : null);
+		
 		//Destroy all the leaves on the branch, store them in a map and convert endpoint coordinates from absolute to relative
 		List<BlockPos> endPoints = destroyer.getEnds();
 		Map<BlockPos, IBlockState> destroyedLeaves = new HashMap<>();
@@ -299,52 +316,160 @@ public abstract class BlockBranch extends Block implements ITreePart, IFutureBre
 	protected void destroyLeaves(World world, BlockPos cutPos, Species species, List<BlockPos> endPoints, Map<BlockPos, IBlockState> destroyedLeaves, List<BlockItemStack> drops) {
 		
 		if (!world.isRemote && !endPoints.isEmpty()) {
-			
-			//Make a bounding volume that holds all of the endpoints and expand the volume by 3 blocks for the leaves radius
-			BlockBounds bounds = new BlockBounds(endPoints).expand(3);
-			
-			//Create a voxmap to store the leaf destruction map
-			SimpleVoxmap vmap = new SimpleVoxmap(bounds);
-			
-			//For each of the endpoints add a 7x7 destruction volume around it
+			TreeProfiler.Sample sample = TreeProfiler.begin();
+			if(ModConfigs.fastLeavesDestruction) {
+				destroyLeavesFast(world, cutPos, species, endPoints, destroyedLeaves, drops);
+			} else {
+				destroyLeavesScan(world, cutPos, species, endPoints, destroyedLeaves, drops);
+			}
+			TreeProfiler.end(sample, TreeProfiler.Section.DESTROY_LEAVES, species, world);
+		}
+		
+	}
+	
+	/**
+	 * Marks a 7x7x7 volume around every endpoint for destruction then searches the whole bounding volume of the
+	 * endpoints for other endpoints of the family and spares the leaves around them.
+	 */
+	private void destroyLeavesScan(World world, BlockPos cutPos, Species species, List<BlockPos> endPoints, Map<BlockPos, IBlockState> destroyedLeaves, List<BlockItemStack> drops) {
+		
+		//Make a bounding volume that holds all of the endpoints and expand the volume by 3 blocks for the leaves radius
+		BlockBounds bounds = new BlockBounds(endPoints).expand(3);
+		
+		//Create a voxmap to store the leaf destruction map
+		SimpleVoxmap vmap = new SimpleVoxmap(bounds);
+		
+		//For each of the endpoints add a 7x7 destruction volume around it
+		for(BlockPos endPos : endPoints) {
+			for(BlockPos leafPos : BlockPos.getAllInBoxMutable(endPos.add(-3, -3, -3), endPos.add(3, 3, 3)) ) {
+				vmap.setVoxel(leafPos, (byte) 1);//Flag this position for destruction
+			}
+			vmap.setVoxel(endPos, (byte) 0);//We know that the endpoint does not have a leaves block in it because it was a branch
+		}
+		
+		TreeFamily family = species.getFamily();
+		BlockBranch familyBranch = family.getDynamicBranch();
+		int primaryThickness = (int) family.getPrimaryThickness();
+		
+		//Expand the volume yet again by 3 blocks in all directions and search for other non-destroyed endpoints
+		for(MutableBlockPos findPos : bounds.expand(3).iterate() ) {
+			IBlockState findState = world.getBlockState(findPos);
+			if( familyBranch.getRadius(findState) == primaryThickness ) { //Search for endpoints of the same tree family
+				Iterable<MutableBlockPos> leaves = species.getLeavesProperties().getCellKit().getLeafCluster().getAllNonZero();
+				for(MutableBlockPos leafpos : leaves) {
+					vmap.setVoxel(findPos.getX() + leafpos.getX(), findPos.getY() + leafpos.getY(), findPos.getZ() + leafpos.getZ(), (byte) 0);
+				}
+			}
+		}
+		
+		ArrayList<ItemStack> dropList = new ArrayList<ItemStack>();
+		
+		//Destroy all family compatible leaves
+		for(Cell cell: vmap.getAllNonZeroCells()) {
+			MutableBlockPos pos = cell.getPos();
+			IBlockState blockState = world.getBlockState(pos);
+			if( family.isCompatibleGenericLeaves(blockState, world, pos) ) {
+				dropList.clear();
+				species.getTreeHarvestDrops(world, pos, dropList, world.rand);
+				BlockPos imPos = pos.toImmutable();//We are storing this so it must be immutable
+				BlockPos relPos = imPos.subtract(cutPos);
+				world.setBlockState(imPos, ModBlocks.blockStates.air, 0);//Covertly destroy the leaves on the server side
+				destroyedLeaves.put(relPos, blockState);
+				dropList.forEach(i -> drops.add(new BlockItemStack(i, relPos)) );
+			}
+		}
+	
+	}
+	
+	/**
+	 * Produces the same result as {@link #destroyLeavesScan} while only reading the 7x7x7 volumes around the
+	 * endpoints and the buckets of blocks within a leaf cluster's reach of the leaves actually found there.
+	 * The leaves are removed chunk section by chunk section.
+	 */
+	private void destroyLeavesFast(World world, BlockPos cutPos, Species species, List<BlockPos> endPoints, Map<BlockPos, IBlockState> destroyedLeaves, List<BlockItemStack> drops) {
+		
+		TreeFamily family = species.getFamily();
+		BlockBranch familyBranch = family.getDynamicBranch();
+		int primaryThickness = (int) family.getPrimaryThickness();
+		
+		List<BlockPos> cluster = new ArrayList<>();
+		int clusterReach = 0;
+		for(MutableBlockPos leafPos : species.getLeavesProperties().getCellKit().getLeafCluster().getAllNonZero()) {
+			cluster.add(leafPos.toImmutable());
+			clusterReach = Math.max(clusterReach, Math.max(Math.abs(leafPos.getX()), Math.max(Math.abs(leafPos.getY()), Math.abs(leafPos.getZ()))));
+		}
+		
+		TreeWorldView view = TreeWorldView.open(world);
+		try {
+			//Flag a 7x7 destruction volume around each endpoint.  We know that the endpoints themselves do not have leaves blocks in them because they were branches
+			LongOpenHashSet candidates = new LongOpenHashSet();
 			for(BlockPos endPos : endPoints) {
 				for(BlockPos leafPos : BlockPos.getAllInBoxMutable(endPos.add(-3, -3, -3), endPos.add(3, 3, 3)) ) {
-					vmap.setVoxel(leafPos, (byte) 1);//Flag this position for destruction
+					candidates.add(leafPos.toLong());
 				}
-				vmap.setVoxel(endPos, (byte) 0);//We know that the endpoint does not have a leaves block in it because it was a branch
+			}
+			for(BlockPos endPos : endPoints) {
+				candidates.remove(endPos.toLong());
 			}
 			
-			TreeFamily family = species.getFamily();
-			BlockBranch familyBranch = family.getDynamicBranch();
-			int primaryThickness = (int) family.getPrimaryThickness();
+			//Keep only the family compatible leaves and hash the buckets they are in
+			Long2ObjectOpenHashMap<IBlockState> leaves = new Long2ObjectOpenHashMap<>();
+			LongOpenHashSet buckets = new LongOpenHashSet();
+			for(LongIterator it = candidates.iterator(); it.hasNext();) {
+				BlockPos pos = BlockPos.fromLong(it.nextLong());
+				IBlockState blockState = view.getBlockState(pos);
+				if( family.isCompatibleGenericLeaves(blockState, view, pos) ) {
+					leaves.put(pos.toLong(), blockState);
+					buckets.add(new BlockPos(pos.getX() >> LEAVES_BUCKET_SHIFT, pos.getY() >> LEAVES_BUCKET_SHIFT, pos.getZ() >> LEAVES_BUCKET_SHIFT).toLong());
+				}
+			}
 			
-			//Expand the volume yet again by 3 blocks in all directions and search for other non-destroyed endpoints
-			for(MutableBlockPos findPos : bounds.expand(3).iterate() ) {
-				IBlockState findState = world.getBlockState(findPos);
-				if( familyBranch.getRadius(findState) == primaryThickness ) { //Search for endpoints of the same tree family
-					Iterable<MutableBlockPos> leaves = species.getLeavesProperties().getCellKit().getLeafCluster().getAllNonZero();
-					for(MutableBlockPos leafpos : leaves) {
-						vmap.setVoxel(findPos.getX() + leafpos.getX(), findPos.getY() + leafpos.getY(), findPos.getZ() + leafpos.getZ(), (byte) 0);
+			//Only endpoints within a leaf cluster's reach of those leaves can spare them
+			int reach = (clusterReach + (1 << LEAVES_BUCKET_SHIFT) - 1) >> LEAVES_BUCKET_SHIFT;
+			LongOpenHashSet searched = new LongOpenHashSet();
+			MutableBlockPos findPos = new MutableBlockPos();
+			MutableBlockPos leavesPos = new MutableBlockPos();
+			for(LongIterator it = buckets.iterator(); it.hasNext() && !leaves.isEmpty();) {
+				BlockPos bucket = BlockPos.fromLong(it.nextLong());
+				for(BlockPos near : BlockPos.getAllInBox(bucket.add(-reach, -reach, -reach), bucket.add(reach, reach, reach))) {
+					if(!searched.add(near.toLong())) {
+						continue;
+					}
+					int baseX = near.getX() << LEAVES_BUCKET_SHIFT, baseY = near.getY() << LEAVES_BUCKET_SHIFT, baseZ = near.getZ() << LEAVES_BUCKET_SHIFT;
+					for(int y = Math.max(baseY, 0); y < Math.min(baseY + (1 << LEAVES_BUCKET_SHIFT), 256); y++) {
+						for(int z = baseZ; z < baseZ + (1 << LEAVES_BUCKET_SHIFT); z++) {
+							for(int x = baseX; x < baseX + (1 << LEAVES_BUCKET_SHIFT); x++) {
+								if( familyBranch.getRadius(view.getBlockState(findPos.setPos(x, y, z))) == primaryThickness ) { //Search for endpoints of the same tree family
+									for(BlockPos leafPos : cluster) {
+										leaves.remove(leavesPos.setPos(x + leafPos.getX(), y + leafPos.getY(), z + leafPos.getZ()).toLong());
+									}
+								}
+							}
+						}
 					}
 				}
 			}
 			
+			List<BlockPos> destroy = new ArrayList<>(leaves.size());
+			for(LongIterator it = leaves.keySet().iterator(); it.hasNext();) {
+				destroy.add(BlockPos.fromLong(it.nextLong()));
+			}
+			destroy.sort(SECTION_ORDER);
+			
 			ArrayList<ItemStack> dropList = new ArrayList<ItemStack>();
 			
 			//Destroy all family compatible leaves
-			for(Cell cell: vmap.getAllNonZeroCells()) {
-				MutableBlockPos pos = cell.getPos();
-				IBlockState blockState = world.getBlockState(pos);
-				if( family.isCompatibleGenericLeaves(blockState, world, pos) ) {
-					dropList.clear();
-					species.getTreeHarvestDrops(world, pos, dropList, world.rand);
-					BlockPos imPos = pos.toImmutable();//We are storing this so it must be immutable
-					BlockPos relPos = imPos.subtract(cutPos);
-					world.setBlockState(imPos, ModBlocks.blockStates.air, 0);//Covertly destroy the leaves on the server side
-					destroyedLeaves.put(relPos, blockState);
-					dropList.forEach(i -> drops.add(new BlockItemStack(i, relPos)) );
-				}
+			for(BlockPos pos : destroy) {
+				dropList.clear();
+				species.getTreeHarvestDrops(world, pos, dropList, world.rand);
+				BlockPos relPos = pos.subtract(cutPos);
+				view.setBlockState(pos, ModBlocks.blockStates.air, 0);//Covertly destroy the leaves on the server side
+				destroyedLeaves.put(relPos, leaves.get(pos.toLong()));
+				dropList.forEach(i -> drops.add(new BlockItemStack(i, relPos)) );
 			}
+			view.flush();//Don't wait on an outer operation.  The falling tree is built right after this
+		} finally {
+			view.close();
 		}
 		
 	}
@@ -527,8 +652,26 @@ public abstract class BlockBranch extends Block implements ITreePart, IFutureBre
 	
 	public static EnumDestroyMode destroyMode = EnumDestroyMode.SLOPPY;
 	
+	@Override
+	public void onBlockAdded(World world, BlockPos pos, IBlockState state) {
+		TreeTopologyCache.invalidate(world, pos);//The new branch may have joined or bridged cached networks
+		EndpointTracker.update(world, pos, null);//Growth places new branches with setRadius which ends up here
+		LeavesTickScheduler.invalidate(world, pos);//New branches hydrate the leaves around them
+	}
+	
 	@Override
 	public void breakBlock(World world, BlockPos pos, IBlockState state) {
+		TreeTopologyCache.invalidate(world, pos);//Covers rot, harvesting and any other branch removal
+		switch(destroyMode) {
+			case SETRADIUS: break;//Just swapping branch blocks.  The network is unchanged
+			case HARVEST://The whole section is going.  destroyBranchFromNode fixes up the stump afterwards
+			case IGNORE: EndpointTracker.remove(world, pos); break;
+			default: EndpointTracker.update(world, pos, null); break;//Rot and everything else
+		}
+		if(destroyMode != EnumDestroyMode.SETRADIUS) {
+			TreeDormancy.wakeAround(world, pos);//Lost branches leave room to grow into
+			LeavesTickScheduler.invalidate(world, pos);//The leaves around it have lost their water
+		}
 		if(!world.isRemote && destroyMode == EnumDestroyMode.SLOPPY) {
 			//System.out.println("Sloppy break detected at: " + pos);
 			IBlockState toBlockState = world.getBlockState(pos);
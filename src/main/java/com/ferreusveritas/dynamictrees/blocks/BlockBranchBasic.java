@@ -3,17 +3,18 @@ package com.ferreusveritas.dynamictrees.blocks;
 import java.util.List;
 import java.util.Random;
 
-import com.ferreusveritas.dynamictrees.ModBlocks;
 import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.api.TreeHelper;
 import com.ferreusveritas.dynamictrees.api.cells.CellNull;
 import com.ferreusveritas.dynamictrees.api.cells.ICell;
 import com.ferreusveritas.dynamictrees.api.network.MapSignal;
+import com.ferreusveritas.dynamictrees.api.network.NetworkWalker;
 import com.ferreusveritas.dynamictrees.api.treedata.ILeavesProperties;
-import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
 import com.ferreusveritas.dynamictrees.cells.CellMetadata;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
 import com.ferreusveritas.dynamictrees.systems.GrowSignal;
+import com.ferreusveritas.dynamictrees.systems.GrowSignalWalker;
+import com.ferreusveritas.dynamictrees.systems.TreeTopologyCache;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.trees.TreeFamily;
 
@@ -244,9 +245,11 @@ public class BlockBranchBasic extends BlockBranch {
 	
 	@Override
 	public int setRadius(World world, BlockPos pos, int radius, EnumFacing originDir, int flags) {
+		IBlockState newState = getStateForRadius(radius);
 		destroyMode = EnumDestroyMode.SETRADIUS;
-		world.setBlockState(pos, getStateForRadius(radius), flags);
+		world.setBlockState(pos, newState, flags);
 		destroyMode = EnumDestroyMode.SLOPPY;
+		TreeTopologyCache.updateRadius(world, pos, newState);//New and removed branches already threw the tree out in onBlockAdded and breakBlock
 		return radius;
 	}
 	
@@ -268,6 +271,7 @@ public class BlockBranchBasic extends BlockBranch {
 		if (leaves != null) {
 			if (fromRadius == 1) {// If we came from a twig then just make some leaves
 				signal.success = leaves.growLeavesIfLocationIsSuitable(world, species.getLeavesProperties(), pos, 0);
+				signal.changed |= signal.success;
 			} else {// Otherwise make a proper branch
 				return leaves.branchOut(world, pos, signal);
 			}
@@ -277,67 +281,7 @@ public class BlockBranchBasic extends BlockBranch {
 	
 	@Override
 	public GrowSignal growSignal(World world, BlockPos pos, GrowSignal signal) {
-				
-		if (signal.step()) {// This is always placed at the beginning of every growSignal function
-			
-			IBlockState currBlockState = world.getBlockState(pos);
-			Species species = signal.getSpecies();
-			boolean inTrunk = signal.isInTrunk();
-			
-			EnumFacing originDir = signal.dir.getOpposite();// Direction this signal originated from
-			EnumFacing targetDir = species.selectNewDirection(world, pos, this, signal);// This must be cached on the stack for proper recursion
-			signal.doTurn(targetDir);
-			
-			{
-				BlockPos deltaPos = pos.offset(targetDir);
-				IBlockState deltaState = world.getBlockState(deltaPos);
-				
-				// Pass grow signal to next block in path
-				ITreePart treepart = TreeHelper.getTreePart(deltaState);
-				if (treepart != TreeHelper.nullTreePart) {
-					signal = treepart.growSignal(world, deltaPos, signal);// Recurse
-				} else if (world.isAirBlock(deltaPos) || deltaState.getBlock() == ModBlocks.blockTrunkShell) {
-					signal = growIntoAir(world, deltaPos, signal, getRadius(currBlockState));
-				}
-			}
-			
-			// Calculate Branch Thickness based on neighboring branches
-			float areaAccum = signal.radius * signal.radius;// Start by accumulating the branch we just came from
-			
-			for (EnumFacing dir : EnumFacing.VALUES) {
-				if (!dir.equals(originDir) && !dir.equals(targetDir)) {// Don't count where the signal originated from or the branch we just came back from
-					BlockPos deltaPos = pos.offset(dir);
-					
-					// If it is decided to implement a special block(like a squirrel hole, tree
-					// swing, rotting, burned or infested branch, etc) then this new block could be
-					// derived from BlockBranch and this works perfectly. Should even work with
-					// tileEntity blocks derived from BlockBranch.
-					IBlockState blockState = world.getBlockState(deltaPos);
-					ITreePart treepart = TreeHelper.getTreePart(blockState);
-					if (isSameTree(treepart)) {
-						int branchRadius = treepart.getRadius(blockState);
-						areaAccum += branchRadius * branchRadius;
-					}
-				}
-			}
-						
-			//Only continue to set radii if the tree growth isn't choked out
-			if(!signal.choked) {
-				// Ensure that side branches are not thicker than the size of a block.  Also enforce species max thickness
-				int maxRadius = inTrunk ? species.maxBranchRadius() : Math.min(species.maxBranchRadius(), RADMAX_NORMAL);
-				
-				// The new branch should be the square root of all of the sums of the areas of the branches coming into it.
-				// But it shouldn't be smaller than it's current size(prevents the instant slimming effect when chopping off branches)
-				signal.radius = MathHelper.clamp((float) Math.sqrt(areaAccum) + species.getTapering(), getRadius(currBlockState), maxRadius);// WOW!
-				int targetRadius = (int) Math.floor(signal.radius);
-				int setRad = setRadius(world, pos, targetRadius, originDir);
-				if(setRad < targetRadius) { //We tried to set a radius but it didn't comply because something is in the way.
-					signal.choked = true; //If something is in the way then it means that the tree growth is choked
-				}
-			}
-		}
-		
-		return signal;
+		return GrowSignalWalker.walk(world, this, pos, signal);
 	}
 	
 	
@@ -422,65 +366,27 @@ public class BlockBranchBasic extends BlockBranch {
 	// NODE ANALYSIS
 	///////////////////////////////////////////
 	
+	/**
+	 * No longer consulted.  Network loops are detected directly by the {@link NetworkWalker}
+	 * so there is no need to cap the depth of an analysis.
+	 */
+	@Deprecated
 	protected int getMaxSignalDepth() {
 		return 32;
 	}
 	
 	/**
-	 * This is a recursive algorithm used to explore the branch network.  It calls a run() function for the signal on the way out
+	 * This algorithm is used to explore the branch network.  It calls a run() function for the signal on the way out
 	 * and a returnRun() on the way back.
 	 * 
-	 * Okay so a little explanation here..  
-	 * I've been hit up by people who claim that recursion is a bad idea.  The reason why they think this is because java has to push values
-	 * on the stack for each level of recursion and then pop them off as the levels complete.  Many times this can lead to performance issues.
-	 * Fine, I understand that.  The reason why it doesn't matter here is because of the object oriented nature of how the tree parts
-	 * function demand that a different analyze function be called for each object type.  Even if this were rewritten to be iterative the
-	 * same number of stack pushes and pops would need to be performed to run the custom function for each node in the network anyway.  The
-	 * depth of recursion for this algorithm is less than 32.  So there's no real risk of a stack overflow.
-	 * 
-	 * The difference being that in an iterative design I would need to maintain a stack array holding all of the values and push and pop
-	 * them manually or use a stack index.  This is messy and not something I would want to maintain for practically non-existent gains.
-	 * Java does a pretty good job of managing the stack on its own.
+	 * The actual walking is done by the {@link NetworkWalker} which keeps the path on an explicit stack.  Big jungle and
+	 * dark oak trees are analysed several times per update and are easily deeper than the old recursion limit of 32 so the
+	 * walker tracks visited nodes to catch network loops instead of relying on a depth limit.  Tree parts that override
+	 * this method are still called normally when they are encountered in the network.
 	 */
 	@Override
 	public MapSignal analyse(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir, MapSignal signal) {
-		// Note: fromDir will be null in the origin node
-		
-		if(signal.overflow || (signal.trackVisited && signal.doTrackingVisited(pos))) {
-			return signal;
-		}
-		
-		if (signal.depth++ < getMaxSignalDepth()) {// Prevents going too deep into large networks, or worse, being caught in a network loop
-			signal.run(blockState, world, pos, fromDir);// Run the inspectors of choice
-			for (EnumFacing dir : EnumFacing.VALUES) {// Spread signal in various directions
-				if (dir != fromDir) {// don't count where the signal originated from
-					BlockPos deltaPos = pos.offset(dir);
-					
-					IBlockState deltaState = world.getBlockState(deltaPos);
-					ITreePart treePart = TreeHelper.getTreePart(deltaState);
-					
-					if(treePart.shouldAnalyse()) {
-						signal = treePart.analyse(deltaState, world, deltaPos, dir.getOpposite(), signal);
-					
-						// This should only be true for the originating block when the root node is found
-						if (signal.found && signal.localRootDir == null && fromDir == null) {
-							signal.localRootDir = dir;
-						}
-					}
-				}
-			}
-			signal.returnRun(blockState, world, pos, fromDir);
-		} else {
-			IBlockState state = world.getBlockState(pos);
-			if(signal.destroyLoopedNodes && state.getBlock() instanceof BlockBranch) {
-				BlockBranch branch = (BlockBranch) state.getBlock();
-				branch.breakDeliberate(world, pos, EnumDestroyMode.OVERFLOW);// Destroy one of the offending nodes
-			}
-			signal.overflow = true;
-		}
-		signal.depth--;
-		
-		return signal;
+		return NetworkWalker.walk(blockState, world, pos, fromDir, signal);
 	}
 	
 }
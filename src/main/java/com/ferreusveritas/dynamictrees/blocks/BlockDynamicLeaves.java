@@ -17,10 +17,14 @@ import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
 import com.ferreusveritas.dynamictrees.items.Seed;
 import com.ferreusveritas.dynamictrees.systems.GrowSignal;
+import com.ferreusveritas.dynamictrees.systems.HydrationSolver;
+import com.ferreusveritas.dynamictrees.systems.LeavesTickScheduler;
+import com.ferreusveritas.dynamictrees.systems.TreeProfiler;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.trees.TreeFamily;
 import com.ferreusveritas.dynamictrees.util.IRayTraceCollision;
 import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
+import com.ferreusveritas.dynamictrees.util.TreeWorldView;
 
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockDoublePlant;
@@ -131,10 +135,16 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 	public void updateTick(World worldIn, BlockPos pos, IBlockState state, Random rand) {
 		if (rand == null) rand = backupRng;
 		if(rand.nextInt(ModConfigs.treeGrowthFolding) == 0) {
+			TreeProfiler.Sample sample = TreeProfiler.begin();
 			float attempts = ModConfigs.treeGrowthFolding * ModConfigs.treeGrowthMultiplier;
+			boolean scheduled = LeavesTickScheduler.isEnabled(worldIn);//The scheduler looks at the blocks itself when it gets to them
 			
 			if(attempts >= 1.0f || rand.nextFloat() < attempts) {
-				doTick(worldIn, pos, state, rand);
+				if(scheduled) {
+					LeavesTickScheduler.schedule(worldIn, pos);
+				} else {
+					doTick(worldIn, pos, state, rand);
+				}
 			}
 			
 			int start = rand.nextInt(26);
@@ -144,12 +154,20 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 					int r = (start++ % 26) + 14;//14 - 39
 					r = r > 26 ? r - 13 : r - 14;//0 - 26 but Skip 13
 					BlockPos dPos = pos.add((r % 3) - 1, ((r / 3) % 3) - 1, ((r / 9) % 3) - 1);// (-1, -1, -1) to (1, 1, 1) skipping (0, 0, 0)  
+					if(scheduled) {
+						LeavesTickScheduler.schedule(worldIn, dPos);
+						continue;
+					}
 					IBlockState dState = worldIn.getBlockState(dPos);
 					if(dState.getBlock() instanceof BlockDynamicLeaves) {
 						((BlockDynamicLeaves)dState.getBlock()).doTick(worldIn, dPos, dState, rand);
 					}
 				}
 			}
+			
+			if(sample != null) {
+				TreeProfiler.end(sample, TreeProfiler.Section.LEAVES_TICK, getProperties(state).getTree().getCommonSpecies(), worldIn);
+			}
 		}
 	}
 	
@@ -168,7 +186,8 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 		boolean worldGen = safeBounds != SafeChunkBounds.ANY;
 		
 		//Check hydration level.  Dry leaves are dead leaves.
-		int newHydro = getHydrationLevelFromNeighbors(world, pos, leavesProperties);
+		IBlockAccess access = TreeWorldView.of(world);
+		int newHydro = getHydrationLevelFromNeighbors(access, pos, leavesProperties);
 		
 		if(newHydro == 0 || (!worldGen && !hasAdequateLight(state, world, leavesProperties, pos))) { //Light doesn't work right during worldgen so we'll just disable it during worldgen for now.
 			world.setBlockToAir(pos);//No water, no light .. no leaves
@@ -188,7 +207,7 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 			if(newHydro > 1 || rand.nextInt(4) == 0 ) {//we'll give it a 1 in 4 chance to grow leaves if hydro is low to help performance
 				BlockPos offpos = pos.offset(dir);
 				if(safeBounds.inBounds(offpos, true) && isLocationSuitableForNewLeaves(world, leavesProperties, offpos)) {//Attempt to grow new leaves
-					int hydro = getHydrationLevelFromNeighbors(world, offpos, leavesProperties);
+					int hydro = getHydrationLevelFromNeighbors(access, offpos, leavesProperties);
 					if(hydro > 0) {
 						world.setBlockState(offpos, newLeavesHander.getLeaves(world, offpos, leavesProperties.getDynamicLeavesState(hydro)), 2);//Removed Notify Neighbors Flag for performance
 					}
@@ -217,9 +236,31 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 	protected static interface NewLeavesPropertiesHandler {
 		IBlockState getLeaves(World world, BlockPos pos, IBlockState leavesStateWithHydro);
 	}
+
+	/**
+	 * Places a new leaves block next to this one.  Used when the hydration
+	 * of the new block has already been worked out elsewhere, like in the
+	 * {@link HydrationSolver}.
+	 *
+	 * @param world The world
+	 * @param pos Position of the existing leaves block
+	 * @param state The state of the existing leaves block
+	 * @param hydro The hydration value of the existing leaves block
+	 * @param newPos Position of the new leaves block
+	 * @param newHydro The hydration value of the new leaves block
+	 * @param worldGen true if this is happening during worldgen
+	 * @return The state that was placed
+	 */
+	public IBlockState growNewLeaves(World world, BlockPos pos, IBlockState state, int hydro, BlockPos newPos, int newHydro, boolean worldGen) {
+		IBlockState newState = getNewLeavesPropertiesHandler(world, pos, state, hydro, worldGen).getLeaves(world, newPos, getProperties(state).getDynamicLeavesState(newHydro));
+		world.setBlockState(newPos, newState, 2);//Removed Notify Neighbors Flag for performance
+		return newState;
+	}
 	
 	@Override
-	public void breakBlock(World worldIn, BlockPos pos, IBlockState state) {}
+	public void breakBlock(World worldIn, BlockPos pos, IBlockState state) {
+		LeavesTickScheduler.invalidate(worldIn, pos);//The leaves around it may have lost their water
+	}
 	
 	@Override
 	public boolean isPassable(IBlockAccess access, BlockPos pos) {
@@ -529,6 +570,7 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 		}
 		
 		signal.success = hasLeaves;
+		signal.changed |= hasLeaves;
 		
 		return signal;
 	}
@@ -540,6 +582,7 @@ public class BlockDynamicLeaves extends BlockLeaves implements ITreePart, IAgeab
 	
 	@Override
 	public void neighborChanged(IBlockState state, World worldIn, BlockPos pos, Block blockIn, BlockPos fromPos) {
+		LeavesTickScheduler.invalidate(worldIn, pos);
 		if(ModConfigs.enableAltLeavesSnow && (fromPos.getY() - pos.getY() == 1)) {
 			IBlockState newState = worldIn.getBlockState(fromPos);
 			if(newState.getBlock() == Blocks.SNOW_LAYER) {
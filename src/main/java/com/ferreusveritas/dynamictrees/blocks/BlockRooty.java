@@ -16,6 +16,11 @@ import com.ferreusveritas.dynamictrees.blocks.MimicProperty.IMimic;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree.DestroyType;
 import com.ferreusveritas.dynamictrees.systems.GrowSignal;
+import com.ferreusveritas.dynamictrees.systems.EndpointTracker;
+import com.ferreusveritas.dynamictrees.systems.TreeDormancy;
+import com.ferreusveritas.dynamictrees.systems.TreeProfiler;
+import com.ferreusveritas.dynamictrees.systems.TreeTopologyCache;
+import com.ferreusveritas.dynamictrees.systems.TreeUpdateScheduler;
 import com.ferreusveritas.dynamictrees.tileentity.TileEntitySpecies;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.trees.TreeFamily;
@@ -90,12 +95,26 @@ public class BlockRooty extends Block implements ITreePart, ITileEntityProvider,
 	
 	/** Called serverside after this block is replaced with another in Chunk, but before the Tile Entity is updated */
 	public void breakBlock(World worldIn, BlockPos pos, IBlockState state) {
+		TreeTopologyCache.invalidate(worldIn, pos);
+		EndpointTracker.removeTree(worldIn, pos);
+		TreeDormancy.remove(worldIn, pos);
 		super.breakBlock(worldIn, pos, state);
 		if(hasTileEntity(state)) {
 			worldIn.removeTileEntity(pos);
 		}
 	}
 	
+	@Override
+	public void onBlockAdded(World worldIn, BlockPos pos, IBlockState state) {
+		TreeTopologyCache.invalidate(worldIn, pos);//A new root block touching a network makes it a multiroot network
+		EndpointTracker.update(worldIn, pos, pos);
+	}
+	
+	@Override
+	public void neighborChanged(IBlockState state, World worldIn, BlockPos pos, Block blockIn, BlockPos fromPos) {
+		TreeDormancy.wake(worldIn, pos);//Whatever changed may have made room for the tree
+	}
+	
 	@Override
 	public boolean hasTileEntity(IBlockState state) {
 		return hasTileEntity;
@@ -149,7 +168,11 @@ public class BlockRooty extends Block implements ITreePart, ITileEntityProvider,
 	@Override
 	public void randomTick(World world, BlockPos pos, IBlockState state, Random random) {
 		if(random.nextInt(ModConfigs.treeGrowthFolding) == 0) {
-			updateTree(state, world, pos, random, true);
+			if(TreeUpdateScheduler.isEnabled(world)) {
+				TreeUpdateScheduler.schedule(world, pos);
+			} else {
+				updateTree(state, world, pos, random, true);
+			}
 		}
 	}
 	
@@ -168,6 +191,7 @@ public class BlockRooty extends Block implements ITreePart, ITileEntityProvider,
 		
 		if(CoordUtils.isSurroundedByLoadedChunks(world, rootPos)) {
 			
+			TreeProfiler.Sample sample = TreeProfiler.begin();
 			boolean viable = false;
 			
 			Species species = getSpecies(rootyState, world, rootPos);
@@ -186,6 +210,7 @@ public class BlockRooty extends Block implements ITreePart, ITileEntityProvider,
 				world.setBlockState(rootPos, getDecayBlockState(world, rootPos), 3);
 			}
 			
+			TreeProfiler.end(sample, TreeProfiler.Section.UPDATE_TREE, species, world);
 		}
 		
 	}
@@ -303,6 +328,7 @@ public class BlockRooty extends Block implements ITreePart, ITileEntityProvider,
 			return false;//Already maxed out
 		}
 		setSoilLife(world, pos, soilLife + amount);
+		TreeDormancy.wake(world, pos);
 		return true;
 	}
 	
@@ -415,6 +441,7 @@ public class BlockRooty extends Block implements ITreePart, ITileEntityProvider,
 			TileEntitySpecies rootyDirtTE = getTileEntitySpecies(world, rootPos);
 			if(rootyDirtTE instanceof TileEntitySpecies) {
 				rootyDirtTE.setSpecies(species);
+				TreeTopologyCache.invalidate(world, rootPos);
 			}
 		}
 	}
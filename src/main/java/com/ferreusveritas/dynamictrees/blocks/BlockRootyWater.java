@@ -170,6 +170,7 @@ public class BlockRootyWater extends BlockRooty {
 	}
 	
 	public void neighborChanged(IBlockState state, World worldIn, BlockPos pos, Block blockIn, BlockPos fromPos) {
+		super.neighborChanged(state, worldIn, pos, blockIn, fromPos);
 		
 		int y = fromPos.getY() - pos.getY();
 		
@@ -62,7 +62,7 @@ public abstract class CommandChunkBased extends SubCommand {
 			radius = CommandBase.parseInt(args[3]);
 		}
 		
-		processChunk(world, cPos, radius);
+		processChunk(world, cPos, radius, sender);
 	}
 	
 	public static List<String> getTabCompletionCoordinate(String[] inputArgs, int index, @Nullable BlockPos pos) {
@@ -81,6 +81,6 @@ public abstract class CommandChunkBased extends SubCommand {
 	}
 	
 	
-	abstract void processChunk(World world, ChunkPos cPos, int radius);
+	abstract void processChunk(World world, ChunkPos cPos, int radius, ICommandSender sender);
 	
 }
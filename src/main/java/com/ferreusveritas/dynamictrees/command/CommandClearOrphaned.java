@@ -2,6 +2,7 @@ package com.ferreusveritas.dynamictrees.command;
 
 import com.ferreusveritas.dynamictrees.util.ChunkTreeHelper;
 
+import net.minecraft.command.ICommandSender;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 
@@ -15,8 +16,8 @@ public class CommandClearOrphaned extends CommandChunkBased {
 	}
 	
 	@Override
-	void processChunk(World world, ChunkPos cPos, int radius) {
-		ChunkTreeHelper.removeOrphanedBranchNodes(world, cPos, radius);
+	void processChunk(World world, ChunkPos cPos, int radius, ICommandSender sender) {
+		ChunkTreeHelper.schedule(world, cPos, radius, ChunkTreeHelper.Mode.CLEAR_ORPHANED, sender);
 	}
 	
 }
@@ -0,0 +1,69 @@
+package com.ferreusveritas.dynamictrees.command;
+
+import java.util.List;
+import java.util.Map.Entry;
+
+import com.ferreusveritas.dynamictrees.api.worldgen.IPoissonDiscProvider;
+import com.ferreusveritas.dynamictrees.systems.poissondisc.PoissonDiscProvider;
+import com.ferreusveritas.dynamictrees.worldgen.TreeGenerator;
+import com.google.common.collect.Lists;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.World;
+
+public class CommandDiscCache extends SubCommand {
+
+	public static final String DISCCACHE = "disccache";
+	public static final String CLEAR = "clear";
+	
+	@Override
+	public String getName() {
+		return DISCCACHE;
+	}
+	
+	@Override
+	public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos targetPos) {
+		
+		if(args.length == 2) {
+			return CommandBase.getListOfStringsMatchingLastWord(args, Lists.newArrayList(CLEAR));
+		}
+		
+		return super.getTabCompletions(server, sender, args, targetPos);
+	}
+	
+	@Override
+	public void execute(World world, ICommandSender sender, String[] args) throws CommandException {
+		
+		boolean clear = false;
+		if(args.length >= 2) {
+			if(!CLEAR.equals(args[1])) {
+				throw new WrongUsageException("commands.dynamictrees.disccache.usage");
+			}
+			clear = true;
+		}
+		
+		sender.sendMessage(new TextComponentString("Limit: " + PoissonDiscProvider.getMaxEntries() + " entries per dimension"));
+		
+		for(Entry<Integer, IPoissonDiscProvider> entry : TreeGenerator.getTreeGenerator().getCircleProvider().getProviders().entrySet()) {
+			if(entry.getValue() instanceof PoissonDiscProvider) {
+				PoissonDiscProvider provider = (PoissonDiscProvider) entry.getValue();
+				if(clear) {
+					provider.clearMetrics();
+				}
+				long lookups = provider.hits + provider.misses;
+				float hitRate = lookups > 0 ? provider.hits * 100f / lookups : 0;
+				sender.sendMessage(new TextComponentString(String.format("Dim %d: Entries: %d Solved Ahead: %d Bytes: %d Hit Rate: %.1f%% Evictions: %d",
+					entry.getKey(), provider.getNumEntries(), provider.getNumSolved(), provider.getEstimatedBytes(), hitRate, provider.evictions)));
+			} else {
+				sender.sendMessage(new TextComponentString("Dim " + entry.getKey() + ": " + entry.getValue().getClass().getSimpleName()));
+			}
+		}
+	}
+	
+}
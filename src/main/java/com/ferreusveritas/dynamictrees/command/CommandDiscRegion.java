@@ -0,0 +1,81 @@
+package com.ferreusveritas.dynamictrees.command;
+
+import java.util.List;
+
+import com.ferreusveritas.dynamictrees.api.worldgen.IPoissonDiscProvider;
+import com.ferreusveritas.dynamictrees.systems.poissondisc.PoissonDiscProvider;
+import com.ferreusveritas.dynamictrees.systems.poissondisc.PoissonDiscRegionSolver;
+import com.ferreusveritas.dynamictrees.worldgen.TreeGenerator;
+import com.google.common.collect.Lists;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.World;
+
+/**
+ * Solves the Poisson discs of the chunks around the sender ahead of time.  With "verify" the
+ * region is also solved row by row on a single thread with a provider of it's own and both results
+ * are compared.
+ * 
+ * @author ferreusveritas
+ */
+public class CommandDiscRegion extends SubCommand {
+
+	public static final String DISCREGION = "discregion";
+	public static final String VERIFY = "verify";
+	
+	@Override
+	public String getName() {
+		return DISCREGION;
+	}
+	
+	@Override
+	public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos targetPos) {
+		
+		if(args.length == 3) {
+			return CommandBase.getListOfStringsMatchingLastWord(args, Lists.newArrayList(VERIFY));
+		}
+		
+		return super.getTabCompletions(server, sender, args, targetPos);
+	}
+	
+	@Override
+	public void execute(World world, ICommandSender sender, String[] args) throws CommandException {
+		
+		if(args.length < 2 || (args.length >= 3 && !VERIFY.equals(args[2]))) {
+			throw new WrongUsageException("commands.dynamictrees.discregion.usage");
+		}
+		
+		int radius = CommandBase.parseInt(args[1], 1);
+		boolean verify = args.length >= 3;
+		
+		IPoissonDiscProvider discProvider = TreeGenerator.getTreeGenerator().getCircleProvider().getProvider(world);
+		if(!(discProvider instanceof PoissonDiscProvider) || !PoissonDiscRegionSolver.canSolve((PoissonDiscProvider) discProvider)) {
+			sender.sendMessage(new TextComponentString("The disc provider of this dimension can't be solved ahead of time"));
+			return;
+		}
+		
+		BlockPos pos = sender.getPosition();
+		PoissonDiscRegionSolver solver = new PoissonDiscRegionSolver(world, (PoissonDiscProvider) discProvider, pos.getX() >> 4, pos.getZ() >> 4, radius);
+		
+		long start = System.nanoTime();
+		byte[][] result = solver.solve(true);
+		long parallelNanos = System.nanoTime() - start;
+		sender.sendMessage(new TextComponentString(String.format("Solved %d chunks in %.1fms", solver.getNumToSolve(), parallelNanos / 1000000f)));
+		
+		if(verify) {
+			start = System.nanoTime();
+			byte[][] reference = solver.solveReference();
+			long referenceNanos = System.nanoTime() - start;
+			sender.sendMessage(new TextComponentString(String.format("Reference: %.1fms Mismatches: %d", referenceNanos / 1000000f, solver.countMismatches(result, reference))));
+		}
+		
+		solver.commit(result);
+	}
+	
+}
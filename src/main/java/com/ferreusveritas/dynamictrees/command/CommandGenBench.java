@@ -0,0 +1,134 @@
+package com.ferreusveritas.dynamictrees.command;
+
+import java.util.List;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.worldgen.TreePlanner;
+import com.google.common.collect.Lists;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+
+/**
+ * Reports how fast chunks get their trees with and without the worldgen planner.  The planner
+ * can be switched on and off for the running session so both can be measured while exploring
+ * new terrain.
+ * 
+ * "run" generates a square of new chunks far away from the sender with the planner used on
+ * every other chunk so both ways are measured side by side on the same terrain.  The chunks stay
+ * in the world and are saved with it so "run" has to be enabled in the config and confirmed.
+ * 
+ * @author ferreusveritas
+ */
+public class CommandGenBench extends SubCommand {
+
+	public static final String GENBENCH = "genbench";
+	public static final String ON = "on";
+	public static final String OFF = "off";
+	public static final String CLEAR = "clear";
+	public static final String RUN = "run";
+	public static final String CONFIRM = "confirm";
+	
+	/** Distance in chunks from the sender to the area generated by "run" */
+	public static final int RUN_OFFSET = 4096;
+	
+	@Override
+	public String getName() {
+		return GENBENCH;
+	}
+	
+	@Override
+	public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos targetPos) {
+		
+		if(args.length == 2) {
+			return CommandBase.getListOfStringsMatchingLastWord(args, Lists.newArrayList(ON, OFF, CLEAR, RUN));
+		}
+		
+		if(args.length == 4 && RUN.equals(args[1])) {
+			return CommandBase.getListOfStringsMatchingLastWord(args, Lists.newArrayList(CONFIRM));
+		}
+		
+		return super.getTabCompletions(server, sender, args, targetPos);
+	}
+	
+	@Override
+	public void execute(World world, ICommandSender sender, String[] args) throws CommandException {
+		
+		if(args.length >= 2) {
+			switch(args[1]) {
+				case ON: ModConfigs.worldGenPlanner = true; break;
+				case OFF: ModConfigs.worldGenPlanner = false; break;
+				case CLEAR: TreePlanner.clearMetrics(); break;
+				case RUN: run(world, sender, args); break;
+				default: throw new WrongUsageException("commands.dynamictrees.genbench.usage");
+			}
+		}
+		
+		sender.sendMessage(new TextComponentString("Planner: " + (ModConfigs.worldGenPlanner ? "on" : "off")));
+		sender.sendMessage(new TextComponentString(report("Direct", TreePlanner.chunksDirect, TreePlanner.nanosDirect)));
+		sender.sendMessage(new TextComponentString(report("Planned", TreePlanner.chunksPlanned, TreePlanner.nanosPlanned)));
+		sender.sendMessage(new TextComponentString("Planned Trees: " + TreePlanner.treesPlanned + " Fallback: " + TreePlanner.treesFallback));
+	}
+	
+	private void run(World world, ICommandSender sender, String[] args) throws CommandException {
+		if(args.length < 3) {
+			throw new WrongUsageException("commands.dynamictrees.genbench.usage");
+		}
+		
+		if(!ModConfigs.enableGenBenchRun) {
+			throw new CommandException("commands.dynamictrees.genbench.rundisabled");
+		}
+		
+		int size = CommandBase.parseInt(args[2], 2, 32);
+		ChunkPos origin = new ChunkPos(sender.getPosition());
+		int minX = origin.x + RUN_OFFSET;
+		int minZ = origin.z;
+		
+		if(args.length < 4 || !CONFIRM.equals(args[3])) {
+			throw new CommandException("commands.dynamictrees.genbench.runconfirm", size + 1, size + 1, minX, minZ, size);
+		}
+		
+		TreePlanner.clearMetrics();
+		TreePlanner.alternate = true;
+		long start = System.nanoTime();
+		try {
+			//A chunk is populated once the chunks on it's positive sides are there so one more row and column are made
+			for(int z = minZ; z <= minZ + size; z++) {
+				for(int x = minX; x <= minX + size; x++) {
+					world.getChunkProvider().provideChunk(x, z);
+				}
+			}
+		} finally {
+			TreePlanner.alternate = false;
+		}
+		long nanos = System.nanoTime() - start;
+		
+		if(world instanceof WorldServer) {
+			for(int z = minZ; z <= minZ + size; z++) {
+				for(int x = minX; x <= minX + size; x++) {
+					Chunk chunk = world.getChunkProvider().getLoadedChunk(x, z);
+					if(chunk != null) {
+						((WorldServer) world).getChunkProvider().queueUnload(chunk);
+					}
+				}
+			}
+		}
+		
+		sender.sendMessage(new TextComponentString(String.format("Generated %dx%d chunks at chunk %d, %d in %.2fs", size + 1, size + 1, minX, minZ, nanos / 1000000000f)));
+	}
+	
+	private String report(String label, long chunks, long nanos) {
+		float seconds = nanos / 1000000000f;
+		return String.format("%s: %d chunks in %.2fs (%.1f chunks/s, %.3fms/chunk)", label, chunks, seconds, seconds > 0 ? chunks / seconds : 0, chunks > 0 ? nanos / (chunks * 1000000f) : 0);
+	}
+	
+}
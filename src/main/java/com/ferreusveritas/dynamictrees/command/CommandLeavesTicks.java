@@ -0,0 +1,56 @@
+package com.ferreusveritas.dynamictrees.command;
+
+import java.util.List;
+
+import com.ferreusveritas.dynamictrees.systems.LeavesTickScheduler;
+import com.google.common.collect.Lists;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.World;
+
+public class CommandLeavesTicks extends SubCommand {
+
+	public static final String LEAVESTICKS = "leavesticks";
+	public static final String CLEAR = "clear";
+	
+	@Override
+	public String getName() {
+		return LEAVESTICKS;
+	}
+	
+	@Override
+	public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos targetPos) {
+		
+		if(args.length == 2) {
+			return CommandBase.getListOfStringsMatchingLastWord(args, Lists.newArrayList(CLEAR));
+		}
+		
+		return super.getTabCompletions(server, sender, args, targetPos);
+	}
+	
+	@Override
+	public void execute(World world, ICommandSender sender, String[] args) throws CommandException {
+		
+		if(args.length >= 2) {
+			if(!CLEAR.equals(args[1])) {
+				throw new WrongUsageException("commands.dynamictrees.leavesticks.usage");
+			}
+			LeavesTickScheduler.clearMetrics();
+		}
+		
+		long ticks = LeavesTickScheduler.ticks;
+		float avgMillis = ticks > 0 ? LeavesTickScheduler.tickNanos / (ticks * 1000000f) : 0;
+		
+		sender.sendMessage(new TextComponentString("Pending Clusters: " + LeavesTickScheduler.getNumPendingClusters()));
+		sender.sendMessage(new TextComponentString("Clusters: " + LeavesTickScheduler.clustersProcessed + " Stable: " + LeavesTickScheduler.clustersStable + " Invalidated: " + LeavesTickScheduler.clustersInvalidated));
+		sender.sendMessage(new TextComponentString("Leaves Scheduled: " + LeavesTickScheduler.leavesScheduled + " Dropped: " + LeavesTickScheduler.leavesDropped));
+		sender.sendMessage(new TextComponentString(String.format("Tick Time Avg: %.3fms Last: %.3fms Max: %.3fms", avgMillis, LeavesTickScheduler.lastTickNanos / 1000000f, LeavesTickScheduler.maxTickNanos / 1000000f)));
+	}
+	
+}
@@ -0,0 +1,52 @@
+package com.ferreusveritas.dynamictrees.command;
+
+import java.util.List;
+
+import com.ferreusveritas.dynamictrees.systems.NeighborUpdateQueue;
+import com.google.common.collect.Lists;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.World;
+
+public class CommandNeighborUpdates extends SubCommand {
+
+	public static final String NEIGHBORUPDATES = "neighborupdates";
+	public static final String CLEAR = "clear";
+
+	@Override
+	public String getName() {
+		return NEIGHBORUPDATES;
+	}
+
+	@Override
+	public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos targetPos) {
+
+		if(args.length == 2) {
+			return CommandBase.getListOfStringsMatchingLastWord(args, Lists.newArrayList(CLEAR));
+		}
+
+		return super.getTabCompletions(server, sender, args, targetPos);
+	}
+
+	@Override
+	public void execute(World world, ICommandSender sender, String[] args) throws CommandException {
+
+		if(args.length >= 2) {
+			if(!CLEAR.equals(args[1])) {
+				throw new WrongUsageException("commands.dynamictrees.neighborupdates.usage");
+			}
+			NeighborUpdateQueue.clearMetrics();
+		}
+
+		sender.sendMessage(new TextComponentString("Queue Depth: " + NeighborUpdateQueue.getDepth() + " Max: " + NeighborUpdateQueue.maxDepth));
+		sender.sendMessage(new TextComponentString("Queued: " + NeighborUpdateQueue.queued + " Merged: " + NeighborUpdateQueue.merged));
+		sender.sendMessage(new TextComponentString("Notified: " + NeighborUpdateQueue.notified + " Skipped: " + NeighborUpdateQueue.skipped));
+	}
+
+}
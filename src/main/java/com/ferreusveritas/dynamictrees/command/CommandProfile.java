@@ -0,0 +1,87 @@
+package com.ferreusveritas.dynamictrees.command;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.systems.TreeProfiler;
+import com.google.common.collect.Lists;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.World;
+
+/**
+ * Controls the {@link TreeProfiler}.  Reports the totals per section in chat and dumps
+ * everything including the per species and per dimension figures to a CSV file in the
+ * config directory.
+ *
+ * @author ferreusveritas
+ */
+public class CommandProfile extends SubCommand {
+
+	public static final String PROFILE = "profile";
+	public static final String START = "start";
+	public static final String STOP = "stop";
+	public static final String RESET = "reset";
+	public static final String DUMP = "dump";
+
+	@Override
+	public String getName() {
+		return PROFILE;
+	}
+
+	@Override
+	public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos targetPos) {
+
+		if(args.length == 2) {
+			return CommandBase.getListOfStringsMatchingLastWord(args, Lists.newArrayList(START, STOP, RESET, DUMP));
+		}
+
+		return super.getTabCompletions(server, sender, args, targetPos);
+	}
+
+	@Override
+	public void execute(World world, ICommandSender sender, String[] args) throws CommandException {
+
+		if(args.length >= 2) {
+			switch(args[1]) {
+				case START: TreeProfiler.start(args.length >= 3 ? CommandBase.parseInt(args[2], 1) : 1); break;
+				case STOP: TreeProfiler.stop(); break;
+				case RESET: TreeProfiler.reset(); break;
+				case DUMP: dump(sender); return;
+				default: throw new WrongUsageException("commands.dynamictrees.profile.usage");
+			}
+		}
+
+		sender.sendMessage(new TextComponentString(String.format("Profiler: %s Sampling: 1 in %d Elapsed: %.1fs", TreeProfiler.isEnabled() ? "on" : "off", TreeProfiler.getSampleRate(), TreeProfiler.getElapsedMillis() / 1000f)));
+
+		Map<TreeProfiler.Section, TreeProfiler.Stat> totals = TreeProfiler.getTotals();
+		for(Entry<TreeProfiler.Section, TreeProfiler.Stat> entry : totals.entrySet()) {
+			TreeProfiler.Stat stat = entry.getValue();
+			sender.sendMessage(new TextComponentString(String.format("%s: %d samples Avg: %.1fus Max: %.1fus Reads: %.1f Writes: %.1f",
+				entry.getKey().name().toLowerCase(), stat.count, stat.nanos / (stat.count * 1000f), stat.maxNanos / 1000f, stat.reads / (float) stat.count, stat.writes / (float) stat.count)));
+		}
+	}
+
+	private void dump(ICommandSender sender) throws CommandException {
+		File file = new File(ModConfigs.configDirectory, "dynamictrees/profile-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv");
+		try {
+			TreeProfiler.dump(file);
+		} catch (IOException e) {
+			throw new CommandException("commands.dynamictrees.profile.dumperror", e.getMessage());
+		}
+		sender.sendMessage(new TextComponentString("Profile written to " + file.getPath()));
+	}
+
+}
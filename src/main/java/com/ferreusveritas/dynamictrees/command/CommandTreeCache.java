@@ -0,0 +1,55 @@
+package com.ferreusveritas.dynamictrees.command;
+
+import java.util.List;
+
+import com.ferreusveritas.dynamictrees.systems.TreeTopologyCache;
+import com.google.common.collect.Lists;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.World;
+
+public class CommandTreeCache extends SubCommand {
+
+	public static final String TREECACHE = "treecache";
+	public static final String CLEAR = "clear";
+	
+	@Override
+	public String getName() {
+		return TREECACHE;
+	}
+	
+	@Override
+	public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos targetPos) {
+		
+		if(args.length == 2) {
+			return CommandBase.getListOfStringsMatchingLastWord(args, Lists.newArrayList(CLEAR));
+		}
+		
+		return super.getTabCompletions(server, sender, args, targetPos);
+	}
+	
+	@Override
+	public void execute(World world, ICommandSender sender, String[] args) throws CommandException {
+		
+		if(args.length >= 2) {
+			if(!CLEAR.equals(args[1])) {
+				throw new WrongUsageException("commands.dynamictrees.treecache.usage");
+			}
+			TreeTopologyCache.clear();
+		}
+		
+		long lookups = TreeTopologyCache.hits + TreeTopologyCache.misses;
+		float hitRate = lookups > 0 ? TreeTopologyCache.hits * 100f / lookups : 0;
+		
+		sender.sendMessage(new TextComponentString("Trees: " + TreeTopologyCache.getNumTrees() + " Nodes: " + TreeTopologyCache.getNumNodes()));
+		sender.sendMessage(new TextComponentString("Hits: " + TreeTopologyCache.hits + " Misses: " + TreeTopologyCache.misses + " Invalidations: " + TreeTopologyCache.invalidations));
+		sender.sendMessage(new TextComponentString(String.format("Hit Rate: %.1f%%", hitRate)));
+	}
+	
+}
@@ -0,0 +1,56 @@
+package com.ferreusveritas.dynamictrees.command;
+
+import java.util.List;
+
+import com.ferreusveritas.dynamictrees.systems.TreeUpdateScheduler;
+import com.google.common.collect.Lists;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.World;
+
+public class CommandTreeUpdates extends SubCommand {
+
+	public static final String TREEUPDATES = "treeupdates";
+	public static final String CLEAR = "clear";
+
+	@Override
+	public String getName() {
+		return TREEUPDATES;
+	}
+
+	@Override
+	public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos targetPos) {
+
+		if(args.length == 2) {
+			return CommandBase.getListOfStringsMatchingLastWord(args, Lists.newArrayList(CLEAR));
+		}
+
+		return super.getTabCompletions(server, sender, args, targetPos);
+	}
+
+	@Override
+	public void execute(World world, ICommandSender sender, String[] args) throws CommandException {
+
+		if(args.length >= 2) {
+			if(!CLEAR.equals(args[1])) {
+				throw new WrongUsageException("commands.dynamictrees.treeupdates.usage");
+			}
+			TreeUpdateScheduler.clearMetrics();
+		}
+
+		sender.sendMessage(new TextComponentString("Queue Length: " + TreeUpdateScheduler.getDepth() + " Max: " + TreeUpdateScheduler.maxDepth));
+		sender.sendMessage(new TextComponentString("Queued: " + TreeUpdateScheduler.queued + " Merged: " + TreeUpdateScheduler.merged));
+		sender.sendMessage(new TextComponentString("Drained: " + TreeUpdateScheduler.drained + " Skipped: " + TreeUpdateScheduler.skipped));
+		sender.sendMessage(new TextComponentString("Ticks: " + TreeUpdateScheduler.ticks + " Carried Over: " + TreeUpdateScheduler.carriedOver + " Budget Overruns: " + TreeUpdateScheduler.overruns));
+		if(TreeUpdateScheduler.ticks > 0) {
+			sender.sendMessage(new TextComponentString(String.format("Avg: %.3fms Max: %.3fms", TreeUpdateScheduler.tickNanos / 1000000.0 / TreeUpdateScheduler.ticks, TreeUpdateScheduler.maxTickNanos / 1000000.0)));
+		}
+	}
+
+}
@@ -37,6 +37,16 @@ public class DTCommand extends CommandBase {
 		addSubCommand(new CommandPurgeTrees());
 		addSubCommand(new CommandTransform());
 		addSubCommand(new CommandCreateTransformPotion());
+		addSubCommand(new CommandTreeCache());
+		addSubCommand(new CommandLeavesTicks());
+		addSubCommand(new CommandGenBench());
+		addSubCommand(new CommandDiscCache());
+		addSubCommand(new CommandDiscRegion());
+		addSubCommand(new CommandProfile());
+		addSubCommand(new CommandNeighborUpdates());
+		addSubCommand(new CommandDormancy());
+		addSubCommand(new CommandTreeUpdates());
+		addSubCommand(new CommandVoluntaryDrops());
 	}
 
 	@Override
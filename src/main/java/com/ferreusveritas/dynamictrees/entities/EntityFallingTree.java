@@ -1,10 +1,10 @@
 package com.ferreusveritas.dynamictrees.entities;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 
+import com.ferreusveritas.dynamictrees.DynamicTrees;
 import com.ferreusveritas.dynamictrees.ModBlocks;
 import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.api.TreeHelper;
@@ -14,12 +14,17 @@ import com.ferreusveritas.dynamictrees.entities.animation.AnimationHandlers;
 import com.ferreusveritas.dynamictrees.entities.animation.IAnimationHandler;
 import com.ferreusveritas.dynamictrees.models.IModelTracker;
 import com.ferreusveritas.dynamictrees.models.ModelTrackerCacheEntityFallingTree;
+import com.ferreusveritas.dynamictrees.systems.NeighborUpdateQueue;
 import com.ferreusveritas.dynamictrees.util.BlockBounds;
 import com.ferreusveritas.dynamictrees.util.BranchDestructionData;
 import com.ferreusveritas.dynamictrees.util.BranchDestructionData.PosType;
 import com.ferreusveritas.dynamictrees.util.CoordUtils.Surround;
 import com.google.common.collect.Iterables;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
@@ -29,15 +34,14 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTBase;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
-import net.minecraft.network.datasync.DataParameter;
-import net.minecraft.network.datasync.DataSerializers;
-import net.minecraft.network.datasync.EntityDataManager;
+import net.minecraft.network.PacketBuffer;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
+import net.minecraftforge.fml.common.registry.IEntityAdditionalSpawnData;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
@@ -46,12 +50,11 @@ import net.minecraftforge.fml.relauncher.SideOnly;
  * @author ferreusveritas
  *
  */
-public class EntityFallingTree extends Entity implements IModelTracker {
-	
-	public static final DataParameter<NBTTagCompound> voxelDataParameter = EntityDataManager.createKey(EntityFallingTree.class, DataSerializers.COMPOUND_TAG);
+public class EntityFallingTree extends Entity implements IModelTracker, IEntityAdditionalSpawnData {
 	
 	//Not needed in client
 	protected List<ItemStack> payload = new ArrayList<>(0);
+	protected NBTTagCompound voxelData = new NBTTagCompound();//Saved with the entity.  Clients get the compact spawn data instead
 	
 	//Needed in client and server
 	protected BranchDestructionData destroyData = new BranchDestructionData();
@@ -169,14 +172,7 @@ public class EntityFallingTree extends Entity implements IModelTracker {
 	
 	public void buildClient() {
 		
-		NBTTagCompound tag = getVoxelData();
-		
-		if(tag.hasKey("species")) {
-			setupFromNBT(tag);
-			clientBuilt = true;
-		} else {
-			System.out.println("Error: No species tag has been set");
-		}
+		clientBuilt = true;//The destroy data arrived with the spawn data
 				
 		BlockBounds renderBounds = new BlockBounds(destroyData.cutPos);
 		
@@ -290,24 +286,13 @@ public class EntityFallingTree extends Entity implements IModelTracker {
 	 * This is run server side to update all of the neighbors
 	 */
 	protected void updateNeighbors() {
-		HashSet<BlockPos> destroyed = new HashSet<>();
-		HashSet<BlockPos> toUpdate = new HashSet<>();
+		LongOpenHashSet destroyed = new LongOpenHashSet();
 		
 		//Gather a set of all of the block positions that were recently destroyed
-		Iterables.concat(destroyData.getPositions(PosType.BRANCHES), destroyData.getPositions(PosType.LEAVES)).forEach(pos -> destroyed.add(pos));
-	
-		//Gather a list of all of the non-destroyed blocks surrounding each destroyed block
-		for(BlockPos d: destroyed) {
-			for(EnumFacing dir: EnumFacing.values()) {
-				BlockPos dPos = d.offset(dir);
-				if(!destroyed.contains(dPos)) {
-					toUpdate.add(dPos);
-				}
-			}
-		}
+		Iterables.concat(destroyData.getPositions(PosType.BRANCHES), destroyData.getPositions(PosType.LEAVES)).forEach(pos -> destroyed.add(pos.toLong()));
 		
-		//Update each of the blocks that need to be updated
-		toUpdate.forEach(pos -> world.neighborChanged(pos, Blocks.AIR, pos));
+		//Update the blocks surrounding them.  Possibly over the next few ticks
+		NeighborUpdateQueue.scheduleAround(world, destroyed);
 	}
 	
 	protected IAnimationHandler selectAnimationHandler() {
@@ -407,9 +392,7 @@ public class EntityFallingTree extends Entity implements IModelTracker {
 	}
 	
 	@Override
-	protected void entityInit() {
-		getDataManager().register(voxelDataParameter, new NBTTagCompound());
-	}
+	protected void entityInit() {}
 	
 	public void cleanupRootyDirt() {
 		//Force the Rooty Dirt to update if it's there.  Turning it back to dirt.
@@ -424,14 +407,44 @@ public class EntityFallingTree extends Entity implements IModelTracker {
 		}
 	}
 	
-	//This is shipped off to the clients
 	public void setVoxelData(NBTTagCompound tag) {
 		setEntityBoundingBox(buildAABBFromDestroyData(destroyData).offset(posX, posY, posZ));
-		getDataManager().set(voxelDataParameter, tag);
+		voxelData = tag;
 	}
 	
 	public NBTTagCompound getVoxelData() {
-		return getDataManager().get(voxelDataParameter);
+		return voxelData;
+	}
+	
+	//This is shipped off to the clients
+	@Override
+	public void writeSpawnData(ByteBuf buffer) {
+		int start = buffer.writerIndex();
+		destroyData.writeToBuf(buffer);
+		buffer.writeByte(destroyType.ordinal());
+		buffer.writeBoolean(onFire);
+		buffer.writeFloat((float) geomCenter.x).writeFloat((float) geomCenter.y).writeFloat((float) geomCenter.z);
+		buffer.writeFloat((float) massCenter.x).writeFloat((float) massCenter.y).writeFloat((float) massCenter.z);
+		
+		if(DynamicTrees.log.isDebugEnabled()) {
+			PacketBuffer nbtBuffer = new PacketBuffer(Unpooled.buffer());
+			nbtBuffer.writeCompoundTag(voxelData);
+			DynamicTrees.log.debug("Falling tree spawn data: " + (buffer.writerIndex() - start) + " bytes, NBT: " + nbtBuffer.readableBytes() + " bytes, Branches: " + destroyData.getNumBranches() + " Leaves: " + destroyData.getNumLeaves());
+		}
+	}
+	
+	@Override
+	public void readSpawnData(ByteBuf additionalData) {
+		destroyData = new BranchDestructionData(additionalData);
+		if(destroyData.getNumBranches() == 0) {
+			setDead();
+		}
+		destroyType = DestroyType.values()[additionalData.readUnsignedByte()];
+		onFire = additionalData.readBoolean();
+		geomCenter = new Vec3d(additionalData.readFloat(), additionalData.readFloat(), additionalData.readFloat());
+		massCenter = new Vec3d(additionalData.readFloat(), additionalData.readFloat(), additionalData.readFloat());
+		buildAABBFromDestroyData(destroyData);
+		setEntityBoundingBox(normAABB.offset(posX, posY, posZ));
 	}
 	
 	@Override
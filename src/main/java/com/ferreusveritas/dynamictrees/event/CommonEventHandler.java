@@ -3,8 +3,19 @@ package com.ferreusveritas.dynamictrees.event;
 import com.ferreusveritas.dynamictrees.api.WorldGenRegistry;
 import com.ferreusveritas.dynamictrees.client.TooltipHandler;
 import com.ferreusveritas.dynamictrees.seasons.SeasonHelper;
+import com.ferreusveritas.dynamictrees.systems.EndpointTracker;
+import com.ferreusveritas.dynamictrees.systems.GrowthCatchUp;
+import com.ferreusveritas.dynamictrees.systems.LeavesTickScheduler;
+import com.ferreusveritas.dynamictrees.systems.NeighborUpdateQueue;
+import com.ferreusveritas.dynamictrees.systems.TreeDormancy;
+import com.ferreusveritas.dynamictrees.systems.TreeTopologyCache;
+import com.ferreusveritas.dynamictrees.systems.TreeUpdateScheduler;
+import com.ferreusveritas.dynamictrees.systems.VoluntaryDropPool;
+import com.ferreusveritas.dynamictrees.util.ChunkTreeHelper;
 
 import net.minecraftforge.event.entity.player.ItemTooltipEvent;
+import net.minecraftforge.event.world.ChunkDataEvent;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
@@ -20,6 +31,14 @@ public class CommonEventHandler {
 
 		if(event.side == Side.SERVER) {
 			FutureBreak.process(event.world);
+			if(event.phase == Phase.END) {
+				LeavesTickScheduler.process(event.world);
+				ChunkTreeHelper.process(event.world);
+				NeighborUpdateQueue.process(event.world);
+				TreeUpdateScheduler.process(event.world);
+				GrowthCatchUp.process(event.world);
+				VoluntaryDropPool.process(event.world);
+			}
 		}
 		
 		if(event.type == Type.WORLD && event.phase == Phase.START) {
@@ -38,6 +57,43 @@ public class CommonEventHandler {
 		event.getWorld().addEventListener(new WorldListener(event.getWorld(), event.getWorld().getMinecraftServer()));
 	}
 	
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		TreeTopologyCache.unloadWorld(event.getWorld());
+		LeavesTickScheduler.unloadWorld(event.getWorld());
+		EndpointTracker.unloadWorld(event.getWorld());
+		ChunkTreeHelper.unloadWorld(event.getWorld());
+		NeighborUpdateQueue.unloadWorld(event.getWorld());
+		TreeDormancy.unloadWorld(event.getWorld());
+		TreeUpdateScheduler.unloadWorld(event.getWorld());
+		GrowthCatchUp.unloadWorld(event.getWorld());
+		VoluntaryDropPool.unloadWorld(event.getWorld());
+	}
+	
+	@SubscribeEvent
+	public void onChunkUnload(ChunkEvent.Unload event) {
+		TreeTopologyCache.unloadChunk(event.getWorld(), event.getChunk().x, event.getChunk().z);
+		TreeDormancy.unloadChunk(event.getWorld(), event.getChunk().x, event.getChunk().z);
+		VoluntaryDropPool.unloadChunk(event.getWorld(), event.getChunk());
+		NeighborUpdateQueue.unloadChunk(event.getWorld(), event.getChunk().x, event.getChunk().z);
+	}
+	
+	@SubscribeEvent
+	public void onChunkDataLoad(ChunkDataEvent.Load event) {
+		EndpointTracker.loadChunk(event.getWorld(), event.getChunk().x, event.getChunk().z, event.getData());
+		GrowthCatchUp.loadChunk(event.getWorld(), event.getChunk().x, event.getChunk().z, event.getData());
+	}
+	
+	@SubscribeEvent
+	public void onChunkDataSave(ChunkDataEvent.Save event) {
+		EndpointTracker.saveChunk(event.getWorld(), event.getChunk().x, event.getChunk().z, event.getData());
+		GrowthCatchUp.saveChunk(event.getWorld(), event.getChunk().x, event.getChunk().z, event.getData());
+		if(!event.getChunk().isLoaded()) {//The chunk unload event comes before the last save so the chunk data is dropped here
+			EndpointTracker.unloadChunk(event.getWorld(), event.getChunk().x, event.getChunk().z);
+			GrowthCatchUp.unloadChunk(event.getWorld(), event.getChunk().x, event.getChunk().z);
+		}
+	}
+	
 	@SubscribeEvent
 	@SideOnly(Side.CLIENT)
 	public void onItemTooltipAdded(ItemTooltipEvent event) {
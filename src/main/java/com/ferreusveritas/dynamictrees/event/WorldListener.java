@@ -1,6 +1,8 @@
 package com.ferreusveritas.dynamictrees.event;
 
 import com.ferreusveritas.dynamictrees.blocks.BlockTrunkShell;
+import com.ferreusveritas.dynamictrees.systems.TreeProfiler;
+import com.ferreusveritas.dynamictrees.util.TreeWorldView;
 
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
@@ -25,7 +27,11 @@ public class WorldListener implements IWorldEventListener {
 	}
 	
 	@Override
-	public void notifyBlockUpdate(World worldIn, BlockPos pos, IBlockState oldState, IBlockState newState, int flags) {}
+	public void notifyBlockUpdate(World worldIn, BlockPos pos, IBlockState oldState, IBlockState newState, int flags) {
+		if(TreeProfiler.isEnabled() && !worldIn.isRemote) {
+			TreeWorldView.numWrites++;
+		}
+	}
 	
 	@Override
 	public void notifyLightSet(BlockPos pos) {}
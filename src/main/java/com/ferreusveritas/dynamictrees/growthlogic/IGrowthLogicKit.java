@@ -9,6 +9,10 @@ import net.minecraft.world.World;
 
 public interface IGrowthLogicKit {
 	
+	/**
+	 * Adjust the probability map of the directions a grow signal may take.  The map is a buffer that is
+	 * reused for every step of the signal so it may be modified in place but must not be held on to.
+	 */
 	int[] directionManipulation(World world, BlockPos pos, Species species, int radius, GrowSignal signal, int probMap[]);
 	
 	EnumFacing newDirectionSelected(Species species, EnumFacing newDir, GrowSignal signal);
@@ -77,14 +77,7 @@ public class Seed extends Item {
 		if(entityItem.ticksExisted >= entityItem.lifespan - 20) {//Perform this action 20 ticks(1 second) before dying
 			World world = entityItem.world;
 			if(!world.isRemote) {//Server side only
-				ItemStack seedStack = entityItem.getItem();
-				BlockPos pos = new BlockPos(entityItem);
-				SeedVoluntaryPlantEvent seedVolEvent = new SeedVoluntaryPlantEvent(entityItem, getSpecies(seedStack), pos, shouldPlant(world, pos, seedStack));
-				MinecraftForge.EVENT_BUS.post(seedVolEvent);
-				if(!seedVolEvent.isCanceled() && seedVolEvent.getWillPlant()) {
-					doPlanting(world, pos, null, seedStack);
-				}
-				seedStack.setCount(0);
+				plantVoluntarily(world, new BlockPos(entityItem), entityItem);
 			}
 			entityItem.setDead();
 		}
@@ -92,6 +85,23 @@ public class Seed extends Item {
 		return false;
 	}
 	
+	/**
+	 * Decide if a dropped seed plants itself and do the planting.  The seed stack of the entity is used up either way.
+	 * 
+	 * @param world The world
+	 * @param pos Where the sapling would be planted
+	 * @param entityItem The entity holding the seed.  Doesn't need to be spawned
+	 * @return true if a sapling was planted
+	 */
+	public boolean plantVoluntarily(World world, BlockPos pos, EntityItem entityItem) {
+		ItemStack seedStack = entityItem.getItem();
+		SeedVoluntaryPlantEvent seedVolEvent = new SeedVoluntaryPlantEvent(entityItem, getSpecies(seedStack), pos, shouldPlant(world, pos, seedStack));
+		MinecraftForge.EVENT_BUS.post(seedVolEvent);
+		boolean planted = !seedVolEvent.isCanceled() && seedVolEvent.getWillPlant() && doPlanting(world, pos, null, seedStack);
+		seedStack.setCount(0);
+		return planted;
+	}
+	
 	public boolean doPlanting(World world, BlockPos pos, EntityPlayer planter, ItemStack seedStack) {
 		Species species = getSpecies(seedStack);
 		
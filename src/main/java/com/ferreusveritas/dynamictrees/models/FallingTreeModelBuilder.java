@@ -0,0 +1,66 @@
+package com.ferreusveritas.dynamictrees.models;
+
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ferreusveritas.dynamictrees.DynamicTrees;
+import com.ferreusveritas.dynamictrees.ModConfigs;
+
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Builds the quads of falling tree models off of the client thread.  The queue is bounded
+ * so a lot of trees falling at once(a TNT blast for instance) can't pile up work.  A model
+ * that doesn't fit in the queue is simply offered again on the next frame.
+ *
+ * @author ferreusveritas
+ */
+@SideOnly(Side.CLIENT)
+public class FallingTreeModelBuilder {
+
+	public static final int QUEUE_SIZE = 32;
+
+	private static ThreadPoolExecutor executor;
+
+	/**
+	 * Offer a model to the workers.
+	 *
+	 * @param model The model to build
+	 * @return true if the model was queued, false if the queue is full
+	 */
+	public static boolean submit(ModelEntityFallingTree model) {
+		try {
+			getExecutor().execute(() -> {
+				try {
+					model.build();
+				} catch (RuntimeException e) {
+					DynamicTrees.log.error("Failed to build falling tree model for entity " + model.getEntityId(), e);
+					model.quads = Collections.emptyList();//Don't try again every frame
+				}
+			});
+			return true;
+		} catch (RejectedExecutionException e) {
+			return false;
+		}
+	}
+
+	private static ThreadPoolExecutor getExecutor() {
+		if(executor == null) {
+			int threads = Math.max(1, ModConfigs.fallingTreeModelThreads);
+			AtomicInteger count = new AtomicInteger();
+			executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_SIZE), r -> {
+				Thread thread = new Thread(r, "DynamicTrees Falling Tree Models #" + count.incrementAndGet());
+				thread.setDaemon(true);
+				thread.setPriority(Thread.NORM_PRIORITY - 1);
+				return thread;
+			});
+		}
+		return executor;
+	}
+
+}
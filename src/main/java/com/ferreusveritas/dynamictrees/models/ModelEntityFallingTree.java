@@ -1,8 +1,10 @@
 package com.ferreusveritas.dynamictrees.models;
 
+import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
 import com.ferreusveritas.dynamictrees.client.QuadManipulator;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
+import com.ferreusveritas.dynamictrees.render.CompiledTreeQuads;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.util.BranchDestructionData;
 import net.minecraft.block.Block;
@@ -20,41 +22,85 @@ import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.stream.Collectors;
 
+/**
+ * The quads of a falling tree.  Everything that needs the world is captured on the client
+ * thread when the model is created and the quads themselves are built on a
+ * {@link FallingTreeModelBuilder} worker.  Until then the model is not ready and the tree
+ * is simply not rendered.
+ */
 @SideOnly(Side.CLIENT)
 public class ModelEntityFallingTree {
 	
-	protected final List<TreeQuadData> quads;
 	protected final int entityId;
+	protected final CompiledTreeQuads compiledQuads = new CompiledTreeQuads();
+	protected QuadSource source;
+	protected volatile List<TreeQuadData> quads;//Null until built
+	protected volatile boolean deleted = false;
+	protected boolean queued = false;
 	
 	public ModelEntityFallingTree(EntityFallingTree entity) {
-		quads = generateTreeQuads(entity, entity.getEntityWorld());
 		entityId = entity.getEntityId();
+		source = new QuadSource(entity);
+		if(!ModConfigs.asyncFallingTreeModels) {
+			build();
+		}
+	}
+	
+	/**
+	 * Queues the model with the builder if it isn't yet.  A full queue is tried again on the
+	 * next call so a burst of fellings never blocks the client thread.
+	 * 
+	 * @return true if the quads are available
+	 */
+	public boolean isReady() {
+		if(quads == null && !queued) {
+			queued = FallingTreeModelBuilder.submit(this);
+		}
+		return quads != null;
+	}
+	
+	/** Builds the quads from the captured source.  Called from a worker thread */
+	protected void build() {
+		QuadSource src = source;
+		if(!deleted && src != null) {
+			quads = generateTreeQuads(src);
+			source = null;
+		}
 	}
 	
 	public List<TreeQuadData> getQuadData() {
-		return quads;
+		return quads != null ? quads : Collections.emptyList();
 	}
 	
 	public int getEntityId() {
 		return entityId;
 	}
 	
+	public CompiledTreeQuads getCompiledQuads() {
+		return compiledQuads;
+	}
+	
+	/** Free the GPU memory used by the compiled quads and skip building if that's still pending */
+	public void deleteBuffers() {
+		deleted = true;
+		compiledQuads.delete();
+	}
+	
 	public static int getBrightness(EntityFallingTree entity) {
 		BranchDestructionData destructionData = entity.getDestroyData();
 		World world = entity.getEntityWorld();
 		return world.getBlockState(destructionData.cutPos).getPackedLightmapCoords(world, destructionData.cutPos);
 	}
 	
-	public List<TreeQuadData> generateTreeQuads(EntityFallingTree entity, World world) {
+	public static List<TreeQuadData> generateTreeQuads(QuadSource source) {
 		final BlockRendererDispatcher dispatcher = Minecraft.getMinecraft().getBlockRendererDispatcher();
-		final BranchDestructionData destructionData = entity.getDestroyData();
-		final Species species = destructionData.species;
-		final BlockPos cutPos = destructionData.cutPos;
+		final BranchDestructionData destructionData = source.destructionData;
 		final EnumFacing cutDir = destructionData.cutDir;
 		
 		ArrayList<TreeQuadData> treeQuads = new ArrayList<>();
@@ -83,24 +129,10 @@ public class ModelEntityFallingTree {
 				}
 
 				//Draw the leaves
-				HashMap<BlockPos, IBlockState> leavesClusters = species.getFamily().getFellingLeavesClusters(destructionData);
-				if(leavesClusters != null) {
-					for(Entry<BlockPos, IBlockState> leafLoc : leavesClusters.entrySet()) {
-						IBlockState leafState = leafLoc.getValue();
-						if (leafState instanceof IExtendedBlockState) {
-							leafState = ((IExtendedBlockState) leafState).getClean();
-						}
-						treeQuads.addAll(toTreeQuadData(QuadManipulator.getQuads(dispatcher.getModelForState(leafState), leafLoc.getValue(), new Vec3d(leafLoc.getKey())), 
-							species.getLeavesProperties().foliageColorMultiplier(leafState, world, cutPos), leafState));				
-					}
-				} else {
-					for (int index = 0; index < destructionData.getNumLeaves(); index++) {
-						BlockPos relPos = destructionData.getLeavesRelPos(index);
-						IBlockState state = destructionData.getLeavesBlockState(index);
-						IBakedModel leavesModel = dispatcher.getModelForState(state);
-						treeQuads.addAll(toTreeQuadData(QuadManipulator.getQuads(leavesModel, state, new Vec3d(relPos)), 
-							destructionData.getLeavesProperties(index).foliageColorMultiplier(state, world, cutPos.add(relPos)), state));
-					}
+				for(int index = 0; index < source.leavesPos.length; index++) {
+					IBlockState state = source.leavesStates[index];
+					IBlockState cleanState = state instanceof IExtendedBlockState ? ((IExtendedBlockState) state).getClean() : state;
+					treeQuads.addAll(toTreeQuadData(QuadManipulator.getQuads(dispatcher.getModelForState(cleanState), state, new Vec3d(source.leavesPos[index])), source.leavesColors[index], cleanState));
 				}
 			}
 		}
@@ -108,6 +140,53 @@ public class ModelEntityFallingTree {
 		return treeQuads;
 	}
 	
+	/**
+	 * An immutable copy of everything the quads are made from.  The leaves colors depend on
+	 * the biome so they are resolved here on the client thread.
+	 */
+	public static final class QuadSource {
+		public final BranchDestructionData destructionData;
+		public final BlockPos[] leavesPos;//Relative to the cut
+		public final IBlockState[] leavesStates;
+		public final int[] leavesColors;
+		
+		public QuadSource(EntityFallingTree entity) {
+			World world = entity.getEntityWorld();
+			destructionData = entity.getDestroyData();
+			Species species = destructionData.species;
+			BlockPos cutPos = destructionData.cutPos;
+			
+			HashMap<BlockPos, IBlockState> leavesClusters = destructionData.getNumBranches() > 0 ? species.getFamily().getFellingLeavesClusters(destructionData) : null;
+			if(leavesClusters != null) {
+				int size = leavesClusters.size();
+				leavesPos = new BlockPos[size];
+				leavesStates = new IBlockState[size];
+				leavesColors = new int[size];
+				int index = 0;
+				for(Entry<BlockPos, IBlockState> leafLoc : leavesClusters.entrySet()) {
+					IBlockState leafState = leafLoc.getValue();
+					IBlockState cleanState = leafState instanceof IExtendedBlockState ? ((IExtendedBlockState) leafState).getClean() : leafState;
+					leavesPos[index] = leafLoc.getKey();
+					leavesStates[index] = leafState;
+					leavesColors[index] = species.getLeavesProperties().foliageColorMultiplier(cleanState, world, cutPos);
+					index++;
+				}
+			} else {
+				int size = destructionData.getNumLeaves();
+				leavesPos = new BlockPos[size];
+				leavesStates = new IBlockState[size];
+				leavesColors = new int[size];
+				for(int index = 0; index < size; index++) {
+					BlockPos relPos = destructionData.getLeavesRelPos(index);
+					IBlockState state = destructionData.getLeavesBlockState(index);
+					leavesPos[index] = relPos;
+					leavesStates[index] = state;
+					leavesColors[index] = destructionData.getLeavesProperties(index).foliageColorMultiplier(state, world, cutPos.add(relPos));
+				}
+			}
+		}
+	}
+	
 	public static List<TreeQuadData> toTreeQuadData (List<BakedQuad> bakedQuads, int color, IBlockState state) {
 		return bakedQuads.stream().map(bakedQuad -> new TreeQuadData(bakedQuad, color, state)).collect(Collectors.toList());
 	}
@@ -22,7 +22,7 @@ public class ModelTrackerCacheEntityFallingTree {
 	private static int cleanupCounter = 0;
 	
 	public static void cleanupModels(World world, EntityFallingTree entity) {
-		modelMap.remove(entity.getEntityId());//Ideally each tree should remove itself and the list is kept tidy
+		deleteModel(entity.getEntityId());//Ideally each tree should remove itself and the list is kept tidy
 		
 		if(++cleanupCounter >= 10) {//Every 10 cleanups check the list to see if there's any stragglers
 			cleanupCounter = 0;
@@ -31,10 +31,17 @@ public class ModelTrackerCacheEntityFallingTree {
 			while(iter.hasNext()) {
 				int id = iter.next();
 				if(world.getEntityByID(id) == null) {
-					modelMap.remove(id);
+					deleteModel(id);
 				}
 			}
 		}
 	}
+	
+	private static void deleteModel(int entityId) {
+		ModelEntityFallingTree model = modelMap.remove(entityId);
+		if(model != null) {
+			model.deleteBuffers();
+		}
+	}
 
 }
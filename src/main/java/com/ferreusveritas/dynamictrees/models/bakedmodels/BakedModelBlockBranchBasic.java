@@ -46,6 +46,8 @@ public class BakedModelBlockBranchBasic implements IBakedModel {
 	private IBakedModel cores[][] = new IBakedModel[3][8]; //8 Cores for 3 axis with the bark texture and all 6 sides rotated appropriately.
 	private IBakedModel rings[] = new IBakedModel[8]; //8 Cores with the ring textures on all 6 sides
 	
+	protected final QuadCache quadCache = new QuadCache();
+	
 	public BakedModelBlockBranchBasic(ResourceLocation barkRes, ResourceLocation ringsRes, Function<ResourceLocation, TextureAtlasSprite> bakedTextureGetter) {		
 		this.modelBlock = new ModelBlock(null, null, null, false, false, ItemCameraTransforms.DEFAULT, null);
 		
@@ -172,6 +174,12 @@ public class BakedModelBlockBranchBasic implements IBakedModel {
 			int coreRadius = getRadius(blockState);
 			int[] connections = pollConnections(coreRadius, extendedBlockState);
 			
+			long key = QuadCache.key(coreRadius, connections, side);
+			List<BakedQuad> cached = quadCache.get(key);
+			if(cached != null) {
+				return cached;
+			}
+			
 			//Count number of connections
 			int numConnections = 0;
 			for(int i: connections) {
@@ -207,6 +215,8 @@ public class BakedModelBlockBranchBasic implements IBakedModel {
 					}
 				}
 			}
+			
+			return quadCache.put(key, quadsList);
 		} else {
 			//Not extended block state
 		}
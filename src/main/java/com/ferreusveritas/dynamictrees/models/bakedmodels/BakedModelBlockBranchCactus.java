@@ -50,6 +50,8 @@ protected ModelBlock modelBlock;
 	private IBakedModel coreSpikes[] = new IBakedModel[2]; // 2 cores with only the spikey edges
 	private IBakedModel sleeveTopSpikes;
 	
+	protected final QuadCache quadCache = new QuadCache();
+	
 	public BakedModelBlockBranchCactus(ResourceLocation barkRes, ResourceLocation ringsRes, Function<ResourceLocation, TextureAtlasSprite> bakedTextureGetter) {		
 		this.modelBlock = new ModelBlock(null, null, null, false, false, ItemCameraTransforms.DEFAULT, null);
 		
@@ -593,6 +595,12 @@ protected ModelBlock modelBlock;
 				extraUpSleeve = true;
 			}
 			
+			long key = QuadCache.key(coreRadius, connections, side) | (extraUpSleeve ? 1L : 0L) << QuadCache.FLAGS_SHIFT;
+			List<BakedQuad> cached = quadCache.get(key);
+			if (cached != null) {
+				return cached;
+			}
+			
 			//The source direction is the biggest connection from one of the 6 directions
 			EnumFacing sourceDir = getSourceDir(coreRadius, connections);
 			if (sourceDir == null) {
@@ -633,6 +641,8 @@ protected ModelBlock modelBlock;
 			if (extraUpSleeve) {
 				quadsList.addAll(sleeveTopSpikes.getQuads(extendedBlockState, EnumFacing.UP, rand));
 			}
+			
+			return quadCache.put(key, quadsList);
 		}
 		
 		return quadsList;
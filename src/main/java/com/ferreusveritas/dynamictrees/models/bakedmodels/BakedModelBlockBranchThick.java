@@ -157,13 +157,19 @@ public class BakedModelBlockBranchThick extends BakedModelBlockBranchBasic imple
 		
 		coreRadius = MathHelper.clamp(coreRadius, 9, 24);
 		
-		List<BakedQuad> quadsList = new ArrayList<>(30);
-		quadsList.addAll(trunksBark[coreRadius-9].getQuads(blockState, side, rand));
-		
 		if (blockState instanceof IExtendedBlockState) {
 			IExtendedBlockState extendedBlockState = (IExtendedBlockState) blockState;
 			int[] connections = pollConnections(coreRadius, extendedBlockState);
 			
+			long key = QuadCache.key(coreRadius, connections, side);
+			List<BakedQuad> cached = quadCache.get(key);
+			if(cached != null) {
+				return cached;
+			}
+			
+			List<BakedQuad> quadsList = new ArrayList<>(30);
+			quadsList.addAll(trunksBark[coreRadius-9].getQuads(blockState, side, rand));
+			
 			if (connections[0] < 1) {
 				quadsList.addAll(trunksBotRings[coreRadius-9].getQuads(blockState, side, rand));
 			}
@@ -172,10 +178,11 @@ public class BakedModelBlockBranchThick extends BakedModelBlockBranchBasic imple
 			} else if (connections[1] == 1 && side == EnumFacing.UP) {
 				quadsList.addAll(trunksTopBark[coreRadius-9].getQuads(blockState, side, rand));
 			}
-				
+			
+			return quadCache.put(key, quadsList);
 		}
 		
-		return quadsList;
+		return new ArrayList<>(trunksBark[coreRadius-9].getQuads(blockState, side, rand));
 	}
 	
 	@Override
@@ -45,6 +45,8 @@ public class BakedModelBlockSurfaceRoot implements IBakedModel {
 	private IBakedModel cores[][] = new IBakedModel[2][8]; //8 Cores for 2 axis(X, Z) with the bark texture on all 6 sides rotated appropriately.
 	private IBakedModel verts[][] = new IBakedModel[4][8];
 	
+	protected final QuadCache quadCache = new QuadCache();
+	
 	public BakedModelBlockSurfaceRoot(ResourceLocation barkRes, Function<ResourceLocation, TextureAtlasSprite> bakedTextureGetter) {		
 		this.modelBlock = new ModelBlock(null, null, null, false, false, ItemCameraTransforms.DEFAULT, null);
 		
@@ -194,6 +196,19 @@ public class BakedModelBlockSurfaceRoot implements IBakedModel {
 			
 			boolean isGrounded = extendedBlockState.getValue(BlockSurfaceRoot.GROUNDED) == Boolean.TRUE;
 			
+			long flags = isGrounded ? 1 : 0;
+			for(EnumFacing connDir : EnumFacing.HORIZONTALS) {
+				int idx = connDir.getHorizontalIndex();
+				if(extendedBlockState.getValue(BlockSurfaceRoot.LEVELS[idx]) == BlockSurfaceRoot.ConnectionLevel.HIGH) {
+					flags |= 2 << idx;
+				}
+			}
+			long key = QuadCache.key(coreRadius, connections, side) | flags << QuadCache.FLAGS_SHIFT;
+			List<BakedQuad> cached = quadCache.get(key);
+			if(cached != null) {
+				return cached;
+			}
+			
 			//Get quads for core model
 			if(isGrounded) {
 				quadsList.addAll(cores[coreDir][coreRadius-1].getQuads(blockState, side, rand));
@@ -215,6 +230,8 @@ public class BakedModelBlockSurfaceRoot implements IBakedModel {
 					}
 				}
 			}
+			
+			return quadCache.put(key, quadsList);
 		}
 		
 		return quadsList;
@@ -0,0 +1,123 @@
+package com.ferreusveritas.dynamictrees.models.bakedmodels;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.block.model.BakedQuad;
+import net.minecraft.util.EnumFacing;
+import net.minecraftforge.client.event.RenderGameOverlayEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * Remembers the quads a connectable baked model put together for a given shape.  The quads of
+ * a branch only depend on it's radius, the radii of it's connections and the requested side so
+ * those are packed into a key.  Models with extra shape properties pack them above
+ * {@link #FLAGS_SHIFT}.
+ *
+ * Chunks are rebuilt by several threads at once so access is synchronized.  The least recently
+ * used shapes are dropped when the cache is full.
+ *
+ * @author ferreusveritas
+ */
+@SideOnly(Side.CLIENT)
+public class QuadCache {
+
+	public static final int FLAGS_SHIFT = 38;
+
+	//Metrics of all caches
+	public static final LongAdder hits = new LongAdder();
+	public static final LongAdder misses = new LongAdder();
+	public static final LongAdder evictions = new LongAdder();
+
+	private final Long2ObjectLinkedOpenHashMap<List<BakedQuad>> cache = new Long2ObjectLinkedOpenHashMap<>();
+
+	/**
+	 * Pack a shape into a key.
+	 *
+	 * @param radius The core radius. 0 - 31
+	 * @param connections Up to 6 connection radii. 0 - 31 each
+	 * @param side The side the quads are pulled for or null for the general quads
+	 * @return The packed key
+	 */
+	public static long key(int radius, int[] connections, EnumFacing side) {
+		long key = (side == null ? 6 : side.getIndex()) | (radius & 0x1F) << 3;
+		for(int i = 0; i < connections.length; i++) {
+			key |= (long)(connections[i] & 0x1F) << (8 + i * 5);
+		}
+		return key;
+	}
+
+	/** @return The cached quads for the shape or null if they haven't been made yet */
+	public List<BakedQuad> get(long key) {
+		if(ModConfigs.branchQuadCacheSize <= 0) {
+			return null;
+		}
+
+		List<BakedQuad> quads;
+		synchronized (cache) {
+			quads = cache.getAndMoveToLast(key);
+		}
+
+		if(quads != null) {
+			hits.increment();
+		} else {
+			misses.increment();
+		}
+		return quads;
+	}
+
+	/**
+	 * Store the quads made for a shape.
+	 *
+	 * @param key The packed shape
+	 * @param quads The quads that were made
+	 * @return An unmodifiable view of the quads to hand out in place of the original list
+	 */
+	public List<BakedQuad> put(long key, List<BakedQuad> quads) {
+		int maxEntries = ModConfigs.branchQuadCacheSize;
+		if(maxEntries <= 0) {
+			return quads;
+		}
+
+		List<BakedQuad> immutable = Collections.unmodifiableList(quads);
+		synchronized (cache) {
+			cache.putAndMoveToLast(key, immutable);
+			while(cache.size() > maxEntries) {
+				cache.removeFirst();
+				evictions.increment();
+			}
+		}
+		return immutable;
+	}
+
+	public static void clearMetrics() {
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+
+	/**
+	 * Adds the hit rate of the caches to the debug screen.
+	 */
+	public static class DebugOverlay {
+
+		@SubscribeEvent
+		public void onDebugText(RenderGameOverlayEvent.Text event) {
+			if(Minecraft.getMinecraft().gameSettings.showDebugInfo) {
+				long hit = hits.sum(), total = hit + misses.sum();
+				if(total > 0) {
+					event.getLeft().add(String.format("Branch Quads: %.1f%% hits of %d, %d evicted", hit * 100.0 / total, total, evictions.sum()));
+				}
+			}
+		}
+
+	}
+
+}
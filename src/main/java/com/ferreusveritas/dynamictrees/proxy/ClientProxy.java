@@ -28,6 +28,7 @@ import com.ferreusveritas.dynamictrees.event.BlockBreakAnimationClientHandler;
 import com.ferreusveritas.dynamictrees.event.ModelBakeEventListener;
 import com.ferreusveritas.dynamictrees.event.TextureGenerationHandler;
 import com.ferreusveritas.dynamictrees.items.DendroPotion;
+import com.ferreusveritas.dynamictrees.models.bakedmodels.QuadCache;
 import com.ferreusveritas.dynamictrees.models.loaders.ModelLoaderBlockBranchBasic;
 import com.ferreusveritas.dynamictrees.models.loaders.ModelLoaderBlockBranchCactus;
 import com.ferreusveritas.dynamictrees.models.loaders.ModelLoaderBlockBranchThick;
@@ -247,6 +248,8 @@ public class ClientProxy extends CommonProxy {
 	public void registerClientEventHandlers() {
 		MinecraftForge.EVENT_BUS.register(new ModelBakeEventListener());
 		MinecraftForge.EVENT_BUS.register(TextureGenerationHandler.class);
+		MinecraftForge.EVENT_BUS.register(new RenderFallingTree.DebugOverlay());
+		MinecraftForge.EVENT_BUS.register(new QuadCache.DebugOverlay());
 	}
 	
 	public void registerEntityRenderers() {
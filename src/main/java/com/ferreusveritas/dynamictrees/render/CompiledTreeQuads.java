@@ -0,0 +1,115 @@
+package com.ferreusveritas.dynamictrees.render;
+
+import java.util.List;
+
+import org.lwjgl.opengl.GL11;
+
+import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
+import com.ferreusveritas.dynamictrees.models.ModelEntityFallingTree.TreeQuadData;
+import com.ferreusveritas.dynamictrees.trees.Species;
+
+import net.minecraft.client.renderer.BufferBuilder;
+import net.minecraft.client.renderer.GLAllocation;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.OpenGlHelper;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.client.renderer.vertex.VertexBuffer;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+
+/**
+ * The quads of a falling tree model uploaded to the GPU once so that each frame only has to
+ * apply the animation transform and draw.  Uses a vertex buffer object where available and a
+ * display list otherwise.  The brightness is baked in so the quads are compiled again if the
+ * light at the cut changes.
+ * 
+ * @author ferreusveritas
+ */
+@SideOnly(Side.CLIENT)
+public class CompiledTreeQuads {
+	
+	private static final int STRIDE = 28;//Bytes per vertex of the block format
+	
+	private VertexBuffer vertexBuffer;
+	private int displayList = -1;
+	private int brightness = -1;
+	
+	public boolean isCompiled(int brightness) {
+		return this.brightness == brightness && (vertexBuffer != null || displayList >= 0);
+	}
+	
+	public void compile(RenderFallingTree renderer, List<TreeQuadData> quads, int brightness, Species species, EntityFallingTree entity) {
+		delete();
+		this.brightness = brightness;
+		
+		if(OpenGlHelper.useVbo()) {
+			BufferBuilder buffer = new BufferBuilder(quads.size() * STRIDE + 64);//Sized in ints.  Plenty of room for 4 vertices per quad
+			fill(renderer, buffer, quads, brightness, species, entity);
+			buffer.finishDrawing();
+			vertexBuffer = new VertexBuffer(DefaultVertexFormats.BLOCK);
+			vertexBuffer.bufferData(buffer.getByteBuffer());
+		} else {
+			displayList = GLAllocation.generateDisplayLists(1);
+			GlStateManager.glNewList(displayList, GL11.GL_COMPILE);
+			Tessellator tessellator = Tessellator.getInstance();
+			fill(renderer, tessellator.getBuffer(), quads, brightness, species, entity);
+			tessellator.draw();
+			GlStateManager.glEndList();
+		}
+	}
+	
+	private void fill(RenderFallingTree renderer, BufferBuilder buffer, List<TreeQuadData> quads, int brightness, Species species, EntityFallingTree entity) {
+		buffer.begin(GL11.GL_QUADS, DefaultVertexFormats.BLOCK);
+		for(TreeQuadData treeQuad : quads) {
+			int color = species == null ? treeQuad.color : species.colorTreeQuads(treeQuad.color, treeQuad, entity);
+			renderer.drawBakedQuad(buffer, treeQuad.bakedQuad, brightness, color);
+		}
+	}
+	
+	public void draw() {
+		if(vertexBuffer != null) {
+			GlStateManager.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+			GlStateManager.glEnableClientState(GL11.GL_COLOR_ARRAY);
+			OpenGlHelper.setClientActiveTexture(OpenGlHelper.defaultTexUnit);
+			GlStateManager.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+			OpenGlHelper.setClientActiveTexture(OpenGlHelper.lightmapTexUnit);
+			GlStateManager.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+			OpenGlHelper.setClientActiveTexture(OpenGlHelper.defaultTexUnit);
+			
+			vertexBuffer.bindBuffer();
+			GlStateManager.glVertexPointer(3, GL11.GL_FLOAT, STRIDE, 0);
+			GlStateManager.glColorPointer(4, GL11.GL_UNSIGNED_BYTE, STRIDE, 12);
+			GlStateManager.glTexCoordPointer(2, GL11.GL_FLOAT, STRIDE, 16);
+			OpenGlHelper.setClientActiveTexture(OpenGlHelper.lightmapTexUnit);
+			GlStateManager.glTexCoordPointer(2, GL11.GL_SHORT, STRIDE, 24);
+			OpenGlHelper.setClientActiveTexture(OpenGlHelper.defaultTexUnit);
+			vertexBuffer.drawArrays(GL11.GL_QUADS);
+			vertexBuffer.unbindBuffer();
+			
+			GlStateManager.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+			GlStateManager.glDisableClientState(GL11.GL_COLOR_ARRAY);
+			GlStateManager.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+			OpenGlHelper.setClientActiveTexture(OpenGlHelper.lightmapTexUnit);
+			GlStateManager.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+			OpenGlHelper.setClientActiveTexture(OpenGlHelper.defaultTexUnit);
+			GlStateManager.resetColor();
+		} else if(displayList >= 0) {
+			GlStateManager.callList(displayList);
+		}
+	}
+	
+	/** Free the GPU memory.  Must be called from the render thread */
+	public void delete() {
+		if(vertexBuffer != null) {
+			vertexBuffer.deleteGlBuffers();
+			vertexBuffer = null;
+		}
+		if(displayList >= 0) {
+			GLAllocation.deleteDisplayLists(displayList);
+			displayList = -1;
+		}
+		brightness = -1;
+	}
+	
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import org.lwjgl.opengl.GL11;
 
+import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.client.QuadManipulator;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
 import com.ferreusveritas.dynamictrees.models.ModelTrackerCacheEntityFallingTree;
@@ -24,6 +25,8 @@ import net.minecraft.client.renderer.texture.TextureMap;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
 import net.minecraft.init.Blocks;
 import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.client.event.RenderGameOverlayEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.client.registry.IRenderFactory;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
@@ -31,6 +34,24 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 @SideOnly(Side.CLIENT)
 public class RenderFallingTree extends Render<EntityFallingTree>{
 	
+	/** Species that color their quads differently each frame can't use compiled quads */
+	private static final ClassValue<Boolean> customColors = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				return type.getMethod("colorTreeQuads", int.class, ModelEntityFallingTree.TreeQuadData.class, EntityFallingTree.class).getDeclaringClass() != Species.class;
+			} catch (NoSuchMethodException e) {
+				return true;
+			}
+		}
+	};
+	
+	//Frame time metrics.  Shown on the debug screen
+	private static long windowStart;
+	private static long windowNanos;
+	private static int windowRenders;
+	private static String lastReport = "";
+	
 	protected RenderFallingTree(RenderManager renderManager) {
 		super(renderManager);
 	}
@@ -51,6 +72,9 @@ public class RenderFallingTree extends Render<EntityFallingTree>{
 		bindEntityTexture(entity);
 		
 		ModelEntityFallingTree treeModel = ModelTrackerCacheEntityFallingTree.getModel(entity);
+		if(!treeModel.isReady()) {
+			return;//Still being built
+		}
 		
 		int brightnessIn = ModelEntityFallingTree.getBrightness(entity);
 		
@@ -62,13 +86,55 @@ public class RenderFallingTree extends Render<EntityFallingTree>{
 			renderFire();
 		}
 		
+		long start = System.nanoTime();
+		Species species = entity.getDestroyData().species;
 		entity.currentAnimationHandler.renderTransform(entity, entityYaw, partialTicks);
-		this.drawBakedQuads(treeModel.getQuadData(), brightnessIn, entity.getDestroyData().species, entity);
+		if(ModConfigs.compileFallingTreeModels && !customColors.get(species.getClass())) {
+			CompiledTreeQuads compiledQuads = treeModel.getCompiledQuads();
+			if(!compiledQuads.isCompiled(brightnessIn)) {
+				compiledQuads.compile(this, treeModel.getQuadData(), brightnessIn, species, entity);
+			}
+			compiledQuads.draw();
+		} else {
+			this.drawBakedQuads(treeModel.getQuadData(), brightnessIn, species, entity);
+		}
+		recordRender(System.nanoTime() - start);
 		
 		GlStateManager.popMatrix();
 		GlStateManager.enableLighting();
 	}
 	
+	private static void recordRender(long nanos) {
+		windowNanos += nanos;
+		windowRenders++;
+	}
+	
+	/**
+	 * Adds the time spent drawing falling trees to the debug screen.  Averaged over one second windows.
+	 */
+	public static class DebugOverlay {
+		
+		@SubscribeEvent
+		public void onDebugText(RenderGameOverlayEvent.Text event) {
+			if(!Minecraft.getMinecraft().gameSettings.showDebugInfo) {
+				return;
+			}
+			
+			long now = System.nanoTime();
+			if(now - windowStart >= 1000000000L) {
+				lastReport = windowRenders > 0 ? String.format("Falling Trees: %d renders/s %.1fus avg (%s)", windowRenders, windowNanos / (windowRenders * 1000f), ModConfigs.compileFallingTreeModels ? "compiled" : "immediate") : "";
+				windowStart = now;
+				windowNanos = 0;
+				windowRenders = 0;
+			}
+			
+			if(!lastReport.isEmpty()) {
+				event.getLeft().add(lastReport);
+			}
+		}
+		
+	}
+	
 	private void renderFire() {
 		GlStateManager.pushMatrix();
 		GlStateManager.translate(-0.5f, 0.0f, -0.5f);
@@ -1,138 +1,593 @@
 package com.ferreusveritas.dynamictrees.systems;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
-import net.minecraft.nbt.NBTTagByteArray;
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
+
+import it.unimi.dsi.fastutil.longs.Long2ByteMap;
+import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.BlockPos.MutableBlockPos;
-import net.minecraft.util.math.Vec3i;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 
-//** This is highly experimental leaves-fall-off-in-winter stuff that will probably never be implemented */ 
+/**
+ * A live index of the branch endpoints of every tree, stored per chunk and saved with the chunk.
+ * Each endpoint is recorded with the position of the rooty block of the tree it belongs to so
+ * the ends of a tree can be listed without walking it's branch network.
+ *
+ * The index is kept up to date by the branch blocks themselves.  An endpoint is a branch with at
+ * most one neighboring network block which matches what {@link com.ferreusveritas.dynamictrees.systems.nodemappers.NodeFindEnds}
+ * finds for any loop free network.  A tree is only trusted once it's ends have been set from a
+ * full analysis and while every chunk it's ends are in is loaded.  Otherwise the caller falls back
+ * to an analysis which is then used to set the ends again.
+ *
+ * Block changes are handled without walking any networks since they happen inside block callbacks.
+ * A new endpoint whose tree can't be told from the index or it's neighbors is only marked as
+ * unresolved and it's root is looked up the next time any ends are asked for.
+ *
+ * @author ferreusveritas
+ */
 public class EndpointTracker {
-	
-	public static class ChunkLocation extends Vec3i {
-		public ChunkLocation(World world, int x, int z) {
-			super(x, world.provider.getDimension(), z);
-		}
-		
-		public int blockX() {
-			return getX() << 4;
-		}
-		
-		public int blockZ() {
-			return getZ() << 4;
-		}
-	}
-	
+
+	public static final String NBTKEY = "DTEP";//Dynamic Trees End Points
+	private static final long NONE = Long.MIN_VALUE;
+	private static final int INVALIDATE_RADIUS = 2;//Chunks around an unexaminable change whose trees are dropped from the index
+
+	private static final Map<Integer, EndpointTracker> trackers = new HashMap<>();
+
+	private static int suspendDepth = 0;
+
 	public static class ChunkEntry {
-		public ChunkLocation chunkLoc;
-		public short[] points;
+		private short[] points = new short[32];
+		private long[] roots = new long[32];
 		private int numPoints;
-		
-		public ChunkEntry(ChunkLocation chunkPos) {
-			chunkLoc = chunkPos;
-			points = new short[32];
-		}
-		
+		private final Long2ByteOpenHashMap indexed = new Long2ByteOpenHashMap();//Roots in this chunk whose ends were fully mapped, with the chunk radius of their ends
+
 		private int findIndex(short pos) {
 			return Arrays.binarySearch(points, 0, numPoints, pos);
 		}
-		
-		private void insert(short pos) {
+
+		/** @return the previous root of the point or NONE */
+		private long insert(short pos, long root) {
 			int elem = findIndex(pos);
-			if(elem < 0) {
-				if(numPoints + 1 > points.length) {
-					points = Arrays.copyOf(points, points.length * 2);
-				}
-				elem = -elem - 1;
-				System.arraycopy(points, elem, points, elem + 1, numPoints - elem);
-				points[elem] = pos;
-				numPoints++;
+			if(elem >= 0) {
+				long prev = roots[elem];
+				roots[elem] = root;
+				return prev;
 			}
+			if(numPoints + 1 > points.length) {
+				points = Arrays.copyOf(points, points.length * 2);
+				roots = Arrays.copyOf(roots, roots.length * 2);
+			}
+			elem = -elem - 1;
+			System.arraycopy(points, elem, points, elem + 1, numPoints - elem);
+			System.arraycopy(roots, elem, roots, elem + 1, numPoints - elem);
+			points[elem] = pos;
+			roots[elem] = root;
+			numPoints++;
+			return NONE;
 		}
 
-		private void remove(short pos) {
+		/** @return the root of the removed point or NONE */
+		private long remove(short pos) {
 			int elem = findIndex(pos);
 			if(elem >= 0) {
+				long root = roots[elem];
 				int len = numPoints - elem - 1;
 				if(len > 0) {
 					System.arraycopy(points, elem + 1, points, elem, len);
+					System.arraycopy(roots, elem + 1, roots, elem, len);
 				}
 				numPoints--;
+				return root;
 			}
+			return NONE;
 		}
-		
-		public void addPoint(BlockPos pos) {
-			insert(encode(pos));
-		}
-		
-		public void remPoint(BlockPos pos) {
-			remove(encode(pos));
+
+		private long getRoot(short pos) {
+			int elem = findIndex(pos);
+			return elem >= 0 ? roots[elem] : NONE;
 		}
-		
-		private short encode(BlockPos pos) {
-			return (short) ((pos.getX() & 15) << 16 | pos.getZ() << 8 | (pos.getY() & 15));
+
+		private static short encode(BlockPos pos) {
+			return (short) ((pos.getX() & 15) << 12 | (pos.getZ() & 15) << 8 | (pos.getY() & 255));
 		}
-		
-		public MutableBlockPos decode(short input, MutableBlockPos pos) {
-			return pos.setPos(chunkLoc.blockX() + (input >> 16), input & 255, chunkLoc.blockZ() + ((input >> 8) & 15));
+
+		public static MutableBlockPos decode(int chunkX, int chunkZ, short input, MutableBlockPos pos) {
+			return pos.setPos((chunkX << 4) + ((input >> 12) & 15), input & 255, (chunkZ << 4) + ((input >> 8) & 15));
 		}
-		
+
 		public int size() {
 			return numPoints;
 		}
-		
-		public void getPoint(int index, MutableBlockPos pos) {
-			if(index >= 0 && index < numPoints) {
-				decode(points[index], pos); 
-			}
-		}
-		
-		public NBTTagByteArray saveNBT() {
-			ByteBuffer byteBuf = ByteBuffer.allocate(numPoints * 2);
+
+		public NBTTagCompound saveNBT() {
+			ByteBuffer pointBuf = ByteBuffer.allocate(numPoints * 10);
 			for(int i = 0; i < numPoints; i++) {
-				byteBuf.putShort(points[i]);
+				pointBuf.putShort(points[i]);
+				pointBuf.putLong(roots[i]);
 			}
-			
-			return new NBTTagByteArray(byteBuf.array());
+
+			ByteBuffer rootBuf = ByteBuffer.allocate(indexed.size() * 9);
+			for(Long2ByteMap.Entry entry : indexed.long2ByteEntrySet()) {
+				rootBuf.putLong(entry.getLongKey());
+				rootBuf.put(entry.getByteValue());
+			}
+
+			NBTTagCompound tag = new NBTTagCompound();
+			tag.setByteArray("ends", pointBuf.array());
+			tag.setByteArray("roots", rootBuf.array());
+			return tag;
 		}
-		
-		public void loadNBT(NBTTagByteArray nbtArray) {
-			byte[] bytes = nbtArray.getByteArray();
-			numPoints = bytes.length / 2;
-			
+
+		public void loadNBT(NBTTagCompound tag) {
+			ByteBuffer pointBuf = ByteBuffer.wrap(tag.getByteArray("ends"));
+			numPoints = pointBuf.remaining() / 10;
+
 			if(points.length < numPoints) {
 				points = new short[numPoints];
+				roots = new long[numPoints];
 			}
-			
-			ByteBuffer byteBuf = ByteBuffer.wrap(bytes);
-			
+
 			for(int i = 0; i < numPoints; i++) {
-				points[i] = byteBuf.getShort();
+				points[i] = pointBuf.getShort();
+				roots[i] = pointBuf.getLong();
+			}
+
+			ByteBuffer rootBuf = ByteBuffer.wrap(tag.getByteArray("roots"));
+			while(rootBuf.remaining() >= 9) {
+				indexed.put(rootBuf.getLong(), rootBuf.get());
+			}
+		}
+
+	}
+
+	private final World world;
+	private final Long2ObjectOpenHashMap<ChunkEntry> chunkMap = new Long2ObjectOpenHashMap<>();
+	private final Long2ObjectOpenHashMap<LongOpenHashSet> rootEnds = new Long2ObjectOpenHashMap<>();//Root to the packed ends in loaded chunks
+	private final LongOpenHashSet unresolved = new LongOpenHashSet();//Endpoints whose root isn't known yet
+	private final MutableBlockPos probe = new MutableBlockPos();
+
+	public EndpointTracker(World world) {
+		this.world = world;
+	}
+
+	/**
+	 * Stop indexing block changes while a tree is generated from scratch.  The generator sets the
+	 * ends itself once it's done.  Calls may nest and every one must be matched by a call to
+	 * {@link #resume()} in a finally block.
+	 */
+	public static void suspend() {
+		suspendDepth++;
+	}
+
+	public static void resume() {
+		suspendDepth--;
+	}
+
+	/**
+	 * @param world The world
+	 * @return The tracker for the world or null if tracking is not possible(client side or disabled)
+	 */
+	public static EndpointTracker get(World world) {
+		if(world.isRemote || !ModConfigs.enableEndpointTracker) {
+			return null;
+		}
+		return trackers.computeIfAbsent(world.provider.getDimension(), d -> new EndpointTracker(world));
+	}
+
+	///////////////////////////////////////////
+	// QUERIES
+	///////////////////////////////////////////
+
+	/**
+	 * Get the branch endpoints of a tree from the index.  Analyses the tree and reindexes it if the
+	 * index can't be trusted for this tree.
+	 *
+	 * @param world The world
+	 * @param rootPos The position of the rooty block
+	 * @param treePos The position of the base of the trunk
+	 * @param treeBase The tree part at the base of the trunk
+	 * @return A fresh list of the endpoints that the caller is free to modify
+	 */
+	public static List<BlockPos> findEnds(World world, BlockPos rootPos, BlockPos treePos, ITreePart treeBase) {
+		EndpointTracker tracker = get(world);
+
+		if(tracker != null) {
+			List<BlockPos> ends = tracker.getEnds(rootPos);
+			if(ends != null) {
+				return ends;
 			}
 		}
-		
+
+		List<BlockPos> ends = TreeTopologyCache.getEnds(world, rootPos, treePos, treeBase);
+
+		if(tracker != null) {
+			tracker.setTreeEnds(rootPos, ends);
+		}
+
+		return ends;
 	}
-	
-	private HashMap<ChunkLocation, ChunkEntry> chunkMap;
-	
-	public EndpointTracker() {
-		chunkMap = new HashMap<>();
+
+	/**
+	 * Replace the indexed ends of a tree with the result of a full analysis.
+	 *
+	 * @param world The world
+	 * @param rootPos The position of the rooty block
+	 * @param ends The complete list of endpoints of the tree
+	 */
+	public static void setEnds(World world, BlockPos rootPos, List<BlockPos> ends) {
+		EndpointTracker tracker = get(world);
+		if(tracker != null) {
+			tracker.setTreeEnds(rootPos, ends);
+		}
+	}
+
+	/**
+	 * Forget about a tree whose root is gone.
+	 *
+	 * @param world The world
+	 * @param rootPos The position of the rooty block
+	 */
+	public static void removeTree(World world, BlockPos rootPos) {
+		EndpointTracker tracker = get(world);
+		if(tracker != null) {
+			tracker.setTreeEnds(rootPos, Collections.emptyList());
+			tracker.getChunkEntry(rootPos).indexed.remove(rootPos.toLong());
+		}
+	}
+
+	/**
+	 * @param rootPos The position of the rooty block
+	 * @return A fresh list of the endpoints of the tree or null if the index can't be trusted for the tree
+	 */
+	public List<BlockPos> getEnds(BlockPos rootPos) {
+		resolvePending();
+
+		long root = rootPos.toLong();
+		ChunkEntry rootEntry = chunkMap.get(chunkKey(rootPos));
+		if(rootEntry == null || !rootEntry.indexed.containsKey(root)) {
+			return null;
+		}
+
+		//All of the chunks the ends can be in need to be loaded for the list to be complete
+		int radius = rootEntry.indexed.get(root);
+		int cx = rootPos.getX() >> 4;
+		int cz = rootPos.getZ() >> 4;
+		for(int x = cx - radius; x <= cx + radius; x++) {
+			for(int z = cz - radius; z <= cz + radius; z++) {
+				if(!chunkMap.containsKey(ChunkPos.asLong(x, z)) && world.getChunkProvider().getLoadedChunk(x, z) == null) {
+					return null;
+				}
+			}
+		}
+
+		LongOpenHashSet ends = rootEnds.get(root);
+		if(ends == null || ends.isEmpty()) {
+			return null;
+		}
+
+		List<BlockPos> list = new ArrayList<>(ends.size());
+		for(LongIterator iter = ends.iterator(); iter.hasNext();) {
+			list.add(BlockPos.fromLong(iter.nextLong()));
+		}
+		return list;
 	}
-	
-	public void addPoint(World world, BlockPos pos) {
-		getChunkEntry(world, pos.getX() >> 4, pos.getZ() >> 4).addPoint(pos);
+
+	private void setTreeEnds(BlockPos rootPos, List<BlockPos> ends) {
+		long root = rootPos.toLong();
+
+		LongOpenHashSet oldEnds = rootEnds.remove(root);
+		if(oldEnds != null) {
+			for(LongIterator iter = oldEnds.iterator(); iter.hasNext();) {
+				probe.setPos(BlockPos.fromLong(iter.nextLong()));
+				ChunkEntry entry = chunkMap.get(chunkKey(probe));
+				if(entry != null) {
+					entry.remove(ChunkEntry.encode(probe));
+				}
+			}
+		}
+
+		int cx = rootPos.getX() >> 4;
+		int cz = rootPos.getZ() >> 4;
+		int radius = 0;
+		for(BlockPos end : ends) {
+			radius = Math.max(radius, Math.max(Math.abs((end.getX() >> 4) - cx), Math.abs((end.getZ() >> 4) - cz)));
+			addPoint(end, root);
+		}
+
+		getChunkEntry(rootPos).indexed.put(root, (byte) Math.min(radius, Byte.MAX_VALUE));
 	}
-	
-	public void remPoint(World world, BlockPos pos) {
-		getChunkEntry(world, pos.getX() >> 4, pos.getZ() >> 4).remPoint(pos);
+
+	///////////////////////////////////////////
+	// MAINTENANCE
+	///////////////////////////////////////////
+
+	/**
+	 * Update the index after a branch or root block was added or removed.  Only the changed
+	 * position and it's neighbors are examined.
+	 *
+	 * @param world The world
+	 * @param pos The position of the changed block
+	 * @param rootPos The root of the tree if it's known. Otherwise null
+	 */
+	public static void update(World world, BlockPos pos, BlockPos rootPos) {
+		EndpointTracker tracker = get(world);
+		if(tracker != null && suspendDepth == 0) {
+			if(world.isAreaLoaded(pos, 2)) {//Don't cause chunks to load or generate
+				tracker.update(pos, rootPos != null ? rootPos.toLong() : NONE);
+			} else {
+				tracker.invalidate(pos, rootPos != null ? rootPos.toLong() : NONE);//Can't look.  Make the trees around map themselves again
+			}
+		}
 	}
-	
-	public ChunkEntry getChunkEntry(World world, int x, int z) {
-		return chunkMap.compute(new ChunkLocation(world, x, z), (k, v) -> (v != null) ? v : new ChunkEntry(k) );
+
+	/**
+	 * Remove a position from the index without looking at it's neighbors.  Used while whole
+	 * sections of a tree are being destroyed.
+	 *
+	 * @param world The world
+	 * @param pos The position of the removed block
+	 */
+	public static void remove(World world, BlockPos pos) {
+		EndpointTracker tracker = get(world);
+		if(tracker != null) {
+			tracker.remPoint(pos);
+		}
 	}
-	
+
+	private void update(BlockPos pos, long root) {
+		if(root == NONE) {//Try to learn the root from the changed position or it's neighbors
+			root = getRoot(pos);
+			for(int i = 0; i < 6 && root == NONE; i++) {
+				root = getRoot(pos.offset(EnumFacing.VALUES[i]));
+			}
+		}
+
+		root = refresh(pos, root);
+		for(EnumFacing dir: EnumFacing.VALUES) {
+			root = refresh(pos.offset(dir), root);
+		}
+	}
+
+	/**
+	 * Stop trusting the index for the trees that may own a changed position.  Used when the change
+	 * can't be examined.  If the root isn't known from the index every tree rooted close enough to
+	 * reach the position is dropped from the index.
+	 */
+	private void invalidate(BlockPos pos, long root) {
+		if(root == NONE) {
+			root = getRoot(pos);
+			for(int i = 0; i < 6 && root == NONE; i++) {
+				root = getRoot(pos.offset(EnumFacing.VALUES[i]));
+			}
+		}
+
+		if(root != NONE) {
+			ChunkEntry entry = chunkMap.get(chunkKey(BlockPos.fromLong(root)));
+			if(entry != null) {
+				entry.indexed.remove(root);
+			}
+			return;
+		}
+
+		int cx = pos.getX() >> 4;
+		int cz = pos.getZ() >> 4;
+		for(int x = cx - INVALIDATE_RADIUS; x <= cx + INVALIDATE_RADIUS; x++) {
+			for(int z = cz - INVALIDATE_RADIUS; z <= cz + INVALIDATE_RADIUS; z++) {
+				ChunkEntry entry = chunkMap.get(ChunkPos.asLong(x, z));
+				if(entry != null && !entry.indexed.isEmpty()) {
+					int dist = Math.max(Math.abs(x - cx), Math.abs(z - cz));
+					for(Iterator<Long2ByteMap.Entry> iter = entry.indexed.long2ByteEntrySet().iterator(); iter.hasNext();) {
+						if(iter.next().getByteValue() >= dist) {
+							iter.remove();
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Add or remove the point depending on whether it's an endpoint
+	 *
+	 * @return The root, which may have been resolved along the way
+	 */
+	private long refresh(BlockPos pos, long root) {
+		IBlockState state = world.getBlockState(pos);
+		if(!TreeHelper.isBranch(state)) {
+			remPoint(pos);
+			return root;
+		}
+
+		int count = 0;
+		BlockPos neighbor = null;
+		for(EnumFacing dir: EnumFacing.VALUES) {
+			probe.setPos(pos.getX() + dir.getFrontOffsetX(), pos.getY() + dir.getFrontOffsetY(), pos.getZ() + dir.getFrontOffsetZ());
+			if(TreeHelper.getTreePart(world.getBlockState(probe)).shouldAnalyse()) {
+				count++;
+				neighbor = probe.toImmutable();
+			}
+		}
+
+		if(count != 1) {
+			remPoint(pos);//Not an end or an orphaned branch with no root
+			return root;
+		}
+
+		long existing = getRoot(pos);
+		if(existing != NONE) {
+			return root != NONE ? root : existing;
+		}
+
+		if(TreeHelper.isRooty(world.getBlockState(neighbor))) {
+			root = neighbor.toLong();
+		} else if(root == NONE) {//The tree has to be mapped to find it's root.  That waits until the ends are asked for
+			unresolved.add(pos.toLong());
+			return root;
+		}
+
+		addPoint(pos, root);
+		return root;
+	}
+
+	/** Find the roots of the endpoints that were added without one */
+	private void resolvePending() {
+		if(unresolved.isEmpty()) {
+			return;
+		}
+
+		long[] pending = unresolved.toLongArray();
+		unresolved.clear();
+		for(long packed : pending) {
+			BlockPos pos = BlockPos.fromLong(packed);
+			if(getRoot(pos) == NONE && TreeHelper.isBranch(world.getBlockState(pos))) {
+				BlockPos rootPos = TreeHelper.findRootNode(world, pos);
+				if(rootPos != BlockPos.ORIGIN) {
+					addPoint(pos, rootPos.toLong());
+				}
+			}
+		}
+	}
+
+	private long getRoot(BlockPos pos) {
+		ChunkEntry entry = chunkMap.get(chunkKey(pos));
+		return entry != null ? entry.getRoot(ChunkEntry.encode(pos)) : NONE;
+	}
+
+	private void addPoint(BlockPos pos, long root) {
+		long prev = getChunkEntry(pos).insert(ChunkEntry.encode(pos), root);
+		long packed = pos.toLong();
+		if(prev != NONE && prev != root) {
+			removeRootEnd(prev, packed);
+		}
+
+		LongOpenHashSet ends = rootEnds.get(root);
+		if(ends == null) {
+			rootEnds.put(root, ends = new LongOpenHashSet());
+		}
+		ends.add(packed);
+
+		//Grow the radius of an indexed tree if the new end is in a chunk further away
+		BlockPos rootPos = BlockPos.fromLong(root);
+		ChunkEntry rootEntry = chunkMap.get(chunkKey(rootPos));
+		if(rootEntry != null && rootEntry.indexed.containsKey(root)) {
+			int radius = Math.max(Math.abs((pos.getX() >> 4) - (rootPos.getX() >> 4)), Math.abs((pos.getZ() >> 4) - (rootPos.getZ() >> 4)));
+			if(radius > rootEntry.indexed.get(root)) {
+				rootEntry.indexed.put(root, (byte) Math.min(radius, Byte.MAX_VALUE));
+			}
+		}
+	}
+
+	private void remPoint(BlockPos pos) {
+		unresolved.remove(pos.toLong());
+		ChunkEntry entry = chunkMap.get(chunkKey(pos));
+		if(entry != null) {
+			long root = entry.remove(ChunkEntry.encode(pos));
+			if(root != NONE) {
+				removeRootEnd(root, pos.toLong());
+			}
+		}
+	}
+
+	private void removeRootEnd(long root, long packed) {
+		LongOpenHashSet ends = rootEnds.get(root);
+		if(ends != null) {
+			ends.remove(packed);
+			if(ends.isEmpty()) {
+				rootEnds.remove(root);
+			}
+		}
+	}
+
+	private ChunkEntry getChunkEntry(BlockPos pos) {
+		long key = chunkKey(pos);
+		ChunkEntry entry = chunkMap.get(key);
+		if(entry == null) {
+			chunkMap.put(key, entry = new ChunkEntry());
+		}
+		return entry;
+	}
+
+	private static long chunkKey(BlockPos pos) {
+		return ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+	}
+
+	///////////////////////////////////////////
+	// PERSISTENCE
+	///////////////////////////////////////////
+
+	public static void loadChunk(World world, int chunkX, int chunkZ, NBTTagCompound chunkData) {
+		EndpointTracker tracker = get(world);
+		if(tracker != null && chunkData.hasKey(NBTKEY)) {
+			ChunkEntry entry = new ChunkEntry();
+			entry.loadNBT(chunkData.getCompoundTag(NBTKEY));
+			tracker.chunkMap.put(ChunkPos.asLong(chunkX, chunkZ), entry);
+
+			MutableBlockPos pos = new MutableBlockPos();
+			for(int i = 0; i < entry.numPoints; i++) {
+				long root = entry.roots[i];
+				LongOpenHashSet ends = tracker.rootEnds.get(root);
+				if(ends == null) {
+					tracker.rootEnds.put(root, ends = new LongOpenHashSet());
+				}
+				ends.add(ChunkEntry.decode(chunkX, chunkZ, entry.points[i], pos).toLong());
+			}
+		}
+	}
+
+	public static void saveChunk(World world, int chunkX, int chunkZ, NBTTagCompound chunkData) {
+		EndpointTracker tracker = get(world);
+		if(tracker != null) {
+			ChunkEntry entry = tracker.chunkMap.get(ChunkPos.asLong(chunkX, chunkZ));
+			if(entry != null && (entry.numPoints > 0 || !entry.indexed.isEmpty())) {
+				chunkData.setTag(NBTKEY, entry.saveNBT());
+			}
+		}
+	}
+
+	public static void unloadChunk(World world, int chunkX, int chunkZ) {
+		EndpointTracker tracker = world.isRemote ? null : trackers.get(world.provider.getDimension());
+		if(tracker != null) {
+			//The ends that were never resolved can't be anymore.  Whatever tree they belong to has to map itself again
+			for(LongIterator iter = tracker.unresolved.iterator(); iter.hasNext();) {
+				BlockPos pos = BlockPos.fromLong(iter.nextLong());
+				if(pos.getX() >> 4 == chunkX && pos.getZ() >> 4 == chunkZ) {
+					iter.remove();
+					tracker.invalidate(pos, NONE);
+				}
+			}
+
+			ChunkEntry entry = tracker.chunkMap.remove(ChunkPos.asLong(chunkX, chunkZ));
+			if(entry != null) {
+				MutableBlockPos pos = new MutableBlockPos();
+				for(int i = 0; i < entry.numPoints; i++) {
+					tracker.removeRootEnd(entry.roots[i], ChunkEntry.decode(chunkX, chunkZ, entry.points[i], pos).toLong());
+				}
+			}
+		}
+	}
+
+	public static void unloadWorld(World world) {
+		if(!world.isRemote) {
+			trackers.remove(world.provider.getDimension());
+		}
+	}
+
 }
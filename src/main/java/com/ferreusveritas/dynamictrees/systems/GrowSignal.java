@@ -23,6 +23,7 @@ public class GrowSignal {
 	public float radius;
 	public float tapering;
 	public boolean success;
+	public boolean changed;//Set when the signal placed a block or changed the thickness of a branch.  A failed signal may still have thickened the tree
 	
 	public boolean choked;//This indicates that the tree could not establish the needed trunk space(girth) and should stop growing
 	
@@ -39,6 +40,7 @@ public class GrowSignal {
 		tapering = 0.3f;
 		rand = new Random();
 		success = true;
+		changed = false;
 		choked = false;
 		
 		this.rootPos = rootPos;
@@ -0,0 +1,266 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import com.ferreusveritas.dynamictrees.ModBlocks;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranchBasic;
+import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.TreeWorldView;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+
+/**
+ * An explicit stack walker for grow signals.  This is the engine behind
+ * {@link BlockBranchBasic#growSignal}.  It makes exactly the same decisions as the old
+ * recursive algorithm, stepping the signal out to the end of it's path and setting the
+ * radius of each branch on the way back, but it keeps the path in reusable arrays instead
+ * of on the java stack.
+ *
+ * The neighbors read while picking a direction at a node are kept and reused when the
+ * branch thickness is worked out on the way back.  Only neighbors the signal has since
+ * passed through(and may have thickened) are read again.  Should the signal end up in a
+ * tree part with it's own growSignal() implementation all neighbors are read again since
+ * there's no telling what it did.
+ *
+ * @author ferreusveritas
+ */
+public class GrowSignalWalker {
+
+	private static final ThreadLocal<GrowSignalWalker> walkers = ThreadLocal.withInitial(GrowSignalWalker::new);
+
+	/** Caches whether a tree part class uses the stock branch growth and can be walked inline */
+	private static final ClassValue<Boolean> walkable = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			if(!BlockBranchBasic.class.isAssignableFrom(type)) {
+				return false;
+			}
+			try {
+				return type.getMethod("growSignal", World.class, BlockPos.class, GrowSignal.class).getDeclaringClass() == BlockBranchBasic.class;
+			} catch (NoSuchMethodException e) {
+				return false;
+			}
+		}
+	};
+
+	/** Caches whether a species class picks it's directions it's own way and can't fill the neighbor buffer */
+	private static final ClassValue<Boolean> customDirections = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				return type.getMethod("selectNewDirection", World.class, BlockPos.class, BlockBranch.class, GrowSignal.class).getDeclaringClass() != Species.class;
+			} catch (NoSuchMethodException e) {
+				return true;
+			}
+		}
+	};
+
+	private BlockPos[] nodePos = new BlockPos[64];
+	private BlockBranchBasic[] nodeBranch = new BlockBranchBasic[64];
+	private IBlockState[] nodeState = new IBlockState[64];
+	private EnumFacing[] nodeOrigin = new EnumFacing[64];
+	private EnumFacing[] nodeTarget = new EnumFacing[64];
+	private boolean[] nodeInTrunk = new boolean[64];
+	private IBlockState[][] nodeNeighbors = new IBlockState[64][];//Neighbor states by direction index.  null if not read
+	private int top = -1;
+
+	private final int[] probMap = new int[6];
+	private final LongOpenHashSet passed = new LongOpenHashSet();//Positions the signal went through.  Their states may have changed
+	private final MutableBlockPos probe = new MutableBlockPos();
+	private boolean foreign;
+	private boolean busy = false;
+
+	/**
+	 * Send a grow signal along a branch.  Behaves exactly like the recursive growSignal() of a basic branch.
+	 *
+	 * @param world The world
+	 * @param branch The branch block at pos
+	 * @param pos The position the signal entered
+	 * @param signal The grow signal
+	 * @return the signal for chaining
+	 */
+	public static GrowSignal walk(World world, BlockBranchBasic branch, BlockPos pos, GrowSignal signal) {
+		GrowSignalWalker walker = walkers.get();
+		if(walker.busy) {//A foreign tree part sent the signal back into a basic branch
+			walker = new GrowSignalWalker();
+		}
+		return walker.process(world, branch, pos, signal);
+	}
+
+	/**
+	 * @param treePart The tree part to test
+	 * @return true if the tree part uses the stock branch growth and is handled inline by the walker
+	 */
+	public static boolean isWalkable(ITreePart treePart) {
+		return walkable.get(treePart.getClass());
+	}
+
+	private GrowSignal process(World world, BlockBranchBasic branch, BlockPos pos, GrowSignal signal) {
+		busy = true;
+		TreeWorldView view = TreeWorldView.open(world);
+		try {
+			passed.clear();
+			foreign = false;
+			passed.add(pos.toLong());
+
+			//Step the signal out to the end of it's path
+			while(signal.step()) {// This is always placed at the beginning of every growSignal function
+				int node = enter(branch, pos, view.getBlockState(pos), signal);
+				EnumFacing targetDir = selectNewDirection(world, node, signal);
+				signal.doTurn(targetDir);
+				nodeTarget[node] = targetDir;
+
+				// Pass grow signal to next block in path
+				BlockPos deltaPos = pos.offset(targetDir);
+				IBlockState deltaState = nodeNeighbors[node][targetDir.getIndex()];
+				if(deltaState == null) {
+					deltaState = view.getBlockState(deltaPos);
+				}
+
+				ITreePart treepart = TreeHelper.getTreePart(deltaState);
+				if(isWalkable(treepart)) {
+					branch = (BlockBranchBasic) treepart;
+					pos = deltaPos;
+					passed.add(pos.toLong());
+					continue;
+				}
+
+				if (treepart != TreeHelper.nullTreePart) {
+					signal = treepart.growSignal(world, deltaPos, signal);
+					foreign = true;
+				} else if (deltaState.getBlock().isAir(deltaState, world, deltaPos) || deltaState.getBlock() == ModBlocks.blockTrunkShell) {
+					signal = branch.growIntoAir(world, deltaPos, signal, branch.getRadius(nodeState[node]));
+					passed.add(deltaPos.toLong());
+				}
+				break;
+			}
+
+			//Calculate branch thickness on the way back
+			while(top >= 0) {
+				thicken(world, view, signal);
+				exit();
+			}
+		} finally {
+			while(top >= 0) {//Only needed if something threw
+				exit();
+			}
+			busy = false;
+			view.close();
+		}
+
+		return signal;
+	}
+
+	private EnumFacing selectNewDirection(World world, int node, GrowSignal signal) {
+		Species species = signal.getSpecies();
+		if(customDirections.get(species.getClass())) {
+			return species.selectNewDirection(world, nodePos[node], nodeBranch[node], signal);
+		}
+		return species.selectNewDirection(world, nodePos[node], nodeBranch[node], signal, nodeState[node], nodeNeighbors[node], probMap);
+	}
+
+	private void thicken(World world, TreeWorldView view, GrowSignal signal) {
+		BlockBranchBasic branch = nodeBranch[top];
+		BlockPos pos = nodePos[top];
+		IBlockState[] neighbors = nodeNeighbors[top];
+		EnumFacing originDir = nodeOrigin[top];
+		EnumFacing targetDir = nodeTarget[top];
+		Species species = signal.getSpecies();
+
+		// Calculate Branch Thickness based on neighboring branches
+		float areaAccum = signal.radius * signal.radius;// Start by accumulating the branch we just came from
+
+		for (EnumFacing dir : EnumFacing.VALUES) {
+			if (dir != originDir && dir != targetDir) {// Don't count where the signal originated from or the branch we just came back from
+				probe.setPos(pos.getX() + dir.getFrontOffsetX(), pos.getY() + dir.getFrontOffsetY(), pos.getZ() + dir.getFrontOffsetZ());
+				IBlockState blockState = neighbors[dir.getIndex()];
+				if(blockState == null || foreign || passed.contains(probe.toLong())) {
+					blockState = view.getBlockState(probe);
+				}
+				ITreePart treepart = TreeHelper.getTreePart(blockState);
+				if (branch.isSameTree(treepart)) {
+					int branchRadius = treepart.getRadius(blockState);
+					areaAccum += branchRadius * branchRadius;
+				}
+			}
+		}
+
+		//Only continue to set radii if the tree growth isn't choked out
+		if(!signal.choked) {
+			// Ensure that side branches are not thicker than the size of a block.  Also enforce species max thickness
+			int maxRadius = nodeInTrunk[top] ? species.maxBranchRadius() : Math.min(species.maxBranchRadius(), BlockBranch.RADMAX_NORMAL);
+
+			// The new branch should be the square root of all of the sums of the areas of the branches coming into it.
+			// But it shouldn't be smaller than it's current size(prevents the instant slimming effect when chopping off branches)
+			signal.radius = MathHelper.clamp((float) Math.sqrt(areaAccum) + species.getTapering(), branch.getRadius(nodeState[top]), maxRadius);
+			int targetRadius = (int) Math.floor(signal.radius);
+			int setRad = branch.setRadius(world, pos, targetRadius, originDir);
+			if(setRad != branch.getRadius(nodeState[top])) {
+				signal.changed = true;
+			}
+			if(setRad < targetRadius) { //We tried to set a radius but it didn't comply because something is in the way.
+				signal.choked = true; //If something is in the way then it means that the tree growth is choked
+			}
+		}
+	}
+
+	private int enter(BlockBranchBasic branch, BlockPos pos, IBlockState state, GrowSignal signal) {
+		if(++top == nodePos.length) {
+			grow();
+		}
+		nodePos[top] = pos;
+		nodeBranch[top] = branch;
+		nodeState[top] = state;
+		nodeOrigin[top] = signal.dir.getOpposite();// Direction this signal originated from
+		nodeInTrunk[top] = signal.isInTrunk();
+		IBlockState[] neighbors = nodeNeighbors[top];
+		if(neighbors == null) {
+			nodeNeighbors[top] = new IBlockState[6];
+		} else {
+			for(int i = 0; i < 6; i++) {
+				neighbors[i] = null;
+			}
+		}
+		return top;
+	}
+
+	private void exit() {
+		nodePos[top] = null;
+		nodeBranch[top] = null;
+		nodeState[top] = null;
+		top--;
+	}
+
+	private void grow() {
+		int size = nodePos.length * 2;
+		BlockPos[] newPos = new BlockPos[size];
+		BlockBranchBasic[] newBranch = new BlockBranchBasic[size];
+		IBlockState[] newState = new IBlockState[size];
+		EnumFacing[] newOrigin = new EnumFacing[size];
+		EnumFacing[] newTarget = new EnumFacing[size];
+		boolean[] newInTrunk = new boolean[size];
+		IBlockState[][] newNeighbors = new IBlockState[size][];
+		System.arraycopy(nodePos, 0, newPos, 0, nodePos.length);
+		System.arraycopy(nodeBranch, 0, newBranch, 0, nodeBranch.length);
+		System.arraycopy(nodeState, 0, newState, 0, nodeState.length);
+		System.arraycopy(nodeOrigin, 0, newOrigin, 0, nodeOrigin.length);
+		System.arraycopy(nodeTarget, 0, newTarget, 0, nodeTarget.length);
+		System.arraycopy(nodeInTrunk, 0, newInTrunk, 0, nodeInTrunk.length);
+		System.arraycopy(nodeNeighbors, 0, newNeighbors, 0, nodeNeighbors.length);
+		nodePos = newPos;
+		nodeBranch = newBranch;
+		nodeState = newState;
+		nodeOrigin = newOrigin;
+		nodeTarget = newTarget;
+		nodeInTrunk = newInTrunk;
+		nodeNeighbors = newNeighbors;
+	}
+
+}
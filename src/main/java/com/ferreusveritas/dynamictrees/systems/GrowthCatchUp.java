@@ -0,0 +1,213 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
+import com.ferreusveritas.dynamictrees.blocks.BlockRooty;
+import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.ChunkTreeHelper;
+import com.ferreusveritas.dynamictrees.util.CoordUtils;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * Makes up for the growth trees missed while their chunk was unloaded.  The world time is saved
+ * with each chunk and when the chunk is loaded again the number of tree updates it would have
+ * had from random ticks in the meantime is worked out.  Every tree in the chunk is then grown
+ * that many times in one go, up to the configured maximum, with the regular {@link Species#grow}
+ * which also handles the post grow features like fruit.
+ *
+ * The chunks are queued and caught up over several world ticks within a time budget once the
+ * chunks around them are loaded too.
+ *
+ * @author ferreusveritas
+ */
+public class GrowthCatchUp {
+
+	public static final String NBTKEY = "DTLS";//Dynamic Trees Last Simulated
+
+	/** The number of blocks in a chunk section.  Random ticks are spread over these */
+	private static final float SECTION_VOLUME = 4096.0f;
+
+	private static final Map<Integer, GrowthCatchUp> catchUps = new HashMap<>();
+
+	private static class Job {
+		private final long lastSimulated;
+		private final int updates;
+		private LongArrayList roots;//The root blocks in the chunk.  null until the chunk is scanned
+		private int index = 0;
+
+		private Job(long lastSimulated, int updates) {
+			this.lastSimulated = lastSimulated;
+			this.updates = updates;
+		}
+	}
+
+	private final Long2ObjectLinkedOpenHashMap<Job> jobs = new Long2ObjectLinkedOpenHashMap<>();//Chunk key to job.  Oldest first
+
+	public static boolean isEnabled(World world) {
+		return ModConfigs.enableGrowthCatchUp && !world.isRemote;
+	}
+
+	///////////////////////////////////////////
+	// PERSISTENCE
+	///////////////////////////////////////////
+
+	public static void loadChunk(World world, int chunkX, int chunkZ, NBTTagCompound chunkData) {
+		if(!isEnabled(world) || !chunkData.hasKey(NBTKEY)) {
+			return;
+		}
+
+		long lastSimulated = chunkData.getLong(NBTKEY);
+		long missed = world.getTotalWorldTime() - lastSimulated;
+		if(missed <= 0) {
+			return;
+		}
+
+		//Each section gets randomTickSpeed random ticks per world tick and a root block updates it's tree on one in treeGrowthFolding of them
+		float expected = missed * world.getGameRules().getInt("randomTickSpeed") / SECTION_VOLUME / ModConfigs.treeGrowthFolding;
+		int updates = (int) Math.min(expected, ModConfigs.catchUpMaxUpdates);
+		if(updates < ModConfigs.catchUpMaxUpdates && world.rand.nextFloat() < expected - updates) {
+			updates++;
+		}
+
+		if(updates > 0) {
+			catchUps.computeIfAbsent(world.provider.getDimension(), d -> new GrowthCatchUp()).jobs.put(ChunkPos.asLong(chunkX, chunkZ), new Job(lastSimulated, updates));
+		}
+	}
+
+	public static void saveChunk(World world, int chunkX, int chunkZ, NBTTagCompound chunkData) {
+		if(isEnabled(world)) {
+			GrowthCatchUp catchUp = catchUps.get(world.provider.getDimension());
+			Job job = catchUp != null ? catchUp.jobs.get(ChunkPos.asLong(chunkX, chunkZ)) : null;
+			chunkData.setLong(NBTKEY, job != null ? job.lastSimulated : world.getTotalWorldTime());//Don't lose growth that is yet to be caught up on
+		}
+	}
+
+	/** Drop the pending job of a chunk.  Called after the last save of the chunk */
+	public static void unloadChunk(World world, int chunkX, int chunkZ) {
+		if(!world.isRemote) {
+			GrowthCatchUp catchUp = catchUps.get(world.provider.getDimension());
+			if(catchUp != null) {
+				catchUp.jobs.remove(ChunkPos.asLong(chunkX, chunkZ));
+			}
+		}
+	}
+
+	public static void unloadWorld(World world) {
+		if(!world.isRemote) {
+			catchUps.remove(world.provider.getDimension());
+		}
+	}
+
+	///////////////////////////////////////////
+	// PROCESSING
+	///////////////////////////////////////////
+
+	/**
+	 * Catch up on the queued chunks for up to the configured time.  Called once per world tick.
+	 * Chunks that aren't surrounded by loaded chunks yet are left for later.
+	 *
+	 * @param world The world
+	 */
+	public static void process(World world) {
+		GrowthCatchUp catchUp = catchUps.get(world.provider.getDimension());
+		if(catchUp == null || catchUp.jobs.isEmpty()) {
+			return;
+		}
+
+		long deadline = System.nanoTime() + ModConfigs.catchUpMillisPerTick * 1000000L;
+		Iterator<Long2ObjectMap.Entry<Job>> iter = catchUp.jobs.long2ObjectEntrySet().iterator();
+		while(iter.hasNext() && System.nanoTime() < deadline) {
+			Long2ObjectMap.Entry<Job> entry = iter.next();
+			long chunkKey = entry.getLongKey();
+			int chunkX = (int) chunkKey;
+			int chunkZ = (int) (chunkKey >> 32);
+			Chunk chunk = world.getChunkProvider().getLoadedChunk(chunkX, chunkZ);
+			if(chunk == null || !CoordUtils.isSurroundedByLoadedChunks(world, new BlockPos(chunkX << 4, 0, chunkZ << 4))) {
+				continue;
+			}
+
+			Job job = entry.getValue();
+			if(job.roots == null) {
+				job.roots = findRoots(chunk);
+			}
+			while(job.index < job.roots.size() && System.nanoTime() < deadline) {
+				catchUp(world, BlockPos.fromLong(job.roots.getLong(job.index++)), job.updates);
+			}
+			if(job.index >= job.roots.size()) {
+				iter.remove();
+			}
+		}
+	}
+
+	private static LongArrayList findRoots(Chunk chunk) {
+		LongArrayList roots = new LongArrayList();
+		MutableBlockPos pos = new MutableBlockPos();
+		for(ExtendedBlockStorage section : chunk.getBlockStorageArray()) {
+			if(section == Chunk.NULL_BLOCK_STORAGE || section.isEmpty() || !ChunkTreeHelper.mayContain(section, block -> block instanceof BlockRooty)) {
+				continue;
+			}
+			for(int y = 0; y < 16; y++) {
+				for(int z = 0; z < 16; z++) {
+					for(int x = 0; x < 16; x++) {
+						if(section.get(x, y, z).getBlock() instanceof BlockRooty) {
+							roots.add(pos.setPos((chunk.x << 4) + x, section.getYLocation() + y, (chunk.z << 4) + z).toLong());
+						}
+					}
+				}
+			}
+		}
+		return roots;
+	}
+
+	/**
+	 * Grow a tree a number of times.  Stops early if the tree falls asleep or isn't viable anymore.
+	 * Rot, disease and decay of the root block are left to the regular updates.
+	 *
+	 * @param world The world
+	 * @param rootPos The position of the {@link BlockRooty}
+	 * @param updates The number of updates to catch up on
+	 */
+	private static void catchUp(World world, BlockPos rootPos, int updates) {
+		IBlockState rootyState = world.getBlockState(rootPos);
+		if(!(rootyState.getBlock() instanceof BlockRooty)) {
+			return;
+		}
+
+		BlockRooty rooty = (BlockRooty) rootyState.getBlock();
+		Species species = rooty.getSpecies(rootyState, world, rootPos);
+		if(!species.isValid()) {
+			return;
+		}
+
+		BlockPos treePos = rootPos.offset(rooty.getTrunkDirection(world, rootPos));
+		TreeProfiler.Sample sample = TreeProfiler.begin();
+		for(int i = 0; i < updates && !TreeDormancy.isDormant(world, rootPos); i++) {
+			rootyState = world.getBlockState(rootPos);
+			ITreePart treeBase = TreeHelper.getTreePart(world.getBlockState(treePos));
+			if(rootyState.getBlock() != rooty || treeBase == TreeHelper.nullTreePart) {
+				break;
+			}
+			if(!species.grow(world, rooty, rootPos, rooty.getSoilLife(rootyState, world, rootPos), treeBase, treePos, world.rand, true)) {
+				break;
+			}
+		}
+		TreeProfiler.end(sample, TreeProfiler.Section.GROW, species, world);
+	}
+
+}
@@ -0,0 +1,355 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ferreusveritas.dynamictrees.ModBlocks;
+import com.ferreusveritas.dynamictrees.api.IAgeable;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.cells.CellNull;
+import com.ferreusveritas.dynamictrees.api.cells.ICell;
+import com.ferreusveritas.dynamictrees.api.treedata.ILeavesProperties;
+import com.ferreusveritas.dynamictrees.blocks.BlockDynamicLeaves;
+import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
+import com.ferreusveritas.dynamictrees.util.SimpleVoxmap;
+import com.ferreusveritas.dynamictrees.util.TreeWorldView;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.world.World;
+
+/**
+ * Ages a cluster of leaves in memory.  Every position in the leaf map is read from the world
+ * once, hydration is then propagated with a worklist so that only leaves whose neighbors
+ * actually changed are solved again, and finally the changed block states are written back
+ * in one pass.  New leaves are grown around the cluster the same way {@link BlockDynamicLeaves#age}
+ * does it but with the hydration of the new block taken from the solved values.
+ *
+ * The leaf map is kept up to date with the final hydration of the leaves and cleared where
+ * leaves died or were never present so it can still be used for snow afterwards.
+ *
+ * @author ferreusveritas
+ */
+public class HydrationSolver {
+
+	/** Guards against cell solvers that never settle */
+	private static final int MAX_SOLVES_PER_LEAF = 16;
+
+	private static class Leaf {
+		final BlockPos pos;
+		final BlockDynamicLeaves block;
+		final ILeavesProperties properties;
+		final boolean loaded;//True if the leaves came from the leaf map, false if they were grown by the solver
+		IBlockState state;
+		int hydro;//The solved hydration.  0 if the leaves died
+		int worldHydro;//The hydration that is currently in the world
+		boolean queued;
+
+		Leaf(BlockPos pos, IBlockState state, boolean loaded) {
+			this.pos = pos;
+			this.state = state;
+			this.block = (BlockDynamicLeaves) state.getBlock();
+			this.properties = block.getProperties(state);
+			this.loaded = loaded;
+			this.hydro = this.worldHydro = state.getValue(BlockDynamicLeaves.HYDRO);
+		}
+	}
+
+	private final World world;
+	private final SafeChunkBounds safeBounds;
+	private final boolean worldGen;
+
+	private final Long2ObjectOpenHashMap<IBlockState> states = new Long2ObjectOpenHashMap<>();//Every block state that was read from the world
+	private final Long2ObjectOpenHashMap<Leaf> leaves = new Long2ObjectOpenHashMap<>();
+	private final LongArrayFIFOQueue worklist = new LongArrayFIFOQueue();
+	private final LongOpenHashSet unsuitable = new LongOpenHashSet();//Positions where new leaves can't grow
+	private final List<BlockPos> ageables = new ArrayList<>();
+	private final ICell[] cells = new ICell[6];
+	private final MutableBlockPos probe = new MutableBlockPos();
+	private TreeWorldView view;//Open while solving
+	private SimpleVoxmap leafMap;//Null if the solver was given plain positions
+	private boolean changed;
+	private int reads;
+
+	public HydrationSolver(World world, SafeChunkBounds safeBounds) {
+		this.world = world;
+		this.safeBounds = safeBounds;
+		this.worldGen = safeBounds != SafeChunkBounds.ANY;
+	}
+
+	/**
+	 * Age all of the leaves in a leaf map.
+	 *
+	 * @param leafMap The voxel map of the leaves to age.  Updated with the final hydro values
+	 * @param iterations The number of times new leaves may attempt to grow around the cluster.  Hydration is always solved until it settles
+	 * @return true if any block was changed
+	 */
+	public boolean solve(SimpleVoxmap leafMap, int iterations) {
+		if(iterations <= 0) {
+			return false;
+		}
+
+		view = TreeWorldView.open(world);
+		try {
+			this.leafMap = leafMap;
+			for(MutableBlockPos pos: leafMap.getAllNonZero()) {
+				if(!load(pos)) {
+					leafMap.setVoxel(pos, (byte) 0);
+				}
+			}
+
+			return run(iterations);
+		} finally {
+			view.close();
+			view = null;
+		}
+	}
+
+	/**
+	 * Age the leaves at a set of positions.  Positions that aren't leaves or ageable are ignored.
+	 *
+	 * @param positions The positions of the leaves to age
+	 * @param iterations The number of times new leaves may attempt to grow around the cluster
+	 * @return true if any block was changed
+	 */
+	public boolean solve(Iterable<? extends BlockPos> positions, int iterations) {
+		if(iterations <= 0) {
+			return false;
+		}
+
+		view = TreeWorldView.open(world);
+		try {
+			for(BlockPos pos: positions) {
+				load(pos);
+			}
+
+			return run(iterations);
+		} finally {
+			view.close();
+			view = null;
+		}
+	}
+
+	/** @return The number of block states that were read from the world by the solver itself */
+	public int getNumReads() {
+		return reads;
+	}
+
+	///////////////////////////////////////////
+	// PHASES
+	///////////////////////////////////////////
+
+	private boolean run(int iterations) {
+		//Leaves that died from lack of light need their neighbors solved again
+		for(Leaf leaf: leaves.values()) {
+			if(leaf.hydro == 0) {
+				enqueueNeighbors(leaf.pos);
+			}
+		}
+
+		for(int i = 0; i < iterations; i++) {
+			propagate();
+			commit();
+			grow();
+		}
+
+		propagate();
+		commit();
+
+		return changed;
+	}
+
+	/** @return true if the position holds something that can be aged */
+	private boolean load(BlockPos pos) {
+		if(!safeBounds.inBounds(pos, true)) {//Don't let the aging process look for neighbors outside of the bounds
+			return false;
+		}
+
+		BlockPos leafPos = pos.toImmutable();
+		if(leaves.containsKey(leafPos.toLong())) {
+			return true;
+		}
+
+		IBlockState state = getState(leafPos);
+		Block block = state.getBlock();
+
+		if(block instanceof BlockDynamicLeaves) {//Special case for leaves
+			if(!canAge(state, leafPos)) {
+				return true;
+			}
+			Leaf leaf = new Leaf(leafPos, state, true);
+			leaves.put(leafPos.toLong(), leaf);
+			//Light doesn't work right during worldgen so we'll just disable it during worldgen for now.
+			if(!worldGen && !leaf.block.hasAdequateLight(state, world, leaf.properties, leafPos)) {
+				leaf.hydro = 0;
+			} else {
+				enqueue(leaf);
+			}
+			return true;
+		}
+		else if(block instanceof IAgeable) {//Treat as just a regular ageable block
+			ageables.add(leafPos);
+			return true;
+		}
+
+		return false;//You're not supposed to be here
+	}
+
+	/**
+	 * Allows subclasses to hold back some of the leaves from aging.  Leaves that are held back
+	 * still hydrate their neighbors.
+	 *
+	 * @param state The state of the leaves
+	 * @param pos The position of the leaves
+	 * @return true if the leaves should be aged
+	 */
+	protected boolean canAge(IBlockState state, BlockPos pos) {
+		return true;
+	}
+
+	private void propagate() {
+		int budget = leaves.size() * MAX_SOLVES_PER_LEAF;
+
+		while(!worklist.isEmpty() && budget-- > 0) {
+			Leaf leaf = leaves.get(worklist.dequeueLong());
+			leaf.queued = false;
+
+			if(leaf.hydro != 0) {
+				int newHydro = solveCell(leaf.pos, leaf.properties);
+				if(newHydro != leaf.hydro) {
+					leaf.hydro = newHydro;
+					enqueueNeighbors(leaf.pos);//The surrounding leaves now also have potential to change
+				}
+			}
+		}
+
+		while(!worklist.isEmpty()) {//Out of budget.  Whatever is left keeps it's current value
+			leaves.get(worklist.dequeueLong()).queued = false;
+		}
+	}
+
+	private void commit() {
+		for(Leaf leaf: leaves.values()) {
+			if(leaf.hydro != leaf.worldHydro) {
+				if(leaf.hydro == 0) {
+					view.setBlockState(leaf.pos, ModBlocks.blockStates.air, 3);//No water, no light .. no leaves
+					states.put(leaf.pos.toLong(), ModBlocks.blockStates.air);
+				} else {
+					//The clients do not need to know the hydration level of the leaves blocks unless it changes their appearance. See BlockDynamicLeaves.age
+					leaf.state = leaf.properties.getDynamicLeavesState(leaf.hydro);
+					view.setBlockState(leaf.pos, leaf.state, leaf.properties.appearanceChangesWithHydro() ? 2 : 4);
+					states.put(leaf.pos.toLong(), leaf.state);
+				}
+				leaf.worldHydro = leaf.hydro;
+				changed = true;
+				if(leaf.loaded && leafMap != null) {
+					leafMap.setVoxel(leaf.pos, (byte) leaf.hydro);
+				}
+			}
+		}
+		view.flush();//The world must be up to date before anything else gets to age
+	}
+
+	private void grow() {
+		for(BlockPos pos: ageables) {
+			IBlockState state = world.getBlockState(pos);
+			if(state.getBlock() instanceof IAgeable) {
+				((IAgeable)state.getBlock()).age(world, pos, state, world.rand, safeBounds);
+				changed = true;//No way of knowing
+			}
+			states.remove(pos.toLong());//The ageable block may have changed itself
+		}
+
+		List<Leaf> growers = new ArrayList<>(leaves.size());
+		for(Leaf leaf: leaves.values()) {
+			if(leaf.loaded && leaf.hydro != 0) {
+				growers.add(leaf);
+			}
+		}
+
+		//We should do this even if the hydro is only 1.  Since there could be adjacent branch blocks that could use a leaves block
+		for(Leaf leaf: growers) {
+			for(EnumFacing dir: EnumFacing.VALUES) {
+				if(leaf.hydro > 1 || world.rand.nextInt(4) == 0) {//we'll give it a 1 in 4 chance to grow leaves if hydro is low to help performance
+					BlockPos offPos = leaf.pos.offset(dir);
+					long offKey = offPos.toLong();
+					if(leaves.containsKey(offKey) || unsuitable.contains(offKey) || !safeBounds.inBounds(offPos, true)) {
+						continue;
+					}
+					if(leaf.block.isLocationSuitableForNewLeaves(world, leaf.properties, offPos)) {
+						int hydro = solveCell(offPos, leaf.properties);
+						if(hydro > 0) {
+							IBlockState newState = leaf.block.growNewLeaves(world, leaf.pos, leaf.state, leaf.hydro, offPos, hydro, worldGen);
+							states.put(offKey, newState);
+							changed = true;
+							if(newState.getBlock() instanceof BlockDynamicLeaves) {
+								Leaf newLeaf = new Leaf(offPos, newState, false);
+								leaves.put(offKey, newLeaf);
+								enqueue(newLeaf);
+								enqueueNeighbors(offPos);
+							}
+						}
+					} else {
+						unsuitable.add(offKey);
+						states.remove(offKey);//The suitability test can replace plants
+					}
+				}
+			}
+		}
+	}
+
+	///////////////////////////////////////////
+	// UTILITIES
+	///////////////////////////////////////////
+
+	/** Find a cell's hydration from the solved values of it's neighbors */
+	private int solveCell(BlockPos pos, ILeavesProperties leavesProperties) {
+		for(EnumFacing dir: EnumFacing.VALUES) {
+			probe.setPos(pos.getX() + dir.getFrontOffsetX(), pos.getY() + dir.getFrontOffsetY(), pos.getZ() + dir.getFrontOffsetZ());
+			Leaf leaf = leaves.get(probe.toLong());
+			if(leaf != null) {
+				cells[dir.ordinal()] = leaf.hydro != 0 ? leavesProperties.getCellKit().getCellForLeaves(leaf.hydro) : CellNull.NULLCELL;
+			} else {
+				IBlockState state = getState(probe);
+				cells[dir.ordinal()] = TreeHelper.getTreePart(state).getHydrationCell(world, probe, state, dir, leavesProperties);
+			}
+		}
+
+		return leavesProperties.getCellKit().getCellSolver().solve(cells);//Find center cell's value from neighbors
+	}
+
+	private IBlockState getState(BlockPos pos) {
+		long key = pos.toLong();
+		IBlockState state = states.get(key);
+		if(state == null) {
+			state = view.getBlockState(pos);
+			states.put(key, state);
+			reads++;
+		}
+		return state;
+	}
+
+	private void enqueue(Leaf leaf) {
+		if(!leaf.queued) {
+			leaf.queued = true;
+			worklist.enqueue(leaf.pos.toLong());
+		}
+	}
+
+	private void enqueueNeighbors(BlockPos pos) {
+		for(EnumFacing dir: EnumFacing.VALUES) {
+			probe.setPos(pos.getX() + dir.getFrontOffsetX(), pos.getY() + dir.getFrontOffsetY(), pos.getZ() + dir.getFrontOffsetZ());
+			Leaf leaf = leaves.get(probe.toLong());
+			if(leaf != null && leaf.hydro != 0) {
+				enqueue(leaf);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,188 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.blocks.BlockDynamicLeaves;
+import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+/**
+ * An optional replacement for the random tick fan out of {@link BlockDynamicLeaves}.
+ * Instead of aging each ticked leaves block and a handful of it's neighbors on the spot
+ * the ticked positions are collected into clusters(one per chunk section) and a fixed
+ * number of clusters are aged each world tick with a {@link HydrationSolver}.  A cluster
+ * that comes out of the solver unchanged is considered stable and further ticks in it are
+ * dropped for a while.  Any change to the branches or leaves in or right next to a stable
+ * cluster ends it's stable status.
+ *
+ * @author ferreusveritas
+ */
+public class LeavesTickScheduler {
+
+	/** How long a cluster with stable hydration is left alone */
+	public static final int STABLE_TICKS = 1200;
+
+	private static final Map<Integer, LeavesTickScheduler> schedulers = new HashMap<>();
+
+	//Metrics
+	public static long ticks;
+	public static long clustersProcessed;
+	public static long clustersStable;
+	public static long clustersInvalidated;
+	public static long leavesScheduled;
+	public static long leavesDropped;
+	public static long tickNanos;
+	public static long lastTickNanos;
+	public static long maxTickNanos;
+
+	private final Long2ObjectLinkedOpenHashMap<LongOpenHashSet> pending = new Long2ObjectLinkedOpenHashMap<>();//Cluster key to packed leaves positions.  Oldest clusters first
+	private final Long2LongOpenHashMap stableUntil = new Long2LongOpenHashMap();//Cluster key to the world time when it's stable status expires
+
+	public static boolean isEnabled(World world) {
+		return ModConfigs.enableLeavesTickScheduler && !world.isRemote;
+	}
+
+	/**
+	 * Queue a leaves block for aging.
+	 *
+	 * @param world The world
+	 * @param pos The position of the leaves
+	 */
+	public static void schedule(World world, BlockPos pos) {
+		schedulers.computeIfAbsent(world.provider.getDimension(), d -> new LeavesTickScheduler()).add(world, pos);
+	}
+
+	/**
+	 * Age up to the configured number of clusters.  Called once per world tick.
+	 *
+	 * @param world The world
+	 */
+	public static void process(World world) {
+		LeavesTickScheduler scheduler = schedulers.get(world.provider.getDimension());
+		if(scheduler != null && !scheduler.pending.isEmpty()) {
+			long start = System.nanoTime();
+			scheduler.processClusters(world, ModConfigs.leavesTickClusterBudget);
+			lastTickNanos = System.nanoTime() - start;
+			tickNanos += lastTickNanos;
+			maxTickNanos = Math.max(maxTickNanos, lastTickNanos);
+			ticks++;
+		}
+	}
+
+	/**
+	 * Something changed in a tree.  The clusters the position and it's neighbors are in are no
+	 * longer stable so the leaves get aged again the next time they are ticked.  Called when
+	 * branches or leaves are placed or removed and when leaves see a neighbor change.
+	 *
+	 * @param world The world
+	 * @param pos The position that changed
+	 */
+	public static void invalidate(World world, BlockPos pos) {
+		if(!world.isRemote) {
+			LeavesTickScheduler scheduler = schedulers.get(world.provider.getDimension());
+			if(scheduler != null && !scheduler.stableUntil.isEmpty()) {
+				scheduler.invalidate(pos.getX(), pos.getY(), pos.getZ());
+				for(EnumFacing dir : EnumFacing.VALUES) {
+					scheduler.invalidate(pos.getX() + dir.getFrontOffsetX(), pos.getY() + dir.getFrontOffsetY(), pos.getZ() + dir.getFrontOffsetZ());
+				}
+			}
+		}
+	}
+
+	public static void unloadWorld(World world) {
+		if(!world.isRemote) {
+			schedulers.remove(world.provider.getDimension());
+		}
+	}
+
+	public static int getNumPendingClusters() {
+		return schedulers.values().stream().mapToInt(s -> s.pending.size()).sum();
+	}
+
+	public static void clearMetrics() {
+		ticks = clustersProcessed = clustersStable = clustersInvalidated = leavesScheduled = leavesDropped = 0;
+		tickNanos = lastTickNanos = maxTickNanos = 0;
+	}
+
+	private void add(World world, BlockPos pos) {
+		long cluster = clusterKey(pos);
+
+		long expires = stableUntil.get(cluster);
+		if(expires != 0) {
+			if(world.getTotalWorldTime() < expires) {
+				leavesDropped++;
+				return;
+			}
+			stableUntil.remove(cluster);
+		}
+
+		LongOpenHashSet leaves = pending.get(cluster);
+		if(leaves == null) {
+			pending.put(cluster, leaves = new LongOpenHashSet());
+		}
+		if(leaves.add(pos.toLong())) {
+			leavesScheduled++;
+		}
+	}
+
+	private void invalidate(int x, int y, int z) {
+		if(stableUntil.remove(clusterKey(x, y, z)) != stableUntil.defaultReturnValue()) {
+			clustersInvalidated++;
+		}
+	}
+
+	private void processClusters(World world, int budget) {
+		for(int i = 0; i < budget && !pending.isEmpty(); i++) {
+			long cluster = pending.firstLongKey();
+			LongOpenHashSet leaves = pending.removeFirst();
+
+			List<BlockPos> positions = new ArrayList<>(leaves.size());
+			for(LongIterator iter = leaves.iterator(); iter.hasNext();) {
+				BlockPos pos = BlockPos.fromLong(iter.nextLong());
+				if(world.isAreaLoaded(pos, 1)) {
+					positions.add(pos);
+				}
+			}
+
+			HydrationSolver solver = new HydrationSolver(world, SafeChunkBounds.ANY) {
+				@Override
+				protected boolean canAge(IBlockState state, BlockPos pos) {
+					return ((BlockDynamicLeaves) state.getBlock()).getProperties(state).updateTick(world, pos, state, world.rand);
+				}
+			};
+
+			if(!solver.solve(positions, 1)) {
+				stableUntil.put(cluster, world.getTotalWorldTime() + STABLE_TICKS);
+				clustersStable++;
+			}
+			clustersProcessed++;
+		}
+
+		if(stableUntil.size() > 4096) {//Forget about expired clusters every so often
+			long now = world.getTotalWorldTime();
+			stableUntil.values().removeIf(expires -> expires <= now);
+		}
+	}
+
+	/** Packs the chunk section of the position into a key */
+	private static long clusterKey(BlockPos pos) {
+		return clusterKey(pos.getX(), pos.getY(), pos.getZ());
+	}
+
+	private static long clusterKey(int x, int y, int z) {
+		return ((long)(x >> 4) & 0x3FFFFFF) | (((long)(z >> 4) & 0x3FFFFFF) << 26) | ((long)(y >> 4) << 52);
+	}
+
+}
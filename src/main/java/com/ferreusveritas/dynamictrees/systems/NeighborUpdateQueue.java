@@ -0,0 +1,165 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+/**
+ * Spreads the neighbor notifications that follow the felling of a tree over several ticks.
+ * The blocks around the destroyed branches and leaves of an {@link EntityFallingTree} are
+ * queued instead of being notified on the spot.  A block that is already waiting is only
+ * queued once no matter how many fellings touch it and a fixed number of blocks are notified
+ * each world tick, oldest first.  The blocks of a chunk that is about to unload are notified
+ * right away and so is everything that's left when the world unloads.
+ *
+ * @author ferreusveritas
+ */
+public class NeighborUpdateQueue {
+
+	private static final Map<Integer, NeighborUpdateQueue> queues = new HashMap<>();
+
+	//Metrics
+	public static long queued;
+	public static long merged;
+	public static long notified;
+	public static long skipped;
+	public static int maxDepth;
+
+	private final LongLinkedOpenHashSet pending = new LongLinkedOpenHashSet();
+
+	public static boolean isEnabled(World world) {
+		return ModConfigs.neighborUpdatesPerTick > 0 && !world.isRemote;
+	}
+
+	/**
+	 * Notify the surviving neighbors of a set of destroyed blocks.  The neighbors are queued if
+	 * the queue is enabled and notified right away if it's not.
+	 *
+	 * @param world The world
+	 * @param destroyed The packed positions of the destroyed blocks
+	 */
+	public static void scheduleAround(World world, LongSet destroyed) {
+		LongOpenHashSet toUpdate = new LongOpenHashSet();
+
+		//Gather all of the non-destroyed blocks surrounding each destroyed block
+		BlockPos.MutableBlockPos dPos = new BlockPos.MutableBlockPos();
+		for(long d : destroyed) {
+			BlockPos pos = BlockPos.fromLong(d);
+			for(EnumFacing dir: EnumFacing.values()) {
+				long key = dPos.setPos(pos).move(dir).toLong();
+				if(!destroyed.contains(key)) {
+					toUpdate.add(key);
+				}
+			}
+		}
+
+		if(!isEnabled(world)) {
+			for(long key : toUpdate) {
+				BlockPos pos = BlockPos.fromLong(key);
+				world.neighborChanged(pos, Blocks.AIR, pos);
+			}
+			return;
+		}
+
+		NeighborUpdateQueue queue = queues.computeIfAbsent(world.provider.getDimension(), d -> new NeighborUpdateQueue());
+		for(long key : toUpdate) {
+			if(queue.pending.add(key)) {
+				queued++;
+			} else {
+				merged++;
+			}
+		}
+		maxDepth = Math.max(maxDepth, queue.pending.size());
+	}
+
+	/**
+	 * Notify up to the configured number of queued blocks.  Called once per world tick.
+	 *
+	 * @param world The world
+	 */
+	public static void process(World world) {
+		NeighborUpdateQueue queue = queues.get(world.provider.getDimension());
+		if(queue == null) {
+			return;
+		}
+
+		int budget = isEnabled(world) ? ModConfigs.neighborUpdatesPerTick : Integer.MAX_VALUE;//Drain everything if the queue was just switched off
+		for(int i = 0; i < budget && !queue.pending.isEmpty(); i++) {
+			notifyBlock(world, BlockPos.fromLong(queue.pending.removeFirstLong()));
+		}
+	}
+
+	private static void notifyBlock(World world, BlockPos pos) {
+		if(world.isBlockLoaded(pos)) {
+			world.neighborChanged(pos, Blocks.AIR, pos);
+			notified++;
+		} else {
+			skipped++;
+		}
+	}
+
+	/**
+	 * Notify the queued blocks of a chunk before it goes.  The chunk is still loaded while it's
+	 * unload event is handled.
+	 *
+	 * @param world The world
+	 * @param chunkX The chunk x coordinate
+	 * @param chunkZ The chunk z coordinate
+	 */
+	public static void unloadChunk(World world, int chunkX, int chunkZ) {
+		NeighborUpdateQueue queue = queues.get(world.provider.getDimension());
+		if(queue == null || queue.pending.isEmpty() || world.isRemote) {
+			return;
+		}
+
+		LongArrayList inChunk = new LongArrayList();
+		for(LongIterator it = queue.pending.iterator(); it.hasNext(); ) {
+			long key = it.nextLong();
+			BlockPos pos = BlockPos.fromLong(key);
+			if(pos.getX() >> 4 == chunkX && pos.getZ() >> 4 == chunkZ) {
+				inChunk.add(key);
+				it.remove();
+			}
+		}
+
+		for(int i = 0; i < inChunk.size(); i++) {//Notified after the scan since notifications can queue more blocks
+			notifyBlock(world, BlockPos.fromLong(inChunk.getLong(i)));
+		}
+	}
+
+	/** Notify everything that's still queued and forget the queue of the world */
+	public static void unloadWorld(World world) {
+		if(!world.isRemote) {
+			NeighborUpdateQueue queue = queues.get(world.provider.getDimension());
+			if(queue != null) {
+				while(!queue.pending.isEmpty()) {
+					notifyBlock(world, BlockPos.fromLong(queue.pending.removeFirstLong()));
+				}
+			}
+			queues.remove(world.provider.getDimension());
+		}
+	}
+
+	/** @return The number of blocks waiting to be notified in all dimensions */
+	public static int getDepth() {
+		return queues.values().stream().mapToInt(q -> q.pending.size()).sum();
+	}
+
+	public static void clearMetrics() {
+		queued = merged = notified = skipped = 0;
+		maxDepth = 0;
+	}
+
+}
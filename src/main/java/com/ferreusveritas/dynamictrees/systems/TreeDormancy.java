@@ -0,0 +1,278 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.blocks.BlockRooty;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+/**
+ * Keeps track of trees that have stopped growing.  A tree whose grow signals keep coming back
+ * without placing a block or thickening a branch(or that choked) is put to sleep.  Off unless
+ * enabled in the config.  The random ticks of a dormant tree only handle the cheap
+ * stuff like seed drops and fruit and the full update is only run every so often.  Each full
+ * update that still doesn't grow the tree doubles the time to the next one up to the configured
+ * maximum.
+ *
+ * Anything that could let the tree grow again wakes it up: a change next to it's {@link BlockRooty},
+ * substances, fertilizing or damage to any branch in the vicinity.
+ *
+ * The state is only kept in memory for loaded chunks.  A tree that's reloaded starts out active
+ * and falls asleep again after a few failed signals.
+ *
+ * @author ferreusveritas
+ */
+public class TreeDormancy {
+
+	/** Ticks from falling asleep to the first full update */
+	public static final int BASE_INTERVAL = 2400;
+
+	/** Horizontal distance from a damaged branch at which dormant trees are woken up */
+	public static final int WAKE_RADIUS = 12;
+
+	private static final Map<Integer, TreeDormancy> dormancies = new HashMap<>();
+
+	//Metrics
+	public static long fullUpdates;
+	public static long restingUpdates;
+	public static long fallenAsleep;
+	public static long wokenUp;
+
+	private static class Entry {
+		private int failures;
+		private boolean dormant;
+		private int interval;
+		private long nextFullUpdate;
+	}
+
+	private final Long2ObjectOpenHashMap<Entry> trees = new Long2ObjectOpenHashMap<>();
+	private final Long2ObjectOpenHashMap<LongOpenHashSet> chunkRoots = new Long2ObjectOpenHashMap<>();
+	private int numDormant = 0;
+
+	public static boolean isEnabled(World world) {
+		return ModConfigs.enableTreeDormancy && !world.isRemote;
+	}
+
+	/**
+	 * Decide if the update of a tree can be cut short.  A dormant tree whose full update is due
+	 * is given it's full update and the time to the next one is doubled.
+	 *
+	 * @param world The world
+	 * @param rootPos The position of the {@link BlockRooty}
+	 * @return true if the tree is dormant and only the cheap parts of the update should run
+	 */
+	public static boolean isResting(World world, BlockPos rootPos) {
+		if(isEnabled(world)) {
+			TreeDormancy dormancy = dormancies.get(world.provider.getDimension());
+			if(dormancy != null) {
+				Entry entry = dormancy.trees.get(rootPos.toLong());
+				if(entry != null && entry.dormant) {
+					long time = world.getTotalWorldTime();
+					if(time < entry.nextFullUpdate) {
+						restingUpdates++;
+						return true;
+					}
+					entry.nextFullUpdate = time + entry.interval;
+					entry.interval = Math.min(entry.interval * 2, Math.max(BASE_INTERVAL, ModConfigs.dormancyMaxInterval));
+				}
+			}
+		}
+		fullUpdates++;
+		return false;
+	}
+
+	/**
+	 * @param world The world
+	 * @param rootPos The position of the {@link BlockRooty}
+	 * @return true if the tree is dormant
+	 */
+	public static boolean isDormant(World world, BlockPos rootPos) {
+		if(isEnabled(world)) {
+			TreeDormancy dormancy = dormancies.get(world.provider.getDimension());
+			if(dormancy != null) {
+				Entry entry = dormancy.trees.get(rootPos.toLong());
+				return entry != null && entry.dormant;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Record the outcome of a grow attempt.
+	 *
+	 * @param world The world
+	 * @param rootPos The position of the {@link BlockRooty}
+	 * @param grew true if the signal placed a block or thickened a branch
+	 * @param choked true if the tree choked.  Puts it to sleep right away
+	 */
+	public static void record(World world, BlockPos rootPos, boolean grew, boolean choked) {
+		if(!isEnabled(world)) {
+			return;
+		}
+
+		TreeDormancy dormancy = dormancies.computeIfAbsent(world.provider.getDimension(), d -> new TreeDormancy());
+		long key = rootPos.toLong();
+		Entry entry = dormancy.trees.get(key);
+		if(entry == null) {
+			entry = new Entry();
+			dormancy.trees.put(key, entry);
+			dormancy.chunkRoots.computeIfAbsent(chunkKey(rootPos), k -> new LongOpenHashSet()).add(key);
+		}
+
+		if(grew && !choked) {
+			entry.failures = 0;
+			if(entry.dormant) {
+				dormancy.setDormant(entry, false);
+				wokenUp++;
+			}
+		} else if(!entry.dormant && (choked || ++entry.failures >= ModConfigs.dormancyFailedSignals)) {
+			dormancy.setDormant(entry, true);
+			entry.interval = BASE_INTERVAL;
+			entry.nextFullUpdate = world.getTotalWorldTime() + BASE_INTERVAL;
+			fallenAsleep++;
+		}
+	}
+
+	/**
+	 * Wake up a tree.
+	 *
+	 * @param world The world
+	 * @param rootPos The position of the {@link BlockRooty}
+	 */
+	public static void wake(World world, BlockPos rootPos) {
+		if(!world.isRemote) {
+			TreeDormancy dormancy = dormancies.get(world.provider.getDimension());
+			if(dormancy != null && dormancy.numDormant > 0) {
+				dormancy.wake(dormancy.trees.get(rootPos.toLong()));
+			}
+		}
+	}
+
+	/**
+	 * Wake up every dormant tree rooted within {@link #WAKE_RADIUS} blocks of a position.
+	 * Used when a branch is damaged since there's no telling which tree it belonged to.
+	 *
+	 * @param world The world
+	 * @param pos The position of the damaged branch
+	 */
+	public static void wakeAround(World world, BlockPos pos) {
+		if(world.isRemote) {
+			return;
+		}
+
+		TreeDormancy dormancy = dormancies.get(world.provider.getDimension());
+		if(dormancy == null || dormancy.numDormant == 0) {
+			return;
+		}
+
+		for(int cz = (pos.getZ() - WAKE_RADIUS) >> 4; cz <= (pos.getZ() + WAKE_RADIUS) >> 4; cz++) {
+			for(int cx = (pos.getX() - WAKE_RADIUS) >> 4; cx <= (pos.getX() + WAKE_RADIUS) >> 4; cx++) {
+				LongOpenHashSet roots = dormancy.chunkRoots.get(ChunkPos.asLong(cx, cz));
+				if(roots != null) {
+					for(long root : roots) {
+						BlockPos rootPos = BlockPos.fromLong(root);
+						if(Math.abs(rootPos.getX() - pos.getX()) <= WAKE_RADIUS && Math.abs(rootPos.getZ() - pos.getZ()) <= WAKE_RADIUS) {
+							dormancy.wake(dormancy.trees.get(root));
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Forget a tree.  Called when it's {@link BlockRooty} is removed.
+	 *
+	 * @param world The world
+	 * @param rootPos The position of the {@link BlockRooty}
+	 */
+	public static void remove(World world, BlockPos rootPos) {
+		if(!world.isRemote) {
+			TreeDormancy dormancy = dormancies.get(world.provider.getDimension());
+			if(dormancy != null) {
+				dormancy.remove(rootPos.toLong());
+			}
+		}
+	}
+
+	public static void unloadChunk(World world, int chunkX, int chunkZ) {
+		if(!world.isRemote) {
+			TreeDormancy dormancy = dormancies.get(world.provider.getDimension());
+			if(dormancy != null) {
+				LongOpenHashSet roots = dormancy.chunkRoots.get(ChunkPos.asLong(chunkX, chunkZ));
+				if(roots != null) {
+					for(long root : roots.toLongArray()) {
+						dormancy.remove(root);
+					}
+				}
+			}
+		}
+	}
+
+	public static void unloadWorld(World world) {
+		if(!world.isRemote) {
+			dormancies.remove(world.provider.getDimension());
+		}
+	}
+
+	/** @return The number of tracked trees that are dormant in all dimensions */
+	public static int getNumDormant() {
+		return dormancies.values().stream().mapToInt(d -> d.numDormant).sum();
+	}
+
+	/** @return The number of tracked trees that are still growing in all dimensions */
+	public static int getNumActive() {
+		return dormancies.values().stream().mapToInt(d -> d.trees.size() - d.numDormant).sum();
+	}
+
+	public static void clearMetrics() {
+		fullUpdates = restingUpdates = fallenAsleep = wokenUp = 0;
+	}
+
+	///////////////////////////////////////////
+	// INTERNALS
+	///////////////////////////////////////////
+
+	private void setDormant(Entry entry, boolean dormant) {
+		if(entry.dormant != dormant) {
+			entry.dormant = dormant;
+			numDormant += dormant ? 1 : -1;
+		}
+	}
+
+	private void wake(Entry entry) {
+		if(entry != null) {
+			entry.failures = 0;
+			if(entry.dormant) {
+				setDormant(entry, false);
+				wokenUp++;
+			}
+		}
+	}
+
+	private void remove(long root) {
+		Entry entry = trees.remove(root);
+		if(entry != null) {
+			setDormant(entry, false);
+			long chunk = chunkKey(BlockPos.fromLong(root));
+			LongOpenHashSet roots = chunkRoots.get(chunk);
+			if(roots != null) {
+				roots.remove(root);
+				if(roots.isEmpty()) {
+					chunkRoots.remove(chunk);
+				}
+			}
+		}
+	}
+
+	private static long chunkKey(BlockPos pos) {
+		return ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+	}
+
+}
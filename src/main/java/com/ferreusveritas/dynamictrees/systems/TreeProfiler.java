@@ -0,0 +1,212 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.annotation.Nullable;
+
+import com.ferreusveritas.dynamictrees.event.WorldListener;
+import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.TreeWorldView;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.world.World;
+
+/**
+ * A low overhead profiler for the tree simulation.  Switched off it costs a boolean check per
+ * operation.  Switched on every Nth operation is timed and the time, the number of block
+ * reads made through the {@link TreeWorldView} and the number of blocks changed are added to
+ * totals per section, per species and per dimension.
+ *
+ * Block changes are counted by the {@link WorldListener} of the world as they are sent to the
+ * clients(flag 2) and by the {@link TreeWorldView} for the writes it flushes without flag 2.
+ * Changes made straight to the world without flag 2, like the hydration of leaves(flag 4), and
+ * changes to chunks that aren't populated yet, like during world generation, aren't counted.
+ *
+ * Usage:
+ * <pre>
+ * TreeProfiler.Sample sample = TreeProfiler.begin();
+ * ...
+ * TreeProfiler.end(sample, Section.GROW, species, world);
+ * </pre>
+ *
+ * @author ferreusveritas
+ */
+public class TreeProfiler {
+
+	public enum Section {
+		UPDATE_TREE,
+		ROT,
+		VOLUNTARY_DROPS,
+		DISEASE,
+		GROW,
+		LEAVES_TICK,
+		DESTROY_LEAVES,
+		WORLDGEN_TREE;
+	}
+
+	/** Durations are bucketed by powers of two in microseconds. The last bucket holds everything longer */
+	public static final int HISTOGRAM_BUCKETS = 16;
+
+	public static class Stat {
+		public long count;
+		public long nanos;
+		public long maxNanos;
+		public long reads;
+		public long writes;
+		public final long[] histogram = new long[HISTOGRAM_BUCKETS];
+
+		private void add(long nanos, long reads, long writes) {
+			count++;
+			this.nanos += nanos;
+			maxNanos = Math.max(maxNanos, nanos);
+			this.reads += reads;
+			this.writes += writes;
+			histogram[Math.min(HISTOGRAM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos / 1000))]++;
+		}
+	}
+
+	public static class Sample {
+		private final long startNanos;
+		private final long startReads;
+		private final long startWrites;
+
+		private Sample() {
+			startReads = TreeWorldView.numReads;
+			startWrites = TreeWorldView.numWrites;
+			startNanos = System.nanoTime();
+		}
+	}
+
+	private static boolean enabled = false;
+	private static int sampleRate = 1;
+	private static int counter = 0;
+	private static long startTime;
+
+	private static final EnumMap<Section, Stat> totals = new EnumMap<>(Section.class);
+	private static final EnumMap<Section, Map<ResourceLocation, Stat>> bySpecies = new EnumMap<>(Section.class);
+	private static final EnumMap<Section, Int2ObjectMap<Stat>> byDimension = new EnumMap<>(Section.class);
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	public static int getSampleRate() {
+		return sampleRate;
+	}
+
+	/** @return The milliseconds since the profiler was last started or reset */
+	public static long getElapsedMillis() {
+		return startTime != 0 ? System.currentTimeMillis() - startTime : 0;
+	}
+
+	/**
+	 * @param rate Profile one in this many operations
+	 */
+	public static synchronized void start(int rate) {
+		sampleRate = Math.max(1, rate);
+		enabled = true;
+		if(startTime == 0) {
+			startTime = System.currentTimeMillis();
+		}
+	}
+
+	public static synchronized void stop() {
+		enabled = false;
+	}
+
+	public static synchronized void reset() {
+		totals.clear();
+		bySpecies.clear();
+		byDimension.clear();
+		startTime = enabled ? System.currentTimeMillis() : 0;
+	}
+
+	/** @return A sample to hand to {@link #end} or null if this operation isn't profiled */
+	@Nullable
+	public static Sample begin() {
+		if(!enabled || (sampleRate > 1 && ++counter % sampleRate != 0)) {
+			return null;
+		}
+		return new Sample();
+	}
+
+	/**
+	 * Record an operation.  Does nothing if the sample is null.
+	 *
+	 * @param sample The sample returned by {@link #begin()}
+	 * @param section The kind of operation
+	 * @param species The species the operation worked on or null if there isn't one
+	 * @param world The world the operation worked on
+	 */
+	public static void end(@Nullable Sample sample, Section section, @Nullable Species species, World world) {
+		if(sample != null) {
+			long nanos = System.nanoTime() - sample.startNanos;
+			record(section, species, world.provider.getDimension(), nanos, TreeWorldView.numReads - sample.startReads, TreeWorldView.numWrites - sample.startWrites);
+		}
+	}
+
+	private static synchronized void record(Section section, @Nullable Species species, int dimension, long nanos, long reads, long writes) {
+		totals.computeIfAbsent(section, s -> new Stat()).add(nanos, reads, writes);
+		if(species != null) {
+			bySpecies.computeIfAbsent(section, s -> new HashMap<>()).computeIfAbsent(species.getRegistryName(), r -> new Stat()).add(nanos, reads, writes);
+		}
+		byDimension.computeIfAbsent(section, s -> new Int2ObjectOpenHashMap<>()).computeIfAbsent(dimension, d -> new Stat()).add(nanos, reads, writes);
+	}
+
+	public static synchronized Map<Section, Stat> getTotals() {
+		return new EnumMap<>(totals);
+	}
+
+	/**
+	 * Write everything that was recorded to a CSV file.  One row per section overall, per
+	 * species and per dimension.
+	 *
+	 * @param file The file to write
+	 * @throws IOException
+	 */
+	public static synchronized void dump(File file) throws IOException {
+		file.getParentFile().mkdirs();
+		try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+			StringBuilder header = new StringBuilder("section,scope,key,count,sampleRate,totalNanos,avgNanos,maxNanos,reads,writes");
+			for(int i = 0; i < HISTOGRAM_BUCKETS - 1; i++) {
+				header.append(",lt").append(1L << i).append("us");
+			}
+			header.append(",ge").append(1L << (HISTOGRAM_BUCKETS - 2)).append("us");
+			out.println(header);
+
+			for(Section section : Section.values()) {
+				Stat total = totals.get(section);
+				if(total != null) {
+					writeRow(out, section, "all", "*", total);
+				}
+				for(Entry<ResourceLocation, Stat> entry : bySpecies.getOrDefault(section, new HashMap<>()).entrySet()) {
+					writeRow(out, section, "species", entry.getKey().toString(), entry.getValue());
+				}
+				for(Int2ObjectMap.Entry<Stat> entry : byDimension.getOrDefault(section, new Int2ObjectOpenHashMap<>()).int2ObjectEntrySet()) {
+					writeRow(out, section, "dimension", Integer.toString(entry.getIntKey()), entry.getValue());
+				}
+			}
+		}
+	}
+
+	private static void writeRow(PrintWriter out, Section section, String scope, String key, Stat stat) {
+		StringBuilder row = new StringBuilder();
+		row.append(section.name().toLowerCase()).append(',').append(scope).append(',').append(key).append(',')
+			.append(stat.count).append(',').append(sampleRate).append(',').append(stat.nanos).append(',')
+			.append(stat.count > 0 ? stat.nanos / stat.count : 0).append(',').append(stat.maxNanos).append(',')
+			.append(stat.reads).append(',').append(stat.writes);
+		for(long bucket : stat.histogram) {
+			row.append(',').append(bucket);
+		}
+		out.println(row);
+	}
+
+}
@@ -0,0 +1,399 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.network.MapSignal;
+import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
+import com.ferreusveritas.dynamictrees.blocks.BlockRooty;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeFindEnds;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeTopology;
+import com.ferreusveritas.dynamictrees.trees.Species;
+
+import it.unimi.dsi.fastutil.Arrays;
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+/**
+ * A server side cache of the branch network of recently analysed trees.  Each tree is
+ * stored by the packed position of it's root block along with every branch node, their
+ * radii, the endpoints and the species.  Any branch or root block that is placed or removed in
+ * or next to a cached tree throws the whole tree out so the next analysis will map it again.
+ * A branch that only changes thickness leaves the shape of the network and it's endpoints as
+ * they were so just it's cached radius is updated.  When the cache is full the tree that was
+ * looked up the longest time ago is dropped.
+ *
+ * The hooks are in BlockBranch.onBlockAdded, BlockBranch.breakBlock(which also covers rot),
+ * BlockBranchBasic.setRadius for the thickness and the matching {@link BlockRooty} members.
+ * Leaves are not part of the network and never invalidate a tree.
+ *
+ * @author ferreusveritas
+ */
+public class TreeTopologyCache {
+
+	private static final long NONE = Long.MIN_VALUE;
+
+	private static final Map<Integer, TreeTopologyCache> caches = new HashMap<>();
+
+	public static long hits;
+	public static long misses;
+	public static long invalidations;
+
+	public static class TreeTopology {
+
+		public final BlockPos rootPos;
+		private final long[] nodes;
+		private final byte[] radii;
+		private final List<BlockPos> ends;//Null if the tree was not mapped from the base of the trunk
+		private Species species;//Lazily determined
+
+		public TreeTopology(BlockPos rootPos, long[] nodes, byte[] radii, List<BlockPos> ends) {
+			this.rootPos = rootPos;
+			this.nodes = nodes;
+			this.radii = radii;
+			this.ends = ends != null ? Collections.unmodifiableList(ends) : null;
+			//Sorted by position so the radius of a node can be found by a binary search
+			Arrays.quickSort(0, nodes.length, new AbstractIntComparator() {
+				@Override
+				public int compare(int a, int b) {
+					return Long.compare(nodes[a], nodes[b]);
+				}
+			}, (a, b) -> {
+				long node = nodes[a];
+				nodes[a] = nodes[b];
+				nodes[b] = node;
+				byte radius = radii[a];
+				radii[a] = radii[b];
+				radii[b] = radius;
+			});
+		}
+
+		public int getNumNodes() {
+			return nodes.length;
+		}
+
+		public BlockPos getNodePos(int index) {
+			return BlockPos.fromLong(nodes[index]);
+		}
+
+		public int getRadius(int index) {
+			return radii[index];
+		}
+
+		public List<BlockPos> getEnds() {
+			return ends;
+		}
+
+		public Species getSpecies() {
+			return species;
+		}
+
+		private void setRadius(long node, int radius) {
+			int index = LongArrays.binarySearch(nodes, node);
+			if(index >= 0) {
+				radii[index] = (byte) radius;
+			}
+		}
+
+	}
+
+	private final Long2ObjectLinkedOpenHashMap<TreeTopology> trees = new Long2ObjectLinkedOpenHashMap<>();//Least recently used first
+	private final Long2LongOpenHashMap nodeRoots = new Long2LongOpenHashMap();//Every node(and the root itself) mapped to the root position
+	private final Long2ObjectOpenHashMap<LongOpenHashSet> chunkRoots = new Long2ObjectOpenHashMap<>();
+	private final MutableBlockPos probe = new MutableBlockPos();
+	private int modCount;//Bumped by every invalidation so that changes made while a tree is being mapped can be detected
+
+	public TreeTopologyCache() {
+		nodeRoots.defaultReturnValue(NONE);
+	}
+
+	/**
+	 * @param world The world
+	 * @return The cache for the world or null if caching is not possible(client side or disabled)
+	 */
+	public static TreeTopologyCache get(World world) {
+		if(world.isRemote || !ModConfigs.enableTreeTopologyCache) {
+			return null;
+		}
+		return caches.computeIfAbsent(world.provider.getDimension(), d -> new TreeTopologyCache());
+	}
+
+	///////////////////////////////////////////
+	// LOOKUPS
+	///////////////////////////////////////////
+
+	/**
+	 * Get the branch endpoints of a tree.  Maps the tree and caches the result on a miss.
+	 *
+	 * @param world The world
+	 * @param rootPos The position of the rooty block
+	 * @param treePos The position of the base of the trunk
+	 * @param treeBase The tree part at the base of the trunk
+	 * @return A fresh list of the endpoints that the caller is free to modify
+	 */
+	public static List<BlockPos> getEnds(World world, BlockPos rootPos, BlockPos treePos, ITreePart treeBase) {
+		TreeTopologyCache cache = get(world);
+
+		if(cache != null) {
+			TreeTopology tree = cache.trees.getAndMoveToLast(rootPos.toLong());
+			if(tree != null && tree.ends != null) {
+				hits++;
+				return new ArrayList<>(tree.ends);
+			}
+			misses++;
+		}
+
+		int stamp = cache != null ? cache.modCount : 0;
+		NodeFindEnds endFinder = new NodeFindEnds();
+		NodeTopology topology = new NodeTopology();
+		MapSignal signal = treeBase.analyse(world.getBlockState(treePos), world, treePos, null, new MapSignal(endFinder, topology));
+		List<BlockPos> ends = endFinder.getEnds();
+
+		if(cache != null && rootPos.equals(signal.root)) {
+			cache.store(stamp, signal, topology, new ArrayList<>(ends));
+		}
+
+		return ends;
+	}
+
+	/**
+	 * @param world The world
+	 * @param pos The position of a branch
+	 * @return The position of the rooty block of the cached tree that contains pos or null if the tree is not cached
+	 */
+	public static BlockPos getRootPos(World world, BlockPos pos) {
+		TreeTopologyCache cache = get(world);
+
+		if(cache != null) {
+			long root = cache.nodeRoots.get(pos.toLong());
+			if(root != NONE) {
+				hits++;
+				return cache.trees.getAndMoveToLast(root).rootPos;
+			}
+			misses++;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Cache a network that was mapped from somewhere other than the base of the trunk.  Endpoints are
+	 * not known in this case and will be mapped the first time they are needed.
+	 *
+	 * @param world The world
+	 * @param stamp The value of {@link #getModStamp(World)} from before the analysis was started
+	 * @param signal The completed signal
+	 * @param topology The topology mapper that was carried by the signal
+	 */
+	public static void storeNetwork(World world, int stamp, MapSignal signal, NodeTopology topology) {
+		TreeTopologyCache cache = get(world);
+		if(cache != null && !cache.trees.containsKey(signal.root.toLong())) {
+			cache.store(stamp, signal, topology, null);
+		}
+	}
+
+	public static int getModStamp(World world) {
+		TreeTopologyCache cache = get(world);
+		return cache != null ? cache.modCount : 0;
+	}
+
+	/**
+	 * @param world The world
+	 * @param rootPos The position of the rooty block
+	 * @return The exact species of the tree.  Cached on the tree if the tree is cached
+	 */
+	public static Species getSpecies(World world, BlockPos rootPos) {
+		IBlockState rootyState = world.getBlockState(rootPos);
+		BlockRooty rooty = TreeHelper.getRooty(rootyState);
+		if(rooty == null) {
+			return Species.NULLSPECIES;
+		}
+
+		TreeTopologyCache cache = get(world);
+		TreeTopology tree = cache != null ? cache.trees.getAndMoveToLast(rootPos.toLong()) : null;
+
+		if(tree != null) {
+			if(tree.species != null) {
+				hits++;
+				return tree.species;
+			}
+			misses++;
+			return tree.species = rooty.getSpecies(rootyState, world, rootPos);
+		}
+
+		return rooty.getSpecies(rootyState, world, rootPos);
+	}
+
+	/**
+	 * @param world The world
+	 * @param rootPos The position of the rooty block
+	 * @return The cached tree or null if it isn't cached
+	 */
+	public static TreeTopology getTree(World world, BlockPos rootPos) {
+		TreeTopologyCache cache = get(world);
+		return cache != null ? cache.trees.getAndMoveToLast(rootPos.toLong()) : null;
+	}
+
+	///////////////////////////////////////////
+	// INVALIDATION
+	///////////////////////////////////////////
+
+	/**
+	 * Throw out any cached tree that contains or touches pos.
+	 *
+	 * @param world The world
+	 * @param pos The position of the block that changed
+	 */
+	public static void invalidate(World world, BlockPos pos) {
+		if(!world.isRemote) {
+			TreeTopologyCache cache = caches.get(world.provider.getDimension());
+			if(cache != null) {
+				cache.invalidate(pos);
+			}
+		}
+	}
+
+	/**
+	 * Keep the cached radius of a branch up to date after it changed thickness.  If the block is no
+	 * longer a branch the tree is thrown out instead.
+	 *
+	 * @param world The world
+	 * @param pos The position of the branch
+	 * @param state The new blockstate of the branch
+	 */
+	public static void updateRadius(World world, BlockPos pos, IBlockState state) {
+		BlockBranch branch = TreeHelper.getBranch(state);
+		if(branch == null) {
+			invalidate(world, pos);
+		} else if(!world.isRemote) {
+			TreeTopologyCache cache = caches.get(world.provider.getDimension());
+			if(cache != null) {
+				long root = cache.nodeRoots.get(pos.toLong());
+				if(root != NONE) {
+					cache.modCount++;//A tree that is being mapped right now may have read the old radius
+					cache.trees.get(root).setRadius(pos.toLong(), branch.getRadius(state));
+				}
+			}
+		}
+	}
+
+	public static void unloadChunk(World world, int chunkX, int chunkZ) {
+		if(!world.isRemote) {
+			TreeTopologyCache cache = caches.get(world.provider.getDimension());
+			if(cache != null) {
+				LongOpenHashSet roots = cache.chunkRoots.get(ChunkPos.asLong(chunkX, chunkZ));
+				if(roots != null) {
+					for(long root : roots.toLongArray()) {
+						cache.remove(root);
+					}
+				}
+			}
+		}
+	}
+
+	public static void unloadWorld(World world) {
+		if(!world.isRemote) {
+			caches.remove(world.provider.getDimension());
+		}
+	}
+
+	public static void clear() {
+		caches.clear();
+		hits = misses = invalidations = 0;
+	}
+
+	public static int getNumTrees() {
+		return caches.values().stream().mapToInt(c -> c.trees.size()).sum();
+	}
+
+	public static int getNumNodes() {
+		return caches.values().stream().mapToInt(c -> c.nodeRoots.size()).sum();
+	}
+
+	private void invalidate(BlockPos pos) {
+		modCount++;
+		invalidateNode(pos.toLong());
+		for(EnumFacing dir : EnumFacing.VALUES) {
+			invalidateNode(probe.setPos(pos).move(dir).toLong());
+		}
+	}
+
+	private void invalidateNode(long node) {
+		long root = nodeRoots.get(node);
+		if(root != NONE) {
+			remove(root);
+			invalidations++;
+		}
+	}
+
+	///////////////////////////////////////////
+	// STORAGE
+	///////////////////////////////////////////
+
+	private void store(int stamp, MapSignal signal, NodeTopology topology, List<BlockPos> ends) {
+		if(stamp != modCount || signal.multiroot || signal.overflow || signal.root == null) {
+			return;//Something changed while mapping or the network is malformed
+		}
+
+		long root = signal.root.toLong();
+		remove(root);
+
+		if(trees.size() >= ModConfigs.treeTopologyCacheMaxTrees) {
+			remove(trees.firstLongKey());//Make room by dropping the tree that was used the longest time ago
+		}
+
+		TreeTopology tree = new TreeTopology(signal.root.toImmutable(), topology.getNodes(), topology.getRadii(), ends);
+		trees.put(root, tree);
+		nodeRoots.put(root, root);
+		for(long node : tree.nodes) {
+			nodeRoots.put(node, root);
+		}
+		long chunk = chunkKey(tree.rootPos);
+		LongOpenHashSet roots = chunkRoots.get(chunk);
+		if(roots == null) {
+			chunkRoots.put(chunk, roots = new LongOpenHashSet());
+		}
+		roots.add(root);
+	}
+
+	private void remove(long root) {
+		TreeTopology tree = trees.remove(root);
+		if(tree != null) {
+			nodeRoots.remove(root);
+			for(long node : tree.nodes) {
+				if(nodeRoots.get(node) == root) {
+					nodeRoots.remove(node);
+				}
+			}
+			long chunk = chunkKey(tree.rootPos);
+			LongOpenHashSet roots = chunkRoots.get(chunk);
+			if(roots != null) {
+				roots.remove(root);
+				if(roots.isEmpty()) {
+					chunkRoots.remove(chunk);
+				}
+			}
+		}
+	}
+
+	private static long chunkKey(BlockPos pos) {
+		return ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+	}
+
+}
@@ -0,0 +1,120 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.blocks.BlockRooty;
+
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+/**
+ * Spreads tree growth updates over world ticks.  The random ticks of {@link BlockRooty} blocks
+ * queue the root position instead of updating the tree on the spot.  A root that is already
+ * waiting is only queued once and the queue is worked on each world tick, oldest first, for up
+ * to the configured time.  Whatever is left over carries over to the next tick.
+ *
+ * Off unless treeUpdateMillisPerTick is set above 0 since queued trees grow a little later than
+ * they were ticked.
+ *
+ * @author ferreusveritas
+ */
+public class TreeUpdateScheduler {
+
+	private static final Map<Integer, TreeUpdateScheduler> schedulers = new HashMap<>();
+
+	//Metrics
+	public static long queued;
+	public static long merged;
+	public static long drained;
+	public static long skipped;
+	public static long ticks;
+	public static long carriedOver;//Ticks that ended with trees still waiting
+	public static long overruns;//Ticks that went over the time budget
+	public static long tickNanos;
+	public static long maxTickNanos;
+	public static int maxDepth;
+
+	private final LongLinkedOpenHashSet pending = new LongLinkedOpenHashSet();
+
+	public static boolean isEnabled(World world) {
+		return ModConfigs.treeUpdateMillisPerTick > 0 && !world.isRemote;
+	}
+
+	/**
+	 * Queue the tree on a root block for a growth update.
+	 *
+	 * @param world The world
+	 * @param rootPos The position of the {@link BlockRooty}
+	 */
+	public static void schedule(World world, BlockPos rootPos) {
+		TreeUpdateScheduler scheduler = schedulers.computeIfAbsent(world.provider.getDimension(), d -> new TreeUpdateScheduler());
+		if(scheduler.pending.add(rootPos.toLong())) {
+			queued++;
+			maxDepth = Math.max(maxDepth, scheduler.pending.size());
+		} else {
+			merged++;
+		}
+	}
+
+	/**
+	 * Update queued trees for up to the configured time.  Called once per world tick.
+	 * At least one tree is updated each tick so the queue always moves.
+	 *
+	 * @param world The world
+	 */
+	public static void process(World world) {
+		TreeUpdateScheduler scheduler = schedulers.get(world.provider.getDimension());
+		if(scheduler == null || scheduler.pending.isEmpty()) {
+			return;
+		}
+
+		long budget = isEnabled(world) ? ModConfigs.treeUpdateMillisPerTick * 1000000L : Long.MAX_VALUE;//Drain everything if the scheduler was just switched off
+		long start = System.nanoTime();
+		do {
+			BlockPos rootPos = BlockPos.fromLong(scheduler.pending.removeFirstLong());
+			if(world.isBlockLoaded(rootPos)) {
+				IBlockState state = world.getBlockState(rootPos);
+				if(state.getBlock() instanceof BlockRooty) {
+					((BlockRooty) state.getBlock()).updateTree(state, world, rootPos, world.rand, true);
+					drained++;
+					continue;
+				}
+			}
+			skipped++;//Unloaded or no longer a root block
+		} while(!scheduler.pending.isEmpty() && System.nanoTime() - start < budget);
+
+		long elapsed = System.nanoTime() - start;
+		tickNanos += elapsed;
+		maxTickNanos = Math.max(maxTickNanos, elapsed);
+		ticks++;
+		if(elapsed > budget) {
+			overruns++;
+		}
+		if(!scheduler.pending.isEmpty()) {
+			carriedOver++;
+		}
+	}
+
+	public static void unloadWorld(World world) {
+		if(!world.isRemote) {
+			schedulers.remove(world.provider.getDimension());
+		}
+	}
+
+	/** @return The number of trees waiting for an update in all dimensions */
+	public static int getDepth() {
+		return schedulers.values().stream().mapToInt(s -> s.pending.size()).sum();
+	}
+
+	public static void clearMetrics() {
+		queued = merged = drained = skipped = 0;
+		ticks = carriedOver = overruns = 0;
+		tickNanos = maxTickNanos = 0;
+		maxDepth = 0;
+	}
+
+}
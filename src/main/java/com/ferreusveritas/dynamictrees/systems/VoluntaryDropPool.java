@@ -0,0 +1,235 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.blocks.BlockDynamicLeaves;
+import com.ferreusveritas.dynamictrees.items.Seed;
+import com.ferreusveritas.dynamictrees.trees.Species;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.item.EntityItem;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.items.ItemHandlerHelper;
+
+/**
+ * Pools the voluntary seed and fruit drops of trees per chunk to cut down on item entities.
+ * Drops are held for the configured number of ticks and stacks that can be merged are merged.
+ * Then one item entity is spawned for each merged stack.
+ *
+ * If no player is close enough to see a merged stack of seeds it's not spawned at all.  For each
+ * of the pooled seeds the spot where it would come to rest below the canopy is worked out and
+ * the seed decides on the spot whether it plants itself, just like it would have at the end of
+ * it's life.
+ *
+ * The drops of a chunk that unloads are put into the chunk as item entities so they are saved
+ * with it.
+ *
+ * @author ferreusveritas
+ */
+public class VoluntaryDropPool {
+
+	private static final Map<Integer, VoluntaryDropPool> pools = new HashMap<>();
+
+	//Metrics
+	public static long dropsPooled;
+	public static long entitiesSpawned;
+	public static long entitiesAvoided;
+	public static long seedsEvaluated;
+	public static long seedsPlanted;
+	public static long dropsDiscarded;
+	public static long dropsFlushed;
+
+	private static class Drop {
+		private final Species species;
+		private final BlockPos treePos;
+		private final BlockPos itemPos;
+		private final ItemStack stack;
+		private final List<BlockPos> origins = new ArrayList<>(1);//Where each of the merged drops appeared
+		private final IntArrayList counts = new IntArrayList(1);//The size of each of the merged drops
+
+		private Drop(Species species, BlockPos treePos, BlockPos itemPos, ItemStack stack) {
+			this.species = species;
+			this.treePos = treePos;
+			this.itemPos = itemPos;
+			this.stack = stack;
+			merge(itemPos, stack.getCount());
+		}
+
+		private void merge(BlockPos origin, int count) {
+			origins.add(origin);
+			counts.add(count);
+		}
+
+		/** @return The number of drops merged into this one */
+		private int getMerged() {
+			return origins.size();
+		}
+	}
+
+	private static class Bucket {
+		private final long releaseTime;
+		private final List<Drop> drops = new ArrayList<>(4);
+
+		private Bucket(long releaseTime) {
+			this.releaseTime = releaseTime;
+		}
+	}
+
+	private final Long2ObjectLinkedOpenHashMap<Bucket> buckets = new Long2ObjectLinkedOpenHashMap<>();//Chunk key to pooled drops.  Oldest first
+
+	public static boolean isEnabled(World world) {
+		return ModConfigs.mergeVoluntaryDrops && !world.isRemote;
+	}
+
+	/**
+	 * Pool a voluntary drop.
+	 *
+	 * @param world The world
+	 * @param species The species that dropped it
+	 * @param treePos The position of the trunk base
+	 * @param itemPos Where the drop appears
+	 * @param stack The dropped stack
+	 * @return true
+	 */
+	public static boolean add(World world, Species species, BlockPos treePos, BlockPos itemPos, ItemStack stack) {
+		VoluntaryDropPool pool = pools.computeIfAbsent(world.provider.getDimension(), d -> new VoluntaryDropPool());
+		long key = ChunkPos.asLong(itemPos.getX() >> 4, itemPos.getZ() >> 4);
+		Bucket bucket = pool.buckets.get(key);
+		if(bucket == null) {
+			pool.buckets.put(key, bucket = new Bucket(world.getTotalWorldTime() + ModConfigs.voluntaryDropWindow));
+		}
+		dropsPooled++;
+
+		for(Drop drop : bucket.drops) {
+			if(drop.stack.getCount() + stack.getCount() <= drop.stack.getMaxStackSize() && ItemHandlerHelper.canItemStacksStack(drop.stack, stack)) {
+				drop.stack.grow(stack.getCount());
+				drop.merge(itemPos, stack.getCount());
+				return true;
+			}
+		}
+
+		bucket.drops.add(new Drop(species, treePos, itemPos, stack.copy()));
+		return true;
+	}
+
+	/**
+	 * Release the pooled drops whose time is up.  Called once per world tick.
+	 *
+	 * @param world The world
+	 */
+	public static void process(World world) {
+		VoluntaryDropPool pool = pools.get(world.provider.getDimension());
+		if(pool == null) {
+			return;
+		}
+
+		long time = world.getTotalWorldTime();
+		boolean enabled = isEnabled(world);//Release everything if the pool was just switched off
+		while(!pool.buckets.isEmpty()) {
+			Bucket bucket = pool.buckets.get(pool.buckets.firstLongKey());
+			if(enabled && bucket.releaseTime > time) {
+				break;//The rest are younger
+			}
+			pool.buckets.removeFirst();
+			for(Drop drop : bucket.drops) {
+				release(world, drop);
+			}
+		}
+	}
+
+	private static void release(World world, Drop drop) {
+		if(!world.isBlockLoaded(drop.itemPos)) {
+			dropsDiscarded += drop.getMerged();
+			return;
+		}
+
+		if(drop.stack.getItem() instanceof Seed && !world.isAnyPlayerWithinRangeAt(drop.itemPos.getX() + 0.5, drop.itemPos.getY() + 0.5, drop.itemPos.getZ() + 0.5, ModConfigs.voluntaryDropPlayerRange)) {
+			//Nobody is around to see the seeds fall.  Decide where each of them would end up right away
+			Seed seed = (Seed) drop.stack.getItem();
+			for(int i = 0; i < drop.getMerged(); i++) {
+				ItemStack seedStack = drop.stack.copy();
+				seedStack.setCount(drop.counts.getInt(i));
+				BlockPos origin = drop.origins.get(i);
+				if(seed.plantVoluntarily(world, findRestingPos(world, origin), drop.species.createVoluntaryDropEntity(world, drop.treePos, origin, seedStack))) {
+					seedsPlanted++;
+				}
+			}
+			seedsEvaluated += drop.getMerged();
+			entitiesAvoided += drop.getMerged();
+			return;
+		}
+
+		if(world.spawnEntity(drop.species.createVoluntaryDropEntity(world, drop.treePos, drop.itemPos, drop.stack))) {
+			entitiesSpawned++;
+			entitiesAvoided += drop.getMerged() - 1;
+		}
+	}
+
+	/**
+	 * Find where a seed dropped at a position would come to rest.  Seeds fall through the leaves
+	 * and anything else without collision.  The sideways launch of the drop is ignored.
+	 */
+	private static BlockPos findRestingPos(World world, BlockPos pos) {
+		MutableBlockPos probe = new MutableBlockPos(pos);
+		while(probe.getY() > 0) {
+			probe.move(EnumFacing.DOWN);
+			IBlockState state = world.getBlockState(probe);
+			if(!(state.getBlock() instanceof BlockDynamicLeaves) && state.getCollisionBoundingBox(world, probe) != null) {
+				return probe.up();
+			}
+		}
+		return pos;
+	}
+
+	/**
+	 * Flush the drops pooled in a chunk that is unloading.  The item entities are put straight
+	 * into the chunk so they are saved with it and show up when it's loaded again.
+	 *
+	 * @param world The world
+	 * @param chunk The unloading chunk
+	 */
+	public static void unloadChunk(World world, Chunk chunk) {
+		if(world.isRemote) {
+			return;
+		}
+
+		VoluntaryDropPool pool = pools.get(world.provider.getDimension());
+		Bucket bucket = pool != null ? pool.buckets.remove(ChunkPos.asLong(chunk.x, chunk.z)) : null;
+		if(bucket != null) {
+			for(Drop drop : bucket.drops) {
+				chunk.addEntity(drop.species.createVoluntaryDropEntity(world, drop.treePos, drop.itemPos, drop.stack));
+				dropsFlushed += drop.getMerged();
+				entitiesSpawned++;
+			}
+		}
+	}
+
+	public static void unloadWorld(World world) {
+		if(!world.isRemote) {
+			pools.remove(world.provider.getDimension());
+		}
+	}
+
+	/** @return The number of pooled drops waiting to be released in all dimensions */
+	public static int getNumPooled() {
+		return pools.values().stream().mapToInt(p -> p.buckets.values().stream().mapToInt(b -> b.drops.size()).sum()).sum();
+	}
+
+	public static void clearMetrics() {
+		dropsPooled = entitiesSpawned = entitiesAvoided = 0;
+		seedsEvaluated = seedsPlanted = dropsDiscarded = dropsFlushed = 0;
+	}
+
+}
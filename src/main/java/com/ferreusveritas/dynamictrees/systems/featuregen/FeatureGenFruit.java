@@ -5,10 +5,9 @@ import java.util.List;
 import com.ferreusveritas.dynamictrees.api.IPostGenFeature;
 import com.ferreusveritas.dynamictrees.api.IPostGrowFeature;
 import com.ferreusveritas.dynamictrees.api.TreeHelper;
-import com.ferreusveritas.dynamictrees.api.network.MapSignal;
 import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
 import com.ferreusveritas.dynamictrees.blocks.BlockFruit;
-import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeFindEnds;
+import com.ferreusveritas.dynamictrees.systems.EndpointTracker;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.util.CoordUtils;
 import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
@@ -75,9 +74,7 @@ public class FeatureGenFruit implements IPostGrowFeature, IPostGenFeature {
 		
 		if(branch != null && branch.getRadius(blockState) >= fruitingRadius && natural) {
 			if(species.seasonalFruitProductionFactor(world, rootPos) > world.rand.nextFloat()) {
-				NodeFindEnds endFinder = new NodeFindEnds();
-				TreeHelper.startAnalysisFromRoot(world, rootPos, new MapSignal(endFinder));
-				List<BlockPos> endPoints = endFinder.getEnds();
+				List<BlockPos> endPoints = EndpointTracker.findEnds(world, rootPos, treePos, TreeHelper.getTreePart(blockState));
 				int qty = getQuantity(false);
 				
 				if(!endPoints.isEmpty()) {
@@ -7,9 +7,8 @@ import com.ferreusveritas.dynamictrees.ModBlocks;
 import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.api.IPostGrowFeature;
 import com.ferreusveritas.dynamictrees.api.TreeHelper;
-import com.ferreusveritas.dynamictrees.api.network.MapSignal;
 import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
-import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeFindEnds;
+import com.ferreusveritas.dynamictrees.systems.EndpointTracker;
 import com.ferreusveritas.dynamictrees.trees.Species;
 
 import net.minecraft.block.Block;
@@ -30,9 +29,7 @@ public class FeatureGenPodzol implements IPostGrowFeature {
 	@Override
 	public boolean postGrow(World world, BlockPos rootPos, BlockPos treePos, Species species, int soilLife, boolean natural) {
 		if(ModConfigs.podzolGen) {
-			NodeFindEnds endFinder = new NodeFindEnds();
-			TreeHelper.startAnalysisFromRoot(world, rootPos, new MapSignal(endFinder));
-			List<BlockPos> endPoints = endFinder.getEnds();
+			List<BlockPos> endPoints = EndpointTracker.findEnds(world, rootPos, treePos, TreeHelper.getTreePart(world.getBlockState(treePos)));
 			if(!endPoints.isEmpty()) {
 				
 				Random random = world.rand;
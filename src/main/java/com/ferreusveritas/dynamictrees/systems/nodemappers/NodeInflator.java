@@ -6,10 +6,12 @@ import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
 import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.util.SimpleVoxmap;
+import com.ferreusveritas.dynamictrees.util.TreeWorldView;
 
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IBlockAccess;
 import net.minecraft.world.World;
 
 public class NodeInflator implements INodeInspector {
@@ -46,6 +48,7 @@ public class NodeInflator implements INodeInspector {
 		if(branch != null) {
 			float areaAccum = radius * radius;//Start by accumulating the branch we just came from
 			boolean isTwig = true;
+			IBlockAccess access = TreeWorldView.of(world);
 			
 			for(EnumFacing dir: EnumFacing.VALUES) {
 				if(!dir.equals(fromDir)) {//Don't count where the signal originated from
@@ -57,7 +60,7 @@ public class NodeInflator implements INodeInspector {
 						continue;
 					}
 					
-					IBlockState deltaBlockState = world.getBlockState(dPos);
+					IBlockState deltaBlockState = access.getBlockState(dPos);
 					ITreePart treepart = TreeHelper.getTreePart(deltaBlockState);
 					if(branch.isSameTree(treepart)) {
 						int branchRadius = treepart.getRadius(deltaBlockState);
@@ -0,0 +1,49 @@
+package com.ferreusveritas.dynamictrees.systems.nodemappers;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.network.INodeInspector;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
+
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+/**
+* Records the packed position and radius of every branch node in the network.
+*
+* @author ferreusveritas
+*/
+public class NodeTopology implements INodeInspector {
+
+	private final LongArrayList nodes = new LongArrayList(64);
+	private final ByteArrayList radii = new ByteArrayList(64);
+
+	@Override
+	public boolean run(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir) {
+		BlockBranch branch = TreeHelper.getBranch(blockState);
+
+		if(branch != null) {
+			nodes.add(pos.toLong());
+			radii.add((byte) branch.getRadius(blockState));
+		}
+
+		return false;
+	}
+
+	@Override
+	public boolean returnRun(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir) {
+		return false;
+	}
+
+	public long[] getNodes() {
+		return nodes.toLongArray();
+	}
+
+	public byte[] getRadii() {
+		return radii.toByteArray();
+	}
+
+}
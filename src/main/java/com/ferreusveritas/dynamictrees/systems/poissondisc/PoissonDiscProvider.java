@@ -1,53 +1,101 @@
 package com.ferreusveritas.dynamictrees.systems.poissondisc;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
 import java.util.TreeMap;
 
+import javax.annotation.Nullable;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.api.worldgen.IPoissonDebug;
 import com.ferreusveritas.dynamictrees.api.worldgen.IPoissonDiscProvider;
 import com.ferreusveritas.dynamictrees.api.worldgen.IRadiusCoordinator;
 import com.ferreusveritas.dynamictrees.util.CoordUtils;
 import com.ferreusveritas.dynamictrees.util.RandomXOR;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3i;
+import net.minecraft.world.chunk.IChunkProvider;
 
 /**
  * Manages and creates all the Poisson discs in a single dimension.
  * 
+ * The disc sets are kept in a bounded cache with the least recently used chunks evicted first.
+ * Sets of chunks that are still loaded are never evicted since their discs couldn't be made
+ * again.  Everything else is either an empty placeholder for a neighboring chunk or has already
+ * been saved with it's chunk.
+ * 
+ * Discs that were solved ahead of time are pinned outside of the cache until their chunk is
+ * saved since nothing else holds them.
+ * 
+ * Every chunk starts from the same seed so the discs of a chunk only depend on it's neighbors and
+ * not on what else was generated before it.
+ * 
  * @author ferreusveritas
  */
 public class PoissonDiscProvider implements IPoissonDiscProvider {
 	
+	/** Rough size of a cache entry: the 16 bytes of disc data, the set and array objects and the map slot */
+	public static final int BYTES_PER_ENTRY = 80;
+	
+	/** The most entries looked at for each eviction so that a cache full of loaded chunks stays cheap */
+	private static final int MAX_EVICTION_SCAN = 64;
+	
 	private final IRadiusCoordinator radiusCoordinator;
-	private final HashMap<ChunkPos, PoissonDiscChunkSet> chunkDiscs;
-	private RandomXOR random = new RandomXOR();
+	private final Long2ObjectLinkedOpenHashMap<PoissonDiscChunkSet> chunkDiscs;//Least recently used first
+	private final Long2ObjectOpenHashMap<PoissonDiscChunkSet> solvedDiscs = new Long2ObjectOpenHashMap<>();//Solved ahead of time and waiting for their chunk
+	private final IChunkProvider chunkProvider;
+	private final RandomXOR random = new RandomXOR();
+	private long seed = random.nextLong();//Random for each session unless a seed is set
 	private IPoissonDebug debug;
 	
+	//Cache metrics
+	public long hits;
+	public long misses;
+	public long evictions;
+	
 	public PoissonDiscProvider(IRadiusCoordinator radCoord) {
-		chunkDiscs = new HashMap<ChunkPos, PoissonDiscChunkSet>();
+		this(radCoord, null);
+	}
+	
+	/**
+	 * @param radCoord The radius coordinator
+	 * @param chunkProvider Used to tell which chunks are loaded.  If null every chunk is assumed to be loaded and nothing is evicted
+	 */
+	public PoissonDiscProvider(IRadiusCoordinator radCoord, @Nullable IChunkProvider chunkProvider) {
+		chunkDiscs = new Long2ObjectLinkedOpenHashMap<PoissonDiscChunkSet>();
 		radiusCoordinator = radCoord;
+		this.chunkProvider = chunkProvider;
 	}
 	
 	public void setSeed(Long seed) {
 		if(seed != null) {
-			random = new RandomXOR(seed);
+			this.seed = seed;
 		}
 	}
 	
+	public long getSeed() {
+		return seed;
+	}
+	
 	public void setDebug(IPoissonDebug debug) {
 		this.debug = debug;
 	}
 	
+	public IRadiusCoordinator getRadiusCoordinator() {
+		return radiusCoordinator;
+	}
+	
 	@Override
 	public List<PoissonDisc> getPoissonDiscs(int chunkX, int chunkY, int chunkZ) {
+		random.setSeed(seed);
 		random.setXOR(new BlockPos(chunkX, chunkY, chunkZ));
 		PoissonDiscChunkSet cSet = getChunkDiscSet(chunkX, chunkZ);
 		if(cSet.generated) {
@@ -258,32 +306,125 @@ public class PoissonDiscProvider implements IPoissonDiscProvider {
 	}
 	
 	private PoissonDiscChunkSet getChunkDiscSet(int chunkX, int chunkZ) {
-		ChunkPos key = new ChunkPos(chunkX, chunkZ);
-		PoissonDiscChunkSet cSet;
+		long key = ChunkPos.asLong(chunkX, chunkZ);
+		PoissonDiscChunkSet cSet = chunkDiscs.getAndMoveToLast(key);
 		
-		if(chunkDiscs.containsKey(key)) {
-			cSet = chunkDiscs.get(key);
+		if(cSet != null) {
+			hits++;
+		} else if((cSet = solvedDiscs.get(key)) != null) {
+			hits++;
 		} else {
+			misses++;
 			cSet = new PoissonDiscChunkSet();
-			chunkDiscs.put(key, cSet);
+			chunkDiscs.putAndMoveToLast(key, cSet);
+			evict();
 		}
 		
 		return cSet;
 	}
 	
+	/**
+	 * Drop the least recently used disc sets until the cache is back under it's limits.
+	 */
+	private void evict() {
+		int maxEntries = getMaxEntries();
+		for(int scan = 0; chunkDiscs.size() > maxEntries && scan < MAX_EVICTION_SCAN; scan++) {
+			long key = chunkDiscs.firstLongKey();
+			if(isChunkLoaded(key)) {
+				chunkDiscs.getAndMoveToLast(key);//Still in use
+			} else {
+				chunkDiscs.removeFirst();
+				evictions++;
+			}
+		}
+	}
+	
+	private boolean isChunkLoaded(long key) {
+		return chunkProvider == null || chunkProvider.getLoadedChunk((int) key, (int) (key >> 32)) != null;
+	}
+	
+	public static int getMaxEntries() {
+		return (int) Math.min(ModConfigs.poissonDiscCacheMaxEntries, ModConfigs.poissonDiscCacheMaxKiB * 1024L / BYTES_PER_ENTRY);
+	}
+	
+	public int getNumEntries() {
+		return chunkDiscs.size();
+	}
+	
+	/** @return The number of chunks solved ahead of time that are waiting to be generated */
+	public int getNumSolved() {
+		return solvedDiscs.size();
+	}
+	
+	public long getEstimatedBytes() {
+		return (long) (chunkDiscs.size() + solvedDiscs.size()) * BYTES_PER_ENTRY;
+	}
+	
+	public void clearMetrics() {
+		hits = misses = evictions = 0;
+	}
+	
+	/**
+	 * Called when the chunk is saved.  Discs that were solved ahead of time are now saved with
+	 * their chunk so they are unpinned and handed over to the cache.
+	 */
 	@Override
 	public byte[] getChunkPoissonData(int chunkX, int chunkY, int chunkZ) {
+		unpin(ChunkPos.asLong(chunkX, chunkZ));
 		return getChunkDiscSet(chunkX, chunkZ).getDiscData();
 	}
 	
 	@Override
 	public void setChunkPoissonData(int chunkX, int chunkY, int chunkZ, byte[] circleData) {
+		solvedDiscs.remove(ChunkPos.asLong(chunkX, chunkZ));//The saved data of the chunk takes precedence
 		getChunkDiscSet(chunkX, chunkZ).setDiscData(circleData);
 	}
 	
+	/**
+	 * Store discs that were solved ahead of time.  The chunk will use them instead of solving it's own.
+	 * They are pinned until the chunk is saved.
+	 */
+	public void setSolvedChunkPoissonData(int chunkX, int chunkZ, byte[] circleData) {
+		long key = ChunkPos.asLong(chunkX, chunkZ);
+		PoissonDiscChunkSet cSet = chunkDiscs.remove(key);
+		if(cSet == null) {
+			cSet = new PoissonDiscChunkSet();
+		}
+		cSet.setDiscData(circleData);
+		cSet.generated = true;
+		solvedDiscs.put(key, cSet);
+	}
+	
+	/** @return The disc data of a chunk or null if it isn't cached.  Doesn't count as a use of the entry */
+	@Nullable
+	public byte[] peekChunkPoissonData(int chunkX, int chunkZ) {
+		PoissonDiscChunkSet cSet = peekChunkDiscSet(ChunkPos.asLong(chunkX, chunkZ));
+		return cSet != null ? cSet.getDiscData() : null;
+	}
+	
+	/** @return true if the discs of the chunk have already been solved */
+	public boolean isChunkSolved(int chunkX, int chunkZ) {
+		PoissonDiscChunkSet cSet = peekChunkDiscSet(ChunkPos.asLong(chunkX, chunkZ));
+		return cSet != null && cSet.generated;
+	}
+	
 	@Override
 	public void unloadChunkPoissonData(int chunkX, int chunkY, int chunkZ) {
-		chunkDiscs.remove(new ChunkPos(chunkX, chunkZ));
+		chunkDiscs.remove(ChunkPos.asLong(chunkX, chunkZ));
+	}
+	
+	@Nullable
+	private PoissonDiscChunkSet peekChunkDiscSet(long key) {
+		PoissonDiscChunkSet cSet = chunkDiscs.get(key);
+		return cSet != null ? cSet : solvedDiscs.get(key);
+	}
+	
+	private void unpin(long key) {
+		PoissonDiscChunkSet cSet = solvedDiscs.remove(key);
+		if(cSet != null) {
+			chunkDiscs.putAndMoveToLast(key, cSet);
+			evict();
+		}
 	}
 	
 	private List<PoissonDisc> getChunkPoissonDiscs(int chunkX, int chunkZ) {
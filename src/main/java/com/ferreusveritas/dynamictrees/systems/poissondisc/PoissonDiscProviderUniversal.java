@@ -18,7 +18,7 @@ public class PoissonDiscProviderUniversal {
 	
 	protected IPoissonDiscProvider createCircleProvider(World world) {
 		BiomeRadiusCoordinator radiusCoordinator = new BiomeRadiusCoordinator(TreeGenerator.getTreeGenerator(), world);
-		IPoissonDiscProvider candidate = new PoissonDiscProvider(radiusCoordinator);
+		IPoissonDiscProvider candidate = new PoissonDiscProvider(radiusCoordinator, world.getChunkProvider());
 		PoissonDiscProviderCreateEvent poissonDiscProviderCreateEvent = new PoissonDiscProviderCreateEvent(world, candidate);
 		MinecraftForge.EVENT_BUS.post(poissonDiscProviderCreateEvent);
 		return poissonDiscProviderCreateEvent.getPoissonDiscProvider();
@@ -28,6 +28,11 @@ public class PoissonDiscProviderUniversal {
 		return providerMap.computeIfAbsent(world.provider.getDimension(), d -> createCircleProvider(world));
 	}
 	
+	/** @return The providers of all of the loaded dimensions keyed by dimension id */
+	public Map<Integer, IPoissonDiscProvider> getProviders() {
+		return providerMap;
+	}
+	
 	public List<PoissonDisc> getPoissonDiscs(World world, int chunkX, int chunkY, int chunkZ) {
 		IPoissonDiscProvider provider = getProvider(world);
 		return provider.getPoissonDiscs(chunkX, chunkY, chunkZ);
@@ -0,0 +1,242 @@
+package com.ferreusveritas.dynamictrees.systems.poissondisc;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import javax.annotation.Nullable;
+
+import com.ferreusveritas.dynamictrees.api.worldgen.IRadiusCoordinator;
+import com.ferreusveritas.dynamictrees.worldgen.BiomeRadiusCoordinator;
+import com.ferreusveritas.dynamictrees.worldgen.TreeGenerator;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
+
+/**
+ * Solves the Poisson discs of a square region of chunks ahead of time using all of the cores.
+ * Meant for pre-generating large maps.
+ * 
+ * A chunk is solved from the discs of it's neighbors that were solved before it so the layout
+ * depends on the order the chunks are solved in.  The region is solved as if it was generated
+ * row by row: a chunk only sees the chunk before it in it's row and the three chunks next to it
+ * in the row above.  Chunks on the same diagonal wave(x + 2z) never touch each other so each
+ * wave is solved in parallel and the waves one after another.  The result is exactly the same
+ * as solving the region row by row on a single thread.
+ * 
+ * Every chunk is solved with the seed of the provider and a radius coordinator that works out the
+ * density from the coordinates alone so the result doesn't depend on the threads.  The provider of
+ * the world draws the density from world.rand while the chunks generate so a solved region is
+ * laid out differently than the same chunks would have been without it.
+ * 
+ * @author ferreusveritas
+ */
+public class PoissonDiscRegionSolver {
+	
+	private static final int BIOME_MARGIN = 48;//Discs are tested well into the surrounding chunks
+	
+	private final World world;
+	private final PoissonDiscProvider provider;
+	private final int minX;//Chunk coordinates of the corner of the region
+	private final int minZ;
+	private final int size;
+	private final int ringSize;//The region with a one chunk ring around it
+	private final byte[][] fixed;//Disc data of the chunks that aren't solved, including the ring
+	private final boolean[] toSolve;
+	
+	private final Biome[] biomes;//Biomes of the region and the margin, fetched all at once
+	private final int biomeMinX;
+	private final int biomeMinZ;
+	private final int biomeLen;
+	private final Object biomeLock = new Object();
+	
+	private final Supplier<IRadiusCoordinator> coordinatorFactory;
+	
+	/**
+	 * Gather everything needed to solve the region.  Must be called from the server thread.
+	 * 
+	 * @param world The world
+	 * @param provider The disc provider of the world
+	 * @param centerX The chunk at the center of the region
+	 * @param centerZ The chunk at the center of the region
+	 * @param radius The radius of the region in chunks
+	 */
+	public PoissonDiscRegionSolver(World world, PoissonDiscProvider provider, int centerX, int centerZ, int radius) {
+		this(world, provider, centerX, centerZ, radius, null);
+	}
+	
+	/**
+	 * @param world The world or null if no chunks are generated yet
+	 * @param coordinatorFactory Makes the radius coordinators.  If null they are made for the biomes of the world
+	 */
+	PoissonDiscRegionSolver(@Nullable World world, PoissonDiscProvider provider, int centerX, int centerZ, int radius, @Nullable Supplier<IRadiusCoordinator> coordinatorFactory) {
+		this.world = world;
+		this.provider = provider;
+		minX = centerX - radius;
+		minZ = centerZ - radius;
+		size = radius * 2 + 1;
+		ringSize = size + 2;
+		
+		fixed = new byte[ringSize * ringSize][];
+		toSolve = new boolean[size * size];
+		for(int z = minZ - 1; z <= minZ + size; z++) {
+			for(int x = minX - 1; x <= minX + size; x++) {
+				if(inRegion(x, z) && (world == null || !world.getChunkProvider().isChunkGeneratedAt(x, z)) && !provider.isChunkSolved(x, z)) {
+					toSolve[(z - minZ) * size + (x - minX)] = true;
+				} else {
+					byte[] data = provider.peekChunkPoissonData(x, z);
+					fixed[ringIndex(x, z)] = data != null ? Arrays.copyOf(data, data.length) : null;
+				}
+			}
+		}
+		
+		biomeMinX = (minX << 4) - BIOME_MARGIN;
+		biomeMinZ = (minZ << 4) - BIOME_MARGIN;
+		biomeLen = (size << 4) + BIOME_MARGIN * 2;
+		if(coordinatorFactory != null) {
+			biomes = null;
+			this.coordinatorFactory = coordinatorFactory;
+		} else {
+			biomes = world.getBiomeProvider().getBiomes(null, biomeMinX, biomeMinZ, biomeLen, biomeLen, false);
+			this.coordinatorFactory = () -> new BiomeRadiusCoordinator(TreeGenerator.getTreeGenerator(), world, this::getBiome);
+		}
+	}
+	
+	/** @return true if the solver can make the radius coordinators of the provider */
+	public static boolean canSolve(PoissonDiscProvider provider) {
+		return provider.getRadiusCoordinator().getClass() == BiomeRadiusCoordinator.class;
+	}
+	
+	public int getNumToSolve() {
+		int count = 0;
+		for(boolean solve : toSolve) {
+			count += solve ? 1 : 0;
+		}
+		return count;
+	}
+	
+	/**
+	 * Solve the region.  Nothing is written to the provider until {@link #commit} is called.
+	 * 
+	 * @param parallel If false the region is solved row by row on the calling thread
+	 * @return The disc data of the region and the ring around it
+	 */
+	public byte[][] solve(boolean parallel) {
+		byte[][] data = Arrays.copyOf(fixed, fixed.length);
+		
+		for(int wave = 0; wave <= (size - 1) * 3; wave++) {
+			final int w = wave;
+			IntStream rows = IntStream.range(0, size).filter(z -> w - 2 * z >= 0 && w - 2 * z < size && toSolve[z * size + w - 2 * z]);
+			(parallel ? rows.parallel() : rows).forEach(z -> solveChunk(data, minX + w - 2 * z, minZ + z));
+		}
+		
+		return data;
+	}
+	
+	/**
+	 * Solve the region the way the provider does while the chunks generate: with one provider,
+	 * row by row on the calling thread.  The same radius coordinators as {@link #solve} are used so
+	 * the results can be compared.
+	 * 
+	 * @return The disc data of the region and the ring around it
+	 */
+	public byte[][] solveReference() {
+		PoissonDiscProvider reference = new PoissonDiscProvider(coordinatorFactory.get());
+		reference.setSeed(provider.getSeed());
+		for(int z = minZ - 1; z <= minZ + size; z++) {
+			for(int x = minX - 1; x <= minX + size; x++) {
+				byte[] fixedData = fixed[ringIndex(x, z)];
+				if(fixedData != null) {
+					reference.setChunkPoissonData(x, 0, z, fixedData);
+				}
+			}
+		}
+		
+		byte[][] data = Arrays.copyOf(fixed, fixed.length);
+		for(int z = 0; z < size; z++) {
+			for(int x = 0; x < size; x++) {
+				if(toSolve[z * size + x]) {
+					reference.getPoissonDiscs(minX + x, 0, minZ + z);
+					data[ringIndex(minX + x, minZ + z)] = reference.getChunkPoissonData(minX + x, 0, minZ + z);
+				}
+			}
+		}
+		
+		return data;
+	}
+	
+	/**
+	 * Store the solved chunks in the provider where they are kept until their chunks are saved.
+	 * Must be called from the server thread.
+	 * 
+	 * @param data The result of {@link #solve}
+	 */
+	public void commit(byte[][] data) {
+		for(int z = 0; z < size; z++) {
+			for(int x = 0; x < size; x++) {
+				if(toSolve[z * size + x]) {
+					provider.setSolvedChunkPoissonData(minX + x, minZ + z, data[ringIndex(minX + x, minZ + z)]);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Compare two results.
+	 * 
+	 * @return The number of solved chunks that came out differently
+	 */
+	public int countMismatches(byte[][] a, byte[][] b) {
+		int mismatches = 0;
+		for(int z = 0; z < size; z++) {
+			for(int x = 0; x < size; x++) {
+				int index = ringIndex(minX + x, minZ + z);
+				if(toSolve[z * size + x] && !Arrays.equals(a[index], b[index])) {
+					mismatches++;
+				}
+			}
+		}
+		return mismatches;
+	}
+	
+	/**
+	 * Solve a single chunk with a provider of it's own so that nothing is shared with other threads.
+	 */
+	private void solveChunk(byte[][] data, int chunkX, int chunkZ) {
+		PoissonDiscProvider worker = new PoissonDiscProvider(coordinatorFactory.get());
+		worker.setSeed(provider.getSeed());
+		
+		for(int z = chunkZ - 1; z <= chunkZ + 1; z++) {
+			for(int x = chunkX - 1; x <= chunkX + 1; x++) {
+				byte[] neighbor = data[ringIndex(x, z)];
+				if(neighbor != null && (x != chunkX || z != chunkZ)) {
+					worker.setChunkPoissonData(x, 0, z, neighbor);
+				}
+			}
+		}
+		
+		worker.getPoissonDiscs(chunkX, 0, chunkZ);
+		data[ringIndex(chunkX, chunkZ)] = worker.getChunkPoissonData(chunkX, 0, chunkZ);
+	}
+	
+	private Biome getBiome(BlockPos pos) {
+		int x = pos.getX() - biomeMinX;
+		int z = pos.getZ() - biomeMinZ;
+		if(x >= 0 && x < biomeLen && z >= 0 && z < biomeLen) {
+			return biomes[z * biomeLen + x];
+		}
+		synchronized(biomeLock) {//The biome cache of the world isn't thread safe.  This is rare enough to not matter
+			return world.getBiome(pos);
+		}
+	}
+	
+	private boolean inRegion(int x, int z) {
+		return x >= minX && x < minX + size && z >= minZ && z < minZ + size;
+	}
+	
+	private int ringIndex(int x, int z) {
+		return (z - minZ + 1) * ringSize + (x - minX + 1);
+	}
+	
+}
@@ -0,0 +1,107 @@
+package com.ferreusveritas.dynamictrees.trees;
+
+import java.util.Arrays;
+
+import com.ferreusveritas.dynamictrees.event.BiomeSuitabilityEvent;
+
+import net.minecraft.world.biome.Biome;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.fml.common.eventhandler.EventBus;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.IEventListener;
+import net.minecraftforge.fml.relauncher.ReflectionHelper;
+
+/**
+ * The suitability of every registered species for every biome.  A species' suitability for
+ * a biome only depends on it's environment factors, {@link Species#isBiomePerfect(Biome)} and
+ * the scaleBiomeGrowthRate config option so it's worked out once per pair, on demand, and read
+ * back from a dense table after that.
+ *
+ * The table is thrown away with {@link #invalidate()} whenever one of those inputs may have
+ * changed and is rebuilt on next use.  That's also when it's checked whether anybody listens
+ * to the {@link BiomeSuitabilityEvent} so the event isn't posted for nothing.
+ *
+ * @author ferreusveritas
+ */
+public class BiomeSuitabilityTable {
+
+	/** Biomes ids in vanilla go up to 255.  Biomes past the end of the table are worked out every time */
+	private static final int NUM_BIOMES = 256;
+
+	private static volatile BiomeSuitabilityTable table;
+
+	private final Species[] species;
+	private final float[][] suitability;//[speciesIndex][biomeId].  NaN until worked out
+	private final boolean eventListened;
+
+	private BiomeSuitabilityTable() {
+		species = Species.REGISTRY.getValuesCollection().toArray(new Species[0]);
+		suitability = new float[species.length][NUM_BIOMES];
+		for(int i = 0; i < species.length; i++) {
+			species[i].biomeTableIndex = i;
+			Arrays.fill(suitability[i], Float.NaN);
+		}
+		eventListened = hasListeners();
+	}
+
+	private static BiomeSuitabilityTable get() {
+		BiomeSuitabilityTable t = table;
+		if(t == null) {
+			synchronized (BiomeSuitabilityTable.class) {
+				if((t = table) == null) {
+					table = t = new BiomeSuitabilityTable();
+				}
+			}
+		}
+		return t;
+	}
+
+	/** Throw the table away.  Call when environment factors or the config change */
+	public static void invalidate() {
+		table = null;
+	}
+
+	/** @return true if something subscribed to the {@link BiomeSuitabilityEvent} */
+	public static boolean isEventListened() {
+		return Species.REGISTRY == null || get().eventListened;
+	}
+
+	/**
+	 * @param species The species
+	 * @param biome The biome
+	 * @return The suitability of the biome for the species without the {@link BiomeSuitabilityEvent}
+	 */
+	public static float getSuitability(Species species, Biome biome) {
+		if(Species.REGISTRY == null) {
+			return species.calcBiomeSuitability(biome);
+		}
+
+		BiomeSuitabilityTable t = get();
+		int index = species.biomeTableIndex;
+		int biomeId = Biome.getIdForBiome(biome);
+		if(index < 0 || index >= t.species.length || t.species[index] != species || biomeId < 0 || biomeId >= NUM_BIOMES) {
+			return species.calcBiomeSuitability(biome);//Not registered when the table was built or an extended biome id
+		}
+
+		float suit = t.suitability[index][biomeId];
+		if(suit != suit) {//NaN.  Not worked out yet
+			t.suitability[index][biomeId] = suit = species.calcBiomeSuitability(biome);
+		}
+		return suit;
+	}
+
+	private static boolean hasListeners() {
+		try {
+			int busID = ReflectionHelper.getPrivateValue(EventBus.class, MinecraftForge.EVENT_BUS, "busID");
+			for(IEventListener listener : new BiomeSuitabilityEvent(null, null, null, null).getListenerList().getListeners(busID)) {
+				if(!(listener instanceof EventPriority)) {//The priorities are in the list as markers
+					return true;
+				}
+			}
+			return false;
+		} catch (Exception e) {
+			return true;//Can't tell.  Keep posting
+		}
+	}
+
+}
@@ -41,6 +41,10 @@ import com.ferreusveritas.dynamictrees.models.ModelEntityFallingTree;
 import com.ferreusveritas.dynamictrees.seasons.SeasonHelper;
 import com.ferreusveritas.dynamictrees.systems.DirtHelper;
 import com.ferreusveritas.dynamictrees.systems.GrowSignal;
+import com.ferreusveritas.dynamictrees.systems.TreeDormancy;
+import com.ferreusveritas.dynamictrees.systems.TreeProfiler;
+import com.ferreusveritas.dynamictrees.systems.VoluntaryDropPool;
+import com.ferreusveritas.dynamictrees.systems.EndpointTracker;
 import com.ferreusveritas.dynamictrees.systems.dropcreators.DropCreatorLogs;
 import com.ferreusveritas.dynamictrees.systems.dropcreators.DropCreatorSeed;
 import com.ferreusveritas.dynamictrees.systems.dropcreators.DropCreatorStorage;
@@ -54,6 +58,7 @@ import com.ferreusveritas.dynamictrees.util.CoordUtils;
 import com.ferreusveritas.dynamictrees.util.Deprecatron;
 import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
 import com.ferreusveritas.dynamictrees.util.SimpleVoxmap;
+import com.ferreusveritas.dynamictrees.util.TreeWorldView;
 import com.ferreusveritas.dynamictrees.worldgen.JoCode;
 import com.ferreusveritas.dynamictrees.worldgen.JoCodeStore;
 
@@ -166,6 +171,8 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 	//WorldGen
 	/** A map of environmental biome factors that change a tree's suitability */
 	protected Map <Type, Float> envFactors = new HashMap<Type, Float>();//Environmental factors
+	/** The row of this species in the {@link BiomeSuitabilityTable} */
+	int biomeTableIndex = -1;
 	/** A list of JoCodes for world generation. Initialized in addJoCodes()*/
 	protected JoCodeStore joCodeStore = new JoCodeStore(this);
 	
@@ -549,15 +556,10 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 						BlockPos itemPos = CoordUtils.getRayTraceFruitPos(world, this, treePos, branchPos, SafeChunkBounds.ANY);
 						
 						if(itemPos != BlockPos.ORIGIN) {
-							EntityItem itemEntity = new EntityItem(world, itemPos.getX() + 0.5, itemPos.getY() + 0.5, itemPos.getZ() + 0.5, drop);
-							Vec3d motion = new Vec3d(itemPos).subtract(new Vec3d(treePos));
-							float distAngle = 15;//The spread angle(center to edge)
-							float launchSpeed = 4;//Blocks(meters) per second
-							motion = new Vec3d(motion.x, 0, motion.y).normalize().rotateYaw((world.rand.nextFloat() * distAngle * 2) - distAngle).scale(launchSpeed/20f);
-							itemEntity.motionX = motion.x;
-							itemEntity.motionY = motion.y;
-							itemEntity.motionZ = motion.z;
-							return world.spawnEntity(itemEntity);
+							if(VoluntaryDropPool.isEnabled(world)) {
+								return VoluntaryDropPool.add(world, this, treePos, itemPos, drop);
+							}
+							return world.spawnEntity(createVoluntaryDropEntity(world, treePos, itemPos, drop));
 						}
 					}
 				}
@@ -566,6 +568,27 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 		return true;
 	}
 	
+	/**
+	 * Create the item entity for a voluntary drop launched away from the trunk.
+	 * 
+	 * @param world The world
+	 * @param treePos The {@link BlockPos} of the trunk base
+	 * @param itemPos Where the item appears
+	 * @param drop The dropped stack
+	 * @return The item entity.  Not spawned yet
+	 */
+	public EntityItem createVoluntaryDropEntity(World world, BlockPos treePos, BlockPos itemPos, ItemStack drop) {
+		EntityItem itemEntity = new EntityItem(world, itemPos.getX() + 0.5, itemPos.getY() + 0.5, itemPos.getZ() + 0.5, drop);
+		Vec3d motion = new Vec3d(itemPos).subtract(new Vec3d(treePos));
+		float distAngle = 15;//The spread angle(center to edge)
+		float launchSpeed = 4;//Blocks(meters) per second
+		motion = new Vec3d(motion.x, 0, motion.y).normalize().rotateYaw((world.rand.nextFloat() * distAngle * 2) - distAngle).scale(launchSpeed/20f);
+		itemEntity.motionX = motion.x;
+		itemEntity.motionY = motion.y;
+		itemEntity.motionZ = motion.z;
+		return itemEntity;
+	}
+	
 	///////////////////////////////////////////
 	//SAPLING
 	///////////////////////////////////////////
@@ -769,25 +792,64 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 	 */
 	public boolean update(World world, BlockRooty rootyDirt, BlockPos rootPos, int soilLife, ITreePart treeBase, BlockPos treePos, Random random, boolean natural) {
 		
+		if(!natural) {
+			TreeDormancy.wake(world, rootPos);//Growth accelerants get a sleeping tree going again
+		} else if(TreeDormancy.isResting(world, rootPos)) {
+			return updateDormant(world, rootPos, soilLife, treeBase, treePos);
+		}
+		
 		//Analyze structure to gather all of the endpoints.  They will be useful for this entire update
-		List<BlockPos> ends = getEnds(world, treePos, treeBase);
+		List<BlockPos> ends = EndpointTracker.findEnds(world, rootPos, treePos, treeBase);
 		
 		//This will prune rotted positions from the world and the end point list
-		if(handleRot(world, ends, rootPos, treePos, soilLife, SafeChunkBounds.ANY)) {
+		TreeProfiler.Sample sample = TreeProfiler.begin();
+		boolean rotted = handleRot(world, ends, rootPos, treePos, soilLife, SafeChunkBounds.ANY);
+		TreeProfiler.end(sample, TreeProfiler.Section.ROT, this, world);
+		if(rotted) {
 			return false;//Last piece of tree rotted away.
 		}
 		
 		if(natural) {
 			//This will handle seed drops
+			sample = TreeProfiler.begin();
 			handleVoluntaryDrops(world, ends, rootPos, treePos, soilLife);
+			TreeProfiler.end(sample, TreeProfiler.Section.VOLUNTARY_DROPS, this, world);
 			
 			//This will handle disease chance
-			if(handleDisease(world, treeBase, treePos, random, soilLife)) {
+			sample = TreeProfiler.begin();
+			boolean diseased = handleDisease(world, treeBase, treePos, random, soilLife);
+			TreeProfiler.end(sample, TreeProfiler.Section.DISEASE, this, world);
+			if(diseased) {
 				return true;//Although the tree may be diseased. The tree network is still viable.
 			}
 		}
 		
-		return grow(world, rootyDirt, rootPos, soilLife, treeBase, treePos, random, natural);
+		sample = TreeProfiler.begin();
+		boolean viable = grow(world, rootyDirt, rootPos, soilLife, treeBase, treePos, random, natural);
+		TreeProfiler.end(sample, TreeProfiler.Section.GROW, this, world);
+		return viable;
+	}
+	
+	/**
+	 * The update of a dormant tree that has stopped growing.  Only seed drops and the post grow
+	 * features like fruit are handled.  Rot, disease and growth are left to the occasional full
+	 * update.  See {@link TreeDormancy}.
+	 * 
+	 * @param world The world
+	 * @param rootPos The {@link BlockPos} of the {@link BlockRooty} type in the world
+	 * @param soilLife The life of the soil. 0: Depleted -> 15: Full
+	 * @param treeBase The tree part that is the base of the {@link TreeFamily} trunk.
+	 * @param treePos The {@link BlockPos} of the {@link TreeFamily} trunk base.
+	 * @return true if network is viable.  false if network is not viable(will destroy the {@link BlockRooty} this tree is on)
+	 */
+	protected boolean updateDormant(World world, BlockPos rootPos, int soilLife, ITreePart treeBase, BlockPos treePos) {
+		List<BlockPos> ends = EndpointTracker.findEnds(world, rootPos, treePos, treeBase);
+		
+		TreeProfiler.Sample sample = TreeProfiler.begin();
+		handleVoluntaryDrops(world, ends, rootPos, treePos, soilLife);
+		TreeProfiler.end(sample, TreeProfiler.Section.VOLUNTARY_DROPS, this, world);
+		
+		return postGrow(world, rootPos, treePos, soilLife, true);
 	}
 	
 	/**
@@ -829,6 +891,7 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 				float rotChance = rotChance(world, endPos, world.rand, radius);
 				if(branch.checkForRot(world, endPos, this, radius, world.rand, rotChance, safeBounds != SafeChunkBounds.ANY) || radius != 1) {
 					if(safeBounds != SafeChunkBounds.ANY) { //worldgen
+						//The leaves of the rotted end lose their water and die off completely.  Two growths let the leaves around fill back in
 						TreeHelper.ageVolume(world, endPos.down((leafMap.getLenZ() - 1) / 2), (leafMap.getLenX() - 1) / 2, leafMap.getLenY(), 2, safeBounds);
 					}
 					iter.remove();//Prune out the rotted end points so we don't spawn fruit from them.
@@ -903,26 +966,32 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 	public boolean grow(World world, BlockRooty rootyDirt, BlockPos rootPos, int soilLife, ITreePart treeBase, BlockPos treePos, Random random, boolean natural) {
 		
 		float growthRate = getGrowthRate(world, rootPos) * ModConfigs.treeGrowthMultiplier * ModConfigs.treeGrowthFolding;
-		do {
-			if(soilLife > 0){
-				if(growthRate > random.nextFloat()) {
-					GrowSignal signal = new GrowSignal(this, rootPos, getEnergy(world, rootPos));
-					boolean success = treeBase.growSignal(world, treePos, signal).success;
-					
-					int soilLongevity = getSoilLongevity(world, rootPos) * (success ? 1 : 16);//Don't deplete the soil as much if the grow operation failed
-					
-					if(soilLongevity <= 0 || random.nextInt(soilLongevity) == 0) {//1 in X(soilLongevity) chance to draw nutrients from soil
-						rootyDirt.setSoilLife(world, rootPos, soilLife - 1);//decrement soil life
-					}
-					
-					if(signal.choked) {
-						soilLife = 0;
-						rootyDirt.setSoilLife(world, rootPos, soilLife);
-						TreeHelper.startAnalysisFromRoot(world, rootPos, new MapSignal(new NodeShrinker(signal.getSpecies())));
+		TreeWorldView view = TreeWorldView.open(world);
+		try {
+			do {
+				if(soilLife > 0){
+					if(growthRate > random.nextFloat()) {
+						GrowSignal signal = new GrowSignal(this, rootPos, getEnergy(world, rootPos));
+						boolean success = treeBase.growSignal(world, treePos, signal).success;
+						TreeDormancy.record(world, rootPos, signal.changed, signal.choked);//A signal that didn't get to grow may still have thickened the trunk
+						
+						int soilLongevity = getSoilLongevity(world, rootPos) * (success ? 1 : 16);//Don't deplete the soil as much if the grow operation failed
+						
+						if(soilLongevity <= 0 || random.nextInt(soilLongevity) == 0) {//1 in X(soilLongevity) chance to draw nutrients from soil
+							rootyDirt.setSoilLife(world, rootPos, soilLife - 1);//decrement soil life
+						}
+						
+						if(signal.choked) {
+							soilLife = 0;
+							rootyDirt.setSoilLife(world, rootPos, soilLife);
+							TreeHelper.startAnalysisFromRoot(world, rootPos, new MapSignal(new NodeShrinker(signal.getSpecies())));
+						}
 					}
 				}
-			}
-		} while(--growthRate > 0.0f);
+			} while(--growthRate > 0.0f);
+		} finally {
+			view.close();
+		}
 		
 		return postGrow(world, rootPos, treePos, soilLife, natural);
 	}
@@ -956,6 +1025,23 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 	* @return
 	*/
 	public EnumFacing selectNewDirection(World world, BlockPos pos, BlockBranch branch, GrowSignal signal) {
+		return selectNewDirection(world, pos, branch, signal, TreeWorldView.of(world).getBlockState(pos), new IBlockState[6], new int[6]);
+	}
+	
+	/**
+	* Same as {@link #selectNewDirection(World, BlockPos, BlockBranch, GrowSignal)} but with buffers supplied by the caller
+	* so the grow signal walker doesn't allocate for every step.  Override the other one instead of this.
+	* 
+	* @param world The World
+	* @param pos
+	* @param branch The branch block the GrowSignal is traveling in.
+	* @param signal The grow signal.
+	* @param blockState The blockstate of the branch at pos
+	* @param neighbors Receives the blockstates of the neighbors that were read by direction index. Must be filled with nulls
+	* @param probMap A buffer for the probability map that the growth logic kit gets to operate on
+	* @return
+	*/
+	public EnumFacing selectNewDirection(World world, BlockPos pos, BlockBranch branch, GrowSignal signal, IBlockState blockState, IBlockState[] neighbors, int[] probMap) {
 		EnumFacing originDir = signal.dir.getOpposite();
 		
 		//prevent branches on the ground
@@ -963,7 +1049,8 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 			return EnumFacing.UP;
 		}
 		
-		int probMap[] = new int[6];//6 directions possible DUNSWE
+		Arrays.fill(probMap, 0);//6 directions possible DUNSWE
+		IBlockAccess access = TreeWorldView.of(world);
 		
 		//Probability taking direction into account
 		probMap[EnumFacing.UP.ordinal()] = signal.dir != EnumFacing.DOWN ? getUpProbability(): 0;//Favor up
@@ -975,13 +1062,14 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 				BlockPos deltaPos = pos.offset(dir);
 				//Check probability for surrounding blocks
 				//Typically Air:1, Leaves:2, Branches: 2+r
-				IBlockState deltaBlockState = world.getBlockState(deltaPos);
+				IBlockState deltaBlockState = access.getBlockState(deltaPos);
+				neighbors[dir.getIndex()] = deltaBlockState;
 				probMap[dir.getIndex()] += TreeHelper.getTreePart(deltaBlockState).probabilityForBlock(deltaBlockState, world, deltaPos, branch);
 			}
 		}
 		
 		//Do custom stuff or override probability map for various species
-		probMap = customDirectionManipulation(world, pos, branch.getRadius(world.getBlockState(pos)), signal, probMap);
+		probMap = customDirectionManipulation(world, pos, branch.getRadius(blockState), signal, probMap);
 		
 		//Select a direction from the probability map
 		int choice = com.ferreusveritas.dynamictrees.util.MathHelper.selectRandomFromDistribution(signal.rand, probMap);//Select a direction from the probability map
@@ -1044,6 +1132,7 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 	
 	public Species envFactor(Type type, float factor) {
 		envFactors.put(type, factor);
+		BiomeSuitabilityTable.invalidate();
 		return this;
 	}
 	
@@ -1058,12 +1147,26 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 		Biome biome = world.getBiome(pos);
 		
 		//An override to allow other mods to change the behavior of the suitability for a world location. Such as Terrafirmacraft.
-		BiomeSuitabilityEvent suitabilityEvent = new BiomeSuitabilityEvent(world, biome, this, pos);
-		MinecraftForge.EVENT_BUS.post(suitabilityEvent);
-		if(suitabilityEvent.isHandled()) {
-			return suitabilityEvent.getSuitability();
+		if(BiomeSuitabilityTable.isEventListened()) {
+			BiomeSuitabilityEvent suitabilityEvent = new BiomeSuitabilityEvent(world, biome, this, pos);
+			MinecraftForge.EVENT_BUS.post(suitabilityEvent);
+			if(suitabilityEvent.isHandled()) {
+				return suitabilityEvent.getSuitability();
+			}
 		}
 		
+		return BiomeSuitabilityTable.getSuitability(this, biome);
+	}
+	
+	/**
+	* Works out the suitability of a biome from the environment factors.  Results are cached in the
+	* {@link BiomeSuitabilityTable} so this should only depend on the biome.
+	*
+	* @param biome The biome
+	* @return range from 0.0 - 1.0.  (0.0f for completely unsuited.. 1.0f for perfectly suited)
+	*/
+	public float calcBiomeSuitability(Biome biome) {
+		
 		float ugs = ModConfigs.scaleBiomeGrowthRate;//universal growth scalar
 		
 		if(ugs == 1.0f || isBiomePerfect(biome)) {
@@ -1382,6 +1485,10 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 		return false;
 	}
 	
+	public IFullGenFeature getGenFeatureOverride() {
+		return genFeatureOverride;
+	}
+	
 	public JoCodeStore getJoCodeStore() {
 		return joCodeStore;
 	}
@@ -1491,6 +1598,10 @@ public class Species extends net.minecraftforge.registries.IForgeRegistryEntry.I
 		return 32;
 	}
 	
+	/**
+	 * @return The number of times the leaves of a generated tree get to grow new leaves.  The
+	 * hydration of the leaves is solved completely no matter the number.  See {@link TreeHelper#ageVolume}
+	 */
 	public int getWorldGenAgeIterations() {
 		return 3;
 	}
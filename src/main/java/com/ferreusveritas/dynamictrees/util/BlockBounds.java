@@ -108,6 +108,15 @@ public class BlockBounds {
 					pos.getZ() > maxZ );
 	}
 	
+	public boolean intersects(BlockBounds other) {
+		return !(	other.maxX < minX ||
+					other.minX > maxX ||
+					other.maxY < minY ||
+					other.minY > maxY ||
+					other.maxZ < minZ ||
+					other.minZ > maxZ );
+	}
+	
 	public BlockPos getMin() {
 		return new BlockPos(minX, minY, minZ);
 	}
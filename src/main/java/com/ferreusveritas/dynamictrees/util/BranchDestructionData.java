@@ -7,6 +7,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 import com.ferreusveritas.dynamictrees.api.TreeRegistry;
 import com.ferreusveritas.dynamictrees.api.treedata.ILeavesProperties;
@@ -16,6 +19,8 @@ import com.ferreusveritas.dynamictrees.blocks.BlockDynamicLeaves;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.google.common.collect.AbstractIterator;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.nbt.NBTTagCompound;
@@ -24,6 +29,7 @@ import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraftforge.common.property.IExtendedBlockState;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
 
 public class BranchDestructionData {
 	public final Species species; // The species of the tree that was harvested
@@ -110,6 +116,228 @@ public class BranchDestructionData {
 		return tag;
 	}
 	
+	///////////////////////////////////////////////////////////
+	// Wire Format
+	///////////////////////////////////////////////////////////
+	
+	/** Payloads bigger than this many bytes are deflated */
+	public static final int DEFLATE_THRESHOLD = 512;
+	
+	/** The largest inflated payload that will be accepted */
+	private static final int MAX_PAYLOAD = 1 << 24;
+	
+	/**
+	 * Read the compact encoding made by {@link #writeToBuf}.
+	 * 
+	 * @param buf The buffer to read from
+	 */
+	public BranchDestructionData(ByteBuf buf) {
+		ByteBuf data = readPayload(buf);
+		
+		this.species = TreeRegistry.findSpecies(new ResourceLocation(ByteBufUtils.readUTF8String(data)));
+		this.cutPos = BlockPos.fromLong(data.readLong());
+		int dirs = data.readUnsignedByte();
+		this.cutDir = EnumFacing.getFront(dirs >> 4);
+		this.toolDir = EnumFacing.getFront(dirs & 0x0F);
+		this.trunkHeight = ByteBufUtils.readVarInt(data, 5);
+		this.woodVolume = data.readFloat();
+		
+		//Branches
+		int numBranches = ByteBufUtils.readVarInt(data, 5);
+		int[] palette = readPalette(data);
+		this.destroyedBranchesRadiusPosition = new int[numBranches];
+		this.destroyedBranchesConnections = new int[numBranches];
+		this.destroyedBranchesBlockIndex = new int[numBranches];
+		int pos = 0;
+		for(int i = 0; i < numBranches; i++) {
+			pos += unzigzag(ByteBufUtils.readVarInt(data, 5));
+			int radiusBlock = ByteBufUtils.readVarInt(data, 5);
+			destroyedBranchesRadiusPosition[i] = (radiusBlock & 0x1F) << 24 | (pos & 0xFFFFFF);
+			destroyedBranchesBlockIndex[i] = palette[radiusBlock >>> 5];
+			int connections = 0;
+			for(int face = 0; face < 6; face += 2) {
+				int pair = data.readUnsignedByte();
+				connections |= (pair & 0x0F) << (face * 5) | (pair >> 4) << ((face + 1) * 5);
+			}
+			destroyedBranchesConnections[i] = connections;
+		}
+		
+		//Leaves
+		int numLeaves = ByteBufUtils.readVarInt(data, 5);
+		palette = readPalette(data);
+		this.destroyedLeaves = new int[numLeaves];
+		this.destroyedLeavesBlockIndex = new int[numLeaves];
+		pos = 0;
+		for(int i = 0; i < numLeaves; i++) {
+			pos += unzigzag(ByteBufUtils.readVarInt(data, 5));
+			int hydroBlock = ByteBufUtils.readVarInt(data, 5);
+			destroyedLeaves[i] = (hydroBlock & 0x0F) << 24 | (pos & 0xFFFFFF);
+			destroyedLeavesBlockIndex[i] = palette[hydroBlock >>> 4];
+		}
+		
+		//End Points
+		this.endPoints = new int[ByteBufUtils.readVarInt(data, 5)];
+		for(int i = 0; i < endPoints.length; i++) {
+			endPoints[i] = ByteBufUtils.readVarInt(data, 5);
+		}
+		
+		this.leavesDrops = new ArrayList<>(0);
+	}
+	
+	/**
+	 * Write a compact encoding of everything the client needs.  Positions are sorted and delta coded
+	 * as varints, block indices go through a palette and the whole thing is deflated if it's big.
+	 * The order of the branches and leaves isn't kept except for the branch at the cut which stays first.
+	 * 
+	 * @param buf The buffer to write to
+	 */
+	public void writeToBuf(ByteBuf buf) {
+		ByteBuf data = Unpooled.buffer();
+		
+		ByteBufUtils.writeUTF8String(data, species.toString());
+		data.writeLong(cutPos.toLong());
+		data.writeByte(cutDir.getIndex() << 4 | toolDir.getIndex());
+		ByteBufUtils.writeVarInt(data, trunkHeight, 5);
+		data.writeFloat(woodVolume);
+		
+		//Branches
+		int[] order = sortByPosition(destroyedBranchesRadiusPosition, 1);
+		int[] palette = writePalette(data, order.length, destroyedBranchesBlockIndex);
+		int last = 0;
+		for(int i : order) {
+			int pos = destroyedBranchesRadiusPosition[i] & 0xFFFFFF;
+			ByteBufUtils.writeVarInt(data, zigzag(pos - last), 5);
+			last = pos;
+			ByteBufUtils.writeVarInt(data, decodeBranchRadius(destroyedBranchesRadiusPosition[i]) | Arrays.binarySearch(palette, destroyedBranchesBlockIndex[i]) << 5, 5);
+			int connections = destroyedBranchesConnections[i];
+			for(int face = 0; face < 6; face += 2) {//The decoder clamps connections to 8 anyway so a nibble each is enough
+				int low = Math.min(connections >> (face * 5) & 0x1F, 15);
+				int high = Math.min(connections >> ((face + 1) * 5) & 0x1F, 15);
+				data.writeByte(low | high << 4);
+			}
+		}
+		
+		//Leaves
+		order = sortByPosition(destroyedLeaves, 0);
+		palette = writePalette(data, order.length, destroyedLeavesBlockIndex);
+		last = 0;
+		for(int i : order) {
+			int pos = destroyedLeaves[i] & 0xFFFFFF;
+			ByteBufUtils.writeVarInt(data, zigzag(pos - last), 5);
+			last = pos;
+			ByteBufUtils.writeVarInt(data, decodeLeavesHydro(destroyedLeaves[i]) | Arrays.binarySearch(palette, destroyedLeavesBlockIndex[i]) << 4, 5);
+		}
+		
+		//End Points
+		ByteBufUtils.writeVarInt(data, endPoints.length, 5);
+		for(int endPoint : endPoints) {
+			ByteBufUtils.writeVarInt(data, endPoint, 5);
+		}
+		
+		writePayload(buf, data);
+	}
+	
+	/** @return The indices of the encoded positions sorted by position.  The first few indices are left where they are */
+	private static int[] sortByPosition(int[] encoded, int keep) {
+		long[] keys = new long[encoded.length];
+		for(int i = 0; i < encoded.length; i++) {
+			keys[i] = (long)(encoded[i] & 0xFFFFFF) << 32 | i;
+		}
+		Arrays.sort(keys, Math.min(keep, keys.length), keys.length);
+		int[] order = new int[keys.length];
+		for(int i = 0; i < keys.length; i++) {
+			order[i] = (int) keys[i];
+		}
+		return order;
+	}
+	
+	private static int[] writePalette(ByteBuf data, int count, int[] blockIndices) {
+		int[] palette = Arrays.stream(blockIndices).distinct().sorted().toArray();
+		ByteBufUtils.writeVarInt(data, count, 5);
+		ByteBufUtils.writeVarInt(data, palette.length, 5);
+		for(int blockIndex : palette) {
+			ByteBufUtils.writeVarInt(data, zigzag(blockIndex), 5);
+		}
+		return palette;
+	}
+	
+	private static int[] readPalette(ByteBuf data) {
+		int[] palette = new int[ByteBufUtils.readVarInt(data, 5)];
+		for(int i = 0; i < palette.length; i++) {
+			palette[i] = unzigzag(ByteBufUtils.readVarInt(data, 5));
+		}
+		return palette;
+	}
+	
+	private static int zigzag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+	
+	private static int unzigzag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+	
+	private static void writePayload(ByteBuf buf, ByteBuf data) {
+		byte[] raw = new byte[data.readableBytes()];
+		data.readBytes(raw);
+		
+		if(raw.length > DEFLATE_THRESHOLD) {
+			Deflater deflater = new Deflater();
+			deflater.setInput(raw);
+			deflater.finish();
+			byte[] compressed = new byte[raw.length + 64];
+			int length = 0;
+			while(!deflater.finished() && length < compressed.length) {
+				length += deflater.deflate(compressed, length, compressed.length - length);
+			}
+			deflater.end();
+			if(length < raw.length) {
+				buf.writeBoolean(true);
+				ByteBufUtils.writeVarInt(buf, raw.length, 5);
+				ByteBufUtils.writeVarInt(buf, length, 5);
+				buf.writeBytes(compressed, 0, length);
+				return;
+			}
+		}
+		
+		buf.writeBoolean(false);
+		ByteBufUtils.writeVarInt(buf, raw.length, 5);
+		buf.writeBytes(raw);
+	}
+	
+	private static ByteBuf readPayload(ByteBuf buf) {
+		boolean deflated = buf.readBoolean();
+		int rawLength = ByteBufUtils.readVarInt(buf, 5);
+		if(rawLength < 0 || rawLength > MAX_PAYLOAD) {
+			throw new IllegalArgumentException("Invalid branch destruction data length: " + rawLength);
+		}
+		
+		if(!deflated) {
+			return buf.readBytes(rawLength);
+		}
+		
+		byte[] compressed = new byte[ByteBufUtils.readVarInt(buf, 5)];
+		buf.readBytes(compressed);
+		byte[] raw = new byte[rawLength];
+		Inflater inflater = new Inflater();
+		inflater.setInput(compressed);
+		try {
+			int length = 0;
+			while(length < rawLength && !inflater.finished()) {
+				int inflated = inflater.inflate(raw, length, rawLength - length);
+				if(inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				length += inflated;
+			}
+		} catch (DataFormatException e) {
+			throw new IllegalArgumentException("Corrupt branch destruction data", e);
+		} finally {
+			inflater.end();
+		}
+		return Unpooled.wrappedBuffer(raw);
+	}
+	
 	///////////////////////////////////////////////////////////
 	// Branches
 	///////////////////////////////////////////////////////////
@@ -1,107 +1,340 @@
 package com.ferreusveritas.dynamictrees.util;
 
+import com.ferreusveritas.dynamictrees.DynamicTrees;
+import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.api.TreeHelper;
 import com.ferreusveritas.dynamictrees.api.network.MapSignal;
 import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
-import com.ferreusveritas.dynamictrees.blocks.BlockRooty;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree;
 import com.ferreusveritas.dynamictrees.entities.EntityFallingTree.DestroyType;
+import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeTopology;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.BlockStateContainer;
 import net.minecraft.block.state.IBlockState;
+import net.minecraft.command.ICommandSender;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.BlockPos.MutableBlockPos;
 import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.text.TextComponentString;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.BlockStatePaletteRegistry;
 import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.IBlockStatePalette;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraftforge.fml.relauncher.ReflectionHelper;
 
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Optional;
-import java.util.Set;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import javax.annotation.Nullable;
 
+/**
+ * Removes branch networks from an area of chunks.  Chunk sections that are empty or whose
+ * palette doesn't hold a single branch state are skipped without looking at their blocks and
+ * the rest are read straight out of the section.  Every network is mapped once no matter how
+ * many of it's blocks the scan runs into.
+ *
+ * Scans started by commands are queued per dimension and worked on for a limited time each
+ * world tick so big areas don't stall the server.  The command sender is kept posted.
+ *
+ * @author ferreusveritas
+ */
 public class ChunkTreeHelper {
-	
+
+	public enum Mode {
+		CLEAR_ORPHANED("Clearing orphaned branches"),
+		PURGE("Purging trees");
+
+		private final String description;
+
+		private Mode(String description) {
+			this.description = description;
+		}
+	}
+
+	/** Ticks between progress reports */
+	public static final int REPORT_INTERVAL = 100;
+
+	/** A section palette with more states than this is the global registry palette */
+	private static final int MAX_PALETTE_SIZE = 256;
+
+	private static final Field paletteField = findPaletteField();
+	private static final Map<Integer, ArrayDeque<Scan>> scans = new HashMap<>();
+
+	//Metrics
+	public static long sectionsScanned;
+	public static long sectionsSkipped;
+
 	public static void removeOrphanedBranchNodes(World world, ChunkPos cPos, int radius) {
-		
+		if(cPos != null) {
+			new Scan(world, cPos, radius, Mode.CLEAR_ORPHANED, null).run(Long.MAX_VALUE);
+		}
+	}
+
+	public static void removeAllBranchesFromChunk(World world, ChunkPos cPos, int radius) {
+		if(cPos != null) {
+			new Scan(world, cPos, radius, Mode.PURGE, null).run(Long.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * Queue a scan to be worked on over the next world ticks.
+	 *
+	 * @param world The world
+	 * @param cPos The center chunk
+	 * @param radius The radius in chunks around the center chunk
+	 * @param mode What to remove
+	 * @param sender Who to report the progress to or null for nobody
+	 */
+	public static void schedule(World world, ChunkPos cPos, int radius, Mode mode, @Nullable ICommandSender sender) {
 		if(cPos == null) {
 			return;
 		}
-		
-		Chunk chunk = world.getChunkFromChunkCoords(cPos.x, cPos.z);
-		BlockBounds bounds = new BlockBounds(cPos);
-		
-		bounds.shrink(EnumFacing.UP, 255 - (chunk.getTopFilledSegment() + 16));
-		for(EnumFacing dir: EnumFacing.HORIZONTALS) {
-			bounds.expand(dir, radius * 16);
-		}
-		
-		Set<BlockPos> found = new HashSet<>();
-		
-		for(MutableBlockPos pos: bounds.iterate()) {
-			if(found.contains(pos)) {
+
+		ArrayDeque<Scan> queue = scans.computeIfAbsent(world.provider.getDimension(), d -> new ArrayDeque<>());
+		Scan scan = new Scan(world, cPos, radius, mode, sender);
+		if(sender != null) {
+			sender.sendMessage(new TextComponentString(String.format("%s in %d chunks%s", mode.description, scan.numChunks, queue.isEmpty() ? "" : " after " + queue.size() + " other scan(s)")));
+		}
+		queue.add(scan);
+	}
+
+	/**
+	 * Work on the queued scans of a world for up to the configured time.  Called once per world tick.
+	 *
+	 * @param world The world
+	 */
+	public static void process(World world) {
+		ArrayDeque<Scan> queue = scans.get(world.provider.getDimension());
+		if(queue == null || queue.isEmpty()) {
+			return;
+		}
+
+		long deadline = System.nanoTime() + ModConfigs.chunkScanMillisPerTick * 1000000L;
+		while(!queue.isEmpty() && System.nanoTime() < deadline) {
+			Scan scan = queue.peek();
+			if(scan.world != world) {//The world was reloaded under the scan
+				queue.poll();
 				continue;
 			}
-			IBlockState state = world.getBlockState(pos);
-			Optional<BlockBranch> branchBlock = TreeHelper.getBranchOpt(state);
-			if(branchBlock.isPresent()) {
-				BlockPos rootPos = TreeHelper.findRootNode(world, pos);
-				if(rootPos == BlockPos.ORIGIN) {// If the root position is the ORIGIN object it means that no root block was found
-					// If the root node isn't found then all nodes are orphan.  Destroy the entire network.
-					BranchDestructionData destroyData = branchBlock.get().destroyBranchFromNode(world, pos, EnumFacing.DOWN, true);
-					EntityFallingTree.dropTree(world, destroyData, new ArrayList<ItemStack>(0), DestroyType.ROOT);
-				} else {
-					// There is at least one root block in the network
-					IBlockState rootyState = world.getBlockState(rootPos);
-					Optional<BlockRooty> rootyBlock = TreeHelper.getRootyOpt(rootyState);
-					if(rootyBlock.isPresent()) { // Rooty block confirmed
-						EnumFacing trunkDir = rootyBlock.get().getTrunkDirection(world, rootPos);
-						BlockPos trunkPos = rootPos.offset(trunkDir);
-						IBlockState trunkState = world.getBlockState(trunkPos);
-						Optional<BlockBranch> trunk = TreeHelper.getBranchOpt(trunkState);
-						
-						if(trunk.isPresent()) { // There's a trunk coming out of the rooty block, that's kinda expected
-							MapSignal signal = new MapSignal();
-							signal.destroyLoopedNodes = false;
-							trunk.get().analyse(trunkState, world, trunkPos, null, signal);
-							
-							if(signal.multiroot || signal.overflow) { // We found multiple root nodes.  This can't be resolved. Destroy the entire network
-								BranchDestructionData destroyData = branchBlock.get().destroyBranchFromNode(world, pos, EnumFacing.DOWN, true);
-								EntityFallingTree.dropTree(world, destroyData, new ArrayList<ItemStack>(0), DestroyType.ROOT);//Destroy the tree client side without fancy effects
-								continue;
+			if(scan.run(deadline)) {
+				queue.poll();
+				scan.report(true);
+			} else {
+				scan.report(false);
+			}
+		}
+	}
+
+	public static void unloadWorld(World world) {
+		if(!world.isRemote) {
+			scans.remove(world.provider.getDimension());
+		}
+	}
+
+	public static int getNumPendingScans() {
+		return scans.values().stream().mapToInt(ArrayDeque::size).sum();
+	}
+
+	public static void clearMetrics() {
+		sectionsScanned = sectionsSkipped = 0;
+	}
+
+	///////////////////////////////////////////
+	// SECTIONS
+	///////////////////////////////////////////
+
+	@Nullable
+	private static Field findPaletteField() {
+		try {
+			return ReflectionHelper.findField(BlockStateContainer.class, "palette", "field_186022_c");
+		} catch (Exception e) {
+			DynamicTrees.log.warn("Chunk section palettes are out of reach.  Chunk scans will look at every block", e);
+			return null;
+		}
+	}
+
+	private static boolean mayContainBranches(ExtendedBlockStorage section) {
+		return mayContain(section, block -> block instanceof BlockBranch);
+	}
+
+	/**
+	 * Look through the palette of a section for states of certain blocks.  The palette may still hold
+	 * states that have since been removed from the section so this can only rule sections out.
+	 *
+	 * @param section The chunk section
+	 * @param test Tests the block of each state in the palette
+	 * @return false if the section surely holds no block that passes the test
+	 */
+	public static boolean mayContain(ExtendedBlockStorage section, Predicate<Block> test) {
+		if(paletteField == null) {
+			return true;
+		}
+
+		IBlockStatePalette palette;
+		try {
+			palette = (IBlockStatePalette) paletteField.get(section.getData());
+		} catch (IllegalAccessException e) {
+			return true;
+		}
+
+		if(palette instanceof BlockStatePaletteRegistry) {
+			return true;//Every state in the game.  No help
+		}
+
+		for(int id = 0; id < MAX_PALETTE_SIZE; id++) {
+			IBlockState state = palette.getBlockState(id);
+			if(state == null) {
+				return false;//The ids of the smaller palettes have no gaps so this is the end
+			}
+			if(test.test(state.getBlock())) {
+				return true;
+			}
+		}
+
+		return true;
+	}
+
+	///////////////////////////////////////////
+	// SCAN
+	///////////////////////////////////////////
+
+	private static class Scan {
+
+		private final World world;
+		private final Mode mode;
+		@Nullable private final ICommandSender sender;
+
+		private final int minX;
+		private final int minZ;
+		private final int size;
+		private final int numChunks;
+
+		private int chunkIndex = 0;
+		private int sectionY = 0;
+
+		private final LongOpenHashSet visited = new LongOpenHashSet();//Nodes of intact networks the scan has yet to reach
+		private int networksRemoved = 0;
+		private final long startTime = System.currentTimeMillis();
+		private long lastReport;
+
+		private Scan(World world, ChunkPos cPos, int radius, Mode mode, @Nullable ICommandSender sender) {
+			this.world = world;
+			this.mode = mode;
+			this.sender = sender;
+			radius = Math.max(0, radius);
+			minX = cPos.x - radius;
+			minZ = cPos.z - radius;
+			size = radius * 2 + 1;
+			numChunks = size * size;
+			lastReport = world.getTotalWorldTime();
+		}
+
+		/**
+		 * @param deadline The {@link System#nanoTime()} to stop at
+		 * @return true if the scan is done
+		 */
+		private boolean run(long deadline) {
+			while(chunkIndex < numChunks) {
+				Chunk chunk = world.getChunkFromChunkCoords(minX + chunkIndex % size, minZ + chunkIndex / size);
+				ExtendedBlockStorage[] sections = chunk.getBlockStorageArray();
+				while(sectionY < sections.length) {
+					if(System.nanoTime() >= deadline) {
+						return false;
+					}
+					scanSection(chunk, sections[sectionY]);
+					sectionY++;
+				}
+				sectionY = 0;
+				chunkIndex++;
+			}
+			return true;
+		}
+
+		private void scanSection(Chunk chunk, ExtendedBlockStorage section) {
+			if(section == Chunk.NULL_BLOCK_STORAGE || section.isEmpty() || !mayContainBranches(section)) {
+				sectionsSkipped++;
+				return;
+			}
+			sectionsScanned++;
+
+			int baseX = chunk.x << 4;
+			int baseY = section.getYLocation();
+			int baseZ = chunk.z << 4;
+
+			for(int y = 0; y < 16; y++) {
+				for(int z = 0; z < 16; z++) {
+					for(int x = 0; x < 16; x++) {
+						IBlockState state = section.get(x, y, z);
+						BlockBranch branch = TreeHelper.getBranch(state);
+						if(branch != null) {
+							BlockPos pos = new BlockPos(baseX + x, baseY + y, baseZ + z);
+							if(!visited.remove(pos.toLong())) {
+								processBranch(branch, state, pos);
 							}
 						}
-						
 					}
 				}
 			}
 		}
-		
-	}
-	
-	public static void removeAllBranchesFromChunk(World world, ChunkPos cPos, int radius) {
-		
-		if(cPos == null) {
-			return;
+
+		private void processBranch(BlockBranch branch, IBlockState state, BlockPos pos) {
+			if(mode == Mode.CLEAR_ORPHANED) {
+				NodeTopology topology = new NodeTopology();
+				MapSignal signal = new MapSignal(topology);
+				signal.destroyLoopedNodes = false;
+				branch.analyse(state, world, pos, null, signal);
+
+				if(signal.found && !signal.multiroot && !signal.overflow) {//A healthy tree.  Don't map it again
+					for(long node : topology.getNodes()) {
+						if(isAhead(node)) {
+							visited.add(node);
+						}
+					}
+					return;
+				}
+				//No root node means all the nodes are orphans and multiple root nodes can't be resolved.  Either way destroy the entire network
+			}
+
+			BranchDestructionData destroyData = branch.destroyBranchFromNode(world, pos, EnumFacing.DOWN, true);
+			EntityFallingTree.dropTree(world, destroyData, new ArrayList<ItemStack>(0), DestroyType.ROOT);//Destroy the tree client side without fancy effects
+			networksRemoved++;
 		}
-		
-		Chunk chunk = world.getChunkFromChunkCoords(cPos.x, cPos.z);
-		BlockBounds bounds = new BlockBounds(cPos);
-		
-		bounds.shrink(EnumFacing.UP, 255 - (chunk.getTopFilledSegment() + 16));
-		for(EnumFacing dir: EnumFacing.HORIZONTALS) {
-			bounds.expand(dir, radius * 16);
-		}
-		
-		for(MutableBlockPos pos: bounds.iterate()) {
-			IBlockState state = world.getBlockState(pos);
-			Optional<BlockBranch> branchBlock = TreeHelper.getBranchOpt(state);
-			if(branchBlock.isPresent()) {
-				BranchDestructionData destroyData = branchBlock.get().destroyBranchFromNode(world, pos, EnumFacing.DOWN, true);
-				EntityFallingTree.dropTree(world, destroyData, new ArrayList<ItemStack>(0), DestroyType.ROOT);// Destroy the tree client side without fancy effects
+
+		/** @return true if the scan has yet to reach the section of the packed position */
+		private boolean isAhead(long packedPos) {
+			BlockPos pos = BlockPos.fromLong(packedPos);
+			int dx = (pos.getX() >> 4) - minX;
+			int dz = (pos.getZ() >> 4) - minZ;
+			if(dx < 0 || dx >= size || dz < 0 || dz >= size) {
+				return false;
 			}
+			int index = dz * size + dx;
+			return index > chunkIndex || (index == chunkIndex && pos.getY() >> 4 >= sectionY);
 		}
-		
+
+		private void report(boolean done) {
+			if(sender == null) {
+				return;
+			}
+
+			if(done) {
+				sender.sendMessage(new TextComponentString(String.format("%s done in %.1fs: %d chunks, %d networks removed",
+					mode.description, (System.currentTimeMillis() - startTime) / 1000f, numChunks, networksRemoved)));
+			} else if(world.getTotalWorldTime() - lastReport >= REPORT_INTERVAL) {
+				lastReport = world.getTotalWorldTime();
+				sender.sendMessage(new TextComponentString(String.format("%s: %d%% (%d/%d chunks), %d networks removed",
+					mode.description, chunkIndex * 100 / numChunks, chunkIndex, numChunks, networksRemoved)));
+			}
+		}
+
 	}
-	
+
 }
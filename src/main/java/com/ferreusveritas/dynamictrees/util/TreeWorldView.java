@@ -0,0 +1,236 @@
+package com.ferreusveritas.dynamictrees.util;
+
+import javax.annotation.Nullable;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * A view of the world for the duration of a tree operation(a grow signal, a network walk, a
+ * round of leaves aging).  The chunks the operation touches are looked up once and block
+ * states are then read straight out of the chunk sections.  Since the sections are the live
+ * ones the view never goes stale, even while the operation writes to the world directly.
+ *
+ * Writes made through the view are buffered and read back by the view until they are flushed
+ * to the world with the flags they were made with.  That happens when the outermost operation
+ * closes the view at the latest.
+ *
+ * Views are per thread and opened with {@link #open(World)}.  Code deep inside an operation
+ * gets at the open view with {@link #of(World)} which falls back to the world itself.
+ *
+ * @author ferreusveritas
+ */
+public class TreeWorldView implements IBlockAccess {
+
+	private static final ThreadLocal<TreeWorldView> views = ThreadLocal.withInitial(TreeWorldView::new);
+	private static final IBlockState AIR = Blocks.AIR.getDefaultState();
+
+	//Metrics for the profiler
+	public static long numReads;
+	public static long numWrites;//Changes made to the world, see WorldListener for the ones made around the view
+
+	private World world;
+	private boolean direct;//True if the chunks can't be read directly(debug worlds)
+	private int depth = 0;
+
+	private final Long2ObjectOpenHashMap<Chunk> chunks = new Long2ObjectOpenHashMap<>();
+	private Chunk lastChunk;
+
+	private final Long2ObjectLinkedOpenHashMap<IBlockState> writes = new Long2ObjectLinkedOpenHashMap<>();
+	private final Long2IntOpenHashMap writeFlags = new Long2IntOpenHashMap();
+
+	/**
+	 * Open the view of a world for this thread.  Operations may nest and only the outermost
+	 * one's {@link #close()} flushes the buffered writes.  Always close in a finally block.
+	 *
+	 * @param world The world
+	 * @return The view
+	 */
+	public static TreeWorldView open(World world) {
+		TreeWorldView view = views.get();
+		if(view.depth > 0 && view.world != world) {
+			view = new TreeWorldView();//Something is working on two worlds at once.  Not worth sharing
+		}
+		if(view.depth++ == 0) {
+			view.world = world;
+			view.direct = world.getWorldType() == WorldType.DEBUG_ALL_BLOCK_STATES;
+		}
+		return view;
+	}
+
+	/**
+	 * @param world The world
+	 * @return The view of the world open on this thread or the world itself if there isn't one
+	 */
+	public static IBlockAccess of(World world) {
+		TreeWorldView view = views.get();
+		return view.depth > 0 && view.world == world ? view : world;
+	}
+
+	/** Flush the buffered writes and forget the chunks if this closes the outermost operation */
+	public void close() {
+		if(--depth == 0) {
+			try {
+				flush();
+			} finally {
+				writes.clear();
+				writeFlags.clear();
+				chunks.clear();
+				lastChunk = null;
+				world = null;
+			}
+		}
+	}
+
+	public World getWorld() {
+		return world;
+	}
+
+	///////////////////////////////////////////
+	// WRITES
+	///////////////////////////////////////////
+
+	/**
+	 * Buffer a block change.  Reads through the view see it right away, the world doesn't see
+	 * it until it's flushed.
+	 *
+	 * @param pos The position
+	 * @param state The new state
+	 * @param flags The flags to hand to {@link World#setBlockState(BlockPos, IBlockState, int)}
+	 */
+	public void setBlockState(BlockPos pos, IBlockState state, int flags) {
+		long key = pos.toLong();
+		writes.put(key, state);
+		if(writeFlags.containsKey(key)) {//Keep every notification but only skip rerendering if both writes did
+			int old = writeFlags.get(key);
+			flags = ((old | flags) & 3) | (old & flags & ~3);
+		}
+		writeFlags.put(key, flags);
+	}
+
+	/** Apply the buffered writes to the world in the order they were made */
+	public void flush() {
+		if(writes.isEmpty()) {
+			return;
+		}
+
+		//Taken out of the buffer first since block callbacks may write through the view again
+		int size = writes.size(), i = 0;
+		long[] keys = new long[size];
+		IBlockState[] states = new IBlockState[size];
+		for(Long2ObjectMap.Entry<IBlockState> entry : writes.long2ObjectEntrySet()) {
+			keys[i] = entry.getLongKey();
+			states[i++] = entry.getValue();
+		}
+		int[] flags = new int[size];
+		for(i = 0; i < size; i++) {
+			flags[i] = writeFlags.get(keys[i]);
+		}
+		writes.clear();
+		writeFlags.clear();
+
+		for(i = 0; i < size; i++) {
+			if(world.setBlockState(BlockPos.fromLong(keys[i]), states[i], flags[i]) && (flags[i] & 2) == 0) {
+				numWrites++;//The world listener doesn't hear about changes that aren't sent to the clients
+			}
+		}
+	}
+
+	///////////////////////////////////////////
+	// READS
+	///////////////////////////////////////////
+
+	@Nullable
+	private Chunk getChunk(int chunkX, int chunkZ) {
+		if(lastChunk != null && lastChunk.x == chunkX && lastChunk.z == chunkZ) {
+			return lastChunk;
+		}
+
+		long key = ChunkPos.asLong(chunkX, chunkZ);
+		Chunk chunk = chunks.get(key);
+		if(chunk == null) {
+			chunk = world.getChunkProvider().getLoadedChunk(chunkX, chunkZ);
+			if(chunk == null) {
+				return null;
+			}
+			chunks.put(key, chunk);
+		}
+		return lastChunk = chunk;
+	}
+
+	@Override
+	public IBlockState getBlockState(BlockPos pos) {
+		numReads++;
+		if(!writes.isEmpty()) {
+			IBlockState state = writes.get(pos.toLong());
+			if(state != null) {
+				return state;
+			}
+		}
+
+		int y = pos.getY();
+		if(y < 0 || y >= 256) {
+			return AIR;
+		}
+
+		Chunk chunk = direct ? null : getChunk(pos.getX() >> 4, pos.getZ() >> 4);
+		if(chunk == null) {
+			return world.getBlockState(pos);//Let the world decide what to do about chunks that aren't loaded
+		}
+
+		ExtendedBlockStorage section = chunk.getBlockStorageArray()[y >> 4];
+		return section == Chunk.NULL_BLOCK_STORAGE ? AIR : section.get(pos.getX() & 15, y & 15, pos.getZ() & 15);
+	}
+
+	@Override
+	@Nullable
+	public TileEntity getTileEntity(BlockPos pos) {
+		return world.getTileEntity(pos);
+	}
+
+	@Override
+	public int getCombinedLight(BlockPos pos, int lightValue) {
+		return world.getCombinedLight(pos, lightValue);
+	}
+
+	@Override
+	public boolean isAirBlock(BlockPos pos) {
+		IBlockState state = getBlockState(pos);
+		return state.getBlock().isAir(state, this, pos);
+	}
+
+	@Override
+	public Biome getBiome(BlockPos pos) {
+		return world.getBiome(pos);
+	}
+
+	@Override
+	public int getStrongPower(BlockPos pos, EnumFacing direction) {
+		return world.getStrongPower(pos, direction);
+	}
+
+	@Override
+	public WorldType getWorldType() {
+		return world.getWorldType();
+	}
+
+	@Override
+	public boolean isSideSolid(BlockPos pos, EnumFacing side, boolean _default) {
+		return world.isSideSolid(pos, side, _default);
+	}
+
+}
@@ -18,11 +18,31 @@ public class BiomeRadiusCoordinator implements IRadiusCoordinator {
 	protected final World world;
 	protected int pass;
 	protected Function<Integer, Integer> chunkMultipass;
+	protected final Function<BlockPos, Biome> biomeLookup;
+	protected final Random densityRandom;//Null when the density is drawn from world.rand
 	
 	public BiomeRadiusCoordinator(TreeGenerator treeGenerator, World world) {
 		noiseGenerator = new NoiseGeneratorPerlin(new Random(96), 1);
 		this.world = world;
 		this.treeGenerator = treeGenerator;
+		this.biomeLookup = world::getBiome;
+		this.densityRandom = null;
+	}
+	
+	/**
+	 * A coordinator that can be used away from the server thread.  The density is drawn from a
+	 * random seeded from the world seed and the coordinates in place of world.rand so the radius
+	 * doesn't depend on when or on which thread it's worked out.  The layout is not the same as
+	 * what the coordinator for the world comes up with.
+	 * 
+	 * @param biomeLookup Used in place of world.getBiome
+	 */
+	public BiomeRadiusCoordinator(TreeGenerator treeGenerator, World world, Function<BlockPos, Biome> biomeLookup) {
+		noiseGenerator = new NoiseGeneratorPerlin(new Random(96), 1);
+		this.world = world;
+		this.treeGenerator = treeGenerator;
+		this.biomeLookup = biomeLookup;
+		this.densityRandom = new Random();
 	}
 	
 	@Override
@@ -34,9 +54,9 @@ public class BiomeRadiusCoordinator implements IRadiusCoordinator {
 		}
 		
 		double scale = 128;//Effectively scales up the noisemap
-		Biome biome = world.getBiome(new BlockPos(x + 8, 0, z + 8));//Placement is offset by +8,+8
+		Biome biome = biomeLookup.apply(new BlockPos(x + 8, 0, z + 8));//Placement is offset by +8,+8
 		double noiseDensity = (noiseGenerator.getValue(x / scale, z / scale) + 1D) / 2.0D;//Gives 0.0 to 1.0
-		double density = treeGenerator.getBiomeDataBase(world).getDensity(biome).getDensity(world.rand, noiseDensity);
+		double density = treeGenerator.getBiomeDataBase(world).getDensity(biome).getDensity(getDensityRandom(x, z), noiseDensity);
 		double size = ((1.0 - density) * 9);//Size is the inverse of density(Gives 0 to 9)
 		
 		//Oh Joy. Random can potentially start with the same number for each chunk. Let's just 
@@ -48,12 +68,20 @@ public class BiomeRadiusCoordinator implements IRadiusCoordinator {
 		return MathHelper.clamp((int) size, 2 + shakelow, 8 - shakehigh);//Clamp to tree volume radius range
 	}
 	
+	protected Random getDensityRandom(int x, int z) {
+		if(densityRandom == null) {
+			return world.rand;
+		}
+		densityRandom.setSeed(world.getSeed() ^ (x * 341873128712L + z * 132897987541L));
+		return densityRandom;
+	}
+	
 	@Override
 	public boolean runPass(int chunkX, int chunkZ, int pass) {
 		this.pass = pass;
 		
 		if(pass == 0) {
-			Biome biome = world.getBiome(new BlockPos((chunkX << 4) + 8, 0, (chunkZ << 4) + 8));//Aim at center of chunk
+			Biome biome = biomeLookup.apply(new BlockPos((chunkX << 4) + 8, 0, (chunkZ << 4) + 8));//Aim at center of chunk
 			chunkMultipass = treeGenerator.getBiomeDataBase(world).getMultipass(biome);
 		}
 		
@@ -1,6 +1,7 @@
 package com.ferreusveritas.dynamictrees.worldgen;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -19,15 +20,18 @@ import com.ferreusveritas.dynamictrees.blocks.BlockDynamicLeaves;
 import com.ferreusveritas.dynamictrees.blocks.LeavesProperties;
 import com.ferreusveritas.dynamictrees.cells.LeafClusters;
 import com.ferreusveritas.dynamictrees.event.SpeciesPostGenerationEvent;
+import com.ferreusveritas.dynamictrees.systems.EndpointTracker;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeCoder;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeCollector;
 import com.ferreusveritas.dynamictrees.systems.nodemappers.NodeFindEnds;
 import com.ferreusveritas.dynamictrees.trees.Species;
 import com.ferreusveritas.dynamictrees.trees.TreeFamily;
+import com.ferreusveritas.dynamictrees.util.BlockBounds;
 import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
 import com.ferreusveritas.dynamictrees.util.SimpleVoxmap;
 import com.ferreusveritas.dynamictrees.util.SimpleVoxmap.Cell;
 
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import net.minecraft.block.Block;
 import net.minecraft.block.material.Material;
 import net.minecraft.block.state.IBlockState;
@@ -36,6 +40,7 @@ import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.BlockPos.MutableBlockPos;
 import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.IBlockAccess;
 import net.minecraft.world.World;
 import net.minecraft.world.biome.Biome;
 import net.minecraftforge.common.MinecraftForge;
@@ -54,6 +59,7 @@ public class JoCode {
 	static protected final byte returnCode = 7;
 	
 	public static boolean secondChanceRegen = false;//Ensures second chance regen doesn't recurse too far
+	public static final BlockPos COMPILE_ROOT = new BlockPos(0, 64, 0);//Where precompiled codes are rooted
 	
 	public byte[] instructions = new byte[0];
 	protected boolean careful = false;//If true the code checks for surrounding branches while building to avoid making frankentrees.  Safer but slower.
@@ -129,11 +135,15 @@ public class JoCode {
 	 * @return
 	 */
 	public JoCode setFacing(EnumFacing facing) {
+		facingMap = dirmap[facing.ordinal()];
+		unfacingMap = getUnfacingMap(facing);
+		return this;
+	}
+	
+	protected byte[] getUnfacingMap(EnumFacing facing) {
 		int faceNum = facing.ordinal();
-		facingMap = dirmap[faceNum];
 		faceNum = (faceNum == 4) ? 5 : (faceNum == 5) ? 4 : faceNum;//Swap West and East
-		unfacingMap = dirmap[faceNum];
-		return this;
+		return dirmap[faceNum];
 	}
 	
 	/**
@@ -162,8 +172,6 @@ public class JoCode {
 	 */
 	public void generate(World world, Species species, BlockPos rootPosIn, Biome biome, EnumFacing facing, int radius, SafeChunkBounds safeBounds) {
 		
-		boolean worldGen = safeBounds != SafeChunkBounds.ANY;
-		
 		//A Tree generation boundary radius is at least 2 and at most 8
 		radius = MathHelper.clamp(radius, 2, 8);
 		
@@ -171,87 +179,384 @@ public class JoCode {
 		BlockPos rootPos = species.preGeneration(world, rootPosIn, radius, facing, safeBounds, this);
 		
 		if(rootPos != BlockPos.ORIGIN) {
-			IBlockState initialDirtState = world.getBlockState(rootPos);//Save the initial state of the dirt in case this fails
-			species.placeRootyDirtBlock(world, rootPos, 0);//Set to unfertilized rooty dirt
-			
-			//Make the tree branch structure
+			generateAt(world, species, rootPosIn, rootPos, biome, facing, radius, safeBounds);
+		}
+	}
+	
+	/**
+	 * Generate a tree from a JoCode instruction list after the pre-generation features have already been run.
+	 * 
+	 * @param world The world
+	 * @param rootPosIn The position the tree was originally meant for.  Used if the tree has to be generated again
+	 * @param rootPos The position of what will become the rootydirt block
+	 * @param biome The biome of the coordinates.
+	 * @param facing Direction of tree
+	 * @param radius Constraint radius(already clamped)
+	 */
+	public void generateAt(World world, Species species, BlockPos rootPosIn, BlockPos rootPos, Biome biome, EnumFacing facing, int radius, SafeChunkBounds safeBounds) {
+		setFacing(facing);
+		
+		//Stamp the precompiled tree if nothing is in it's way
+		TreeBlueprint compiled = species.getJoCodeStore() != null ? species.getJoCodeStore().getBlueprint(this, facing, radius) : null;
+		if(compiled != null) {
+			TreeBlueprint blueprint = compiled.moveTo(rootPos);
+			if(blueprint.fits(world) && generate(world, species, blueprint, biome, safeBounds)) {
+				return;
+			}
+		}
+		
+		IBlockState initialDirtState = world.getBlockState(rootPos);//Save the initial state of the dirt in case this fails
+		species.placeRootyDirtBlock(world, rootPos, 0);//Set to unfertilized rooty dirt
+		
+		//Make the tree branch structure
+		EndpointTracker.suspend();//The endpoints are set all at once below
+		try {
 			generateFork(world, species, 0, rootPos, false);
+		} finally {
+			EndpointTracker.resume();
+		}
+		
+		// Establish a position for the bottom block of the trunk
+		BlockPos treePos = rootPos.up();
+		
+		// Fix branch thicknesses and map out leaf locations
+		IBlockState treeState = world.getBlockState(treePos);
+		BlockBranch branch = TreeHelper.getBranch(treeState);
+		if(branch != null) {// If a branch exists then the growth was successful
+			ILeavesProperties leavesProperties = species.getLeavesProperties();
+			SimpleVoxmap leafMap = new SimpleVoxmap(radius * 2 + 1, species.getWorldGenLeafMapHeight(), radius * 2 + 1).setMapAndCenter(treePos, new BlockPos(radius, 0, radius));
+			INodeInspector inflator = species.getNodeInflator(leafMap);// This is responsible for thickening the branches
+			NodeFindEnds endFinder = new NodeFindEnds();// This is responsible for gathering a list of branch end points
+			MapSignal signal = new MapSignal(inflator, endFinder);// The inflator signal will "paint" a temporary voxmap of all of the leaves and branches.
+			signal.destroyLoopedNodes = careful;// During worldgen we will not destroy looped nodes
+			branch.analyse(treeState, world, treePos, EnumFacing.DOWN, signal);
+			if(signal.found || signal.overflow) {// Something went terribly wrong.
+				DynamicTrees.log.debug("Non-viable branch network detected during world generation @ " + treePos);
+				DynamicTrees.log.debug("Species: " + species);
+				DynamicTrees.log.debug("Radius: " + radius);
+				DynamicTrees.log.debug("JoCode: " + this);
+				
+				// Completely blow away any improperly defined network nodes
+				cleanupFrankentree(world, treePos, treeState, endFinder.getEnds(), safeBounds);
+				// Now that everything is clear we may as well regenerate the tree that screwed everything up.
+				if(!secondChanceRegen) {
+					secondChanceRegen = true;
+					generate(world, species, rootPosIn, biome, facing, radius, safeBounds);
+				}
+				secondChanceRegen = false;
+				return;
+			}
+			List<BlockPos> endPoints = endFinder.getEnds();
+			EndpointTracker.setEnds(world, rootPos, endPoints);
 			
-			// Establish a position for the bottom block of the trunk
-			BlockPos treePos = rootPos.up();
+			smother(leafMap, leavesProperties);//Use the voxmap to precompute leaf smothering so we don't have to age it as many times.
 			
-			// Fix branch thicknesses and map out leaf locations
-			IBlockState treeState = world.getBlockState(treePos);
-			BlockBranch branch = TreeHelper.getBranch(treeState);
-			if(branch != null) {// If a branch exists then the growth was successful
-				ILeavesProperties leavesProperties = species.getLeavesProperties();
-				SimpleVoxmap leafMap = new SimpleVoxmap(radius * 2 + 1, species.getWorldGenLeafMapHeight(), radius * 2 + 1).setMapAndCenter(treePos, new BlockPos(radius, 0, radius));
-				INodeInspector inflator = species.getNodeInflator(leafMap);// This is responsible for thickening the branches
-				NodeFindEnds endFinder = new NodeFindEnds();// This is responsible for gathering a list of branch end points
-				MapSignal signal = new MapSignal(inflator, endFinder);// The inflator signal will "paint" a temporary voxmap of all of the leaves and branches.
-				signal.destroyLoopedNodes = careful;// During worldgen we will not destroy looped nodes
-				branch.analyse(treeState, world, treePos, EnumFacing.DOWN, signal);
-				if(signal.found || signal.overflow) {// Something went terribly wrong.
-					DynamicTrees.log.debug("Non-viable branch network detected during world generation @ " + treePos);
-					DynamicTrees.log.debug("Species: " + species);
-					DynamicTrees.log.debug("Radius: " + radius);
-					DynamicTrees.log.debug("JoCode: " + this);
-					
-					// Completely blow away any improperly defined network nodes
-					cleanupFrankentree(world, treePos, treeState, endFinder.getEnds(), safeBounds);
-					// Now that everything is clear we may as well regenerate the tree that screwed everything up.
-					if(!secondChanceRegen) {
-						secondChanceRegen = true;
-						generate(world, species, rootPosIn, biome, facing, radius, safeBounds);
-					}
-					secondChanceRegen = false;
-					return;
+			finishGeneration(world, species, rootPos, biome, radius, leafMap, endPoints, initialDirtState, safeBounds);
+		} else { //The growth failed.. turn the soil back to what it was
+			world.setBlockState(rootPos, initialDirtState, careful ? 3 : 2);
+		}
+	}
+	
+	/**
+	 * Generate a tree from a blueprint made by {@link #plan}.  Only the block writes are left to do.
+	 * The pre-generation features were already run before the tree was planned.
+	 * 
+	 * @param world The world
+	 * @param species The species of the tree
+	 * @param blueprint The finished plan of the tree
+	 * @param biome The biome of the coordinates.
+	 * @param safeBounds The area that is safe to place blocks in
+	 * @return false if the branches can no longer be placed.  Nothing was changed in that case
+	 */
+	public boolean generate(World world, Species species, TreeBlueprint blueprint, Biome biome, SafeChunkBounds safeBounds) {
+		BlockPos rootPos = blueprint.rootPos;
+		
+		for(int i = 0; i < blueprint.getNumBranches(); i++) {
+			BlockPos pos = blueprint.getBranchPos(i);
+			if(!world.getBlockState(pos).getBlock().isReplaceable(world, pos)) {
+				return false;//Something moved in since the tree was planned
+			}
+		}
+		
+		IBlockState initialDirtState = world.getBlockState(rootPos);//Save the initial state of the dirt in case this fails
+		species.placeRootyDirtBlock(world, rootPos, 0);//Set to unfertilized rooty dirt
+		
+		//Place the branches at their inflated thickness right away
+		BlockBranch branch = species.getFamily().getDynamicBranch();
+		EndpointTracker.suspend();
+		try {
+			for(int i = 0; i < blueprint.getNumBranches(); i++) {
+				branch.setRadius(world, blueprint.getBranchPos(i), blueprint.getRadius(i), null, careful ? 3 : 2);
+			}
+		} finally {
+			EndpointTracker.resume();
+		}
+		
+		List<BlockPos> endPoints = new ArrayList<>(blueprint.getEndPoints());
+		EndpointTracker.setEnds(world, rootPos, endPoints);
+		
+		finishGeneration(world, species, rootPos, biome, blueprint.radius, blueprint.getLeafMap(), endPoints, initialDirtState, safeBounds);
+		return true;
+	}
+	
+	/**
+	 * Place the leaves from a finished leaf map, age them and decorate the tree.
+	 */
+	protected void finishGeneration(World world, Species species, BlockPos rootPos, Biome biome, int radius, SimpleVoxmap leafMap, List<BlockPos> endPoints, IBlockState initialDirtState, SafeChunkBounds safeBounds) {
+		boolean worldGen = safeBounds != SafeChunkBounds.ANY;
+		ILeavesProperties leavesProperties = species.getLeavesProperties();
+		BlockPos treePos = rootPos.up();
+		
+		//Place Growing Leaves Blocks from voxmap
+		for(Cell cell: leafMap.getAllNonZeroCells((byte) 0x0F)) {//Iterate through all of the cells that are leaves(not air or branches)
+			MutableBlockPos cellPos = cell.getPos();
+			if(safeBounds.inBounds(cellPos, false)) {
+				IBlockState testBlockState = world.getBlockState(cellPos);
+				Block testBlock = testBlockState.getBlock();
+				if(testBlock.isReplaceable(world, cellPos)) {
+					world.setBlockState(cellPos, leavesProperties.getDynamicLeavesState(cell.getValue()), worldGen ? 16 : 2);//Flag 16 to prevent observers from causing cascading lag
 				}
-				List<BlockPos> endPoints = endFinder.getEnds();
-				
-				smother(leafMap, leavesProperties);//Use the voxmap to precompute leaf smothering so we don't have to age it as many times.
-				
-				//Place Growing Leaves Blocks from voxmap
-				for(Cell cell: leafMap.getAllNonZeroCells((byte) 0x0F)) {//Iterate through all of the cells that are leaves(not air or branches)
-					MutableBlockPos cellPos = cell.getPos();
-					if(safeBounds.inBounds(cellPos, false)) {
-						IBlockState testBlockState = world.getBlockState(cellPos);
-						Block testBlock = testBlockState.getBlock();
-						if(testBlock.isReplaceable(world, cellPos)) {
-							world.setBlockState(cellPos, leavesProperties.getDynamicLeavesState(cell.getValue()), worldGen ? 16 : 2);//Flag 16 to prevent observers from causing cascading lag
-						}
-					} else {
-						leafMap.setVoxel(cellPos, (byte) 0);
+			} else {
+				leafMap.setVoxel(cellPos, (byte) 0);
+			}
+		}
+		
+		//Shrink the leafMap down by the safeBounds object so that the aging process won't look for neighbors outside of the bounds.
+		for(Cell cell: leafMap.getAllNonZeroCells()) {
+			MutableBlockPos cellPos = cell.getPos();
+			if(!safeBounds.inBounds(cellPos, true)) {
+				leafMap.setVoxel(cellPos, (byte) 0);
+			}
+		}
+		
+		//Age volume using a leafmap.  The hydration settles completely and the leaves get to grow as many times as the species wants
+		TreeHelper.ageVolume(world, leafMap, species.getWorldGenAgeIterations(), safeBounds);
+		
+		//Rot the unsupported branches
+		if(species.handleRot(world, endPoints, rootPos, treePos, 0, safeBounds)) {
+			return;//The entire tree rotted away before it had a chance
+		}
+		
+		//Allow for special decorations by the tree itself
+		species.postGeneration(world, rootPos, biome, radius, endPoints, safeBounds, initialDirtState);
+		MinecraftForge.EVENT_BUS.post(new SpeciesPostGenerationEvent(world, species, rootPos, endPoints, safeBounds, initialDirtState));
+		
+		//Add snow to parts of the tree in chunks where snow was already placed
+		addSnow(leafMap, world, rootPos, biome);
+	}
+	
+	///////////////////////////////////////////
+	// PLANNING
+	///////////////////////////////////////////
+	
+	/**
+	 * Work out everything {@link #generateAt} would do to make a tree without touching the world.
+	 * This is safe to call from any thread since it only reads from the snapshot and doesn't
+	 * use the active facing of this code.
+	 * 
+	 * The plan follows the same steps as generateAt: the instructions are drawn into the
+	 * snapshot, the branches are inflated in the same order the node inflator would visit them,
+	 * the leaf clusters are stamped and smothered.  Trees that would have needed the frankentree
+	 * cleanup are not planned at all.
+	 * 
+	 * @param snapshot A copy of the world around the tree.  Planned branches are layered onto it
+	 * @param species The species of the tree
+	 * @param rootPos The position of what will become the rootydirt block(after pre-generation)
+	 * @param facing Direction of tree
+	 * @param radius Constraint radius(already clamped)
+	 * @return The blueprint or null if the tree couldn't be planned and has to be generated directly
+	 */
+	public TreeBlueprint plan(WorldGenSnapshot snapshot, Species species, BlockPos rootPos, EnumFacing facing, int radius) {
+		TreeFamily family = species.getFamily();
+		BlockBranch branch = family.getDynamicBranch();
+		BlockPos treePos = rootPos.up();
+		int leafMapHeight = species.getWorldGenLeafMapHeight();
+		
+		//Only the area the leaf map covers is planned.  The snapshot has a one block border for the neighbor checks
+		BlockBounds planBounds = new BlockBounds(treePos.add(-radius, 0, -radius), treePos.add(radius, leafMapHeight - 1, radius));
+		
+		//Draw the branch structure
+		List<BlockPos> nodes = new ArrayList<>();
+		IBlockState twigState = branch.getStateForRadius((int)family.getPrimaryThickness());
+		if(planFork(snapshot, getUnfacingMap(facing), 0, rootPos, false, twigState, planBounds, nodes) < 0 || nodes.isEmpty() || !nodes.get(0).equals(treePos)) {
+			return null;
+		}
+		
+		Long2IntOpenHashMap nodeIndex = new Long2IntOpenHashMap(nodes.size());
+		nodeIndex.defaultReturnValue(-1);
+		for(int i = 0; i < nodes.size(); i++) {
+			nodeIndex.put(nodes.get(i).toLong(), i);
+		}
+		
+		//The network must be a clean tree that touches nothing else.  Otherwise the analysis in generateAt would have found a loop or another tree
+		int edges = 0;
+		for(BlockPos node : nodes) {
+			for(EnumFacing dir: EnumFacing.VALUES) {
+				BlockPos dPos = node.offset(dir);
+				if(nodeIndex.get(dPos.toLong()) >= 0) {
+					edges++;
+				} else if(dPos.equals(rootPos) ? node != nodes.get(0) : TreeHelper.getTreePart(snapshot.getBlockState(dPos)).shouldAnalyse()) {
+					return null;
+				}
+			}
+		}
+		if(edges != (nodes.size() - 1) * 2) {
+			return null;
+		}
+		
+		//Inflate the branches and map out the leaves exactly as the NodeInflator and NodeFindEnds would
+		SimpleVoxmap leafMap = new SimpleVoxmap(radius * 2 + 1, leafMapHeight, radius * 2 + 1).setMapAndCenter(treePos, new BlockPos(radius, 0, radius));
+		SimpleVoxmap leafCluster = species.getLeavesProperties().getCellKit().getLeafCluster();
+		float primaryThickness = family.getPrimaryThickness();
+		float secondaryThickness = family.getSecondaryThickness();
+		int maxRadius = species.maxBranchRadius();
+		float taper = species.getTapering() * species.getWorldGenTaperingFactor();
+		
+		byte[] radii = new byte[nodes.size()];
+		Arrays.fill(radii, (byte) TreeHelper.getTreePart(twigState).getRadius(twigState));
+		List<BlockPos> endPoints = new ArrayList<>();
+		
+		int[] stack = new int[nodes.size()];
+		EnumFacing[] from = new EnumFacing[nodes.size()];
+		byte[] next = new byte[nodes.size()];
+		int top = 0;
+		stack[0] = 0;
+		from[0] = EnumFacing.DOWN;
+		float inflated = primaryThickness;
+		BlockPos last = BlockPos.ORIGIN;
+		
+		while(top >= 0) {
+			int node = stack[top];
+			if(next[node] < EnumFacing.VALUES.length) {
+				EnumFacing dir = EnumFacing.VALUES[next[node]++];
+				if(dir != from[node]) {
+					int child = nodeIndex.get(nodes.get(node).offset(dir).toLong());
+					if(child >= 0) {
+						stack[++top] = child;
+						from[child] = dir.getOpposite();
+						inflated = primaryThickness;//NodeInflator.run
 					}
 				}
-				
-				//Shrink the leafMap down by the safeBounds object so that the aging process won't look for neighbors outside of the bounds.
-				for(Cell cell: leafMap.getAllNonZeroCells()) {
-					MutableBlockPos cellPos = cell.getPos();
-					if(!safeBounds.inBounds(cellPos, true)) {
-						leafMap.setVoxel(cellPos, (byte) 0);
+				continue;
+			}
+			
+			//NodeInflator.returnRun
+			BlockPos pos = nodes.get(node);
+			float areaAccum = inflated * inflated;
+			boolean isTwig = true;
+			for(EnumFacing dir: EnumFacing.VALUES) {
+				if(dir != from[node]) {
+					BlockPos dPos = pos.offset(dir);
+					if(dPos.equals(last)) {
+						isTwig = false;
+						continue;
+					}
+					int neighbor = nodeIndex.get(dPos.toLong());
+					if(neighbor >= 0) {
+						areaAccum += radii[neighbor] * radii[neighbor];
 					}
 				}
-				
-				//Age volume for 3 cycles using a leafmap
-				TreeHelper.ageVolume(world, leafMap, species.getWorldGenAgeIterations(), safeBounds);
-				
-				//Rot the unsupported branches
-				if(species.handleRot(world, endPoints, rootPos, treePos, 0, safeBounds)) {
-					return;//The entire tree rotted away before it had a chance
+			}
+			
+			if(isTwig) {
+				leafMap.setVoxel(pos, (byte) 16);
+				leafMap.blitMax(pos, leafCluster);
+			} else {
+				inflated = (float)Math.sqrt(areaAccum) + taper;
+				if(inflated > maxRadius) {
+					inflated = maxRadius;
 				}
-				
-				//Allow for special decorations by the tree itself
-				species.postGeneration(world, rootPos, biome, radius, endPoints, safeBounds, initialDirtState);
-				MinecraftForge.EVENT_BUS.post(new SpeciesPostGenerationEvent(world, species, rootPos, endPoints, safeBounds, initialDirtState));
-				
-				//Add snow to parts of the tree in chunks where snow was already placed
-				addSnow(leafMap, world, rootPos, biome);
-				
-			} else { //The growth failed.. turn the soil back to what it was
-				world.setBlockState(rootPos, initialDirtState, careful ? 3 : 2);
+				if(inflated < secondaryThickness) {
+					inflated = secondaryThickness;
+				}
+				IBlockState state = branch.getStateForRadius((int)Math.floor(inflated));
+				radii[node] = (byte) TreeHelper.getTreePart(state).getRadius(state);
+				snapshot.setPlannedState(pos, state);
+				leafMap.setVoxel(pos, (byte) 32);
+			}
+			
+			//NodeFindEnds.returnRun
+			BlockPos dPos = pos.subtract(last);
+			if(dPos.getX() * dPos.getX() + dPos.getY() * dPos.getY() + dPos.getZ() * dPos.getZ() != 1) {
+				endPoints.add(pos);
 			}
+			
+			last = pos;
+			top--;
+		}
+		
+		if(endPoints.isEmpty()) {
+			endPoints.add(last);
 		}
+		
+		smother(leafMap, species.getLeavesProperties());
+		
+		long[] branches = new long[nodes.size()];
+		for(int i = 0; i < branches.length; i++) {
+			branches[i] = nodes.get(i).toLong();
+		}
+		
+		return new TreeBlueprint(rootPos, radius, branches, radii, leafMap, endPoints);
+	}
+	
+	/**
+	 * Draw the tree into empty space so the result can be cached and stamped wherever nothing is
+	 * in the way.  The leaves are hydrated against each other as if they had nothing around them.
+	 * 
+	 * @param species The species of the tree
+	 * @param facing Direction of tree
+	 * @param radius Constraint radius(already clamped)
+	 * @return The blueprint rooted at {@link #COMPILE_ROOT} or null if the code can't be drawn without help from the world
+	 */
+	public TreeBlueprint compile(Species species, EnumFacing facing, int radius) {
+		BlockPos treePos = COMPILE_ROOT.up();
+		WorldGenSnapshot snapshot = new WorldGenSnapshot(treePos.add(-radius - 1, -1, -radius - 1), treePos.add(radius + 1, species.getWorldGenLeafMapHeight(), radius + 1));
+		snapshot.setPlannedState(COMPILE_ROOT, Blocks.DIRT.getDefaultState());//Stands in for the rooty dirt
+		
+		TreeBlueprint blueprint = plan(snapshot, species, COMPILE_ROOT, facing, radius);
+		if(blueprint != null) {
+			TreePlanner.solveLeaves(blueprint.getLeafMap(), snapshot, species.getLeavesProperties(), SafeChunkBounds.ANY);
+		}
+		return blueprint;
+	}
+	
+	/**
+	 * Draws a branch into the snapshot the same way {@link #generateFork} draws it into the world.
+	 * 
+	 * @return The next code position or -1 if the branch left the planned area
+	 */
+	protected int planFork(WorldGenSnapshot snapshot, byte[] unfacing, int codePos, BlockPos pos, boolean disabled, IBlockState twigState, BlockBounds planBounds, List<BlockPos> nodes) {
+		
+		while(codePos < instructions.length) {
+			int code = unfacing[instructions[codePos]];
+			switch(code) {
+				case forkCode:
+					codePos = planFork(snapshot, unfacing, codePos + 1, pos, disabled, twigState, planBounds, nodes);
+					if(codePos < 0) {
+						return -1;
+					}
+					break;
+				case returnCode: return codePos + 1;
+				default:
+					EnumFacing dir = EnumFacing.getFront(code);
+					pos = pos.offset(dir);
+					if(!disabled) {
+						if(!planBounds.inBounds(pos)) {
+							return -1;
+						}
+						if(snapshot.getBlockState(pos).getBlock().isReplaceable(snapshot, pos) && (!careful || isClearOfNearbyBranches(snapshot, pos, dir.getOpposite()))) {
+							snapshot.setPlannedState(pos, twigState);
+							nodes.add(pos);
+						} else {
+							disabled = true;
+						}
+					}
+					codePos++;
+					break;
+			}
+		}
+		
+		return codePos;
 	}
 	
 	/** Attempt to clean up fused trees that have multiple root blocks by simply destroying them both messily */
@@ -403,7 +708,7 @@ public class JoCode {
 		
 	}
 	
-	protected boolean isClearOfNearbyBranches(World world, BlockPos pos, EnumFacing except) {
+	protected boolean isClearOfNearbyBranches(IBlockAccess world, BlockPos pos, EnumFacing except) {
 		
 		for(EnumFacing dir: EnumFacing.VALUES) {
 			if(dir != except && TreeHelper.getBranch(world.getBlockState(pos.offset(dir))) != null) {
@@ -7,13 +7,17 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.ferreusveritas.dynamictrees.ModConfigs;
 import com.ferreusveritas.dynamictrees.ModConstants;
 import com.ferreusveritas.dynamictrees.trees.Species;
 
+import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.MathHelper;
 
 /**
@@ -28,6 +32,7 @@ public class JoCodeStore {
 
 	ArrayList<ArrayList<JoCode>> store = new ArrayList<ArrayList<JoCode>>(7);//Radius values 2,3,4,5,6,7,8
 	Species species;
+	Map<JoCode, TreeBlueprint[]> blueprints = new IdentityHashMap<>();//Precompiled codes.  One blueprint for each horizontal facing
 	
 	public JoCodeStore(Species tree) {
 		this.species = tree;
@@ -80,5 +85,38 @@ public class JoCodeStore {
 		
 		return null;
 	}
+	
+	/**
+	 * Get the precompiled blueprint of one of the codes in this store.  The code is drawn into empty
+	 * space once for each of the four facings the first time it's asked for and the blueprints are
+	 * kept for the life of the store.  Must be called from the server thread.
+	 * 
+	 * @param code A code from this store
+	 * @param facing Direction of tree
+	 * @param radius Constraint radius(already clamped)
+	 * @return The blueprint with it's root at {@link JoCode#COMPILE_ROOT} or null if the code can't be precompiled
+	 */
+	public TreeBlueprint getBlueprint(JoCode code, EnumFacing facing, int radius) {
+		if(!ModConfigs.precompileJoCodes || facing.getHorizontalIndex() < 0) {
+			return null;
+		}
+		
+		TreeBlueprint[] compiled = blueprints.get(code);
+		if(compiled == null) {
+			if(!getListForRadius(radius).stream().anyMatch(c -> c == code)) {
+				return null;//Not one of ours
+			}
+			compiled = new TreeBlueprint[EnumFacing.HORIZONTALS.length];
+			if(code.getClass() == JoCode.class && TreePlanner.isPlannable(species)) {//Custom codes and inflators may draw trees differently
+				for(EnumFacing dir : EnumFacing.HORIZONTALS) {
+					compiled[dir.getHorizontalIndex()] = code.compile(species, dir, radius);
+				}
+			}
+			blueprints.put(code, compiled);
+		}
+		
+		TreeBlueprint blueprint = compiled[facing.getHorizontalIndex()];
+		return blueprint != null && blueprint.radius == radius ? blueprint : null;
+	}
 
 }
@@ -0,0 +1,135 @@
+package com.ferreusveritas.dynamictrees.worldgen;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.util.BlockBounds;
+import com.ferreusveritas.dynamictrees.util.SimpleVoxmap;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.world.IBlockAccess;
+
+/**
+ * The finished plan of a worldgen tree.  Holds the branches in placement order with their
+ * inflated radii, the smothered leaf map with the leaves already hydrated and the endpoints
+ * of the branch network.  All that is left to do on the server thread is to place the blocks.
+ *
+ * @author ferreusveritas
+ */
+public class TreeBlueprint {
+
+	public final BlockPos rootPos;
+	public final BlockPos treePos;
+	public final int radius;
+
+	private final long[] branches;//Packed positions in the order that the JoCode placed them
+	private final byte[] radii;
+	private final SimpleVoxmap leafMap;
+	private final List<BlockPos> endPoints;
+	private BlockBounds footprint;
+
+	public TreeBlueprint(BlockPos rootPos, int radius, long[] branches, byte[] radii, SimpleVoxmap leafMap, List<BlockPos> endPoints) {
+		this.rootPos = rootPos;
+		this.treePos = rootPos.up();
+		this.radius = radius;
+		this.branches = branches;
+		this.radii = radii;
+		this.leafMap = leafMap;
+		this.endPoints = endPoints;
+	}
+
+	public int getNumBranches() {
+		return branches.length;
+	}
+
+	public BlockPos getBranchPos(int index) {
+		return BlockPos.fromLong(branches[index]);
+	}
+
+	public int getRadius(int index) {
+		return radii[index];
+	}
+
+	/** @return The leaf map.  Leaves cells hold their solved hydration, branches are marked the same way the node inflator does it */
+	public SimpleVoxmap getLeafMap() {
+		return leafMap;
+	}
+
+	public List<BlockPos> getEndPoints() {
+		return endPoints;
+	}
+
+	/**
+	 * The columns taken up by the branches and the leaves of the blueprint.  Worked out the first
+	 * time it's asked for so it must only be called from one thread.
+	 *
+	 * @return A copy of the bounds that spans the full height of the world
+	 */
+	public BlockBounds getFootprint() {
+		if(footprint == null) {
+			footprint = new BlockBounds(treePos.getX(), 0, treePos.getZ(), treePos.getX(), 255, treePos.getZ());
+			for(long branch : branches) {
+				footprint.union(BlockPos.fromLong(branch));
+			}
+			for(MutableBlockPos pos : leafMap.getAllNonZero()) {
+				footprint.union(pos);
+			}
+		}
+		return new BlockBounds(footprint);
+	}
+
+	/**
+	 * Make a copy of this blueprint for a different root position.  The leaf map is copied so the
+	 * original can be reused.
+	 *
+	 * @param newRootPos The position of the rooty dirt block of the copy
+	 * @return The translated copy
+	 */
+	public TreeBlueprint moveTo(BlockPos newRootPos) {
+		BlockPos offset = newRootPos.subtract(rootPos);
+
+		long[] movedBranches = new long[branches.length];
+		for(int i = 0; i < branches.length; i++) {
+			movedBranches[i] = BlockPos.fromLong(branches[i]).add(offset).toLong();
+		}
+
+		List<BlockPos> movedEndPoints = new ArrayList<>(endPoints.size());
+		for(BlockPos end : endPoints) {
+			movedEndPoints.add(end.add(offset));
+		}
+
+		return new TreeBlueprint(newRootPos, radius, movedBranches, radii, new SimpleVoxmap(leafMap).setMap(offset), movedEndPoints);
+	}
+
+	/**
+	 * Check the blueprint against the blocks that are actually there.  A blueprint that fits can
+	 * be placed as is since drawing the code there would have had the same result.
+	 *
+	 * @param access The world or a snapshot of it
+	 * @return true if every branch lands on a replaceable block and no branch touches another tree
+	 */
+	public boolean fits(IBlockAccess access) {
+		LongOpenHashSet nodes = new LongOpenHashSet(branches);
+		MutableBlockPos dPos = new MutableBlockPos();
+
+		for(long branch : branches) {
+			BlockPos pos = BlockPos.fromLong(branch);
+			if(pos.getY() < 0 || pos.getY() > 255 || !access.getBlockState(pos).getBlock().isReplaceable(access, pos)) {
+				return false;
+			}
+			for(EnumFacing dir: EnumFacing.VALUES) {
+				dPos.setPos(pos.getX() + dir.getFrontOffsetX(), pos.getY() + dir.getFrontOffsetY(), pos.getZ() + dir.getFrontOffsetZ());
+				if(!nodes.contains(dPos.toLong()) && !dPos.equals(rootPos) && TreeHelper.getTreePart(access.getBlockState(dPos)).shouldAnalyse()) {
+					return false;//Would have been fused with another tree
+				}
+			}
+		}
+
+		return true;
+	}
+
+}
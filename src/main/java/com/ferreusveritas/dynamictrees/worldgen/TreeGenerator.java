@@ -8,6 +8,7 @@ import com.ferreusveritas.dynamictrees.api.WorldGenRegistry;
 import com.ferreusveritas.dynamictrees.api.worldgen.IGroundFinder;
 import com.ferreusveritas.dynamictrees.api.worldgen.BiomePropertySelectors.EnumChance;
 import com.ferreusveritas.dynamictrees.api.worldgen.BiomePropertySelectors.SpeciesSelection;
+import com.ferreusveritas.dynamictrees.systems.TreeProfiler;
 import com.ferreusveritas.dynamictrees.systems.poissondisc.PoissonDisc;
 import com.ferreusveritas.dynamictrees.systems.poissondisc.PoissonDiscProviderUniversal;
 import com.ferreusveritas.dynamictrees.trees.Species;
@@ -132,7 +133,15 @@ public class TreeGenerator {
 	}
 		
 	public EnumGeneratorResult makeTree(World world, BiomeDataBase biomeDataBase, PoissonDisc circle, IGroundFinder groundFinder, SafeChunkBounds safeBounds) {
+		return makeTree(world, biomeDataBase, circle, groundFinder, safeBounds, null);
+	}
+	
+	/**
+	 * @param planner If not null the tree is handed to the planner instead of being generated right away
+	 */
+	public EnumGeneratorResult makeTree(World world, BiomeDataBase biomeDataBase, PoissonDisc circle, IGroundFinder groundFinder, SafeChunkBounds safeBounds, TreePlanner planner) {
 				
+		TreeProfiler.Sample sample = TreeProfiler.begin();
 		circle.add(8, 8);//Move the circle into the "stage"
 		
 		BlockPos pos = new BlockPos(circle.x, 0, circle.z);
@@ -143,6 +152,7 @@ public class TreeGenerator {
 		pos = groundFinder.findGround(biomeEntry, world, pos);
 		
 		if(pos == BlockPos.ORIGIN) {
+			TreeProfiler.end(sample, TreeProfiler.Section.WORLDGEN_TREE, null, world);
 			return EnumGeneratorResult.NOGROUND;
 		}
 		
@@ -153,12 +163,14 @@ public class TreeGenerator {
 		EnumGeneratorResult result = EnumGeneratorResult.GENERATED;
 		
 		SpeciesSelection speciesSelection = biomeEntry.getSpeciesSelector().getSpecies(pos, dirtState, random);
+		Species species = null;
 		if(speciesSelection.isHandled()) {
-			Species species = speciesSelection.getSpecies();
+			species = speciesSelection.getSpecies();
 			if(species.isValid()) {
 				if(species.isAcceptableSoilForWorldgen(world, pos, dirtState)) {
 					if(biomeEntry.getChanceSelector().getChance(random, species, circle.radius) == EnumChance.OK) {
-						if(species.generate(world, pos, biome, random, circle.radius, safeBounds)) {
+						boolean generated = planner != null ? planner.generate(world, species, pos, biome, random, circle.radius, safeBounds) : species.generate(world, pos, biome, random, circle.radius, safeBounds);
+						if(generated) {
 							result = EnumGeneratorResult.GENERATED;
 						} else {
 							result = EnumGeneratorResult.FAILGENERATION;
@@ -183,6 +195,7 @@ public class TreeGenerator {
 		
 		circle.add(-8, -8);//Move the circle back to normal coords
 		
+		TreeProfiler.end(sample, TreeProfiler.Section.WORLDGEN_TREE, species, world);
 		return result;
 	}
 	
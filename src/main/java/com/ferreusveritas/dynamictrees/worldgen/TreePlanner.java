@@ -0,0 +1,379 @@
+package com.ferreusveritas.dynamictrees.worldgen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ferreusveritas.dynamictrees.DynamicTrees;
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.cells.ICell;
+import com.ferreusveritas.dynamictrees.api.cells.ICellSolver;
+import com.ferreusveritas.dynamictrees.api.network.NetworkWalker;
+import com.ferreusveritas.dynamictrees.api.treedata.ILeavesProperties;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
+import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.BlockBounds;
+import com.ferreusveritas.dynamictrees.util.CoordUtils;
+import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
+import com.ferreusveritas.dynamictrees.util.SimpleVoxmap;
+import com.ferreusveritas.dynamictrees.util.SimpleVoxmap.Cell;
+
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import net.minecraft.world.biome.Biome;
+
+/**
+ * Splits worldgen tree generation into a planning phase that runs on a worker pool and a
+ * commit phase that runs on the server thread.
+ *
+ * While the trees of a chunk are being selected every tree that can be planned gets a
+ * {@link WorldGenSnapshot} of the area it will occupy and a {@link TreeBlueprint} is made from
+ * it in the background.  Once all of the trees of the chunk have been selected the blueprints
+ * are committed in the original order.  Trees that can't be planned(custom generators, custom
+ * inflators, non-standard branches) are generated directly just like before.
+ *
+ * A blueprint is only used if nothing else was written into its area after the snapshot was
+ * taken.  Otherwise the tree is generated directly from the same root position so the result
+ * is never built on stale information.  The area of a tree is the footprint of its blueprint
+ * once it's known, the footprint of the precompiled blueprint before that and the whole leaf
+ * map when there's neither.
+ *
+ * @author ferreusveritas
+ */
+public class TreePlanner {
+
+	/** The most leaf solves allowed per leaf while hydrating a blueprint */
+	private static final int MAX_SOLVES_PER_LEAF = 16;
+
+	//Benchmark metrics
+	public static long chunksPlanned;
+	public static long nanosPlanned;
+	public static long chunksDirect;
+	public static long nanosDirect;
+	public static long treesPlanned;
+	public static long treesFallback;
+
+	/** While set every other chunk is generated with the planner in a checkerboard so both ways are measured on the same terrain */
+	public static boolean alternate;
+
+	private static ExecutorService executor;
+
+	/** Caches whether a species class uses the stock generation that the planner reproduces */
+	private static final ClassValue<Boolean> plannable = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				return type.getMethod("generate", World.class, BlockPos.class, Biome.class, Random.class, int.class, SafeChunkBounds.class).getDeclaringClass() == Species.class
+					&& type.getMethod("getNodeInflator", SimpleVoxmap.class).getDeclaringClass() == Species.class;
+			} catch (NoSuchMethodException e) {
+				return false;
+			}
+		}
+	};
+
+	private static class PendingTree {
+		final JoCode code;
+		final Species species;
+		final BlockPos rootPosIn;
+		final BlockPos rootPos;
+		final Biome biome;
+		final EnumFacing facing;
+		final int radius;
+		final SafeChunkBounds safeBounds;
+		final BlockBounds estimate;//The footprint until the blueprint is done
+		TreeBlueprint compiled;
+		Future<TreeBlueprint> blueprint;
+		boolean stale;
+
+		PendingTree(JoCode code, Species species, BlockPos rootPosIn, BlockPos rootPos, Biome biome, EnumFacing facing, int radius, SafeChunkBounds safeBounds, BlockBounds estimate) {
+			this.code = code;
+			this.species = species;
+			this.rootPosIn = rootPosIn;
+			this.rootPos = rootPos;
+			this.biome = biome;
+			this.facing = facing;
+			this.radius = radius;
+			this.safeBounds = safeBounds;
+			this.estimate = estimate;
+		}
+
+		/** @return The columns the tree will write to */
+		BlockBounds getFootprint() {
+			if(!stale && blueprint.isDone()) {
+				try {
+					TreeBlueprint planned = blueprint.get();
+					if(planned != null) {
+						return planned.getFootprint();
+					}
+				} catch (InterruptedException | ExecutionException | CancellationException e) {}//Falls back to the estimate
+			}
+			return estimate;
+		}
+
+		/**
+		 * The tree reads the blocks right next to the ones it writes to so an overlap with
+		 * its footprint grown by one block makes it's plan out of date.
+		 */
+		boolean overlaps(BlockBounds footprint) {
+			return getFootprint().expand(1).intersects(footprint);
+		}
+	}
+
+	private final List<PendingTree> pending = new ArrayList<>();
+
+	///////////////////////////////////////////
+	// PLANNING
+	///////////////////////////////////////////
+
+	/**
+	 * Used in place of {@link Species#generate} while the trees of a chunk are being selected.
+	 * Makes the same random choices as Species.generate so the selected trees don't change.
+	 *
+	 * @return true if a tree was generated or queued
+	 */
+	public boolean generate(World world, Species species, BlockPos rootPos, Biome biome, Random random, int radius, SafeChunkBounds safeBounds) {
+
+		if(!isPlannable(species)) {
+			markWritten(getLeafMapFootprint(rootPos, radius + 1), false);//Custom generators get an extra block of leeway
+			return species.generate(world, rootPos, biome, random, radius, safeBounds);
+		}
+
+		EnumFacing facing = CoordUtils.getRandomDir(random);
+		JoCode code = species.getJoCodeStore() != null ? species.getJoCodeStore().getRandomCode(radius, random) : null;
+		if(code == null) {
+			return false;
+		}
+
+		if(code.getClass() != JoCode.class) {//Custom codes may draw trees differently
+			markWritten(getLeafMapFootprint(rootPos, radius + 1), false);
+			code.generate(world, species, rootPos, biome, facing, radius, safeBounds);
+			return true;
+		}
+
+		radius = MathHelper.clamp(radius, 2, 8);
+		code.setFacing(facing);
+		BlockPos plannedRootPos = species.preGeneration(world, rootPos, radius, facing, safeBounds, code);
+		TreeBlueprint compiled = species.getJoCodeStore().getBlueprint(code, facing, radius);
+		BlockPos footprintPos = plannedRootPos != BlockPos.ORIGIN ? plannedRootPos : rootPos;
+		BlockBounds footprint = compiled != null ? getFootprint(compiled, footprintPos) : getLeafMapFootprint(footprintPos, radius);
+		boolean stale = markWritten(footprint, true);
+
+		if(plannedRootPos != BlockPos.ORIGIN) {
+			PendingTree tree = new PendingTree(code, species, rootPos, plannedRootPos, biome, facing, radius, safeBounds, footprint);
+			tree.stale = stale;
+			if(!stale) {
+				tree.compiled = compiled;
+				BlockPos treePos = plannedRootPos.up();
+				WorldGenSnapshot snapshot = new WorldGenSnapshot(world, treePos.add(-radius - 1, -1, -radius - 1), treePos.add(radius + 1, species.getWorldGenLeafMapHeight(), radius + 1));
+				tree.blueprint = getExecutor().submit(() -> plan(tree, snapshot));
+			}
+			pending.add(tree);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Place all of the planned trees in the order they were selected.
+	 *
+	 * @param world The world
+	 */
+	public void commit(World world) {
+		for(PendingTree tree : pending) {
+			TreeBlueprint blueprint = null;
+
+			if(!tree.stale) {
+				try {
+					blueprint = tree.blueprint.get();
+				} catch (InterruptedException | ExecutionException e) {
+					DynamicTrees.log.error("Failed to plan tree for " + tree.species + " @ " + tree.rootPos, e);
+				}
+			}
+
+			if(blueprint != null && tree.code.generate(world, tree.species, blueprint, tree.biome, tree.safeBounds)) {
+				treesPlanned++;
+			} else {
+				tree.code.generateAt(world, tree.species, tree.rootPosIn, tree.rootPos, tree.biome, tree.facing, tree.radius, tree.safeBounds);
+				treesFallback++;
+			}
+		}
+		pending.clear();
+	}
+
+	/**
+	 * Something is about to be written within a footprint.  Any pending tree whose plan depends on
+	 * the blocks there is now out of date.
+	 *
+	 * @param footprint The columns that will be written to
+	 * @param planned True if the writer is a tree that will be planned itself
+	 * @return true if the writer overlaps a pending tree
+	 */
+	private boolean markWritten(BlockBounds footprint, boolean planned) {
+		boolean overlap = false;
+		for(PendingTree tree : pending) {
+			if(tree.overlaps(footprint)) {
+				if(tree.blueprint != null) {
+					tree.blueprint.cancel(false);
+				}
+				tree.stale = true;
+				overlap = true;
+			}
+		}
+		return overlap && planned;//The pending tree is committed first so the new tree's snapshot would be out of date as well
+	}
+
+	/**
+	 * A precompiled blueprint is drawn into empty space.  Whatever is in the way only cuts
+	 * branches short and the leaves follow the branches so the tree stays within it.
+	 *
+	 * @return The footprint of a precompiled blueprint moved to a root position
+	 */
+	private static BlockBounds getFootprint(TreeBlueprint compiled, BlockPos rootPos) {
+		return compiled.getFootprint().move(rootPos.getX() - compiled.rootPos.getX(), 0, rootPos.getZ() - compiled.rootPos.getZ());
+	}
+
+	/** @return The columns of the leaf map of a tree.  Nothing a JoCode draws goes past it */
+	private static BlockBounds getLeafMapFootprint(BlockPos rootPos, int radius) {
+		return new BlockBounds(rootPos.getX() - radius, 0, rootPos.getZ() - radius, rootPos.getX() + radius, 255, rootPos.getZ() + radius);
+	}
+
+	/** @return true if the trees of a chunk are to be planned */
+	public static boolean usePlanner(int chunkX, int chunkZ) {
+		return alternate ? ((chunkX + chunkZ) & 1) == 0 : ModConfigs.worldGenPlanner;
+	}
+
+	public static boolean isPlannable(Species species) {
+		return species.getGenFeatureOverride() == null && plannable.get(species.getClass()) && NetworkWalker.isWalkable(species.getFamily().getDynamicBranch());
+	}
+
+	private static TreeBlueprint plan(PendingTree tree, WorldGenSnapshot snapshot) {
+		TreeBlueprint blueprint = null;
+
+		if(tree.compiled != null) {//Nothing needs to be drawn if the precompiled tree fits
+			blueprint = tree.compiled.moveTo(tree.rootPos);
+			if(blueprint.fits(snapshot)) {
+				BlockBranch branch = tree.species.getFamily().getDynamicBranch();
+				for(int i = 0; i < blueprint.getNumBranches(); i++) {
+					snapshot.setPlannedState(blueprint.getBranchPos(i), branch.getStateForRadius(blueprint.getRadius(i)));
+				}
+			} else {
+				blueprint = null;
+			}
+		}
+
+		if(blueprint == null) {
+			blueprint = tree.code.plan(snapshot, tree.species, tree.rootPos, tree.facing, tree.radius);
+		}
+
+		if(blueprint != null) {
+			solveLeaves(blueprint.getLeafMap(), snapshot, tree.species.getLeavesProperties(), tree.safeBounds);
+		}
+		return blueprint;
+	}
+
+	/**
+	 * Hydrate the planned leaves against each other and the planned branches the same way the
+	 * {@link com.ferreusveritas.dynamictrees.systems.HydrationSolver} does it in the world.  Only the
+	 * growth of new leaves is left for the server thread since it depends on the final neighbors.
+	 * Leaves that can't be placed or that die are cleared from the leaf map.
+	 */
+	static void solveLeaves(SimpleVoxmap leafMap, WorldGenSnapshot snapshot, ILeavesProperties leavesProperties, SafeChunkBounds safeBounds) {
+		LongOpenHashSet leaves = new LongOpenHashSet();
+		LongArrayFIFOQueue worklist = new LongArrayFIFOQueue();
+
+		//Lay the leaves onto the snapshot exactly where JoCode.finishGeneration will place them
+		for(Cell cell: leafMap.getAllNonZeroCells((byte) 0x0F)) {
+			MutableBlockPos pos = cell.getPos();
+			if(safeBounds.inBounds(pos, false) && snapshot.getBlockState(pos).getBlock().isReplaceable(snapshot, pos)) {
+				snapshot.setPlannedState(pos.toImmutable(), leavesProperties.getDynamicLeavesState(cell.getValue()));
+				if(safeBounds.inBounds(pos, true)) {//Leaves in the gap are not aged
+					leaves.add(pos.toLong());
+					worklist.enqueue(pos.toLong());
+				}
+			} else {
+				leafMap.setVoxel(pos, (byte) 0);
+			}
+		}
+
+		ICellSolver solver = leavesProperties.getCellKit().getCellSolver();
+		ICell[] cells = new ICell[6];
+		LongOpenHashSet queued = new LongOpenHashSet(leaves);
+		MutableBlockPos probe = new MutableBlockPos();
+		int budget = leaves.size() * MAX_SOLVES_PER_LEAF;
+
+		while(!worklist.isEmpty() && budget-- > 0) {
+			long key = worklist.dequeueLong();
+			queued.remove(key);
+			BlockPos pos = BlockPos.fromLong(key);
+			int hydro = leafMap.getVoxel(pos);
+
+			for(EnumFacing dir: EnumFacing.VALUES) {
+				probe.setPos(pos.getX() + dir.getFrontOffsetX(), pos.getY() + dir.getFrontOffsetY(), pos.getZ() + dir.getFrontOffsetZ());
+				IBlockState state = snapshot.getBlockState(probe);
+				cells[dir.ordinal()] = TreeHelper.getTreePart(state).getHydrationCell(snapshot, probe, state, dir, leavesProperties);
+			}
+
+			int newHydro = solver.solve(cells);
+			if(newHydro != hydro) {
+				leafMap.setVoxel(pos, (byte) newHydro);
+				if(newHydro == 0) {//No water.. no leaves
+					leaves.remove(key);
+					snapshot.setPlannedState(pos, null);
+				} else {
+					snapshot.setPlannedState(pos, leavesProperties.getDynamicLeavesState(newHydro));
+				}
+				for(EnumFacing dir: EnumFacing.VALUES) {//The surrounding leaves now also have potential to change
+					long neighbor = probe.setPos(pos).move(dir).toLong();
+					if(leaves.contains(neighbor) && queued.add(neighbor)) {
+						worklist.enqueue(neighbor);
+					}
+				}
+			}
+		}
+	}
+
+	private static ExecutorService getExecutor() {
+		if(executor == null) {
+			int threads = ModConfigs.worldGenPlannerThreads > 0 ? ModConfigs.worldGenPlannerThreads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+			AtomicInteger count = new AtomicInteger();
+			executor = Executors.newFixedThreadPool(threads, r -> {
+				Thread thread = new Thread(r, "DynamicTrees Planner #" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return executor;
+	}
+
+	///////////////////////////////////////////
+	// METRICS
+	///////////////////////////////////////////
+
+	public static void recordChunk(boolean planned, long nanos) {
+		if(planned) {
+			chunksPlanned++;
+			nanosPlanned += nanos;
+		} else {
+			chunksDirect++;
+			nanosDirect += nanos;
+		}
+	}
+
+	public static void clearMetrics() {
+		chunksPlanned = nanosPlanned = chunksDirect = nanosDirect = treesPlanned = treesFallback = 0;
+	}
+
+}
@@ -0,0 +1,167 @@
+package com.ferreusveritas.dynamictrees.worldgen;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Biomes;
+import net.minecraft.init.Blocks;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.chunk.Chunk;
+
+/**
+ * A read only copy of the block states in a box of the world that can be safely read from
+ * another thread.  Blocks planned by a tree planner can be layered on top so that the plan
+ * sees itself the same way it would see the world if the blocks had been placed.
+ *
+ * Everything outside of the box reads as barrier blocks so a plan can never mistake an
+ * unknown block for something replaceable.
+ *
+ * @author ferreusveritas
+ */
+public class WorldGenSnapshot implements IBlockAccess {
+
+	private static final IBlockState OUTSIDE = Blocks.BARRIER.getDefaultState();
+
+	private final int minX, minY, minZ;
+	private final int lenX, lenY, lenZ;
+	private final IBlockState[] states;
+	private final Long2ObjectOpenHashMap<IBlockState> overlay = new Long2ObjectOpenHashMap<>();
+	private final WorldType worldType;
+	private final Biome biome;
+
+	/**
+	 * Copy the block states of a box from the world.  Must be called from the server thread.
+	 * Chunks that aren't loaded are read as if they were outside of the box.
+	 *
+	 * @param world The world
+	 * @param min The lowest corner of the box
+	 * @param max The highest corner of the box
+	 */
+	public WorldGenSnapshot(World world, BlockPos min, BlockPos max) {
+		this(min, max, world.getWorldType(), world.getBiome(min.add((max.getX() - min.getX() + 1) / 2, 0, (max.getZ() - min.getZ() + 1) / 2)));
+
+		Chunk chunk = null;
+		for(int z = 0; z < lenZ; z++) {
+			for(int x = 0; x < lenX; x++) {
+				int wx = minX + x, wz = minZ + z;
+				if(chunk == null || chunk.x != wx >> 4 || chunk.z != wz >> 4) {
+					chunk = world.getChunkProvider().getLoadedChunk(wx >> 4, wz >> 4);
+				}
+				for(int y = 0; y < lenY; y++) {
+					states[index(x, y, z)] = chunk != null ? chunk.getBlockState(wx, minY + y, wz) : OUTSIDE;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Make a snapshot of a box that holds nothing but air.  Used to work out the shape a tree
+	 * takes when nothing is in it's way.
+	 *
+	 * @param min The lowest corner of the box
+	 * @param max The highest corner of the box
+	 */
+	public WorldGenSnapshot(BlockPos min, BlockPos max) {
+		this(min, max, WorldType.DEFAULT, Biomes.PLAINS);
+		Arrays.fill(states, Blocks.AIR.getDefaultState());
+	}
+
+	private WorldGenSnapshot(BlockPos min, BlockPos max, WorldType worldType, Biome biome) {
+		minX = min.getX();
+		minY = Math.max(min.getY(), 0);
+		minZ = min.getZ();
+		lenX = max.getX() - minX + 1;
+		lenY = Math.min(max.getY(), 255) - minY + 1;
+		lenZ = max.getZ() - minZ + 1;
+		states = new IBlockState[lenX * Math.max(lenY, 0) * lenZ];
+		this.worldType = worldType;
+		this.biome = biome;
+	}
+
+	private int index(int x, int y, int z) {
+		return (y * lenZ + z) * lenX + x;
+	}
+
+	/** @return true if the position was copied from the world */
+	public boolean contains(BlockPos pos) {
+		int x = pos.getX() - minX, y = pos.getY() - minY, z = pos.getZ() - minZ;
+		return x >= 0 && x < lenX && y >= 0 && y < lenY && z >= 0 && z < lenZ;
+	}
+
+	/**
+	 * Layer a planned block over the copied state.  Pass null to remove it again.
+	 *
+	 * @param pos The position of the planned block
+	 * @param state The planned state or null
+	 */
+	public void setPlannedState(BlockPos pos, @Nullable IBlockState state) {
+		if(state != null) {
+			overlay.put(pos.toLong(), state);
+		} else {
+			overlay.remove(pos.toLong());
+		}
+	}
+
+	/** @return the state that was copied from the world, ignoring any planned blocks */
+	public IBlockState getWorldState(BlockPos pos) {
+		return contains(pos) ? states[index(pos.getX() - minX, pos.getY() - minY, pos.getZ() - minZ)] : OUTSIDE;
+	}
+
+
+	///////////////////////////////////////////
+	// IBLOCKACCESS
+	///////////////////////////////////////////
+
+	@Override
+	public IBlockState getBlockState(BlockPos pos) {
+		IBlockState state = overlay.isEmpty() ? null : overlay.get(pos.toLong());
+		return state != null ? state : getWorldState(pos);
+	}
+
+	@Override
+	@Nullable
+	public TileEntity getTileEntity(BlockPos pos) {
+		return null;//Tile entities are not safe to touch off of the server thread
+	}
+
+	@Override
+	public int getCombinedLight(BlockPos pos, int lightValue) {
+		return 15 << 20 | lightValue << 4;//Light isn't valid during worldgen anyway
+	}
+
+	@Override
+	public boolean isAirBlock(BlockPos pos) {
+		IBlockState state = getBlockState(pos);
+		return state.getBlock().isAir(state, this, pos);
+	}
+
+	@Override
+	public Biome getBiome(BlockPos pos) {
+		return biome;
+	}
+
+	@Override
+	public int getStrongPower(BlockPos pos, EnumFacing direction) {
+		return 0;
+	}
+
+	@Override
+	public WorldType getWorldType() {
+		return worldType;
+	}
+
+	@Override
+	public boolean isSideSolid(BlockPos pos, EnumFacing side, boolean _default) {
+		return contains(pos) ? getBlockState(pos).isSideSolid(this, pos, side) : _default;
+	}
+
+}
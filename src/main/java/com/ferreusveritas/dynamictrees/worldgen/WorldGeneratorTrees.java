@@ -139,8 +139,14 @@ public class WorldGeneratorTrees implements IWorldGenerator {
 		TreeGenerator treeGenerator = TreeGenerator.getTreeGenerator();
 		BiomeDataBase dbase = treeGenerator.getBiomeDataBase(world);
 		if(dbase != TreeGenerator.DIMENSIONBLACKLISTED) {
+			long start = System.nanoTime();
 			SafeChunkBounds safeBounds = new SafeChunkBounds(world, new ChunkPos(chunkX, chunkZ));//Area that is safe to place blocks during worldgen
-			treeGenerator.getCircleProvider().getPoissonDiscs(world, chunkX, 0, chunkZ).forEach(c -> treeGenerator.makeTree(world, dbase, c, new GroundFinder(), safeBounds));
+			TreePlanner planner = TreePlanner.usePlanner(chunkX, chunkZ) ? new TreePlanner() : null;
+			treeGenerator.getCircleProvider().getPoissonDiscs(world, chunkX, 0, chunkZ).forEach(c -> treeGenerator.makeTree(world, dbase, c, new GroundFinder(), safeBounds, planner));
+			if(planner != null) {
+				planner.commit(world);
+			}
+			TreePlanner.recordChunk(planner != null, System.nanoTime() - start);
 		}
 	}
 
@@ -0,0 +1,202 @@
+package com.ferreusveritas.dynamictrees.harness;
+
+import javax.annotation.Nullable;
+
+import com.ferreusveritas.dynamictrees.event.CommonEventHandler;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Biomes;
+import net.minecraft.profiler.Profiler;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.EnumSkyBlock;
+import net.minecraft.world.GameType;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldProviderSurface;
+import net.minecraft.world.WorldSettings;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.biome.BiomeProviderSingle;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraft.world.storage.WorldInfo;
+import net.minecraftforge.event.world.WorldEvent;
+
+/**
+ * A world that only lives in memory.  Chunks are created empty the first time they are touched and
+ * every chunk counts as loaded.  Block changes go through the regular world code so block callbacks
+ * and neighbor updates happen like they do in game.  There is no lighting engine, the sky light is
+ * full everywhere.
+ *
+ * @author ferreusveritas
+ */
+public class FakeWorld extends World {
+
+	/** The number of block changes that reached the world */
+	public long blockWrites;
+
+	private final Long2ObjectOpenHashMap<Chunk> chunks = new Long2ObjectOpenHashMap<>();
+
+	private static class SingleBiomeProvider extends WorldProviderSurface {
+		private final Biome biome;
+
+		private SingleBiomeProvider(Biome biome) {
+			this.biome = biome;
+		}
+
+		@Override
+		protected void init() {
+			biomeProvider = new BiomeProviderSingle(biome);
+		}
+	}
+
+	public FakeWorld() {
+		this(Biomes.FOREST);
+	}
+
+	public FakeWorld(Biome biome) {
+		this(biome, 0);
+	}
+
+	/**
+	 * @param biome The biome everywhere
+	 * @param dimension The dimension id.  The mod keeps a lot of it's state per dimension so worlds
+	 *        that are used at the same time need different ones
+	 */
+	public FakeWorld(Biome biome, int dimension) {
+		super(null, new WorldInfo(new WorldSettings(0L, GameType.SURVIVAL, false, false, WorldType.DEFAULT), "harness"), new SingleBiomeProvider(biome), new Profiler(), false);
+		provider.setDimension(dimension);
+		provider.setWorld(this);
+		chunkProvider = createChunkProvider();
+	}
+
+	@Override
+	protected IChunkProvider createChunkProvider() {
+		return new IChunkProvider() {
+			@Override
+			@Nullable
+			public Chunk getLoadedChunk(int x, int z) {
+				return provideChunk(x, z);
+			}
+
+			@Override
+			public Chunk provideChunk(int x, int z) {
+				long key = ChunkPos.asLong(x, z);
+				Chunk chunk = chunks.get(key);
+				if(chunk == null) {
+					chunk = new Chunk(FakeWorld.this, x, z);
+					chunks.put(key, chunk);
+				}
+				return chunk;
+			}
+
+			@Override
+			public boolean tick() {
+				return false;
+			}
+
+			@Override
+			public String makeString() {
+				return "FakeChunkCache: " + chunks.size();
+			}
+
+			@Override
+			public boolean isChunkGeneratedAt(int x, int z) {
+				return true;
+			}
+		};
+	}
+
+	@Override
+	protected boolean isChunkLoaded(int x, int z, boolean allowEmpty) {
+		return true;
+	}
+
+	@Override
+	public boolean setBlockState(BlockPos pos, IBlockState newState, int flags) {
+		blockWrites++;
+		return super.setBlockState(pos, newState, flags);
+	}
+
+	@Override
+	public boolean checkLight(BlockPos pos) {
+		return false;
+	}
+
+	@Override
+	public int getLightFor(EnumSkyBlock type, BlockPos pos) {
+		return type.defaultLightValue;
+	}
+
+	/** Forget everything the mod keeps about this world, just like it does when a world is unloaded */
+	public void unload() {
+		new CommonEventHandler().onWorldUnload(new WorldEvent.Unload(this));
+	}
+
+	///////////////////////////////////////////
+	// SNAPSHOTS
+	///////////////////////////////////////////
+
+	/**
+	 * Put a block straight into it's chunk section.  No callbacks, no neighbor updates and it isn't
+	 * counted.  Used for setting the scene.
+	 */
+	public void putBlockState(BlockPos pos, IBlockState state) {
+		Chunk chunk = getChunkFromBlockCoords(pos);
+		ExtendedBlockStorage[] sections = chunk.getBlockStorageArray();
+		int y = pos.getY();
+		ExtendedBlockStorage section = sections[y >> 4];
+		if(section == Chunk.NULL_BLOCK_STORAGE) {
+			section = sections[y >> 4] = new ExtendedBlockStorage(y & ~15, provider.hasSkyLight());
+		}
+		section.set(pos.getX() & 15, y & 15, pos.getZ() & 15, state);
+	}
+
+	/** Fill a box with a block using {@link #putBlockState} */
+	public void fill(BlockPos from, BlockPos to, IBlockState state) {
+		for(MutableBlockPos pos : BlockPos.getAllInBoxMutable(from, to)) {
+			putBlockState(pos, state);
+		}
+	}
+
+	/**
+	 * A copy of the blocks in a box that can be put back as often as needed.  Lets destructive
+	 * operations be repeated on the same tree.
+	 */
+	public class Snapshot {
+		private final BlockPos min;
+		private final BlockPos max;
+		private final IBlockState[] states;
+
+		private Snapshot(BlockPos min, BlockPos max) {
+			this.min = min;
+			this.max = max;
+			states = new IBlockState[(max.getX() - min.getX() + 1) * (max.getY() - min.getY() + 1) * (max.getZ() - min.getZ() + 1)];
+			int i = 0;
+			for(MutableBlockPos pos : BlockPos.getAllInBoxMutable(min, max)) {
+				states[i++] = getBlockState(pos);
+			}
+		}
+
+		/** Put every block of the box back the way it was */
+		public void restore() {
+			restore(FakeWorld.this);
+		}
+
+		/** Put every block of the box into the same box of another world */
+		public void restore(FakeWorld world) {
+			int i = 0;
+			for(MutableBlockPos pos : BlockPos.getAllInBoxMutable(min, max)) {
+				world.putBlockState(pos, states[i++]);
+			}
+		}
+	}
+
+	public Snapshot snapshot(BlockPos min, BlockPos max) {
+		return new Snapshot(min, max);
+	}
+
+}
@@ -0,0 +1,162 @@
+package com.ferreusveritas.dynamictrees.harness;
+
+import com.ferreusveritas.dynamictrees.ModBlocks;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.network.MapSignal;
+import com.ferreusveritas.dynamictrees.api.network.NetworkWalker;
+import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch.EnumDestroyMode;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranchBasic;
+import com.ferreusveritas.dynamictrees.systems.GrowSignal;
+import com.ferreusveritas.dynamictrees.systems.GrowSignalWalker;
+import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.TreeWorldView;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.World;
+
+/**
+ * The recursive tree algorithms as they were before they were moved onto explicit stacks.  Kept
+ * here so the walkers can be checked and measured against them.  Tree parts the walkers handle
+ * inline are recursed into here, every other tree part is called normally.
+ *
+ * @author ferreusveritas
+ */
+public class RecursiveReference {
+
+	/** The depth limit the recursive analysis had in game.  Too shallow to map big jungle and dark oak trees */
+	public static final int LEGACY_SIGNAL_DEPTH = 32;
+
+	/**
+	 * The recursive branch network analysis of {@link com.ferreusveritas.dynamictrees.blocks.BlockBranchBasic#analyse}.
+	 *
+	 * @param blockState The blockstate of the starting node
+	 * @param world The world
+	 * @param pos The position of the starting node
+	 * @param fromDir The direction that should not be analyzed.  Pass null to analyse in all directions
+	 * @param signal The Mapping Signal object to gather data and/or perform operations
+	 * @param maxDepth The depth at which the network is considered to have a loop
+	 * @return the signal for chaining
+	 */
+	public static MapSignal analyse(IBlockState blockState, World world, BlockPos pos, EnumFacing fromDir, MapSignal signal, int maxDepth) {
+		// Note: fromDir will be null in the origin node
+
+		if(signal.overflow || (signal.trackVisited && signal.doTrackingVisited(pos))) {
+			return signal;
+		}
+
+		if(signal.depth++ < maxDepth) {// Prevents going too deep into large networks, or worse, being caught in a network loop
+			signal.run(blockState, world, pos, fromDir);// Run the inspectors of choice
+			for(EnumFacing dir : EnumFacing.VALUES) {// Spread signal in various directions
+				if(dir != fromDir) {// don't count where the signal originated from
+					BlockPos deltaPos = pos.offset(dir);
+					IBlockState deltaState = world.getBlockState(deltaPos);
+					ITreePart treePart = TreeHelper.getTreePart(deltaState);
+
+					if(treePart.shouldAnalyse()) {
+						if(NetworkWalker.isWalkable(treePart)) {
+							signal = analyse(deltaState, world, deltaPos, dir.getOpposite(), signal, maxDepth);
+						} else {
+							signal = treePart.analyse(deltaState, world, deltaPos, dir.getOpposite(), signal);
+						}
+
+						// This should only be true for the originating block when the root node is found
+						if(signal.found && signal.localRootDir == null && fromDir == null) {
+							signal.localRootDir = dir;
+						}
+					}
+				}
+			}
+			signal.returnRun(blockState, world, pos, fromDir);
+		} else {
+			if(signal.destroyLoopedNodes && blockState.getBlock() instanceof BlockBranch) {
+				BlockBranch branch = (BlockBranch) blockState.getBlock();
+				branch.breakDeliberate(world, pos, EnumDestroyMode.OVERFLOW);// Destroy one of the offending nodes
+			}
+			signal.overflow = true;
+		}
+		signal.depth--;
+
+		return signal;
+	}
+
+	/**
+	 * The recursive grow signal of {@link com.ferreusveritas.dynamictrees.blocks.BlockBranchBasic#growSignal}.
+	 *
+	 * @param world The world
+	 * @param branch The branch block at pos
+	 * @param pos The position the signal entered
+	 * @param signal The grow signal
+	 * @return the signal for chaining
+	 */
+	public static GrowSignal growSignal(World world, BlockBranchBasic branch, BlockPos pos, GrowSignal signal) {
+
+		if (signal.step()) {// This is always placed at the beginning of every growSignal function
+
+			IBlockAccess access = TreeWorldView.of(world);
+			IBlockState currBlockState = access.getBlockState(pos);
+			Species species = signal.getSpecies();
+			boolean inTrunk = signal.isInTrunk();
+
+			EnumFacing originDir = signal.dir.getOpposite();// Direction this signal originated from
+			EnumFacing targetDir = species.selectNewDirection(world, pos, branch, signal);// This must be cached on the stack for proper recursion
+			signal.doTurn(targetDir);
+
+			{
+				BlockPos deltaPos = pos.offset(targetDir);
+				IBlockState deltaState = access.getBlockState(deltaPos);
+
+				// Pass grow signal to next block in path
+				ITreePart treepart = TreeHelper.getTreePart(deltaState);
+				if (GrowSignalWalker.isWalkable(treepart)) {
+					signal = growSignal(world, (BlockBranchBasic) treepart, deltaPos, signal);// Recurse
+				} else if (treepart != TreeHelper.nullTreePart) {
+					signal = treepart.growSignal(world, deltaPos, signal);
+				} else if (deltaState.getBlock().isAir(deltaState, world, deltaPos) || deltaState.getBlock() == ModBlocks.blockTrunkShell) {
+					signal = branch.growIntoAir(world, deltaPos, signal, branch.getRadius(currBlockState));
+				}
+			}
+
+			// Calculate Branch Thickness based on neighboring branches
+			float areaAccum = signal.radius * signal.radius;// Start by accumulating the branch we just came from
+
+			for (EnumFacing dir : EnumFacing.VALUES) {
+				if (!dir.equals(originDir) && !dir.equals(targetDir)) {// Don't count where the signal originated from or the branch we just came back from
+					BlockPos deltaPos = pos.offset(dir);
+					IBlockState blockState = access.getBlockState(deltaPos);
+					ITreePart treepart = TreeHelper.getTreePart(blockState);
+					if (branch.isSameTree(treepart)) {
+						int branchRadius = treepart.getRadius(blockState);
+						areaAccum += branchRadius * branchRadius;
+					}
+				}
+			}
+
+			//Only continue to set radii if the tree growth isn't choked out
+			if(!signal.choked) {
+				// Ensure that side branches are not thicker than the size of a block.  Also enforce species max thickness
+				int maxRadius = inTrunk ? species.maxBranchRadius() : Math.min(species.maxBranchRadius(), BlockBranch.RADMAX_NORMAL);
+
+				// The new branch should be the square root of all of the sums of the areas of the branches coming into it.
+				// But it shouldn't be smaller than it's current size(prevents the instant slimming effect when chopping off branches)
+				signal.radius = MathHelper.clamp((float) Math.sqrt(areaAccum) + species.getTapering(), branch.getRadius(currBlockState), maxRadius);
+				int targetRadius = (int) Math.floor(signal.radius);
+				int setRad = branch.setRadius(world, pos, targetRadius, originDir);
+				if(setRad != branch.getRadius(currBlockState)) {
+					signal.changed = true;
+				}
+				if(setRad < targetRadius) { //We tried to set a radius but it didn't comply because something is in the way.
+					signal.choked = true; //If something is in the way then it means that the tree growth is choked
+				}
+			}
+		}
+
+		return signal;
+	}
+
+}
@@ -0,0 +1,301 @@
+package com.ferreusveritas.dynamictrees.harness;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+
+import com.ferreusveritas.dynamictrees.DynamicTrees;
+import com.ferreusveritas.dynamictrees.ModBlocks;
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.ModConstants;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.blocks.BlockBonsaiPot;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranch;
+import com.ferreusveritas.dynamictrees.blocks.BlockDynamicSapling;
+import com.ferreusveritas.dynamictrees.blocks.BlockFruit;
+import com.ferreusveritas.dynamictrees.blocks.BlockFruitCocoa;
+import com.ferreusveritas.dynamictrees.blocks.BlockRootyDirt;
+import com.ferreusveritas.dynamictrees.blocks.BlockRootySand;
+import com.ferreusveritas.dynamictrees.blocks.BlockTrunkShell;
+import com.ferreusveritas.dynamictrees.blocks.LeavesPropertiesJson;
+import com.ferreusveritas.dynamictrees.cells.CellKits;
+import com.ferreusveritas.dynamictrees.growthlogic.GrowthLogicKits;
+import com.ferreusveritas.dynamictrees.systems.DirtHelper;
+import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.trees.TreeDarkOak;
+import com.ferreusveritas.dynamictrees.trees.TreeFamily;
+import com.ferreusveritas.dynamictrees.trees.TreeJungle;
+import com.ferreusveritas.dynamictrees.trees.TreeOak;
+import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
+import com.ferreusveritas.dynamictrees.worldgen.JoCode;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.BlockSnow;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraftforge.registries.IForgeRegistry;
+
+/**
+ * Brings up just enough of Minecraft and the mod to map, grow and fell trees outside of the game.
+ * Vanilla is bootstrapped, the settings get their default values and the blocks and tree families
+ * the simulation needs are created.  Nothing is registered with Forge.
+ *
+ * @author ferreusveritas
+ */
+public class TreeHarness {
+
+	public static TreeOak oak;
+	public static TreeJungle jungle;
+	public static TreeDarkOak darkOak;
+
+	/** The horizontal reach of a generated tree from it's root.  A radius 8 tree with it's leaves */
+	public static final int TREE_REACH = 12;
+	/** The height a generated tree and it's leaves stay under */
+	public static final int TREE_HEIGHT = 48;
+
+	private static boolean ready = false;
+
+	public static synchronized void bootstrap() {
+		if(ready) {
+			return;
+		}
+
+		Bootstrap.register();
+		DynamicTrees.log = LogManager.getLogger(ModConstants.MODID);
+		configure();
+
+		CellKits.preInit();
+		GrowthLogicKits.preInit();
+		createBlocks();
+		registerSoils();
+
+		oak = new TreeOak();
+		jungle = new TreeJungle();
+		darkOak = new TreeDarkOak();
+		LeavesPropertiesJson.resolveAll();
+
+		Species.REGISTRY = createSpeciesRegistry();
+		oak.registerSpecies(Species.REGISTRY);
+		jungle.registerSpecies(Species.REGISTRY);
+		darkOak.registerSpecies(Species.REGISTRY);
+
+		ready = true;
+	}
+
+	/** The default values of the settings read by the simulation.  There's no config file outside of the game */
+	private static void configure() {
+		ModConfigs.treeGrowthMultiplier = 0.5f;
+		ModConfigs.treeHarvestMultiplier = 1f;
+		ModConfigs.treeGrowthFolding = 2;
+		ModConfigs.dropSticks = true;
+		ModConfigs.scaleBiomeGrowthRate = 0.5f;
+		ModConfigs.maxBranchRotRadius = 8;
+		ModConfigs.enableAppleTrees = true;
+		ModConfigs.podzolGen = true;
+		ModConfigs.roofedForestMushroomGen = true;
+		ModConfigs.worldGen = true;
+		ModConfigs.enableTreeTopologyCache = true;
+		ModConfigs.treeTopologyCacheMaxTrees = 8192;
+		ModConfigs.enableEndpointTracker = true;
+		ModConfigs.leavesTickClusterBudget = 32;
+		ModConfigs.precompileJoCodes = true;
+		ModConfigs.fastLeavesDestruction = true;
+		ModConfigs.neighborUpdatesPerTick = 0;
+		ModConfigs.enableTreeDormancy = false;
+		ModConfigs.dormancyFailedSignals = 16;
+		ModConfigs.dormancyMaxInterval = 24000;
+	}
+
+	/** The blocks of {@link ModBlocks#preInit()} less the mod compatibility checks that need a running game */
+	private static void createBlocks() {
+		ModBlocks.blockRootyDirt = new BlockRootyDirt(false);
+		ModBlocks.blockRootySand = new BlockRootySand(false);
+		ModBlocks.blockRootyDirtSpecies = new BlockRootyDirt(true);
+		ModBlocks.blockDynamicSapling = new BlockDynamicSapling("sapling");
+		ModBlocks.blockBonsaiPot = new BlockBonsaiPot();
+		ModBlocks.blockFruitCocoa = new BlockFruitCocoa();
+		ModBlocks.blockApple = new BlockFruit().setDroppedItem(new ItemStack(Items.APPLE));
+		ModBlocks.blockTrunkShell = new BlockTrunkShell();
+		ModBlocks.blockLeavesSnow = (BlockSnow) Blocks.SNOW_LAYER;
+		ModBlocks.blockStates = new ModBlocks.CommonBlockStates();
+		ModBlocks.setupLeavesProperties();
+	}
+
+	private static void registerSoils() {
+		DirtHelper.registerSoil(Blocks.DIRT, DirtHelper.DIRTLIKE);
+		DirtHelper.registerSoil(Blocks.GRASS, DirtHelper.DIRTLIKE);
+		DirtHelper.registerSoil(ModBlocks.blockRootyDirt, DirtHelper.DIRTLIKE);
+		DirtHelper.registerSoil(ModBlocks.blockRootyDirtSpecies, DirtHelper.DIRTLIKE);
+		DirtHelper.registerSoil(Blocks.SAND, DirtHelper.SANDLIKE);
+		DirtHelper.registerSoil(ModBlocks.blockRootySand, DirtHelper.SANDLIKE);
+	}
+
+	/**
+	 * A stand-in for the Forge species registry so species can be looked up by name.  Only the
+	 * lookups and iteration the mod does are supported.
+	 */
+	@SuppressWarnings("unchecked")
+	private static IForgeRegistry<Species> createSpeciesRegistry() {
+		Map<ResourceLocation, Species> species = new LinkedHashMap<>();
+		return (IForgeRegistry<Species>) Proxy.newProxyInstance(TreeHarness.class.getClassLoader(), new Class<?>[] { IForgeRegistry.class }, (proxy, method, args) -> {
+			switch(method.getName()) {
+				case "register":
+					Species value = (Species) args[0];
+					species.put(value.getRegistryName(), value);
+					return null;
+				case "getValue": return species.getOrDefault(args[0], Species.NULLSPECIES);
+				case "containsKey": return species.containsKey(args[0]);
+				case "getKeys": return species.keySet();
+				case "getValues":
+				case "getValuesCollection": return new ArrayList<>(species.values());
+				case "iterator": return species.values().iterator();
+				case "forEach": species.values().forEach((Consumer<Species>) args[0]); return null;
+				case "hashCode": return System.identityHashCode(proxy);
+				case "equals": return proxy == args[0];
+				case "toString": return "SpeciesRegistry" + species.keySet();
+				default: throw new UnsupportedOperationException(method.getName());
+			}
+		});
+	}
+
+	///////////////////////////////////////////
+	// TREES
+	///////////////////////////////////////////
+
+	/**
+	 * Lay down a flat patch of grass on dirt with the surface at y.
+	 *
+	 * @param world The world
+	 * @param center The middle of the patch at the surface
+	 * @param radius The horizontal reach of the patch
+	 */
+	public static void ground(FakeWorld world, BlockPos center, int radius) {
+		world.fill(center.add(-radius, -3, -radius), center.add(radius, -1, radius), Blocks.DIRT.getDefaultState());
+		world.fill(center.add(-radius, 0, -radius), center.add(radius, 0, radius), Blocks.GRASS.getDefaultState());
+	}
+
+	/**
+	 * Look up one of the tree families the harness creates.
+	 *
+	 * @param name "oak", "jungle" or "darkoak"
+	 * @return The tree family
+	 */
+	public static TreeFamily family(String name) {
+		switch(name) {
+			case "oak": return oak;
+			case "jungle": return jungle;
+			case "darkoak": return darkOak;
+			default: throw new IllegalArgumentException("No tree family named " + name);
+		}
+	}
+
+	/**
+	 * Generate a tree on a patch of ground like world generation does, from one of the species'
+	 * JoCodes of the largest radius.
+	 *
+	 * @param world The world
+	 * @param species The species to generate
+	 * @param rootPos The surface block that becomes the rooty dirt
+	 * @param seed Picks the JoCode
+	 * @return true if a tree is standing on rootPos afterwards
+	 */
+	public static boolean plantTree(FakeWorld world, Species species, BlockPos rootPos, long seed) {
+		ground(world, rootPos, TREE_REACH);
+		JoCode code = species.getJoCodeStore().getRandomCode(8, new Random(seed));
+		code.generate(world, species, rootPos, world.getBiome(rootPos), EnumFacing.NORTH, 8, new SafeChunkBounds(world, new ChunkPos(rootPos)));
+		return TreeHelper.isRooty(world.getBlockState(rootPos)) && TreeHelper.isBranch(world.getBlockState(rootPos.up()));
+	}
+
+	/**
+	 * Take a snapshot of everything a tree planted by {@link #plantTree} can reach, the ground
+	 * included.
+	 */
+	public static FakeWorld.Snapshot snapshotTree(FakeWorld world, BlockPos rootPos) {
+		return world.snapshot(rootPos.add(-TREE_REACH, -3, -TREE_REACH), rootPos.add(TREE_REACH, TREE_HEIGHT, TREE_REACH));
+	}
+
+	/**
+	 * Build a branch network far bigger than anything that grows naturally.  Starting with a trunk
+	 * the network is extended one block at a time, mostly at the newest branches so the limbs get
+	 * long.  A block is only added if it doesn't touch any branch but the one it grows from so the
+	 * network never has loops.  The branches are thickened by the number of blocks beyond them.
+	 *
+	 * @param world The world
+	 * @param branch The branch block to build with
+	 * @param rootPos Where the rooty dirt goes.  The network grows up from the block above
+	 * @param numNodes The number of branch blocks wanted
+	 * @param seed The seed of the layout
+	 * @return The number of branch blocks placed.  Can fall short if the network runs out of room
+	 */
+	public static int plantNetwork(FakeWorld world, BlockBranch branch, BlockPos rootPos, int numNodes, long seed) {
+		Random rand = new Random(seed);
+		LongArrayList nodes = new LongArrayList(numNodes);
+		IntArrayList parents = new IntArrayList(numNodes);
+		LongOpenHashSet occupied = new LongOpenHashSet(numNodes);
+		EnumFacing[] growDirs = { EnumFacing.UP, EnumFacing.NORTH, EnumFacing.SOUTH, EnumFacing.WEST, EnumFacing.EAST };
+
+		world.putBlockState(rootPos, ModBlocks.blockRootyDirt.getDefaultState());
+		occupied.add(rootPos.toLong());
+
+		BlockPos pos = rootPos;
+		for(int i = 0; i < Math.min(16, numNodes); i++) {//A straight trunk so the branches stay clear of the ground
+			pos = pos.up();
+			occupied.add(pos.toLong());
+			parents.add(i - 1);
+			nodes.add(pos.toLong());
+		}
+
+		for(int attempts = 0; nodes.size() < numNodes && attempts < numNodes * 64; attempts++) {
+			int recent = Math.min(nodes.size(), 8);
+			int parent = rand.nextInt(4) != 0 ? nodes.size() - 1 - rand.nextInt(recent) : rand.nextInt(nodes.size());
+			BlockPos from = BlockPos.fromLong(nodes.getLong(parent));
+			EnumFacing dir = growDirs[rand.nextInt(growDirs.length)];
+			BlockPos next = from.offset(dir);
+			if(next.getY() >= 255 || occupied.contains(next.toLong()) || !isClear(occupied, next, dir.getOpposite())) {
+				continue;
+			}
+			occupied.add(next.toLong());
+			parents.add(parent);
+			nodes.add(next.toLong());
+		}
+
+		//Every node is added after it's parent so the blocks beyond each node can be summed up backwards
+		int[] beyond = new int[nodes.size()];
+		for(int i = nodes.size() - 1; i >= 0; i--) {
+			beyond[i]++;
+			if(parents.getInt(i) >= 0) {
+				beyond[parents.getInt(i)] += beyond[i];
+			}
+		}
+		for(int i = 0; i < nodes.size(); i++) {
+			int radius = MathHelper.clamp((int) Math.sqrt(beyond[i]), 1, BlockBranch.RADMAX_NORMAL);
+			world.putBlockState(BlockPos.fromLong(nodes.getLong(i)), branch.getStateForRadius(radius));
+		}
+
+		return nodes.size();
+	}
+
+	private static boolean isClear(LongOpenHashSet occupied, BlockPos pos, EnumFacing except) {
+		for(EnumFacing dir : EnumFacing.VALUES) {
+			if(dir != except && occupied.contains(pos.offset(dir).toLong())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
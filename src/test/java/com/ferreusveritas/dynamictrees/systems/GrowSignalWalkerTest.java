@@ -0,0 +1,131 @@
+package com.ferreusveritas.dynamictrees.systems;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.api.treedata.ITreePart;
+import com.ferreusveritas.dynamictrees.blocks.BlockBranchBasic;
+import com.ferreusveritas.dynamictrees.harness.FakeWorld;
+import com.ferreusveritas.dynamictrees.harness.RecursiveReference;
+import com.ferreusveritas.dynamictrees.harness.TreeHarness;
+import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.TreeWorldView;
+
+import net.minecraft.init.Biomes;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+
+/**
+ * The {@link GrowSignalWalker} has to grow a tree exactly like the recursive grow signal did.  Two
+ * copies of the same tree in two worlds get the same grow signals with the same seeds, one walked
+ * and one recursed, and have to come out the same block for block after every signal.
+ *
+ * @author ferreusveritas
+ */
+public class GrowSignalWalkerTest {
+
+	private static final long SEED = 42;
+	private static final int SIGNALS = 300;
+
+	private FakeWorld walkedWorld;
+	private FakeWorld recursedWorld;
+
+	@BeforeClass
+	public static void bootstrap() {
+		TreeHarness.bootstrap();
+	}
+
+	@After
+	public void unload() {
+		if(walkedWorld != null) {
+			walkedWorld.unload();
+			recursedWorld.unload();
+		}
+	}
+
+	@Test
+	public void oakGrowsAlike() {
+		growAlike("oak");
+	}
+
+	@Test
+	public void jungleGrowsAlike() {
+		growAlike("jungle");
+	}
+
+	@Test
+	public void darkOakGrowsAlike() {
+		growAlike("darkoak");
+	}
+
+	private void growAlike(String name) {
+		Species species = TreeHarness.family(name).getCommonSpecies();
+		BlockPos rootPos = new BlockPos(8, 64, 8);
+		BlockPos treePos = rootPos.up();
+
+		//The mod keeps it's tree data per dimension so the copies go in different ones
+		walkedWorld = new FakeWorld(Biomes.FOREST, 0);
+		recursedWorld = new FakeWorld(Biomes.FOREST, 1);
+		assertTrue("No " + name + " tree was generated", TreeHarness.plantTree(walkedWorld, species, rootPos, SEED));
+		TreeHarness.snapshotTree(walkedWorld, rootPos).restore(recursedWorld);
+		long writesBefore = walkedWorld.blockWrites;
+
+		for(int i = 0; i < SIGNALS; i++) {
+			if(!TreeHelper.isBranch(walkedWorld.getBlockState(treePos))) {
+				break;//The tree choked and shrank away
+			}
+			float energy = species.getEnergy(walkedWorld, rootPos);
+			GrowSignal walked = new GrowSignal(species, rootPos, energy);
+			GrowSignal recursed = new GrowSignal(species, rootPos, energy);
+			walked.rand = new Random(SEED + i);
+			recursed.rand = new Random(SEED + i);
+			walkedWorld.rand.setSeed(SEED + i);
+			recursedWorld.rand.setSeed(SEED + i);
+
+			TreeHelper.getTreePart(walkedWorld.getBlockState(treePos)).growSignal(walkedWorld, treePos, walked);
+			recurse(recursedWorld, treePos, recursed);
+
+			String signal = name + " signal " + i;
+			assertEquals(signal + " success", recursed.success, walked.success);
+			assertEquals(signal + " choked", recursed.choked, walked.choked);
+			assertEquals(signal + " changed", recursed.changed, walked.changed);
+			assertEquals(signal + " radius", recursed.radius, walked.radius, 0.0f);
+			assertEquals(signal + " steps", recursed.numSteps, walked.numSteps);
+			assertEquals(signal + " turns", recursed.numTurns, walked.numTurns);
+			assertSameBlocks(signal, rootPos);
+		}
+
+		assertTrue("The " + name + " tree didn't grow at all", walkedWorld.blockWrites > writesBefore);
+	}
+
+	/** Send the signal with the recursive grow signal, reading through a world view like the species does */
+	private static void recurse(FakeWorld world, BlockPos treePos, GrowSignal signal) {
+		TreeWorldView view = TreeWorldView.open(world);
+		try {
+			ITreePart treePart = TreeHelper.getTreePart(world.getBlockState(treePos));
+			if(GrowSignalWalker.isWalkable(treePart)) {
+				RecursiveReference.growSignal(world, (BlockBranchBasic) treePart, treePos, signal);
+			} else {
+				treePart.growSignal(world, treePos, signal);
+			}
+		} finally {
+			view.close();
+		}
+	}
+
+	private void assertSameBlocks(String signal, BlockPos rootPos) {
+		BlockPos min = rootPos.add(-TreeHarness.TREE_REACH, -3, -TreeHarness.TREE_REACH);
+		BlockPos max = rootPos.add(TreeHarness.TREE_REACH, TreeHarness.TREE_HEIGHT, TreeHarness.TREE_REACH);
+		for(MutableBlockPos pos : BlockPos.getAllInBoxMutable(min, max)) {
+			assertEquals(signal + " at " + pos, recursedWorld.getBlockState(pos), walkedWorld.getBlockState(pos));
+		}
+	}
+
+}
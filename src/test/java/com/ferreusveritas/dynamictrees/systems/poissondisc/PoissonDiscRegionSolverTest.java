@@ -0,0 +1,126 @@
+package com.ferreusveritas.dynamictrees.systems.poissondisc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.worldgen.IRadiusCoordinator;
+
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.IChunkProvider;
+
+/**
+ * Checks the region solver against the provider generating the same chunks one after another.
+ *
+ * @author ferreusveritas
+ */
+public class PoissonDiscRegionSolverTest {
+
+	private static final long SEED = 1234567L;
+	private static final int CENTER_X = -3;
+	private static final int CENTER_Z = 5;
+	private static final int RADIUS = 6;
+
+	/** Stands in for the biome radius coordinator.  Gives a mix of every radius without needing a world */
+	private static class HashRadiusCoordinator implements IRadiusCoordinator {
+
+		@Override
+		public int getRadiusAtCoords(int x, int z) {
+			int kindaRandom = ((x * 674365771) ^ (z * 254326997)) >> 4;
+			return 2 + (kindaRandom & 0x7FFFFFFF) % 7;
+		}
+
+		@Override
+		public boolean runPass(int chunkX, int chunkZ, int pass) {
+			return pass == 0;
+		}
+
+	}
+
+	/** A world where nothing is loaded so nothing is protected from eviction */
+	private static class UnloadedChunkProvider implements IChunkProvider {
+		@Override public Chunk getLoadedChunk(int x, int z) { return null; }
+		@Override public Chunk provideChunk(int x, int z) { return null; }
+		@Override public boolean tick() { return false; }
+		@Override public String makeString() { return "Unloaded"; }
+		@Override public boolean isChunkGeneratedAt(int x, int z) { return false; }
+	}
+
+	@Before
+	public void setup() {
+		ModConfigs.poissonDiscCacheMaxEntries = 256;
+		ModConfigs.poissonDiscCacheMaxKiB = 2048;
+	}
+
+	@Test
+	public void solverMatchesProviderGeneratingRowByRow() {
+		PoissonDiscProvider serial = new PoissonDiscProvider(new HashRadiusCoordinator());
+		serial.setSeed(SEED);
+		for(int z = CENTER_Z - RADIUS; z <= CENTER_Z + RADIUS; z++) {
+			for(int x = CENTER_X - RADIUS; x <= CENTER_X + RADIUS; x++) {
+				serial.getPoissonDiscs(x, 0, z);
+			}
+		}
+
+		PoissonDiscProvider provider = new PoissonDiscProvider(new HashRadiusCoordinator());
+		provider.setSeed(SEED);
+		PoissonDiscRegionSolver solver = new PoissonDiscRegionSolver(null, provider, CENTER_X, CENTER_Z, RADIUS, HashRadiusCoordinator::new);
+		assertEquals((RADIUS * 2 + 1) * (RADIUS * 2 + 1), solver.getNumToSolve());
+
+		byte[][] parallel = solver.solve(true);
+		assertEquals(0, solver.countMismatches(parallel, solver.solve(false)));
+		assertEquals(0, solver.countMismatches(parallel, solver.solveReference()));
+
+		solver.commit(parallel);
+		for(int z = CENTER_Z - RADIUS; z <= CENTER_Z + RADIUS; z++) {
+			for(int x = CENTER_X - RADIUS; x <= CENTER_X + RADIUS; x++) {
+				assertArrayEquals("Chunk " + x + ", " + z, serial.getChunkPoissonData(x, 0, z), provider.peekChunkPoissonData(x, z));
+			}
+		}
+	}
+
+	@Test
+	public void discsDontDependOnGenerationOrder() {
+		PoissonDiscProvider forward = new PoissonDiscProvider(new HashRadiusCoordinator());
+		PoissonDiscProvider backward = new PoissonDiscProvider(new HashRadiusCoordinator());
+		forward.setSeed(SEED);
+		backward.setSeed(SEED);
+
+		//Two chunks far apart have no neighbors in common so each starts from a random root disc
+		forward.getPoissonDiscs(0, 0, 0);
+		forward.getPoissonDiscs(100, 0, 100);
+		backward.getPoissonDiscs(100, 0, 100);
+		backward.getPoissonDiscs(0, 0, 0);
+
+		assertArrayEquals(forward.getChunkPoissonData(0, 0, 0), backward.getChunkPoissonData(0, 0, 0));
+		assertArrayEquals(forward.getChunkPoissonData(100, 0, 100), backward.getChunkPoissonData(100, 0, 100));
+	}
+
+	@Test
+	public void solvedChunksArePinnedUntilSaved() {
+		PoissonDiscProvider provider = new PoissonDiscProvider(new HashRadiusCoordinator(), new UnloadedChunkProvider());
+		provider.setSeed(SEED);
+		PoissonDiscRegionSolver solver = new PoissonDiscRegionSolver(null, provider, 0, 0, 12, HashRadiusCoordinator::new);
+		byte[][] data = solver.solve(true);
+		solver.commit(data);
+		assertEquals(25 * 25, provider.getNumSolved());
+
+		//Push far more chunks than the cache holds through it
+		for(int x = 1000; x < 1000 + PoissonDiscProvider.getMaxEntries() * 2; x++) {
+			provider.getPoissonDiscs(x, 0, 1000);
+		}
+		assertTrue(provider.getNumEntries() <= PoissonDiscProvider.getMaxEntries());
+		assertEquals(25 * 25, provider.getNumSolved());
+		assertTrue(provider.isChunkSolved(12, 12));
+
+		//Saving the chunk hands the discs over to the cache
+		byte[] saved = provider.getChunkPoissonData(12, 0, 12);
+		assertEquals(25 * 25 - 1, provider.getNumSolved());
+		assertArrayEquals(provider.peekChunkPoissonData(12, 12), saved);
+	}
+
+}
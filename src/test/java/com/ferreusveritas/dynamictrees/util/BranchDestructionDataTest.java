@@ -0,0 +1,134 @@
+package com.ferreusveritas.dynamictrees.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.ferreusveritas.dynamictrees.harness.FakeWorld;
+import com.ferreusveritas.dynamictrees.harness.TreeHarness;
+import com.ferreusveritas.dynamictrees.trees.TreeFamily;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * The wire format of {@link BranchDestructionData} has to give back what was put in.  The branches
+ * and leaves are compared by position since their order isn't kept, except for the branch at the
+ * cut which has to stay first.
+ *
+ * @author ferreusveritas
+ */
+public class BranchDestructionDataTest {
+
+	private FakeWorld world;
+
+	@BeforeClass
+	public static void bootstrap() {
+		TreeHarness.bootstrap();
+	}
+
+	@After
+	public void unload() {
+		if(world != null) {
+			world.unload();
+		}
+	}
+
+	@Test
+	public void oakRoundTrip() {
+		roundTrip("oak");
+	}
+
+	@Test
+	public void jungleRoundTrip() {
+		roundTrip("jungle");
+	}
+
+	@Test
+	public void darkOakRoundTrip() {
+		roundTrip("darkoak");
+	}
+
+	private void roundTrip(String name) {
+		BranchDestructionData data = fell(name);
+		assertTrue(name + " tree has no leaves", data.getNumLeaves() > 0);
+
+		ByteBuf buf = Unpooled.buffer();
+		data.writeToBuf(buf);
+		int bufSize = buf.readableBytes();
+		BranchDestructionData decoded = new BranchDestructionData(buf);
+		assertEquals("Whole payload read", 0, buf.readableBytes());
+
+		assertSame(data.species, decoded.species);
+		assertEquals(data.cutPos, decoded.cutPos);
+		assertEquals(data.cutDir, decoded.cutDir);
+		assertEquals(data.toolDir, decoded.toolDir);
+		assertEquals(data.trunkHeight, decoded.trunkHeight);
+		assertEquals(data.woodVolume, decoded.woodVolume, 0.0f);
+		assertArrayEquals(data.endPoints, decoded.endPoints);
+
+		assertEquals(data.getNumBranches(), decoded.getNumBranches());
+		assertEquals("Cut branch stays first", data.destroyedBranchesRadiusPosition[0], decoded.destroyedBranchesRadiusPosition[0]);
+		assertEquals(branches(data), branches(decoded));
+
+		assertEquals(data.getNumLeaves(), decoded.getNumLeaves());
+		assertEquals(leaves(data), leaves(decoded));
+
+		int nbtSize = nbtSize(data);
+		assertTrue(name + " with " + data.getNumBranches() + " branches and " + data.getNumLeaves() + " leaves is " + bufSize + " bytes as a ByteBuf and " + nbtSize + " bytes as NBT", bufSize < nbtSize);
+	}
+
+	/** Generate a tree and cut it down at the base of the trunk */
+	private BranchDestructionData fell(String name) {
+		world = new FakeWorld();
+		TreeFamily family = TreeHarness.family(name);
+		BlockPos rootPos = new BlockPos(8, 64, 8);
+		assertTrue("No " + name + " tree was generated", TreeHarness.plantTree(world, family.getCommonSpecies(), rootPos, 42));
+		return family.getDynamicBranch().destroyBranchFromNode(world, rootPos.up(), EnumFacing.NORTH, true);
+	}
+
+	/** @return Every branch position with it's radius, connections and block index */
+	private static Map<Integer, String> branches(BranchDestructionData data) {
+		Map<Integer, String> map = new HashMap<>();
+		for(int i = 0; i < data.getNumBranches(); i++) {
+			map.put(data.destroyedBranchesRadiusPosition[i] & 0xFFFFFF, data.getBranchRadius(i) + "/" + data.destroyedBranchesConnections[i] + "/" + data.destroyedBranchesBlockIndex[i]);
+		}
+		return map;
+	}
+
+	/** @return Every leaves position with it's hydration and block index */
+	private static Map<Integer, String> leaves(BranchDestructionData data) {
+		Map<Integer, String> map = new HashMap<>();
+		for(int i = 0; i < data.getNumLeaves(); i++) {
+			map.put(data.destroyedLeaves[i] & 0xFFFFFF, data.getLeavesHydro(i) + "/" + data.destroyedLeavesBlockIndex[i]);
+		}
+		return map;
+	}
+
+	/** @return The size of the NBT encoding as it would be written to a packet */
+	private static int nbtSize(BranchDestructionData data) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(DataOutputStream out = new DataOutputStream(bytes)) {
+			CompressedStreamTools.write(data.writeToNBT(new NBTTagCompound()), out);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return bytes.size();
+	}
+
+}
@@ -0,0 +1,124 @@
+package com.ferreusveritas.dynamictrees.worldgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.ferreusveritas.dynamictrees.ModConfigs;
+import com.ferreusveritas.dynamictrees.api.TreeHelper;
+import com.ferreusveritas.dynamictrees.harness.FakeWorld;
+import com.ferreusveritas.dynamictrees.harness.TreeHarness;
+import com.ferreusveritas.dynamictrees.systems.EndpointTracker;
+import com.ferreusveritas.dynamictrees.trees.Species;
+import com.ferreusveritas.dynamictrees.util.SafeChunkBounds;
+
+import net.minecraft.init.Biomes;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.BlockPos.MutableBlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+/**
+ * {@link JoCode#plan} works out the branch thicknesses, leaves and endpoints of a tree the way the
+ * node inflator and end finder do it in the world.  Two copies of the same ground get the same
+ * tree, one generated directly and one planned on a {@link WorldGenSnapshot} and placed from the
+ * blueprint like the {@link TreePlanner} does, and have to come out the same block for block.
+ *
+ * @author ferreusveritas
+ */
+public class JoCodePlanTest {
+
+	private static final long[] SEEDS = { 1, 2, 3 };
+	private static final int[] RADII = { 5, 8 };
+	private static final EnumFacing[] FACINGS = { EnumFacing.NORTH, EnumFacing.EAST };
+
+	private FakeWorld directWorld;
+	private FakeWorld plannedWorld;
+
+	@BeforeClass
+	public static void bootstrap() {
+		TreeHarness.bootstrap();
+	}
+
+	@After
+	public void unload() {
+		if(directWorld != null) {
+			directWorld.unload();
+			plannedWorld.unload();
+		}
+		ModConfigs.precompileJoCodes = true;
+	}
+
+	@Test
+	public void oakPlansAlike() {
+		planAlike("oak");
+	}
+
+	@Test
+	public void junglePlansAlike() {
+		planAlike("jungle");
+	}
+
+	@Test
+	public void darkOakPlansAlike() {
+		planAlike("darkoak");
+	}
+
+	private void planAlike(String name) {
+		Species species = TreeHarness.family(name).getCommonSpecies();
+		assertTrue(name + " is plannable", TreePlanner.isPlannable(species));
+
+		for(long seed : SEEDS) {
+			for(int radius : RADII) {
+				JoCode code = species.getJoCodeStore().getRandomCode(radius, new Random(seed));
+				for(EnumFacing facing : FACINGS) {
+					planAlike(name + " seed " + seed + " radius " + radius + " " + facing.getName(), species, code, facing, radius);
+				}
+			}
+		}
+	}
+
+	private void planAlike(String tree, Species species, JoCode code, EnumFacing facing, int radius) {
+		BlockPos rootPos = new BlockPos(8, 64, 8);
+		BlockPos treePos = rootPos.up();
+
+		//The mod keeps it's tree data per dimension so the copies go in different ones
+		unload();
+		ModConfigs.precompileJoCodes = false;//Otherwise the direct tree would be stamped from a blueprint as well
+		directWorld = new FakeWorld(Biomes.FOREST, 0);
+		plannedWorld = new FakeWorld(Biomes.FOREST, 1);
+		TreeHarness.ground(directWorld, rootPos, TreeHarness.TREE_REACH);
+		TreeHarness.ground(plannedWorld, rootPos, TreeHarness.TREE_REACH);
+		SafeChunkBounds directBounds = new SafeChunkBounds(directWorld, new ChunkPos(rootPos));
+		SafeChunkBounds plannedBounds = new SafeChunkBounds(plannedWorld, new ChunkPos(rootPos));
+
+		WorldGenSnapshot snapshot = new WorldGenSnapshot(plannedWorld, treePos.add(-radius - 1, -1, -radius - 1), treePos.add(radius + 1, species.getWorldGenLeafMapHeight(), radius + 1));
+		TreeBlueprint blueprint = code.plan(snapshot, species, rootPos, facing, radius);
+		assertNotNull(tree + " was planned", blueprint);
+		TreePlanner.solveLeaves(blueprint.getLeafMap(), snapshot, species.getLeavesProperties(), plannedBounds);
+
+		directWorld.rand.setSeed(42);
+		plannedWorld.rand.setSeed(42);
+		code.generateAt(directWorld, species, rootPos, rootPos, directWorld.getBiome(rootPos), facing, radius, directBounds);
+		assertTrue(tree + " blueprint was placed", code.generate(plannedWorld, species, blueprint, plannedWorld.getBiome(rootPos), plannedBounds));
+
+		assertTrue(tree + " was generated", TreeHelper.isBranch(directWorld.getBlockState(treePos)));
+		BlockPos min = rootPos.add(-TreeHarness.TREE_REACH, -3, -TreeHarness.TREE_REACH);
+		BlockPos max = rootPos.add(TreeHarness.TREE_REACH, TreeHarness.TREE_HEIGHT, TreeHarness.TREE_REACH);
+		for(MutableBlockPos pos : BlockPos.getAllInBoxMutable(min, max)) {
+			assertEquals(tree + " at " + pos, directWorld.getBlockState(pos), plannedWorld.getBlockState(pos));
+		}
+
+		assertEquals(tree + " endpoints",
+			new HashSet<>(EndpointTracker.findEnds(directWorld, rootPos, treePos, TreeHelper.getTreePart(directWorld.getBlockState(treePos)))),
+			new HashSet<>(EndpointTracker.findEnds(plannedWorld, rootPos, treePos, TreeHelper.getTreePart(plannedWorld.getBlockState(treePos)))));
+	}
+
+}